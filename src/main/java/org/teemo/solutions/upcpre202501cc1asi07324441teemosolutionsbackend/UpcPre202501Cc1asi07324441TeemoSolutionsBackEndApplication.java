@@ -7,7 +7,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.ai.configuration.NoaaAlertsProperties;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.infrastructure.configuration.JwtProperties;
 
 import java.time.Clock;
@@ -15,8 +17,9 @@ import java.time.Clock;
 @SpringBootApplication(scanBasePackages = "org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend")
 @EnableMongoRepositories
 @EnableMongoAuditing
+@EnableScheduling
 @Configuration
-@EnableConfigurationProperties({JwtProperties.class, NoaaAlertsProperties.class})
+@EnableConfigurationProperties({JwtProperties.class, NoaaAlertsProperties.class, RoutingProperties.class})
 public class UpcPre202501Cc1asi07324441TeemoSolutionsBackEndApplication {
 
     public static void main(String[] args) {
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.*;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.ai.dto.*;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.ai.service.WeatherHazardDetectionService;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.ai.service.WeatherHazardDetectionService.HazardEval;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.domain.model.valueobjects.Geodesy;
 
 import java.time.Instant;
 import java.time.ZoneOffset;
@@ -89,7 +90,7 @@ public class HazardAssessmentController {
         out.setSeason(seasonOf(month));
         out.setHemisphere(hemisphereOf((req.getOriginLat() + req.getDestLat()) / 2.0));
 
-        double routeKm = haversineKm(req.getOriginLat(), req.getOriginLon(), req.getDestLat(), req.getDestLon());
+        double routeKm = Geodesy.haversineKm(req.getOriginLat(), req.getOriginLon(), req.getDestLat(), req.getDestLon());
         out.setRouteDistanceKm(routeKm);
 
         if (req.getCruiseSpeedKnots() != null && req.getCruiseSpeedKnots() > 0) {
@@ -181,17 +182,6 @@ public class HazardAssessmentController {
         };
     }
 
-    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
-        final double R = 6371.0088;
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat/2) * Math.sin(dLat/2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(dLon/2) * Math.sin(dLon/2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
-    }
-
     private static double clamp01(double x) {
         return Math.max(0.0, Math.min(1.0, x));
     }
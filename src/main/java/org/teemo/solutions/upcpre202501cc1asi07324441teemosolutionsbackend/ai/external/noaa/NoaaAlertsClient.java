@@ -47,41 +47,65 @@ public class NoaaAlertsClient {
             return List.of();
         }
 
-        URI uri = buildUri(latA, lonA, latB, lonB);
+        URI uri = buildUri(
+                Math.min(latA, latB) - properties.getLatPaddingDeg(),
+                Math.max(latA, latB) + properties.getLatPaddingDeg(),
+                Math.min(lonA, lonB) - properties.getLonPaddingDeg(),
+                Math.max(lonA, lonB) + properties.getLonPaddingDeg());
         try {
-            NoaaAlertResponse response = webClient.get()
-                    .uri(uri)
-                    .retrieve()
-                    .bodyToMono(NoaaAlertResponse.class)
-                    .block(properties.getTimeout());
-
-            if (response == null || CollectionUtils.isEmpty(response.features)) {
-                return List.of();
-            }
-
-            double fallbackLat = (latA + latB) / 2.0;
-            double fallbackLon = (lonA + lonB) / 2.0;
             int month = departure.atZone(ZoneOffset.UTC).getMonthValue();
-
-            List<WeatherHazardProbability> hazards = new ArrayList<>();
-            for (NoaaAlertResponse.Feature feature : response.features) {
-                WeatherHazardProbability hz = mapFeature(feature, month, fallbackLat, fallbackLon);
-                if (hz != null) {
-                    hazards.add(hz);
-                }
-            }
-            return hazards;
+            return fetch(uri, month, (latA + latB) / 2.0, (lonA + lonB) / 2.0);
         } catch (Exception ex) {
             log.warn("Fallo consultando alertas NOAA en {}: {}", uri, ex.getMessage());
             return List.of();
         }
     }
 
-    private URI buildUri(double latA, double lonA, double latB, double lonB) {
-        double minLat = clampLat(Math.min(latA, latB) - properties.getLatPaddingDeg());
-        double maxLat = clampLat(Math.max(latA, latB) + properties.getLatPaddingDeg());
-        double minLon = clampLon(Math.min(lonA, lonB) - properties.getLonPaddingDeg());
-        double maxLon = clampLon(Math.max(lonA, lonB) + properties.getLonPaddingDeg());
+    /**
+     * Alertas de ciclón activas en una región, sólo las que traen geometría (sin centro aproximado por defecto).
+     * A diferencia de {@link #fetchActiveCycloneAlerts}, los fallos se propagan para que el llamador pueda conservar
+     * los datos anteriores.
+     */
+    public List<WeatherHazardProbability> fetchActiveCycloneAlertsInRegion(
+            double minLat, double minLon,
+            double maxLat, double maxLon,
+            Instant now
+    ) {
+        if (!properties.isEnabled()) {
+            return List.of();
+        }
+        int month = now.atZone(ZoneOffset.UTC).getMonthValue();
+        return fetch(buildUri(minLat, maxLat, minLon, maxLon), month, Double.NaN, Double.NaN).stream()
+                .filter(hz -> !Double.isNaN(hz.getLatCenter()) && !Double.isNaN(hz.getLonCenter()))
+                .toList();
+    }
+
+    private List<WeatherHazardProbability> fetch(URI uri, int month, double fallbackLat, double fallbackLon) {
+        NoaaAlertResponse response = webClient.get()
+                .uri(uri)
+                .retrieve()
+                .bodyToMono(NoaaAlertResponse.class)
+                .block(properties.getTimeout());
+
+        if (response == null || CollectionUtils.isEmpty(response.features)) {
+            return List.of();
+        }
+
+        List<WeatherHazardProbability> hazards = new ArrayList<>();
+        for (NoaaAlertResponse.Feature feature : response.features) {
+            WeatherHazardProbability hz = mapFeature(feature, month, fallbackLat, fallbackLon);
+            if (hz != null) {
+                hazards.add(hz);
+            }
+        }
+        return hazards;
+    }
+
+    private URI buildUri(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {
+        double minLat = clampLat(minLatitude);
+        double maxLat = clampLat(maxLatitude);
+        double minLon = clampLon(minLongitude);
+        double maxLon = clampLon(maxLongitude);
 
         String bbox = String.format(Locale.US, "%.2f,%.2f,%.2f,%.2f", minLon, minLat, maxLon, maxLat);
 
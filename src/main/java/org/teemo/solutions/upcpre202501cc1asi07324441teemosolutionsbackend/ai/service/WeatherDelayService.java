@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.ai.dto.WeatherDelayRequest;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.ai.dto.WeatherDelayResponse;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.domain.model.valueobjects.Geodesy;
 
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
@@ -66,7 +67,7 @@ public class WeatherDelayService {
             if (req.getDistanceKm() == null) {
                 if (req.getOriginLat() != null && req.getOriginLon() != null
                         && req.getDestLat() != null && req.getDestLon() != null) {
-                    double dKm = haversineKm(req.getOriginLat(), req.getOriginLon(), req.getDestLat(), req.getDestLon());
+                    double dKm = Geodesy.haversineKm(req.getOriginLat(), req.getOriginLon(), req.getDestLat(), req.getDestLon());
                     req.setDistanceKm(dKm);
                 } else {
                     throw new IllegalArgumentException("distanceKm es requerido si no se proporcionan coordenadas de origen y destino.");
@@ -83,7 +84,7 @@ public class WeatherDelayService {
             // Si llegaron coordenadas, volvemos a priorizar la distancia del TRAMO por seguridad
             if (req.getOriginLat() != null && req.getOriginLon() != null
                     && req.getDestLat() != null && req.getDestLon() != null) {
-                double dKm = haversineKm(req.getOriginLat(), req.getOriginLon(), req.getDestLat(), req.getDestLon());
+                double dKm = Geodesy.haversineKm(req.getOriginLat(), req.getOriginLon(), req.getDestLat(), req.getDestLon());
                 if (dKm > 1.0) { // distancia válida
                     distanceKm = (float) dKm;
                     // knots -> km/h: 1 kn = 1.852 km/h
@@ -250,16 +251,4 @@ public class WeatherDelayService {
             target.put(key, value);
         }
     }
-
-    // ====== Util: distancia geodésica para tramo ======
-    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
-        final double R = 6371.0088; // km
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat/2)*Math.sin(dLat/2)
-                + Math.cos(Math.toRadians(lat1))*Math.cos(Math.toRadians(lat2))
-                * Math.sin(dLon/2)*Math.sin(dLon/2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1-a));
-        return R * c;
-    }
 }
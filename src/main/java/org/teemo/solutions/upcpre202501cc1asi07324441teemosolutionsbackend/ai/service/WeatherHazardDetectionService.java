@@ -125,6 +125,18 @@ public class WeatherHazardDetectionService {
         return eval;
     }
 
+    /**
+     * Probabilidad climatológica de peligro en el tramo (máximo de hielo, huracán y mareaje) sin consultar NOAA.
+     * Es barata y determinista, así que sirve para precalcular el riesgo de todas las aristas del grafo.
+     * @param month Mes de navegación (1-12).
+     */
+    public double climatologicalProbability(double latA, double lonA, double latB, double lonB, int month) {
+        double maxProb = iceProbabilityAlongRoute(latA, latB, month);
+        maxProb = Math.max(maxProb, hurricaneProbability(latA, lonA, latB, lonB, month));
+        maxProb = Math.max(maxProb, swellProbability(latA, lonA, latB, lonB));
+        return clamp01(maxProb);
+    }
+
     private static boolean isColdSeason(int month) {
         // Dic(12), Ene(1), Feb(2), Mar(3)
         return month == 12 || month <= 3;
@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.domain.model.valueobjects.Geodesy;
 
 import java.time.Instant;
 import java.time.ZoneOffset;
@@ -32,50 +33,16 @@ public class WeatherProvider {
     /** Devuelve N waypoints (excluye el origen, incluye el destino) a lo largo del gran-círculo. */
     public List<double[]> greatCircleWaypoints(double lat1Deg, double lon1Deg,
                                                double lat2Deg, double lon2Deg, int points) {
-        // conversión a radianes
-        double lat1 = Math.toRadians(lat1Deg), lon1 = Math.toRadians(lon1Deg);
-        double lat2 = Math.toRadians(lat2Deg), lon2 = Math.toRadians(lon2Deg);
-
-        // convertir a vectores 3D en la esfera unidad
-        double[] p1 = sphToCart(lat1, lon1);
-        double[] p2 = sphToCart(lat2, lon2);
-
-        // ángulo entre p1 y p2
-        double omega = Math.acos(clamp(dot(p1, p2), -1.0, 1.0));
-
-        List<double[]> out = new ArrayList<>();
-        for (int i = 1; i <= points; i++) {
-            double f = (double) i / (double) points; // 0..1
-            double sinOmega = Math.sin(omega);
-            double a = Math.sin((1 - f) * omega) / sinOmega;
-            double b = Math.sin(f * omega) / sinOmega;
-            double[] p = new double[] {
-                    a * p1[0] + b * p2[0],
-                    a * p1[1] + b * p2[1],
-                    a * p1[2] + b * p2[2]
-            };
-            // normaliza y convierte a lat/lon
-            double norm = Math.sqrt(p[0]*p[0] + p[1]*p[1] + p[2]*p[2]);
-            p[0] /= norm; p[1] /= norm; p[2] /= norm;
-            double lat = Math.asin(p[2]);
-            double lon = Math.atan2(p[1], p[0]);
-            out.add(new double[] { Math.toDegrees(lat), normalizeLonDeg(Math.toDegrees(lon)) });
+        double[] lats = new double[points];
+        double[] lons = new double[points];
+        Geodesy.greatCircleWaypoints(lat1Deg, lon1Deg, lat2Deg, lon2Deg, points, lats, lons);
+        List<double[]> out = new ArrayList<>(points + 1);
+        for (int i = 0; i < points; i++) {
+            out.add(new double[] { lats[i], lons[i] });
         }
         return out;
     }
 
-    private static double[] sphToCart(double lat, double lon) {
-        double clat = Math.cos(lat);
-        return new double[] { clat * Math.cos(lon), clat * Math.sin(lon), Math.sin(lat) };
-    }
-    private static double dot(double[] a, double[] b) { return a[0]*b[0]+a[1]*b[1]+a[2]*b[2]; }
-    private static double clamp(double v, double lo, double hi){ return Math.max(lo, Math.min(hi, v)); }
-    private static double normalizeLonDeg(double lon){
-        // normaliza a [-180,180)
-        lon = ((lon + 180) % 360 + 360) % 360 - 180;
-        return lon;
-    }
-
     /** ========= LLAMADAS A OPEN-METEO ========= */
 
     /** Obtiene promedio horario de viento (knots) y ola máxima (m) para un punto [lat,lon] y rango [start,end]. */
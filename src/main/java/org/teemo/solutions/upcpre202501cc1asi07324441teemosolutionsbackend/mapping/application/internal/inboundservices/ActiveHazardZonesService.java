@@ -0,0 +1,87 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.ai.dto.WeatherHazardProbability;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.ai.external.noaa.NoaaAlertsClient;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardZone;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardZonesSnapshot;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.HazardZoneProvider;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Mantiene en memoria las alertas de ciclón activas de NOAA como un {@link HazardZonesSnapshot} inmutable.
+ * Se recargan cada {@code routing.hazards.refresh-interval} en segundo plano, de modo que el cálculo de rutas nunca
+ * espera a la red; si una recarga falla se conserva el snapshot anterior.
+ */
+@Service
+public class ActiveHazardZonesService implements HazardZoneProvider {
+    private static final Logger logger = LoggerFactory.getLogger(ActiveHazardZonesService.class);
+
+    private final NoaaAlertsClient noaaAlertsClient;
+    private final RoutingProperties routingProperties;
+    private final Clock clock;
+
+    private volatile HazardZonesSnapshot snapshot = HazardZonesSnapshot.EMPTY;
+
+    public ActiveHazardZonesService(NoaaAlertsClient noaaAlertsClient, RoutingProperties routingProperties, Clock clock,
+                                    MeterRegistry meterRegistry) {
+        this.noaaAlertsClient = noaaAlertsClient;
+        this.routingProperties = routingProperties;
+        this.clock = clock;
+        meterRegistry.gauge("routing_active_hazard_zones", this, service -> service.snapshot.zones().size());
+    }
+
+    @Override
+    public HazardZonesSnapshot getActiveHazardZones() {
+        return snapshot;
+    }
+
+    /**
+     * Relee las alertas activas y publica un snapshot nuevo. La versión sólo aumenta si las zonas cambiaron.
+     * @return El snapshot vigente tras la recarga.
+     */
+    @Scheduled(fixedDelayString = "${routing.hazards.refresh-interval:PT5M}")
+    public synchronized HazardZonesSnapshot refresh() {
+        RoutingProperties.Hazards settings = routingProperties.getHazards();
+        HazardZonesSnapshot previous = snapshot;
+        if (!settings.isEnabled()) {
+            return previous;
+        }
+        List<HazardZone> zones;
+        try {
+            zones = noaaAlertsClient.fetchActiveCycloneAlertsInRegion(
+                            settings.getRegionMinLatitude(), settings.getRegionMinLongitude(),
+                            settings.getRegionMaxLatitude(), settings.getRegionMaxLongitude(), clock.instant())
+                    .stream()
+                    .map(ActiveHazardZonesService::toZone)
+                    .filter(Objects::nonNull)
+                    .toList();
+        } catch (RuntimeException e) {
+            logger.warn("hazards.zones.refresh_failed version={} error={}", previous.version(), e.getMessage());
+            return previous;
+        }
+        if (previous.zones().equals(zones)) {
+            return previous;
+        }
+        HazardZonesSnapshot refreshed = new HazardZonesSnapshot(zones, previous.version() + 1, clock.instant());
+        snapshot = refreshed;
+        logger.info("hazards.zones.published version={} zones={}", refreshed.version(), zones.size());
+        return refreshed;
+    }
+
+    private static HazardZone toZone(WeatherHazardProbability hazard) {
+        if (hazard.getLatCenter() == null || hazard.getLonCenter() == null || hazard.getRadiusKm() == null) {
+            return null;
+        }
+        return new HazardZone(hazard.getType(), hazard.getZoneName(), hazard.getLatCenter(), hazard.getLonCenter(),
+                hazard.getRadiusKm(), hazard.getProbability());
+    }
+}
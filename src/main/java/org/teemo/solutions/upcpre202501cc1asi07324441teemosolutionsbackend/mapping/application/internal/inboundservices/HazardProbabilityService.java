@@ -0,0 +1,33 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices;
+
+import org.springframework.stereotype.Service;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.ai.service.WeatherHazardDetectionService;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.HazardProbabilityProvider;
+
+import java.time.Month;
+
+/**
+ * Adapta la heurística climatológica de {@link WeatherHazardDetectionService} al grafo de rutas. Las alertas NOAA en
+ * tiempo real no se consultan aquí: siguen evaluándose por ruta completa en el servicio de peligros.
+ */
+@Service
+public class HazardProbabilityService implements HazardProbabilityProvider {
+
+    private final WeatherHazardDetectionService weatherHazardDetectionService;
+
+    public HazardProbabilityService(WeatherHazardDetectionService weatherHazardDetectionService) {
+        this.weatherHazardDetectionService = weatherHazardDetectionService;
+    }
+
+    @Override
+    public double hazardProbability(Port from, Port to, Month month) {
+        if (from.getCoordinates() == null || to.getCoordinates() == null) {
+            return 0.0;
+        }
+        return weatherHazardDetectionService.climatologicalProbability(
+                from.getCoordinates().latitude(), from.getCoordinates().longitude(),
+                to.getCoordinates().latitude(), to.getCoordinates().longitude(),
+                month.getValue());
+    }
+}
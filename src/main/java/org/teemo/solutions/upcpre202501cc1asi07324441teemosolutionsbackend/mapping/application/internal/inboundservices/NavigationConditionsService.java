@@ -41,13 +41,18 @@ public class NavigationConditionsService implements NavigationConditionsProvider
 
     @Override
     public double getAdjustedCost(Route route, Port homePort, Port destinationPort, Clock clock) {
+        return getAdjustedCost(route, homePort, destinationPort, LocalDate.now(clock).getMonth());
+    }
+
+    @Override
+    public double getAdjustedCost(Route route, Port homePort, Port destinationPort, Month month) {
         double baseDistance = route.getDistance();
 
         // El cálculo de ajuste del monzón ahora es más limpio.
-        double monsoonAdjustment = calculateMonsoonAdjustment(homePort, baseDistance, clock) +
-                calculateMonsoonAdjustment(destinationPort, baseDistance, clock);
+        double monsoonAdjustment = calculateMonsoonAdjustment(homePort, baseDistance, month) +
+                calculateMonsoonAdjustment(destinationPort, baseDistance, month);
 
-        double arcticPenalty = calculateArcticPenalty(route, clock);
+        double arcticPenalty = calculateArcticPenalty(route, month);
 
         return baseDistance + monsoonAdjustment + arcticPenalty;
     }
@@ -63,28 +68,20 @@ public class NavigationConditionsService implements NavigationConditionsProvider
         return isInGulfStreamArea(from) && isDirectionWest(from, to);
     }
 
-    private double calculateMonsoonAdjustment(Port port, double baseDistance, Clock clock) {
-        if (isMonsoonSeason(clock) && isInMonsoonZone(port)) {
+    private double calculateMonsoonAdjustment(Port port, double baseDistance, Month month) {
+        if (MONSOON_MONTHS.contains(month) && isInMonsoonZone(port)) {
             return baseDistance * MONSOON_ADJUSTMENT_FACTOR;
         }
         return 0.0;
     }
 
-    private double calculateArcticPenalty(Route route, Clock clock) {
-        if (isArcticRoute(route) && !isSummerArctic(clock)) {
+    private double calculateArcticPenalty(Route route, Month month) {
+        if (isArcticRoute(route) && !ARCTIC_SUMMER_MONTHS.contains(month)) {
             return ARCTIC_ICE_PENALTY;
         }
         return 0.0;
     }
 
-    private boolean isMonsoonSeason(Clock clock) {
-        return MONSOON_MONTHS.contains(LocalDate.now(clock).getMonth());
-    }
-
-    private boolean isSummerArctic(Clock clock) {
-        return ARCTIC_SUMMER_MONTHS.contains(LocalDate.now(clock).getMonth());
-    }
-
     private boolean isInMonsoonZone(Port port) {
         Coordinates coords = port.getCoordinates();
         return coords.longitude() > MONSOON_MIN_LON &&
@@ -3,26 +3,196 @@ package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapp
 
 
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.AStarPathfinder;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.AlternativeRouteFinder;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.ConnectedComponentIndex;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.ContractionHierarchyRouter;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.DistanceTableRouter;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.HazardZoneIndex;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.ParetoRouteFinder;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.PartitionedRouter;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.ShortestPathTreeCache;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.RouteNotFoundException;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.EdgeCostLayer;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardExposure;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardZone;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.ParetoRoute;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RoutePath;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SearchMode;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.RouteCalculatorService;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.SafetyValidator;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
 
+import java.time.Month;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class RouteCalculatorServiceImpl implements RouteCalculatorService {
+    private static final Logger logger = LoggerFactory.getLogger(RouteCalculatorServiceImpl.class);
 
     private final AStarPathfinder pathfinder;
-    private final RouteGraphBuilder graphBuilder;
+    private final RouteGraphSnapshotProvider graphSnapshotProvider;
+    private final ContractionHierarchyRouter contractionHierarchyRouter;
+    private final DistanceTableRouter distanceTableRouter;
+    private final PartitionedRouter partitionedRouter;
+    private final ShortestPathTreeCache shortestPathTreeCache;
+    private final ConnectedComponentIndex connectedComponentIndex;
+    private final AlternativeRouteFinder alternativeRouteFinder;
+    private final ParetoRouteFinder paretoRouteFinder;
+    private final HazardZoneIndex hazardZoneIndex;
+    private final SafetyValidator safetyValidator;
+    private final RoutingProperties routingProperties;
 
     @Override
     public List<Port> calculateOptimalRoute(Port start, Port end, Set<String> avoidPortIds) {
-        RouteGraph graph = graphBuilder.buildDynamicRouteGraph(avoidPortIds);
-        graph.logAllNodes();
-        return pathfinder.findOptimalRoute(start, end, graph, avoidPortIds);
+        return calculateOptimalPath(start, end, avoidPortIds, null).ports();
+    }
+
+    @Override
+    public RoutePath calculateOptimalPath(Port start, Port end, Set<String> avoidPortIds, SearchMode searchMode) {
+        return calculateOptimalPath(graphSnapshotProvider.current(), start, end, avoidPortIds, searchMode);
+    }
+
+    @Override
+    public RoutePath calculateOptimalPath(RouteGraph graph, Port start, Port end, Set<String> avoidPortIds,
+                                          SearchMode searchMode) {
+        return calculateOptimalPath(graph, start, end, avoidPortIds, searchMode, null);
+    }
+
+    @Override
+    public RoutePath calculateOptimalPath(RouteGraph graph, Port start, Port end, Set<String> avoidPortIds,
+                                          SearchMode searchMode, Month departureMonth) {
+        // Los puertos a evitar se filtran durante la búsqueda; la instantánea se comparte tal cual.
+        rejectIfDisconnected(graph, start, end, avoidPortIds);
+        SearchMode mode = searchMode != null ? searchMode : routingProperties.getSearchMode();
+        boolean seasonal = departureMonth != null && routingProperties.getSeasonal().isEnabled();
+        HazardExposure hazards = hazardZoneIndex.exposureFor(graph.compact());
+        // Los costes estacionales, la penalización de seguridad y las zonas de peligro sólo los aplica A*;
+        // CH y la tabla usan distancia.
+        SearchMode costMode = mode == SearchMode.UNIDIRECTIONAL ? SearchMode.UNIDIRECTIONAL : SearchMode.BIDIRECTIONAL;
+        if (seasonal || penalizesUnsafePorts()) {
+            return pathfinder.findRoute(start, end, graph, avoidPortIds, costMode, seasonal ? departureMonth : null,
+                    hazards);
+        }
+        RoutePath route = calculateDistancePath(graph, start, end, avoidPortIds, mode);
+        // Las zonas sólo encarecen o bloquean arcos: si la ruta por distancia no toca ninguno afectado, también es
+        // la óptima con peligro y no hace falta repetir la búsqueda.
+        if (hazards != null && hazards.affects(route)) {
+            logger.debug("route.hazards.fallback graphVersion={} legs={}", graph.compact().getVersion(),
+                    route.legs().size());
+            return pathfinder.findRoute(start, end, graph, avoidPortIds, costMode, null, hazards);
+        }
+        return route;
+    }
+
+    /**
+     * Ruta de distancia mínima con el motor configurado, degradando al siguiente si el motor no está listo.
+     */
+    private RoutePath calculateDistancePath(RouteGraph graph, Port start, Port end, Set<String> avoidPortIds,
+                                            SearchMode mode) {
+        // Desde un origen caliente la ruta sale del árbol de caminos mínimos guardado, sea cual sea el modo.
+        Optional<RoutePath> fromTree = shortestPathTreeCache.findRoute(start, end, graph, avoidPortIds);
+        if (fromTree.isPresent()) {
+            return fromTree.get();
+        }
+        if (mode == SearchMode.DISTANCE_TABLE) {
+            Optional<RoutePath> route = distanceTableRouter.findRoute(start, end, graph, avoidPortIds);
+            if (route.isPresent()) {
+                return route.get();
+            }
+            mode = SearchMode.PARTITIONED;
+        }
+        if (mode == SearchMode.PARTITIONED) {
+            Optional<RoutePath> route = partitionedRouter.findRoute(start, end, graph, avoidPortIds);
+            if (route.isPresent()) {
+                return route.get();
+            }
+            mode = SearchMode.CONTRACTION_HIERARCHIES;
+        }
+        if (mode == SearchMode.CONTRACTION_HIERARCHIES) {
+            Optional<RoutePath> route = contractionHierarchyRouter.findRoute(start, end, graph, avoidPortIds);
+            if (route.isPresent()) {
+                return route.get();
+            }
+            mode = SearchMode.BIDIRECTIONAL;
+        }
+        return pathfinder.findRoute(start, end, graph, avoidPortIds, mode);
+    }
+
+    @Override
+    public List<RoutePath> calculateAlternativePaths(RouteGraph graph, RoutePath optimal, Set<String> avoidPortIds,
+                                                     int count, Month departureMonth) {
+        if (count <= 0 || optimal.ports().size() < 2) {
+            return List.of();
+        }
+        CompactRouteGraph compact = graph.compact();
+        int[] shortest = new int[optimal.ports().size()];
+        for (int i = 0; i < shortest.length; i++) {
+            shortest[i] = compact.indexOf(optimal.ports().get(i));
+            if (shortest[i] < 0) {
+                return List.of();
+            }
+        }
+        boolean seasonal = departureMonth != null && routingProperties.getSeasonal().isEnabled();
+        EdgeCostLayer layer = seasonal ? pathfinder.costLayerFor(compact, departureMonth) : null;
+        HazardExposure hazards = hazardZoneIndex.exposureFor(compact);
+        List<int[]> paths = alternativeRouteFinder.findAlternatives(compact, shortest, compact.toNodeMask(avoidPortIds),
+                layer, pathfinder.penalizedNodesFor(compact), hazards, count + 1);
+        return paths.stream()
+                .skip(1)
+                .map(nodes -> RoutePath.fromArcs(compact, nodes[0], pathfinder.arcsAlong(compact, nodes, layer, hazards)))
+                .toList();
+    }
+
+    @Override
+    public List<ParetoRoute> calculateParetoRoutes(RouteGraph graph, Port start, Port end, Set<String> avoidPortIds,
+                                                   Month departureMonth) {
+        rejectIfDisconnected(graph, start, end, avoidPortIds);
+        return paretoRouteFinder.findParetoRoutes(start, end, graph, avoidPortIds, departureMonth);
+    }
+
+    @Override
+    public List<List<HazardZone>> findLegHazards(RouteGraph graph, RoutePath path) {
+        CompactRouteGraph compact = graph.compact();
+        return path.legs().stream()
+                .map(leg -> hazardZoneIndex.zonesCrossedBy(compact, leg.from(), leg.to()))
+                .toList();
+    }
+
+    private boolean penalizesUnsafePorts() {
+        return routingProperties.getSafety().isPenalizeUnsafePorts()
+                && !safetyValidator.getUnsafePortsSnapshot().isEmpty();
+    }
+
+    /**
+     * Descarta sin buscar las parejas que quedan en componentes distintas al evitar {@code avoidPortIds}.
+     * Los puertos que no pertenecen al grafo se dejan pasar para que el buscador informe el error habitual.
+     */
+    private void rejectIfDisconnected(RouteGraph graph, Port start, Port end, Set<String> avoidPortIds) {
+        CompactRouteGraph compact = graph.compact();
+        int startNode = compact.indexOf(start);
+        int endNode = compact.indexOf(end);
+        if (startNode < 0 || endNode < 0 || startNode == endNode) {
+            return;
+        }
+        BitSet avoided = compact.toNodeMask(avoidPortIds);
+        if (avoided != null) {
+            // Los extremos se validan aparte; aquí sólo cuentan como puertos intermedios.
+            avoided.clear(startNode);
+            avoided.clear(endNode);
+        }
+        if (!connectedComponentIndex.mayBeConnected(compact, startNode, endNode, avoided)) {
+            throw new RouteNotFoundException(start.getName(), end.getName());
+        }
     }
 }
@@ -5,13 +5,20 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Route;
-import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.PortNotFoundException;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraphChanges;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.mappers.PortMapper;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.documents.PortDocument;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.documents.RouteDocument;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.repositories.PortRepository;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.repositories.RouteRepository;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 
 @Component
@@ -30,49 +37,140 @@ public class RouteGraphBuilder {
         this.portMapper = portMapper;
     }
 
-    public RouteGraph buildDynamicRouteGraph(Set<String> avoidPortIds) {
-        RouteGraph graph = new RouteGraph();
-        routeRepository.findAll().forEach(route -> {
-            try {
-                processRouteDocument(route, graph, avoidPortIds);
-            } catch (PortNotFoundException e) {
-                logger.warn("Omission de ruta: {}", e.getMessage());
-            }
-        });
-        return graph;
+    /**
+     * Construye una instantánea completa e inmutable del grafo de rutas.
+     * Los puertos se cargan en una sola consulta y se resuelven en memoria por nombre y continente,
+     * de modo que el coste es de dos lecturas a Mongo independientemente del número de rutas.
+     * Los puertos a evitar no se aplican aquí: se filtran durante la búsqueda sobre la instantánea compartida.
+     * @param version Versión que se asignará a la instantánea.
+     * @return Un {@link RouteGraph} congelado.
+     */
+    public RouteGraph buildRouteGraph(long version) {
+        Map<String, Port> portsByKey = loadPortsByKey();
+        RouteGraph graph = new RouteGraph(version);
+        List<RouteDocument> routes = routeRepository.findAll();
+        for (RouteDocument route : routes) {
+            processRouteDocument(route, graph, portsByKey);
+        }
+        return graph.freeze();
+    }
+
+    /**
+     * Aplica cambios puntuales sobre una copia de {@code base} y la congela con la versión indicada, leyendo sólo
+     * los documentos afectados. El resultado coincide con el de {@link #buildRouteGraph(long)} sobre el estado
+     * actual de Mongo siempre que {@code base} lo hiciera antes de los cambios.
+     * <ul>
+     *     <li>Puerto actualizado con el mismo nombre y continente: se sustituye en el nodo y en sus aristas.</li>
+     *     <li>Puerto borrado o renombrado: sale del grafo con sus rutas.</li>
+     *     <li>Puerto nuevo o renombrado: se vuelven a resolver las rutas que lo nombran.</li>
+     *     <li>Ruta insertada, actualizada o borrada: se quita la arista y, si el documento existe, se vuelve a añadir.</li>
+     * </ul>
+     * @return Un {@link RouteGraph} congelado.
+     */
+    public RouteGraph applyChanges(RouteGraph base, long version, RouteGraphChanges changes) {
+        RouteGraph graph = base.mutableCopy(version);
+        Set<String> routeIds = new LinkedHashSet<>(changes.routeIds());
+        boolean changed = false;
+        for (String portId : changes.portIds()) {
+            changed |= applyPortChange(graph, portId, routeIds);
+        }
+        for (String routeId : routeIds) {
+            changed |= applyRouteChange(graph, routeId);
+        }
+        // Cambios ya reflejados (p. ej. el eco de una escritura propia): se conserva la instantánea vigente.
+        return changed ? graph.freeze() : base;
     }
 
-    private void processRouteDocument(RouteDocument route, RouteGraph graph, Set<String> avoidPortIds) {
-        try {
-            Port origin = getValidPort(route.getHomePort(), route.getHomePortContinent());
-            Port destination = getValidPort(route.getDestinationPort(), route.getDestinationPortContinent());
-            if (isPortAvoided(origin, avoidPortIds) || isPortAvoided(destination, avoidPortIds)) {
-                return;
+    private boolean applyPortChange(RouteGraph graph, String portId, Set<String> routeIds) {
+        Optional<Port> existing = graph.findPortById(portId);
+        Port updated = portRepository.findById(portId).map(portMapper::toDomain).orElse(null);
+        if (existing.isPresent() && updated != null && existing.get().equals(updated)) {
+            if (samePortState(existing.get(), updated)) {
+                return false;
             }
-            addDynamicEdgePair(graph, origin, destination, route.getDistance());
+            graph.replacePort(updated);
+            return true;
+        }
+        existing.ifPresent(graph::removePort);
+        if (updated != null) {
+            routeRepository.findByHomePortAndHomePortContinentOrDestinationPortAndDestinationPortContinent(
+                            updated.getName(), updated.getContinent(), updated.getName(), updated.getContinent())
+                    .forEach(route -> routeIds.add(route.getId()));
+        }
+        return existing.isPresent();
+    }
 
-            logger.info("Anadiendo al grafo: Puerto Origen='{}', Continente='{}', HashCode={}",
-                    origin.getName(), origin.getContinent(), origin.hashCode());
-            logger.info("Anadiendo al grafo: Puerto Destino='{}', Continente='{}', HashCode={}",
-                    destination.getName(), destination.getContinent(), destination.hashCode());
+    private boolean applyRouteChange(RouteGraph graph, String routeId) {
+        Optional<Route> existing = graph.findRoute(routeId);
+        Optional<RouteDocument> document = routeRepository.findById(routeId);
+        if (existing.isPresent() && document.isPresent() && sameRouteState(graph, existing.get(), document.get())) {
+            return false;
+        }
+        graph.removeRoute(routeId);
+        document.ifPresent(route -> processRouteDocument(route, graph, null));
+        return existing.isPresent() || graph.findRoute(routeId).isPresent();
+    }
+
+    private boolean sameRouteState(RouteGraph graph, Route edge, RouteDocument document) {
+        Port origin = resolvePort(graph, document.getHomePort(), document.getHomePortContinent());
+        Port destination = resolvePort(graph, document.getDestinationPort(), document.getDestinationPortContinent());
+        boolean sameEndpoints = (edge.getHomePort().equals(origin) && edge.getDestinationPort().equals(destination))
+                || (edge.getHomePort().equals(destination) && edge.getDestinationPort().equals(origin));
+        return sameEndpoints && Objects.equals(edge.getDistance(), document.getDistance());
+    }
+
+    private static boolean samePortState(Port current, Port updated) {
+        return Objects.equals(current.getId(), updated.getId())
+                && Objects.equals(current.getCoordinates(), updated.getCoordinates())
+                && current.isDisabled() == updated.isDisabled()
+                && Objects.equals(current.getDisabledReason(), updated.getDisabledReason())
+                && Objects.equals(current.getDisabledAt(), updated.getDisabledAt())
+                && Objects.equals(current.getDisabledBy(), updated.getDisabledBy());
+    }
 
-        } catch (PortNotFoundException e) {
-            logger.warn("Omission de ruta: {}", e.getMessage());
+    private Port resolvePort(RouteGraph graph, String name, String continent) {
+        Port key = new Port(name, null, continent);
+        if (graph.containsNode(key)) {
+            return graph.getAllNodes().stream().filter(key::equals).findFirst().orElse(null);
         }
+        return portRepository.findByNameAndContinent(name, continent).map(portMapper::toDomain).orElse(null);
     }
 
-    private Port getValidPort(String name, String continent) {
-        return portRepository.findByNameAndContinent(name, continent)
-                .map(portMapper::toDomain)
-                .orElseThrow(() -> new PortNotFoundException("Port not found: " + name + " in continent: " + continent));
+    private Map<String, Port> loadPortsByKey() {
+        Map<String, Port> portsByKey = new HashMap<>();
+        for (PortDocument document : portRepository.findAll()) {
+            portsByKey.putIfAbsent(portKey(document.getName(), document.getContinent()), portMapper.toDomain(document));
+        }
+        return portsByKey;
+    }
+
+    /**
+     * @param portsByKey Puertos ya cargados; {@code null} los resuelve uno a uno contra el grafo o Mongo.
+     */
+    private void processRouteDocument(RouteDocument route, RouteGraph graph, Map<String, Port> portsByKey) {
+        Port origin = portsByKey != null
+                ? portsByKey.get(portKey(route.getHomePort(), route.getHomePortContinent()))
+                : resolvePort(graph, route.getHomePort(), route.getHomePortContinent());
+        Port destination = portsByKey != null
+                ? portsByKey.get(portKey(route.getDestinationPort(), route.getDestinationPortContinent()))
+                : resolvePort(graph, route.getDestinationPort(), route.getDestinationPortContinent());
+        if (origin == null || destination == null) {
+            logger.warn("Omission de ruta: Port not found: {} ({}) -> {} ({})",
+                    route.getHomePort(), route.getHomePortContinent(),
+                    route.getDestinationPort(), route.getDestinationPortContinent());
+            return;
+        }
+        addDynamicEdgePair(graph, route.getId(), origin, destination, route.getDistance());
+        logger.debug("Anadiendo al grafo: '{}' ({}) <-> '{}' ({})",
+                origin.getName(), origin.getContinent(), destination.getName(), destination.getContinent());
     }
 
-    private void addDynamicEdgePair(RouteGraph graph, Port a, Port b, double baseDistance) {
-        Route route = new Route(a, b, baseDistance);
+    private void addDynamicEdgePair(RouteGraph graph, String routeId, Port a, Port b, double baseDistance) {
+        Route route = new Route(routeId, a, b, baseDistance);
         graph.addEdge(route);
     }
 
-    private boolean isPortAvoided(Port port, Set<String> avoidPortIds) {
-        return port.getId() != null && avoidPortIds.contains(port.getId());
+    private static String portKey(String name, String continent) {
+        return name + "|" + continent;
     }
 }
@@ -0,0 +1,133 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraphChanges;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.RouteGraphSnapshotListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mantiene la instantánea vigente del grafo de rutas.
+ * El grafo se construye una sola vez y se comparte entre todas las peticiones; cuando cambian
+ * puertos o rutas se reconstruye y se publica de forma atómica con una versión nueva.
+ * Los cambios puntuales ({@link #applyChanges(RouteGraphChanges)}) se aplican sobre una copia de la instantánea
+ * vigente sin recargar todas las colecciones.
+ * Las búsquedas en curso conservan la instantánea que leyeron, por lo que nunca ven un grafo a medio construir.
+ * Tras cada publicación se avisa a los {@link RouteGraphSnapshotListener} para que recalculen sus estructuras derivadas.
+ */
+@Component
+public class RouteGraphSnapshotProvider {
+    private static final Logger logger = LoggerFactory.getLogger(RouteGraphSnapshotProvider.class);
+
+    private final RouteGraphBuilder graphBuilder;
+    private final ObjectProvider<RouteGraphSnapshotListener> listeners;
+    private final AtomicReference<RouteGraph> snapshot = new AtomicReference<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    public RouteGraphSnapshotProvider(RouteGraphBuilder graphBuilder,
+                                      ObjectProvider<RouteGraphSnapshotListener> listeners) {
+        this.graphBuilder = graphBuilder;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Devuelve la instantánea vigente, construyéndola si todavía no existe.
+     */
+    public RouteGraph current() {
+        RouteGraph graph = snapshot.get();
+        if (graph != null) {
+            return graph;
+        }
+        synchronized (this) {
+            graph = snapshot.get();
+            return graph != null ? graph : rebuild();
+        }
+    }
+
+    /**
+     * Reconstruye el grafo tras un cambio en puertos o rutas.
+     * Si la reconstrucción falla se descarta la instantánea actual para que la siguiente
+     * consulta vuelva a intentarlo en lugar de servir un grafo desactualizado.
+     */
+    public void refresh() {
+        synchronized (this) {
+            try {
+                rebuild();
+            } catch (RuntimeException ex) {
+                snapshot.set(null);
+                logger.warn("route.graph.snapshot.refresh_failed message={}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Publica una instantánea nueva con los cambios indicados aplicados sobre la vigente (copy-on-write).
+     * Si aún no hay instantánea se construye completa; si aplicar los cambios falla se recurre a {@link #refresh()}.
+     */
+    public void applyChanges(RouteGraphChanges changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            RouteGraph base = snapshot.get();
+            if (base == null) {
+                refresh();
+                return;
+            }
+            try {
+                long startedAt = System.nanoTime();
+                RouteGraph graph = graphBuilder.applyChanges(base, versionSequence.incrementAndGet(), changes);
+                if (graph == base) {
+                    logger.debug("route.graph.snapshot.patch_skipped version={} changes={}", base.getVersion(), changes.size());
+                    return;
+                }
+                snapshot.set(graph);
+                logger.info("route.graph.snapshot.patched version={} baseVersion={} portChanges={} routeChanges={} ports={} edges={} elapsedMs={}",
+                        graph.getVersion(), base.getVersion(), changes.portIds().size(), changes.routeIds().size(),
+                        graph.getNodeCount(), graph.getEdgeCount(), (System.nanoTime() - startedAt) / 1_000_000);
+                notifyListeners(graph);
+            } catch (RuntimeException ex) {
+                logger.warn("route.graph.snapshot.patch_failed baseVersion={} message={}", base.getVersion(), ex.getMessage());
+                refresh();
+            }
+        }
+    }
+
+    /**
+     * Versión de la instantánea publicada, o 0 si aún no se ha construido ninguna.
+     */
+    public long currentVersion() {
+        RouteGraph graph = snapshot.get();
+        return graph != null ? graph.getVersion() : 0L;
+    }
+
+    private RouteGraph rebuild() {
+        long startedAt = System.nanoTime();
+        RouteGraph graph = graphBuilder.buildRouteGraph(versionSequence.incrementAndGet());
+        snapshot.set(graph);
+        logger.info("route.graph.snapshot.published version={} ports={} edges={} elapsedMs={}",
+                graph.getVersion(), graph.getNodeCount(), graph.getEdgeCount(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+        if (logger.isDebugEnabled()) {
+            graph.logAllNodes();
+        }
+        notifyListeners(graph);
+        return graph;
+    }
+
+    private void notifyListeners(RouteGraph graph) {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onSnapshotPublished(graph);
+            } catch (RuntimeException ex) {
+                logger.warn("route.graph.snapshot.listener_failed listener={} version={} message={}",
+                        listener.getClass().getSimpleName(), graph.getVersion(), ex.getMessage());
+            }
+        });
+    }
+}
@@ -1,41 +1,88 @@
 // SafetyValidator.java
 package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.UnsafePortsSnapshot;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.SafetyValidator;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.domain.EventDocument;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.EventRepository;
 
+import java.time.Clock;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Mantiene en memoria el conjunto de puertos inseguros como un {@link UnsafePortsSnapshot} inmutable.
+ * El snapshot se recarga desde {@code events-documents} cada {@code routing.safety.refresh-interval}; el cálculo
+ * de rutas sólo lee la referencia vigente. Si una recarga falla se conserva el snapshot anterior.
+ */
 @Service
 public class SafetyValidatorImpl implements SafetyValidator {
+    private static final Logger logger = LoggerFactory.getLogger(SafetyValidatorImpl.class);
 
     private final EventRepository eventRepository;
+    private final Clock clock;
 
-    public SafetyValidatorImpl(EventRepository eventRepository) {
+    private volatile UnsafePortsSnapshot snapshot;
+
+    public SafetyValidatorImpl(EventRepository eventRepository, Clock clock, MeterRegistry meterRegistry) {
         this.eventRepository = eventRepository;
+        this.clock = clock;
+        meterRegistry.gauge("safety_unsafe_ports", this, validator -> {
+            UnsafePortsSnapshot current = validator.snapshot;
+            return current != null ? current.portNames().size() : 0;
+        });
     }
 
     @Override
-    public Set<String> getUnsafePortNames() {
-        // Consulta la BD UNA SOLA VEZ, procesa los datos y devuelve un Set simple.
-        return eventRepository.findValidEvents().stream()
-                .filter(this::isValidEvent)
-                .map(EventDocument::getSafeOriginPort) // Extrae el nombre del puerto del evento
-                .filter(Objects::nonNull) // Asegura que no haya nulos
-                .collect(Collectors.toSet());
+    public UnsafePortsSnapshot getUnsafePortsSnapshot() {
+        UnsafePortsSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        // Sólo la primera petición anterior a la primera recarga programada llega a consultar la BD.
+        synchronized (this) {
+            return snapshot != null ? snapshot : refresh();
+        }
+    }
+
+    /**
+     * Relee los eventos vigentes y publica un snapshot nuevo. La versión sólo aumenta si el conjunto cambió.
+     * @return El snapshot vigente tras la recarga.
+     */
+    @Scheduled(fixedDelayString = "${routing.safety.refresh-interval:PT30S}")
+    public synchronized UnsafePortsSnapshot refresh() {
+        UnsafePortsSnapshot previous = snapshot;
+        Set<String> current;
+        try {
+            current = loadUnsafePortNames();
+        } catch (RuntimeException e) {
+            if (previous == null) {
+                throw e;
+            }
+            logger.warn("safety.unsafe_ports.refresh_failed version={} error={}", previous.version(), e.getMessage());
+            return previous;
+        }
+        if (previous != null && previous.portNames().equals(current)) {
+            return previous;
+        }
+        long version = previous != null ? previous.version() + 1 : 1L;
+        UnsafePortsSnapshot refreshed = new UnsafePortsSnapshot(current, version, clock.instant());
+        snapshot = refreshed;
+        logger.info("safety.unsafe_ports.published version={} ports={}", version, current.size());
+        return refreshed;
     }
 
     @Override
     public List<String> validateFullRoute(List<Port> route) {
-        // Esta función puede seguir usando la lógica original si es necesario,
-        // pero ahora puede ser más eficiente usando el Set.
-        Set<String> unsafePorts = getUnsafePortNames();
+        UnsafePortsSnapshot unsafePorts = getUnsafePortsSnapshot();
         return route.stream()
                 .map(Port::getName)
                 .filter(unsafePorts::contains)
@@ -44,7 +91,16 @@ public class SafetyValidatorImpl implements SafetyValidator {
                 .collect(Collectors.toList());
     }
 
+    private Set<String> loadUnsafePortNames() {
+        // Consulta la BD UNA SOLA VEZ, procesa los datos y devuelve un Set simple.
+        return eventRepository.findValidEvents().stream()
+                .filter(this::isValidEvent)
+                .map(EventDocument::getSafeOriginPort) // Extrae el nombre del puerto del evento
+                .filter(Objects::nonNull) // Asegura que no haya nulos
+                .collect(Collectors.toSet());
+    }
+
     private boolean isValidEvent(EventDocument event) {
         return event.getPuertoOrigen() != null && !event.getPuertoOrigen().isBlank();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.ShortestPathTreeCache;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.util.List;
+
+/**
+ * Elige periódicamente los orígenes calientes de {@link ShortestPathTreeCache} a partir de los contadores de
+ * {@code routes_popularity}. Si la lectura falla se conservan los orígenes anteriores.
+ */
+@Service
+public class HotOriginsService {
+    private static final Logger logger = LoggerFactory.getLogger(HotOriginsService.class);
+
+    private final RoutePopularityService routePopularityService;
+    private final ShortestPathTreeCache shortestPathTreeCache;
+    private final RoutingProperties routingProperties;
+
+    public HotOriginsService(RoutePopularityService routePopularityService, ShortestPathTreeCache shortestPathTreeCache,
+                             RoutingProperties routingProperties) {
+        this.routePopularityService = routePopularityService;
+        this.shortestPathTreeCache = shortestPathTreeCache;
+        this.routingProperties = routingProperties;
+    }
+
+    @Scheduled(fixedDelayString = "${routing.tree-cache.refresh-interval:PT5M}")
+    public void refresh() {
+        List<String> hotOrigins;
+        try {
+            hotOrigins = routePopularityService.findTopOriginPortIds(routingProperties.getTreeCache().getHotOrigins());
+        } catch (RuntimeException e) {
+            logger.warn("route.tree_cache.hot_origins_refresh_failed error={}", e.getMessage());
+            return;
+        }
+        shortestPathTreeCache.updateHotOrigins(hotOrigins);
+    }
+}
@@ -0,0 +1,71 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa los cálculos de ruta idénticos que llegan a la vez (single-flight): el primer llamador con una
+ * {@link RouteResultCache.Key} calcula y los demás esperan el mismo futuro en lugar de repetir la búsqueda.
+ * Evita los picos de CPU cuando, tras deshabilitar un puerto, muchos usuarios recalculan las mismas rutas a la vez.
+ * El futuro se retira al terminar, así que los llamadores posteriores pasan por {@link RouteResultCache}.
+ * Publica {@code route_coalesced_requests_total} y {@code route_inflight_computations}.
+ */
+@Component
+public class InFlightRouteComputations {
+
+    private final Map<RouteResultCache.Key, CompletableFuture<RouteComputationResult>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public InFlightRouteComputations(MeterRegistry meterRegistry) {
+        this.coalesced = meterRegistry.counter("route_coalesced_requests_total");
+        meterRegistry.gauge("route_inflight_computations", inFlight, Map::size);
+    }
+
+    /**
+     * Ejecuta {@code computation} en el hilo llamador, o espera el cálculo en curso con la misma clave.
+     * Si el cálculo falla, todos los llamadores que lo compartían reciben la misma excepción.
+     */
+    public RouteComputationResult computeOnce(RouteResultCache.Key key, Supplier<RouteComputationResult> computation) {
+        CompletableFuture<RouteComputationResult> owned = new CompletableFuture<>();
+        CompletableFuture<RouteComputationResult> running = inFlight.putIfAbsent(key, owned);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+        try {
+            RouteComputationResult result = computation.get();
+            owned.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            owned.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, owned);
+        }
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    private static RouteComputationResult await(CompletableFuture<RouteComputationResult> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
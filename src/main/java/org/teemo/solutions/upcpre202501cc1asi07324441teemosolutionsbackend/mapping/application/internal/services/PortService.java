@@ -3,10 +3,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices.RouteGraphSnapshotProvider;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.commands.CreatePortCommand;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.PortNotFoundException;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.Coordinates;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraphChanges;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.documents.PortDocument;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.repositories.PortRepository;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.notifications.application.internal.services.NotificationService;
@@ -23,11 +25,15 @@ public class PortService {
 
     private final PortRepository portRepository;
     private final NotificationService notificationService;
+    private final RouteGraphSnapshotProvider graphSnapshotProvider;
 
     @Autowired
-    public PortService(PortRepository portRepository, NotificationService notificationService) {
+    public PortService(PortRepository portRepository,
+                       NotificationService notificationService,
+                       RouteGraphSnapshotProvider graphSnapshotProvider) {
         this.portRepository = portRepository;
         this.notificationService = notificationService;
+        this.graphSnapshotProvider = graphSnapshotProvider;
     }
 
     public Port createPort(CreatePortCommand command) {
@@ -36,7 +42,9 @@ public class PortService {
                 new PortDocument.CoordinatesDocument(command.coordinates().latitude(), command.coordinates().longitude()),
                 command.continent()
         );
-        return portRepository.save(port).toDomain();
+        Port created = portRepository.save(port).toDomain();
+        graphSnapshotProvider.applyChanges(RouteGraphChanges.ofPort(created.getId()));
+        return created;
     }
 
     public void saveAllPorts(List<Port> ports) {
@@ -44,6 +52,7 @@ public class PortService {
                 .map(this::toDocument)
                 .toList();
         portRepository.saveAll(portDocuments);
+        graphSnapshotProvider.refresh();
     }
 
     public Optional<PortDocument> findByNameAndContinent(String name, String continent) {
@@ -52,6 +61,7 @@ public class PortService {
 
     public void deleteAllPorts() {
         portRepository.deleteAll();
+        graphSnapshotProvider.refresh();
     }
 
     public Optional<Port> getPortById(String id) {
@@ -87,6 +97,7 @@ public class PortService {
         document.setDisabledAt(now);
         document.setDisabledBy(actor);
         PortDocument saved = portRepository.save(document);
+        graphSnapshotProvider.applyChanges(RouteGraphChanges.ofPort(portId));
         Port port = saved.toDomain();
         logger.info(
                 "AUDIT port.disable actor={} portId={} oldDisabled={} newDisabled={} reason={} timestamp={}",
@@ -108,6 +119,7 @@ public class PortService {
         document.setDisabledAt(null);
         document.setDisabledBy(null);
         PortDocument saved = portRepository.save(document);
+        graphSnapshotProvider.applyChanges(RouteGraphChanges.ofPort(portId));
         Port port = saved.toDomain();
         logger.info(
                 "AUDIT port.enable actor={} portId={} oldDisabled={} newDisabled={} clearedReason={} timestamp={}",
@@ -121,6 +133,7 @@ public class PortService {
 
     public void deletePort(String id) {
         portRepository.deleteById(id);
+        graphSnapshotProvider.applyChanges(RouteGraphChanges.ofPort(id));
     }
 
     private PortDocument getPortDocumentOrThrow(String portId) {
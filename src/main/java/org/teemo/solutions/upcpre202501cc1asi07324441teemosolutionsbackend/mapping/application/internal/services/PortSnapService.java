@@ -0,0 +1,79 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices.RouteGraphSnapshotProvider;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.PortLocator;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.PortSpatialIndex;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.NearestPortResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.NearestPortsResource;
+
+import java.util.List;
+
+/**
+ * Ajusta una posición arbitraria (p. ej. la de un buque en navegación) a los puertos enrutables más cercanos,
+ * para poder planificar una ruta desde ella. Usa el índice espacial de la instantánea vigente del grafo.
+ */
+@Service
+public class PortSnapService {
+    private static final Logger logger = LoggerFactory.getLogger(PortSnapService.class);
+
+    private final RouteGraphSnapshotProvider graphSnapshotProvider;
+    private final PortLocator portLocator;
+    private final RoutingProperties routingProperties;
+
+    public PortSnapService(RouteGraphSnapshotProvider graphSnapshotProvider,
+                           PortLocator portLocator,
+                           RoutingProperties routingProperties) {
+        this.graphSnapshotProvider = graphSnapshotProvider;
+        this.portLocator = portLocator;
+        this.routingProperties = routingProperties;
+    }
+
+    /**
+     * @param count         Número de puertos a devolver, entre 1 y {@code routing.spatial.max-results}.
+     * @param maxDistanceKm Radio máximo de búsqueda; {@code null} no lo limita.
+     * @throws IllegalArgumentException si la posición, el número de puertos o el radio no son válidos.
+     */
+    public NearestPortsResource findNearestPorts(double latitude, double longitude, int count, Double maxDistanceKm) {
+        if (Double.isNaN(latitude) || latitude < -90.0 || latitude > 90.0) {
+            throw new IllegalArgumentException("latitude debe estar entre -90 y 90");
+        }
+        if (Double.isNaN(longitude) || longitude < -180.0 || longitude > 180.0) {
+            throw new IllegalArgumentException("longitude debe estar entre -180 y 180");
+        }
+        int maxResults = routingProperties.getSpatial().getMaxResults();
+        if (count < 1 || count > maxResults) {
+            throw new IllegalArgumentException("k debe estar entre 1 y " + maxResults);
+        }
+        if (maxDistanceKm != null && (Double.isNaN(maxDistanceKm) || maxDistanceKm < 0)) {
+            throw new IllegalArgumentException("maxDistanceKm debe ser un número no negativo");
+        }
+
+        RouteGraph graph = graphSnapshotProvider.current();
+        CompactRouteGraph compact = graph.compact();
+        PortSpatialIndex index = portLocator.indexFor(compact);
+        List<NearestPortResource> ports = index.nearest(latitude, longitude, count,
+                        maxDistanceKm != null ? maxDistanceKm : Double.POSITIVE_INFINITY).stream()
+                .map(match -> toResource(compact.portAt(match.node()), match.distanceKm()))
+                .toList();
+        logger.debug("route.port_snap.calculated version={} latitude={} longitude={} k={} found={}",
+                graph.getVersion(), latitude, longitude, count, ports.size());
+        return new NearestPortsResource(latitude, longitude, graph.getVersion(), ports);
+    }
+
+    private static NearestPortResource toResource(Port port, double distanceKm) {
+        return new NearestPortResource(
+                port.getId(),
+                port.getName(),
+                port.getContinent(),
+                port.getCoordinates().latitude(),
+                port.getCoordinates().longitude(),
+                distanceKm);
+    }
+}
@@ -0,0 +1,138 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices.RouteGraphSnapshotProvider;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.PortNotFoundException;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.RouteNotFoundException;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SearchMode;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingExecutorConfig;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.BatchRouteItemResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.BatchRouteResultResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.RouteCalculationResource;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Calcula lotes de rutas en el pool acotado {@link RoutingExecutorConfig#BATCH_EXECUTOR}.
+ * Todo el lote usa la misma instantánea del grafo y el mismo conjunto de puertos deshabilitados, leídos una
+ * sola vez, de modo que los resultados son coherentes entre sí aunque el grafo se republique a mitad del lote.
+ * Cada elemento produce su propio resultado o error; un fallo nunca interrumpe el resto del lote.
+ * Los cálculos por lotes no registran historial ni popularidad.
+ */
+@Service
+public class RouteBatchService {
+    private static final Logger logger = LoggerFactory.getLogger(RouteBatchService.class);
+
+    public static final String STATUS_OK = "OK";
+    public static final String STATUS_PORT_NOT_FOUND = "PORT_NOT_FOUND";
+    public static final String STATUS_NO_ROUTE = "NO_ROUTE";
+    public static final String STATUS_INVALID_REQUEST = "INVALID_REQUEST";
+    public static final String STATUS_ERROR = "ERROR";
+
+    private final RouteService routeService;
+    private final RouteGraphSnapshotProvider graphSnapshotProvider;
+    private final ExecutorService executor;
+    private final RoutingProperties routingProperties;
+
+    public RouteBatchService(RouteService routeService,
+                             RouteGraphSnapshotProvider graphSnapshotProvider,
+                             @Qualifier(RoutingExecutorConfig.BATCH_EXECUTOR) ExecutorService executor,
+                             RoutingProperties routingProperties) {
+        this.routeService = routeService;
+        this.graphSnapshotProvider = graphSnapshotProvider;
+        this.executor = executor;
+        this.routingProperties = routingProperties;
+    }
+
+    public int getMaxItems() {
+        return routingProperties.getBatch().getMaxItems();
+    }
+
+    /**
+     * Calcula todos los elementos y entrega cada resultado a {@code sink} en cuanto termina, por lo que el orden
+     * de entrega no es el de la petición ({@link BatchRouteResultResource#index()} lo identifica).
+     * {@code sink} se invoca siempre desde el hilo llamador; si lanza una excepción el lote se cancela.
+     * Como mucho hay {@code parallelism * 2} elementos en vuelo, para no acumular resultados pendientes en memoria.
+     */
+    public void calculateRoutes(List<BatchRouteItemResource> items, SearchMode searchMode,
+                                Consumer<BatchRouteResultResource> sink) {
+        RouteGraph snapshot = graphSnapshotProvider.current();
+        Set<String> disabledPortIds = routeService.loadDisabledPortIds();
+        CompletionService<BatchRouteResultResource> completion = new ExecutorCompletionService<>(executor);
+        int window = Math.max(1, resolveParallelism() * 2);
+        long startedAt = System.nanoTime();
+
+        int submitted = 0;
+        int completed = 0;
+        int failed = 0;
+        try {
+            while (completed < items.size()) {
+                while (submitted < items.size() && submitted - completed < window) {
+                    int index = submitted++;
+                    BatchRouteItemResource item = items.get(index);
+                    completion.submit(() -> calculateItem(snapshot, disabledPortIds, index, item, searchMode));
+                }
+                BatchRouteResultResource result = completion.take().get();
+                completed++;
+                if (!STATUS_OK.equals(result.status())) {
+                    failed++;
+                }
+                sink.accept(result);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Cálculo por lotes interrumpido", ex);
+        } catch (ExecutionException ex) {
+            // calculateItem captura sus propias excepciones; solo llega aquí un Error.
+            throw new IllegalStateException("Fallo inesperado en el cálculo por lotes", ex.getCause());
+        } finally {
+            logger.info("route.batch.completed version={} items={} completed={} failed={} elapsedMs={}",
+                    snapshot.getVersion(), items.size(), completed, failed, (System.nanoTime() - startedAt) / 1_000_000);
+        }
+    }
+
+    private BatchRouteResultResource calculateItem(RouteGraph snapshot, Set<String> disabledPortIds, int index,
+                                                   BatchRouteItemResource item, SearchMode searchMode) {
+        if (item == null || item.startPortId() == null || item.endPortId() == null) {
+            return failure(index, item, STATUS_INVALID_REQUEST, "startPortId y endPortId son obligatorios");
+        }
+        try {
+            Set<String> avoid = item.avoidPortIds() == null ? Set.of() : Set.copyOf(item.avoidPortIds());
+            RouteCalculationResource route = routeService.calculateOptimalRouteInBatch(
+                    snapshot, disabledPortIds, item.startPortId(), item.endPortId(), avoid, searchMode);
+            return new BatchRouteResultResource(index, item.startPortId(), item.endPortId(), STATUS_OK, route, null);
+        } catch (PortNotFoundException ex) {
+            return failure(index, item, STATUS_PORT_NOT_FOUND, ex.getMessage());
+        } catch (RouteNotFoundException ex) {
+            return failure(index, item, STATUS_NO_ROUTE, ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            return failure(index, item, STATUS_INVALID_REQUEST, ex.getMessage());
+        } catch (RuntimeException ex) {
+            logger.warn("route.batch.item_failed index={} start={} end={} message={}",
+                    index, item.startPortId(), item.endPortId(), ex.getMessage());
+            return failure(index, item, STATUS_ERROR, "Error interno. Revisa el Log interno.");
+        }
+    }
+
+    private static BatchRouteResultResource failure(int index, BatchRouteItemResource item, String status, String error) {
+        String start = item != null ? item.startPortId() : null;
+        String end = item != null ? item.endPortId() : null;
+        return new BatchRouteResultResource(index, start, end, status, null, error);
+    }
+
+    private int resolveParallelism() {
+        int configured = routingProperties.getBatch().getParallelism();
+        return configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,32 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import lombok.Builder;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SearchMode;
+
+import java.time.LocalDate;
+import java.time.Month;
+
+/**
+ * Opciones de un cálculo de ruta. Todos los campos son opcionales.
+ * @param searchMode    Estrategia de búsqueda; {@code null} usa {@code routing.search-mode}.
+ * @param routeCount    Rutas a devolver, la óptima más alternativas; {@code null} equivale a 1.
+ * @param departureDate Fecha de salida; si se indica, la ruta minimiza el coste estacional de ese mes.
+ */
+@Builder
+public record RouteCalculationOptions(
+        SearchMode searchMode,
+        Integer routeCount,
+        LocalDate departureDate
+) {
+    public static RouteCalculationOptions defaults() {
+        return RouteCalculationOptions.builder().build();
+    }
+
+    public int effectiveRouteCount() {
+        return routeCount != null ? routeCount : 1;
+    }
+
+    public Month departureMonth() {
+        return departureDate != null ? departureDate.getMonth() : null;
+    }
+}
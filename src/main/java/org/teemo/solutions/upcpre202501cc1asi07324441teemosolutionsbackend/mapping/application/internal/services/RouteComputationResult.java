@@ -0,0 +1,20 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RoutePath;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.RouteCalculationResource;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Resultado de calcular una ruta: camino con sus tramos, respuesta para el cliente, puertos evitados efectivamente y
+ * clave con la que se guardó en {@link RouteResultCache}.
+ */
+public record RouteComputationResult(RoutePath path, RouteCalculationResource response, Set<String> effectiveAvoidPortIds,
+                                     RouteResultCache.Key key) {
+
+    public List<Port> ports() {
+        return path.ports();
+    }
+}
@@ -0,0 +1,107 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices.RouteGraphSnapshotProvider;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.DistanceTableRouter;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.PortNotFoundException;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.AllPairsTable;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.DistanceMatrix;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingExecutorConfig;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calcula matrices de distancias entre puertos sobre la instantánea actual del grafo, evitando los puertos
+ * deshabilitados. Si la tabla de todos los pares ya está construida para la instantánea, la matriz se lee de ella;
+ * si no, se ejecuta un Dijkstra por origen en el pool {@link RoutingExecutorConfig#MATRIX_POOL}.
+ * Publica {@code route_distance_matrix{source}} con la duración de cada cálculo.
+ */
+@Service
+public class RouteDistanceMatrixService {
+    private static final Logger logger = LoggerFactory.getLogger(RouteDistanceMatrixService.class);
+
+    private final RouteGraphSnapshotProvider graphSnapshotProvider;
+    private final DistanceTableRouter distanceTableRouter;
+    private final ForkJoinPool pool;
+    private final RoutingProperties routingProperties;
+    private final Timer tableTimer;
+    private final Timer searchTimer;
+
+    public RouteDistanceMatrixService(RouteGraphSnapshotProvider graphSnapshotProvider,
+                                      DistanceTableRouter distanceTableRouter,
+                                      @Qualifier(RoutingExecutorConfig.MATRIX_POOL) ForkJoinPool pool,
+                                      RoutingProperties routingProperties,
+                                      MeterRegistry meterRegistry) {
+        this.graphSnapshotProvider = graphSnapshotProvider;
+        this.distanceTableRouter = distanceTableRouter;
+        this.pool = pool;
+        this.routingProperties = routingProperties;
+        this.tableTimer = meterRegistry.timer("route_distance_matrix", "source", "table");
+        this.searchTimer = meterRegistry.timer("route_distance_matrix", "source", "search");
+    }
+
+    /**
+     * @throws IllegalArgumentException si faltan orígenes o destinos o la matriz supera {@code routing.matrix.max-cells}.
+     * @throws PortNotFoundException si algún id no corresponde a un puerto del grafo.
+     */
+    public Result calculate(List<String> originPortIds, List<String> destinationPortIds) {
+        if (originPortIds == null || originPortIds.isEmpty() || destinationPortIds == null || destinationPortIds.isEmpty()) {
+            throw new IllegalArgumentException("Se requiere al menos un origen y un destino");
+        }
+        long cells = (long) originPortIds.size() * destinationPortIds.size();
+        int maxCells = routingProperties.getMatrix().getMaxCells();
+        if (cells > maxCells) {
+            throw new IllegalArgumentException("La matriz supera el máximo de %d celdas".formatted(maxCells));
+        }
+
+        RouteGraph graph = graphSnapshotProvider.current();
+        CompactRouteGraph compact = graph.compact();
+        int[] origins = toNodes(compact, originPortIds);
+        int[] destinations = toNodes(compact, destinationPortIds);
+
+        long startedAt = System.nanoTime();
+        Optional<AllPairsTable> table = distanceTableRouter.tableFor(graph);
+        DistanceMatrix matrix;
+        if (table.isPresent()) {
+            matrix = DistanceMatrix.fromTable(table.get(), origins, destinations);
+            tableTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        } else {
+            matrix = DistanceMatrix.compute(compact, origins, destinations, compact.disabledNodes(), pool);
+            searchTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+        logger.debug("route.matrix.calculated version={} origins={} destinations={} source={} elapsedMs={}",
+                graph.getVersion(), origins.length, destinations.length, table.isPresent() ? "table" : "search",
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return new Result(matrix, graph.getVersion());
+    }
+
+    private static int[] toNodes(CompactRouteGraph compact, List<String> portIds) {
+        int[] nodes = new int[portIds.size()];
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < nodes.length; i++) {
+            String portId = portIds.get(i);
+            nodes[i] = portId != null ? compact.indexOfPortId(portId) : -1;
+            if (nodes[i] < 0) {
+                missing.add(portId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new PortNotFoundException("Puertos no encontrados: " + missing);
+        }
+        return nodes;
+    }
+
+    public record Result(DistanceMatrix matrix, long graphVersion) {}
+}
@@ -0,0 +1,133 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.Coordinates;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.LegGeometry;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGeometry;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.RouteGeometryLevelResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.RouteGeometryResource;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Construye la geometría de las rutas para el mapa concatenando la de cada tramo.
+ * La geometría de un tramo sólo depende de las coordenadas de sus dos puertos, así que se guarda en una caché LRU
+ * compartida entre instantáneas del grafo y entre sentidos de recorrido: en los tramos populares, montar la geometría
+ * de una ruta se reduce a copiar puntos ya simplificados y codificarlos.
+ * Publica {@code route_geometry_cache_requests_total{result}} y {@code route_geometry_cache_size}.
+ */
+@Service
+public class RouteGeometryService {
+
+    private final RoutingProperties.Geometry settings;
+    private final int[] zoomLevels;
+    private final double[] tolerances;
+    private final Map<LegKey, LegGeometry> legs = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+
+    public RouteGeometryService(RoutingProperties routingProperties, MeterRegistry meterRegistry) {
+        this.settings = routingProperties.getGeometry();
+        this.zoomLevels = settings.getZoomLevels().clone();
+        this.tolerances = new double[zoomLevels.length];
+        for (int level = 0; level < zoomLevels.length; level++) {
+            tolerances[level] = LegGeometry.toleranceForZoom(zoomLevels[level], settings.getTolerancePixels());
+        }
+        this.hits = meterRegistry.counter("route_geometry_cache_requests_total", "result", "hit");
+        this.misses = meterRegistry.counter("route_geometry_cache_requests_total", "result", "miss");
+        meterRegistry.gauge("route_geometry_cache_size", this, RouteGeometryService::cachedLegs);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled() && zoomLevels.length > 0;
+    }
+
+    /**
+     * Geometría de la ruta que recorre los puertos en orden.
+     * @return La geometría, o {@code null} si está desactivada, hay menos de dos puertos o falta alguna coordenada.
+     */
+    public RouteGeometry buildRoute(List<Port> ports) {
+        if (!isEnabled() || ports == null || ports.size() < 2) {
+            return null;
+        }
+        RouteGeometry.Builder builder = new RouteGeometry.Builder(zoomLevels);
+        for (int i = 1; i < ports.size(); i++) {
+            Coordinates from = ports.get(i - 1).getCoordinates();
+            Coordinates to = ports.get(i).getCoordinates();
+            if (from == null || to == null) {
+                return null;
+            }
+            LegKey key = LegKey.of(from, to);
+            builder.append(legFor(key), !key.matches(from));
+        }
+        return builder.build();
+    }
+
+    public RouteGeometryResource toResource(RouteGeometry geometry) {
+        if (geometry == null) {
+            return null;
+        }
+        List<RouteGeometryLevelResource> levels = new ArrayList<>(geometry.levelCount());
+        for (int level = 0; level < geometry.levelCount(); level++) {
+            levels.add(new RouteGeometryLevelResource(
+                    geometry.zoomLevel(level), geometry.pointCount(level), geometry.polyline(level)));
+        }
+        return new RouteGeometryResource("polyline5", levels);
+    }
+
+    public int cachedLegs() {
+        synchronized (legs) {
+            return legs.size();
+        }
+    }
+
+    private LegGeometry legFor(LegKey key) {
+        synchronized (legs) {
+            LegGeometry cached = legs.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        // Se calcula fuera del candado: dos hilos pueden calcular el mismo tramo, pero el resultado es idéntico.
+        LegGeometry leg = LegGeometry.build(key.fromLatitude(), key.fromLongitude(), key.toLatitude(), key.toLongitude(),
+                settings.getStepKm(), tolerances);
+        synchronized (legs) {
+            legs.put(key, leg);
+            Iterator<LegKey> eldest = legs.keySet().iterator();
+            while (legs.size() > settings.getMaxCachedLegs() && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return leg;
+    }
+
+    /**
+     * Tramo en sentido canónico (el extremo con menor latitud, y luego longitud, primero), para que A→B y B→A
+     * compartan entrada.
+     */
+    private record LegKey(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+
+        static LegKey of(Coordinates a, Coordinates b) {
+            boolean ordered = a.latitude() < b.latitude()
+                    || (a.latitude() == b.latitude() && a.longitude() <= b.longitude());
+            Coordinates first = ordered ? a : b;
+            Coordinates second = ordered ? b : a;
+            return new LegKey(first.latitude(), first.longitude(), second.latitude(), second.longitude());
+        }
+
+        boolean matches(Coordinates from) {
+            return fromLatitude == from.latitude() && fromLongitude == from.longitude();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import org.springframework.stereotype.Service;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices.RouteGraphSnapshotProvider;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.ConnectedComponentIndex;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.ConnectedComponents;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.GraphComponentsResource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Diagnóstico de la instantánea actual del grafo para detectar problemas en los datos sembrados,
+ * como puertos sin rutas o regiones desconectadas del resto.
+ */
+@Service
+public class RouteGraphDiagnosticsService {
+
+    private final RouteGraphSnapshotProvider graphSnapshotProvider;
+    private final ConnectedComponentIndex connectedComponentIndex;
+
+    public RouteGraphDiagnosticsService(RouteGraphSnapshotProvider graphSnapshotProvider,
+                                        ConnectedComponentIndex connectedComponentIndex) {
+        this.graphSnapshotProvider = graphSnapshotProvider;
+        this.connectedComponentIndex = connectedComponentIndex;
+    }
+
+    public GraphComponentsResource summarizeComponents() {
+        RouteGraph graph = graphSnapshotProvider.current();
+        CompactRouteGraph compact = graph.compact();
+        ConnectedComponents components = connectedComponentIndex.componentsOf(graph);
+
+        List<Integer> sizes = Arrays.stream(components.componentSizes()).boxed()
+                .sorted(Comparator.reverseOrder())
+                .toList();
+        List<String> isolated = new ArrayList<>(components.isolatedCount());
+        for (int node = 0; node < compact.nodeCount(); node++) {
+            if (components.isIsolated(node)) {
+                isolated.add(compact.portAt(node).getName());
+            }
+        }
+        return new GraphComponentsResource(graph.getVersion(), compact.nodeCount(), components.componentCount(),
+                sizes, components.isolatedCount(), isolated);
+    }
+}
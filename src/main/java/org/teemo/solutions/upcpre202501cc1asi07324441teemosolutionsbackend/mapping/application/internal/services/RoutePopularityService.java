@@ -11,7 +11,9 @@ import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mappi
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.repositories.RoutePopularityRepository;
 
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +21,7 @@ public class RoutePopularityService {
 
     private static final Logger logger = LoggerFactory.getLogger(RoutePopularityService.class);
     private static final int MAX_LIMIT = 50;
+    private static final int ORIGIN_SAMPLE = 500;
 
     private final RoutePopularityRepository routePopularityRepository;
 
@@ -70,6 +73,28 @@ public class RoutePopularityService {
         return routePopularityRepository.findAll(pageRequest).getContent();
     }
 
+    /**
+     * Orígenes con más búsquedas, sumando las de todos sus destinos entre las {@value #ORIGIN_SAMPLE}
+     * combinaciones más populares.
+     */
+    public List<String> findTopOriginPortIds(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        PageRequest pageRequest = PageRequest.of(0, ORIGIN_SAMPLE, Sort.by(Sort.Direction.DESC, "searchesCount"));
+        Map<String, Long> searchesByOrigin = new HashMap<>();
+        for (RoutePopularityDocument document : routePopularityRepository.findAll(pageRequest).getContent()) {
+            if (document.getOriginPortId() != null) {
+                searchesByOrigin.merge(document.getOriginPortId(), document.getSearchesCount(), Long::sum);
+            }
+        }
+        return searchesByOrigin.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
     private String resolvePortIdentifier(Port port) {
         if (port == null) {
             return null;
@@ -0,0 +1,85 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices.RouteGraphSnapshotProvider;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.PortNotFoundException;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.RouteNotFoundException;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.ShortestPathTree;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.ReachabilityResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.ReachablePortResource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consultas de alcance (isócronas por distancia): todos los puertos a los que se llega desde un origen sin superar
+ * un presupuesto de distancia, con una única expansión de Dijkstra acotada sobre la instantánea actual del grafo.
+ * Los puertos deshabilitados y los indicados por el llamador no se atraviesan.
+ */
+@Service
+public class RouteReachabilityService {
+    private static final Logger logger = LoggerFactory.getLogger(RouteReachabilityService.class);
+
+    private final RouteGraphSnapshotProvider graphSnapshotProvider;
+    private final RouteService routeService;
+
+    public RouteReachabilityService(RouteGraphSnapshotProvider graphSnapshotProvider, RouteService routeService) {
+        this.graphSnapshotProvider = graphSnapshotProvider;
+        this.routeService = routeService;
+    }
+
+    /**
+     * @throws IllegalArgumentException si el presupuesto es negativo o no es un número.
+     * @throws PortNotFoundException si el origen no pertenece al grafo.
+     * @throws RouteNotFoundException si el origen está deshabilitado o se pidió evitarlo.
+     */
+    public ReachabilityResource findReachablePorts(String originPortId, double maxDistance, Set<String> avoidPortIds) {
+        if (Double.isNaN(maxDistance) || maxDistance < 0) {
+            throw new IllegalArgumentException("maxDistance debe ser un número no negativo");
+        }
+        RouteGraph graph = graphSnapshotProvider.current();
+        CompactRouteGraph compact = graph.compact();
+        int origin = originPortId != null ? compact.indexOfPortId(originPortId) : -1;
+        if (origin < 0) {
+            throw new PortNotFoundException("Puerto no encontrado: " + originPortId);
+        }
+
+        Set<String> avoided = new HashSet<>(routeService.loadDisabledPortIds());
+        if (avoidPortIds != null) {
+            avoided.addAll(avoidPortIds);
+        }
+        if (avoided.contains(originPortId)) {
+            throw new RouteNotFoundException("El puerto de origen '%s' esta deshabilitado o excluido.".formatted(
+                    compact.portAt(origin).getName()));
+        }
+
+        ShortestPathTree tree = ShortestPathTree.compute(compact, origin, compact.toNodeMask(avoided), maxDistance);
+        List<ReachablePortResource> reachable = new ArrayList<>(tree.getSettledCount());
+        for (int node = 0; node < compact.nodeCount(); node++) {
+            if (!tree.isReachable(node)) {
+                continue;
+            }
+            Port port = compact.portAt(node);
+            int predecessor = tree.predecessorOf(node);
+            reachable.add(new ReachablePortResource(
+                    port.getId(),
+                    port.getName(),
+                    port.getCoordinates().latitude(),
+                    port.getCoordinates().longitude(),
+                    tree.distanceTo(node),
+                    predecessor >= 0 ? compact.portAt(predecessor).getId() : null));
+        }
+        reachable.sort(Comparator.comparingDouble(ReachablePortResource::distance));
+        logger.debug("route.reachability.calculated version={} origin={} maxDistance={} reachable={}",
+                graph.getVersion(), originPortId, maxDistance, reachable.size());
+        return new ReachabilityResource(originPortId, maxDistance, graph.getVersion(), reachable);
+    }
+}
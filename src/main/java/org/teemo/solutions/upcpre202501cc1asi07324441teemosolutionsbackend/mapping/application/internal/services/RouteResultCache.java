@@ -0,0 +1,140 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.RouteGraphSnapshotListener;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Caché acotada de resultados de ruta con expulsión LRU por tamaño y expiración por TTL.
+ * La clave incluye la versión del grafo y la del conjunto de puertos inseguros, de modo que un resultado
+ * nunca se sirve para otro estado; además, cada instantánea nueva del grafo (por ejemplo al deshabilitar o
+ * habilitar un puerto) vacía la caché para liberar las entradas que ya no pueden acertar.
+ * Publica {@code route_cache_requests_total{result}}, {@code route_cache_evictions_total{cause}} y
+ * {@code route_cache_size}.
+ */
+@Component
+public class RouteResultCache implements RouteGraphSnapshotListener {
+
+    private final Clock clock;
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+
+    public RouteResultCache(RoutingProperties routingProperties, MeterRegistry meterRegistry, Clock clock) {
+        this.clock = clock;
+        this.maxEntries = routingProperties.getCache().getMaxEntries();
+        this.ttl = routingProperties.getCache().getTtl();
+        this.hits = meterRegistry.counter("route_cache_requests_total", "result", "hit");
+        this.misses = meterRegistry.counter("route_cache_requests_total", "result", "miss");
+        this.sizeEvictions = meterRegistry.counter("route_cache_evictions_total", "cause", "size");
+        this.expiredEvictions = meterRegistry.counter("route_cache_evictions_total", "cause", "expired");
+        this.invalidations = meterRegistry.counter("route_cache_evictions_total", "cause", "invalidated");
+        meterRegistry.gauge("route_cache_size", this, RouteResultCache::size);
+    }
+
+    /**
+     * @return El resultado guardado, o {@code null} si no existe o expiró.
+     */
+    public RouteComputationResult get(Key key) {
+        if (maxEntries <= 0) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (!clock.instant().isBefore(entry.expiresAt())) {
+                entries.remove(key);
+                expiredEvictions.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value();
+        }
+    }
+
+    public void put(Key key, RouteComputationResult value) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(value, clock.instant().plus(ttl)));
+            Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                sizeEvictions.increment();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations.increment(entries.size());
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void onSnapshotPublished(RouteGraph graph) {
+        invalidateAll();
+    }
+
+    /**
+     * Identidad de un cálculo: extremos, puertos evitados ordenados, versiones de los datos usados (grafo, puertos
+     * inseguros y zonas de peligro activas), capa de costes (0 para la distancia cruda, 1-12 para el mes de salida)
+     * y número de alternativas pedidas además de la ruta óptima.
+     */
+    public record Key(String startPortId,
+                      String endPortId,
+                      List<String> avoidPortIds,
+                      long graphVersion,
+                      long unsafePortsVersion,
+                      int costLayer,
+                      long hazardZonesVersion,
+                      int alternatives) {
+
+        public static Key of(String startPortId, String endPortId, Set<String> avoidPortIds,
+                             long graphVersion, long unsafePortsVersion, int costLayer, long hazardZonesVersion) {
+            List<String> sorted = avoidPortIds == null ? List.of() : avoidPortIds.stream().sorted().toList();
+            return new Key(startPortId, endPortId, sorted, graphVersion, unsafePortsVersion, costLayer,
+                    hazardZonesVersion, 0);
+        }
+
+        /**
+         * Misma ruta, acompañada de {@code count} alternativas.
+         */
+        public Key withAlternatives(int count) {
+            return new Key(startPortId, endPortId, avoidPortIds, graphVersion, unsafePortsVersion, costLayer,
+                    hazardZonesVersion, count);
+        }
+    }
+
+    private record Entry(RouteComputationResult value, Instant expiresAt) {}
+}
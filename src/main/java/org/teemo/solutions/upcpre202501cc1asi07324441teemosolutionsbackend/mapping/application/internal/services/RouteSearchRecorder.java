@@ -0,0 +1,55 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingExecutorConfig;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.documents.RouteDocument;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.repositories.RouteRepository;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Registra la popularidad de cada búsqueda fuera del hilo de la petición: la consulta de la ruta directa y la
+ * escritura del contador se hacen en el ejecutor de popularidad, de modo que una respuesta servida desde caché no
+ * espera a la base de datos. Es de mejor esfuerzo: si el ejecutor está saturado la búsqueda no se cuenta.
+ */
+@Component
+public class RouteSearchRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(RouteSearchRecorder.class);
+
+    private final RouteRepository routeRepository;
+    private final RoutePopularityService routePopularityService;
+    private final ExecutorService executor;
+
+    public RouteSearchRecorder(RouteRepository routeRepository,
+                               RoutePopularityService routePopularityService,
+                               @Qualifier(RoutingExecutorConfig.POPULARITY_EXECUTOR) ExecutorService executor) {
+        this.routeRepository = routeRepository;
+        this.routePopularityService = routePopularityService;
+        this.executor = executor;
+    }
+
+    public void record(Port startPort, Port endPort) {
+        try {
+            executor.execute(() -> register(startPort, endPort));
+        } catch (RejectedExecutionException ex) {
+            logger.warn("route.popularity.rejected origin={} destination={}", startPort.getName(), endPort.getName());
+        }
+    }
+
+    private void register(Port startPort, Port endPort) {
+        try {
+            String routeId = routeRepository.findByHomePortAndDestinationPort(startPort.getName(), endPort.getName())
+                    .map(RouteDocument::getId)
+                    .orElse(null);
+            routePopularityService.registerSearch(startPort, endPort, routeId);
+        } catch (Exception ex) {
+            logger.warn("route.popularity.failed origin={} destination={} message={}",
+                    startPort.getName(), endPort.getName(), ex.getMessage());
+        }
+    }
+}
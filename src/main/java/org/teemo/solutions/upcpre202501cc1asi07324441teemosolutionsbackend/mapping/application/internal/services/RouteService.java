@@ -6,27 +6,43 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices.RouteGraphSnapshotProvider;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.NoViableRouteAvoidingDisabledPortsException;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.PortNotFoundException;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.RouteNotFoundException;
-import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.GeoUtils;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardZone;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.ParetoRoute;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGeometry;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteHistorySource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteLeg;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RoutePath;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteHistoryStatus;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SearchMode;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.HazardZoneProvider;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.RouteCalculatorService;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.SafetyValidator;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.mappers.PortMapper;
-import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.documents.PortDocument;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.documents.RouteDocument;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.repositories.PortRepository;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.repositories.RouteRepository;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.CoordinatesResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.ParetoRouteResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.ParetoRoutesResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.RouteAlternativeResource;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.RouteCalculationResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.RouteLegResource;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.RouteRecalculationResource;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services.RouteHistoryContext;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services.RouteHistoryPersistRequest;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services.RouteHistoryService;
 
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Month;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -47,14 +63,29 @@ public class RouteService {
     private final PortRepository portRepository;
     private final RouteCalculatorService routeCalculatorService;
     private final SafetyValidator safetyValidator;
-    private final GeoUtils geoUtils;
+    private final HazardZoneProvider hazardZoneProvider;
     private final PortMapper portMapper;
     private final RouteHistoryService routeHistoryService;
-    private final RoutePopularityService routePopularityService;
-
-    public void saveAllRoutes(List<RouteDocument> routes) { routeRepository.saveAll(routes); }
+    private final RouteSearchRecorder routeSearchRecorder;
+    private final RouteGraphSnapshotProvider graphSnapshotProvider;
+    private final RouteResultCache routeResultCache;
+    private final InFlightRouteComputations inFlightRouteComputations;
+    private final RouteGeometryService routeGeometryService;
+    private final RoutingProperties routingProperties;
+    private final Clock clock;
+
+    // Puertos deshabilitados de la última instantánea consultada.
+    private volatile DisabledPorts disabledPorts;
+
+    public void saveAllRoutes(List<RouteDocument> routes) {
+        routeRepository.saveAll(routes);
+        graphSnapshotProvider.refresh();
+    }
     public boolean existsByHomePortAndDestinationPort(String h, String d) { return routeRepository.existsByHomePortAndDestinationPort(h, d); }
-    public void deleteAllRoutes() { routeRepository.deleteAll(); }
+    public void deleteAllRoutes() {
+        routeRepository.deleteAll();
+        graphSnapshotProvider.refresh();
+    }
     public List<RouteDocument> findAllRoutes() { return routeRepository.findAll(); }
 
     public RouteCalculationResource calculateOptimalRoute(String startPortId, String endPortId) {
@@ -71,12 +102,76 @@ public class RouteService {
 
     public RouteCalculationResource calculateOptimalRoute(String startPortId, String endPortId, Set<String> avoidPortIds,
                                                           RouteHistoryContext historyContext) {
-        Port startPort = findPortByIdOrThrow(startPortId);
-        Port endPort = findPortByIdOrThrow(endPortId);
-        RouteComputationResult result = computeRoute(startPort, endPort, avoidPortIds, false);
+        return calculateOptimalRoute(startPortId, endPortId, avoidPortIds, historyContext, RouteCalculationOptions.defaults());
+    }
+
+    public RouteCalculationResource calculateOptimalRoute(String startPortId, String endPortId, Set<String> avoidPortIds,
+                                                          RouteHistoryContext historyContext, SearchMode searchMode) {
+        return calculateOptimalRoute(startPortId, endPortId, avoidPortIds, historyContext,
+                RouteCalculationOptions.builder().searchMode(searchMode).build());
+    }
+
+    /**
+     * Calcula la ruta óptima y, si se piden varias rutas, hasta {@code routeCount - 1} alternativas diversas sobre la
+     * misma instantánea del grafo. La ruta óptima y el conjunto con alternativas se guardan en caché por separado;
+     * sólo la ruta óptima se guarda en el historial.
+     * @throws IllegalArgumentException si {@code routeCount} está fuera de {@code 1..routing.alternatives.max-routes}.
+     */
+    public RouteCalculationResource calculateOptimalRoute(String startPortId, String endPortId, Set<String> avoidPortIds,
+                                                          RouteHistoryContext historyContext,
+                                                          RouteCalculationOptions options) {
+        int routeCount = options.effectiveRouteCount();
+        int maxRoutes = routingProperties.getAlternatives().getMaxRoutes();
+        if (routeCount < 1 || routeCount > maxRoutes) {
+            throw new IllegalArgumentException("k debe estar entre 1 y %d".formatted(maxRoutes));
+        }
+        // Extremos y puertos deshabilitados salen de la instantánea: un acierto de caché no consulta la base de datos.
+        RouteGraph graph = graphSnapshotProvider.current();
+        Port startPort = findPortInSnapshotOrThrow(graph, startPortId);
+        Port endPort = findPortInSnapshotOrThrow(graph, endPortId);
+        RouteComputationResult result = computeRoute(graph, disabledPortIdsFor(graph), startPort, endPort, avoidPortIds, false,
+                options.searchMode(), options.departureMonth());
         recordRouteSearch(startPort, endPort);
-        persistSuccessfulHistory(historyContext, startPort, endPort, result, historyContext != null ? historyContext.routeId() : null);
-        return result.response();
+        RouteGeometry geometry = routeGeometryService.buildRoute(result.ports());
+        persistSuccessfulHistory(historyContext, startPort, endPort, result,
+                historyContext != null ? historyContext.routeId() : null, geometry);
+        RouteCalculationResource response = result.response().withGeometry(routeGeometryService.toResource(geometry));
+        if (routeCount == 1) {
+            return response;
+        }
+        // Las alternativas se guardan y se comparten entre llamadores concurrentes igual que la ruta óptima.
+        RouteResultCache.Key alternativesKey = result.key().withAlternatives(routeCount - 1);
+        RouteComputationResult withAlternatives = routeResultCache.get(alternativesKey);
+        if (withAlternatives == null) {
+            withAlternatives = inFlightRouteComputations.computeOnce(alternativesKey,
+                    () -> calculateAlternativesAndCache(alternativesKey, graph, result, options.departureMonth()));
+        }
+        return response.withAlternatives(withAlternatives.response().alternatives());
+    }
+
+    private RouteComputationResult calculateAlternativesAndCache(RouteResultCache.Key alternativesKey, RouteGraph graph,
+                                                                 RouteComputationResult optimal, Month departureMonth) {
+        List<RoutePath> alternatives = routeCalculatorService.calculateAlternativePaths(
+                graph, optimal.path(), optimal.effectiveAvoidPortIds(), alternativesKey.alternatives(), departureMonth);
+        RouteComputationResult result = new RouteComputationResult(optimal.path(),
+                optimal.response().withAlternatives(toAlternativeResources(graph, optimal.path(), alternatives)),
+                optimal.effectiveAvoidPortIds(), alternativesKey);
+        routeResultCache.put(alternativesKey, result);
+        return result;
+    }
+
+    /**
+     * Calcula una ruta como parte de un lote. La instantánea del grafo y los puertos deshabilitados se leen una
+     * sola vez para todo el lote, los puertos se resuelven desde la instantánea y no se registra historial ni
+     * popularidad, para que un trabajo de planificación no distorsione las estadísticas de uso.
+     */
+    public RouteCalculationResource calculateOptimalRouteInBatch(RouteGraph snapshot, Set<String> disabledPortIds,
+                                                                 String startPortId, String endPortId,
+                                                                 Set<String> avoidPortIds, SearchMode searchMode) {
+        Port startPort = findPortInSnapshotOrThrow(snapshot, startPortId);
+        Port endPort = findPortInSnapshotOrThrow(snapshot, endPortId);
+        Set<String> avoid = avoidPortIds != null ? avoidPortIds : Collections.emptySet();
+        return computeRoute(snapshot, disabledPortIds, startPort, endPort, avoid, false, searchMode, null).response();
     }
 
     public RouteRecalculationResource recalculateRouteAvoidingDisabledPorts(String routeId) {
@@ -90,7 +185,7 @@ public class RouteService {
         Port startPort = findPortByNameAndContinentOrThrow(routeDocument.getHomePort(), routeDocument.getHomePortContinent());
         Port endPort = findPortByNameAndContinentOrThrow(routeDocument.getDestinationPort(), routeDocument.getDestinationPortContinent());
 
-        RouteComputationResult current = computeRoute(startPort, endPort, Collections.emptySet(), true);
+        RouteComputationResult current = computeRoute(startPort, endPort, Collections.emptySet(), true, null);
 
         List<String> disabledPortIds = current.ports().stream()
                 .filter(Port::isDisabled)
@@ -100,7 +195,7 @@ public class RouteService {
                 .toList();
 
         if (disabledPortIds.isEmpty()) {
-            persistSuccessfulHistory(historyContext, startPort, endPort, current, routeId);
+            persistSuccessfulHistory(historyContext, startPort, endPort, current, routeId, null);
             return new RouteRecalculationResource(routeId, current.response().optimalRoute(), false, List.of());
         }
 
@@ -116,8 +211,8 @@ public class RouteService {
         logger.info("route.recalculate routeId={} avoidedPortCount={}", routeId, avoidPortIds.size());
 
         try {
-            RouteComputationResult recalculated = computeRoute(startPort, endPort, avoidPortIds, false);
-            persistSuccessfulHistory(historyContext, startPort, endPort, recalculated, routeId);
+            RouteComputationResult recalculated = computeRoute(startPort, endPort, avoidPortIds, false, null);
+            persistSuccessfulHistory(historyContext, startPort, endPort, recalculated, routeId, null);
             return new RouteRecalculationResource(
                     routeId,
                     recalculated.response().optimalRoute(),
@@ -133,35 +228,23 @@ public class RouteService {
         }
     }
 
-    public double calculateTotalDistance(List<Port> route) {
-        double total = 0.0;
-        for (int i = 0; i < route.size() - 1; i++) {
-            Port currentPort = route.get(i);
-            Port nextPort = route.get(i + 1);
-
-            double segmentDistance = routeRepository.findByHomePortAndDestinationPort(currentPort.getName(), nextPort.getName())
-                    .map(RouteDocument::getDistance)
-                    .orElseGet(() -> {
-                        logger.warn("Ruta no documentada entre {} y {}. Usando distancia Haversine como fallback.",
-                                currentPort.getName(), nextPort.getName());
-                        return geoUtils.calculateHaversineDistance(currentPort, nextPort);
-                    });
-
-            total += segmentDistance;
-        }
-        return total;
-    }
-
     private void persistSuccessfulHistory(RouteHistoryContext context,
                                           Port startPort,
                                           Port endPort,
                                           RouteComputationResult computationResult,
-                                          String routeId) {
+                                          String routeId,
+                                          RouteGeometry geometry) {
         if (!shouldPersistHistory(context)) {
             return;
         }
+        // Si el cliente no manda su propia geometría, se guarda la del nivel de más detalle.
+        RouteGeometry routeGeometry = geometry != null ? geometry : routeGeometryService.buildRoute(computationResult.ports());
+        String pathEncoding = context.pathEncoding() != null || routeGeometry == null
+                ? context.pathEncoding() : routeGeometry.polyline(routeGeometry.finestLevel());
+        Map<String, Object> geojson = context.geojson() != null || routeGeometry == null
+                ? context.geojson() : routeGeometry.toGeoJson(routeGeometry.finestLevel());
         RouteCalculationResource response = computationResult.response();
-        List<String> waypointIds = extractWaypointPortIds(computationResult.ports());
+        List<String> waypointIds = computationResult.path().waypointPortIds();
         List<String> avoidedIds = toSortedList(computationResult.effectiveAvoidPortIds());
         RouteHistoryPersistRequest request = RouteHistoryPersistRequest.builder()
                 .userId(context.userId())
@@ -180,8 +263,8 @@ public class RouteService {
                 .source(context.source() != null ? context.source() : RouteHistorySource.MANUAL)
                 .notes(context.notes())
                 .engineVersion(context.engineVersion())
-                .pathEncoding(context.pathEncoding())
-                .geojson(context.geojson())
+                .pathEncoding(pathEncoding)
+                .geojson(geojson)
                 .metadata(buildMetadata(context, computationResult.ports().size(), avoidedIds.size()))
                 .build();
         routeHistoryService.save(request);
@@ -222,16 +305,6 @@ public class RouteService {
         return context != null && context.userId() != null;
     }
 
-    private List<String> extractWaypointPortIds(List<Port> ports) {
-        if (ports.size() <= 2) {
-            return List.of();
-        }
-        return ports.subList(1, ports.size() - 1).stream()
-                .map(Port::getId)
-                .filter(Objects::nonNull)
-                .toList();
-    }
-
     private List<String> toSortedList(Set<String> values) {
         if (values == null || values.isEmpty()) {
             return List.of();
@@ -249,12 +322,56 @@ public class RouteService {
         return metadata;
     }
 
+    /**
+     * Frente de Pareto entre distancia, puertos inseguros y probabilidad de peligro meteorológico, para que el
+     * planificador elija la ruta. Los puertos deshabilitados se evitan siempre. No se guarda en caché ni en historial:
+     * la ruta elegida se calcula y registra después como cualquier otra.
+     * @param departureDate Fecha de salida; sin ella se usa el mes actual.
+     */
+    public ParetoRoutesResource calculateParetoRoutes(String startPortId, String endPortId, Set<String> avoidPortIds,
+                                                      LocalDate departureDate) {
+        RouteGraph graph = graphSnapshotProvider.current();
+        Port startPort = findPortInSnapshotOrThrow(graph, startPortId);
+        Port endPort = findPortInSnapshotOrThrow(graph, endPortId);
+        Set<String> disabledPortIds = disabledPortIdsFor(graph);
+        validateEndpointsAvailability(startPort, endPort, disabledPortIds);
+        Set<String> effectiveAvoidPortIds = new HashSet<>(avoidPortIds != null ? avoidPortIds : Set.of());
+        effectiveAvoidPortIds.addAll(disabledPortIds);
+        Month month = (departureDate != null ? departureDate : LocalDate.now(clock)).getMonth();
+
+        List<ParetoRoute> routes = routeCalculatorService.calculateParetoRoutes(
+                graph, startPort, endPort, effectiveAvoidPortIds, month);
+        recordRouteSearch(startPort, endPort);
+        List<ParetoRouteResource> resources = new ArrayList<>(routes.size());
+        for (int i = 0; i < routes.size(); i++) {
+            ParetoRoute route = routes.get(i);
+            List<Port> ports = route.path().ports();
+            resources.add(new ParetoRouteResource(
+                    i + 1,
+                    ports.stream().map(Port::getName).toList(),
+                    route.totalDistance(),
+                    route.unsafePortCount(),
+                    route.hazardProbability(),
+                    safetyValidator.validateFullRoute(ports),
+                    toLegResources(route.path(), routeCalculatorService.findLegHazards(graph, route.path())),
+                    routeGeometryService.toResource(routeGeometryService.buildRoute(ports))));
+        }
+        return new ParetoRoutesResource(startPort.getName(), endPort.getName(), month.getValue(), graph.getVersion(),
+                resources);
+    }
+
     private Port findPortByIdOrThrow(String portId) {
         return portRepository.findById(portId)
                 .map(portMapper::toDomain)
                 .orElseThrow(() -> new PortNotFoundException("Puerto no encontrado: " + portId));
     }
 
+    private Port findPortInSnapshotOrThrow(RouteGraph snapshot, String portId) {
+        CompactRouteGraph compact = snapshot.compact();
+        int node = compact.indexOfPortId(portId);
+        return node >= 0 ? compact.portAt(node) : findPortByIdOrThrow(portId);
+    }
+
     private Port findPortByNameAndContinentOrThrow(String name, String continent) {
         return portRepository.findByNameAndContinent(name, continent)
                 .map(portMapper::toDomain)
@@ -271,8 +388,65 @@ public class RouteService {
                 ));
     }
 
-    private RouteComputationResult computeRoute(Port startPort, Port endPort, Set<String> avoidPortIds, boolean includeDisabledPorts) {
-        Set<String> disabledPortIds = loadDisabledPortIds();
+    private List<RouteAlternativeResource> toAlternativeResources(RouteGraph graph, RoutePath optimal,
+                                                                  List<RoutePath> alternatives) {
+        List<RouteAlternativeResource> resources = new ArrayList<>(alternatives.size());
+        for (int i = 0; i < alternatives.size(); i++) {
+            RoutePath alternative = alternatives.get(i);
+            resources.add(new RouteAlternativeResource(
+                    i + 1,
+                    alternative.ports().stream().map(Port::getName).toList(),
+                    alternative.totalDistance(),
+                    alternative.overlapWith(optimal),
+                    safetyValidator.validateFullRoute(alternative.ports()),
+                    toLegResources(alternative, routeCalculatorService.findLegHazards(graph, alternative))));
+        }
+        return resources;
+    }
+
+    /**
+     * @param legHazards Zonas de peligro que cruza cada tramo, en el orden de {@link RoutePath#legs()}.
+     */
+    private List<RouteLegResource> toLegResources(RoutePath path, List<List<HazardZone>> legHazards) {
+        List<RouteLeg> legs = path.legs();
+        List<RouteLegResource> resources = new ArrayList<>(legs.size());
+        for (int i = 0; i < legs.size(); i++) {
+            RouteLeg leg = legs.get(i);
+            resources.add(new RouteLegResource(
+                    leg.from().getId(),
+                    leg.from().getName(),
+                    leg.to().getId(),
+                    leg.to().getName(),
+                    leg.distance(),
+                    leg.cumulativeDistance(),
+                    leg.routeId(),
+                    legHazards.get(i).stream().map(HazardZone::name).toList()));
+        }
+        return resources;
+    }
+
+    private List<String> hazardWarnings(RoutePath path, List<List<HazardZone>> legHazards) {
+        List<String> warnings = new ArrayList<>();
+        for (int i = 0; i < legHazards.size(); i++) {
+            RouteLeg leg = path.legs().get(i);
+            for (HazardZone zone : legHazards.get(i)) {
+                warnings.add("[ALERTA] El tramo %s → %s cruza la zona de peligro activa '%s' (probabilidad %.0f%%)."
+                        .formatted(leg.from().getName(), leg.to().getName(), zone.name(), zone.probability() * 100.0));
+            }
+        }
+        return warnings;
+    }
+
+    private RouteComputationResult computeRoute(Port startPort, Port endPort, Set<String> avoidPortIds,
+                                                boolean includeDisabledPorts, SearchMode searchMode) {
+        return computeRoute(graphSnapshotProvider.current(), loadDisabledPortIds(),
+                startPort, endPort, avoidPortIds, includeDisabledPorts, searchMode, null);
+    }
+
+    private RouteComputationResult computeRoute(RouteGraph graph, Set<String> disabledPortIds,
+                                                Port startPort, Port endPort, Set<String> avoidPortIds,
+                                                boolean includeDisabledPorts, SearchMode searchMode,
+                                                Month departureMonth) {
         validateEndpointsAvailability(startPort, endPort, disabledPortIds);
 
         Set<String> effectiveAvoidPortIds = new HashSet<>(avoidPortIds);
@@ -280,25 +454,68 @@ public class RouteService {
             effectiveAvoidPortIds.addAll(disabledPortIds);
         }
 
-        List<Port> optimalRoute = routeCalculatorService.calculateOptimalRoute(startPort, endPort, effectiveAvoidPortIds);
-        double totalDistance = calculateTotalDistance(optimalRoute);
-        List<String> warnings = safetyValidator.validateFullRoute(optimalRoute);
+        RouteResultCache.Key cacheKey = RouteResultCache.Key.of(startPort.getId(), endPort.getId(), effectiveAvoidPortIds,
+                graph.getVersion(), safetyValidator.getUnsafePortsVersion(),
+                departureMonth != null ? departureMonth.getValue() : 0,
+                hazardZoneProvider.getActiveHazardZones().version());
+        RouteComputationResult cached = routeResultCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        // Los llamadores concurrentes con la misma clave comparten un único cálculo; el historial sigue siendo
+        // responsabilidad de cada uno.
+        return inFlightRouteComputations.computeOnce(cacheKey, () -> calculateAndCache(
+                cacheKey, graph, startPort, endPort, effectiveAvoidPortIds, searchMode, departureMonth));
+    }
+
+    private RouteComputationResult calculateAndCache(RouteResultCache.Key cacheKey, RouteGraph graph,
+                                                     Port startPort, Port endPort, Set<String> effectiveAvoidPortIds,
+                                                     SearchMode searchMode, Month departureMonth) {
+        RoutePath path = routeCalculatorService.calculateOptimalPath(
+                graph, startPort, endPort, effectiveAvoidPortIds, searchMode, departureMonth);
+        List<Port> optimalRoute = path.ports();
+        List<List<HazardZone>> legHazards = routeCalculatorService.findLegHazards(graph, path);
+        List<String> warnings = new ArrayList<>(safetyValidator.validateFullRoute(optimalRoute));
+        warnings.addAll(hazardWarnings(path, legHazards));
         RouteCalculationResource response = new RouteCalculationResource(
                 optimalRoute.stream().map(Port::getName).toList(),
-                totalDistance,
+                path.totalDistance(),
                 warnings,
-                createCoordinatesMapping(optimalRoute)
+                createCoordinatesMapping(optimalRoute),
+                toLegResources(path, legHazards)
         );
-        return new RouteComputationResult(optimalRoute, response, Collections.unmodifiableSet(effectiveAvoidPortIds));
+        RouteComputationResult result = new RouteComputationResult(path, response, Collections.unmodifiableSet(effectiveAvoidPortIds),
+                cacheKey);
+        routeResultCache.put(cacheKey, result);
+        return result;
     }
 
-    private Set<String> loadDisabledPortIds() {
-        return portRepository.findByDisabled(true).stream()
-                .map(PortDocument::getId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+    /**
+     * Ids de los puertos deshabilitados en la instantánea vigente, que se reconstruye cada vez que un puerto se
+     * habilita o deshabilita.
+     */
+    public Set<String> loadDisabledPortIds() {
+        return disabledPortIdsFor(graphSnapshotProvider.current());
+    }
+
+    /**
+     * Ids de los puertos deshabilitados en la instantánea, calculados una vez por versión del grafo.
+     */
+    private Set<String> disabledPortIdsFor(RouteGraph graph) {
+        DisabledPorts cached = disabledPorts;
+        if (cached == null || cached.graphVersion() != graph.getVersion()) {
+            CompactRouteGraph compact = graph.compact();
+            cached = new DisabledPorts(graph.getVersion(), compact.disabledNodes().stream()
+                    .mapToObj(node -> compact.portAt(node).getId())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toUnmodifiableSet()));
+            disabledPorts = cached;
+        }
+        return cached.portIds();
     }
 
+    private record DisabledPorts(long graphVersion, Set<String> portIds) {}
+
     private void validateEndpointsAvailability(Port startPort, Port endPort, Set<String> disabledPortIds) {
         if (startPort.getId() != null && disabledPortIds.contains(startPort.getId())) {
             throw new RouteNotFoundException("El puerto de origen '%s' esta deshabilitado temporalmente.".formatted(startPort.getName()));
@@ -309,17 +526,6 @@ public class RouteService {
     }
 
     private void recordRouteSearch(Port startPort, Port endPort) {
-        try {
-            String routeId = routeRepository.findByHomePortAndDestinationPort(startPort.getName(), endPort.getName())
-                    .map(RouteDocument::getId)
-                    .orElse(null);
-            routePopularityService.registerSearch(startPort, endPort, routeId);
-        } catch (Exception ex) {
-            logger.warn("route.popularity.failed origin={} destination={} message={}",
-                    startPort != null ? startPort.getName() : "unknown",
-                    endPort != null ? endPort.getName() : "unknown",
-                    ex.getMessage());
-        }
+        routeSearchRecorder.record(startPort, endPort);
     }
-    private record RouteComputationResult(List<Port> ports, RouteCalculationResource response, Set<String> effectiveAvoidPortIds) {}
 }
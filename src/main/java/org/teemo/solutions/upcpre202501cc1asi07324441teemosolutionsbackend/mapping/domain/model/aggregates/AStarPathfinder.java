@@ -2,20 +2,37 @@ package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapp
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Route;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.RouteNotFoundException;
-import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.GeoUtils;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.EdgeCostLayer;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardExposure;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.IndexedMinHeap;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.LandmarkTable;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.PathfindingHeuristic;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RoutePath;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SearchMode;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SearchWorkspace;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SeasonalEdgeCosts;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.UnsafePortsSnapshot;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.NavigationConditionsProvider;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.RouteGraphSnapshotListener;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.SafetyValidator;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingExecutorConfig;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
 
 import java.time.Clock;
+import java.time.Month;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 @Component
-public class AStarPathfinder {
+public class AStarPathfinder implements RouteGraphSnapshotListener {
     private static final Logger logger = LoggerFactory.getLogger(AStarPathfinder.class);
 
     // --- Constantes de Costes y Heurísticas ---
@@ -28,110 +45,489 @@ public class AStarPathfinder {
 
     private final SafetyValidator safetyValidator;
     private final NavigationConditionsProvider navConditions;
-    private final GeoUtils geoUtils;
     private final Clock clock;
+    private final RoutingProperties routingProperties;
+    private final ExecutorService executor;
 
-    private record Node(Port port, double gScore, double hScore) {
-        public double fScore() { return gScore + hScore; }
-    }
+    private static final ThreadLocal<SearchWorkspace> WORKSPACE = ThreadLocal.withInitial(SearchWorkspace::new);
+    private static final ThreadLocal<SearchWorkspace> REVERSE_WORKSPACE = ThreadLocal.withInitial(SearchWorkspace::new);
+
+    // Tabla ALT de la última instantánea procesada; se sustituye entera cuando cambia el grafo.
+    private volatile LandmarkTable landmarks;
+    // Capas de costes mensuales de la última instantánea procesada.
+    private volatile SeasonalEdgeCosts seasonalCosts;
+    // Última instantánea publicada, aunque su preprocesamiento aún no haya terminado.
+    private volatile CompactRouteGraph latest;
+    // Nodos inseguros de la última pareja (instantánea, versión de puertos inseguros) vista.
+    private volatile UnsafeNodes unsafeNodes;
 
     public AStarPathfinder(SafetyValidator safetyValidator,
                            NavigationConditionsProvider navConditions,
-                           GeoUtils geoUtils,
-                           Clock clock) {
+                           Clock clock,
+                           RoutingProperties routingProperties,
+                           @Qualifier(RoutingExecutorConfig.PREPROCESSING_EXECUTOR) ExecutorService executor) {
         this.safetyValidator = safetyValidator;
         this.navConditions = navConditions;
-        this.geoUtils = geoUtils;
         this.clock = clock;
+        this.routingProperties = routingProperties;
+        this.executor = executor;
     }
 
+    /**
+     * Precalcula en segundo plano los landmarks y las capas mensuales de la instantánea recién publicada, fuera del
+     * hilo que la publica y del de las peticiones. Mientras no estén listos, las búsquedas usan la cota cero (Dijkstra,
+     * igual de óptimo) y compilan sólo la capa del mes que piden.
+     */
+    @Override
+    public void onSnapshotPublished(RouteGraph graph) {
+        CompactRouteGraph compact = graph.compact();
+        latest = compact;
+        try {
+            executor.execute(() -> precompute(compact));
+        } catch (RejectedExecutionException ex) {
+            logger.warn("astar.precompute_rejected version={} message={}", compact.getVersion(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Fachada basada en {@link Port}: traduce los puertos a identificadores densos del grafo compacto,
+     * ejecuta la búsqueda primitiva y devuelve el camino como lista de puertos.
+     */
     public List<Port> findOptimalRoute(Port start, Port end, RouteGraph graph, Set<String> avoidPortIds) {
+        return findOptimalRoute(start, end, graph, avoidPortIds, null);
+    }
+
+    /**
+     * @param searchMode Estrategia de búsqueda; {@code null} usa {@code routing.search-mode}.
+     */
+    public List<Port> findOptimalRoute(Port start, Port end, RouteGraph graph, Set<String> avoidPortIds,
+                                       SearchMode searchMode) {
+        return findRoute(start, end, graph, avoidPortIds, searchMode).ports();
+    }
+
+    /**
+     * Igual que {@link #findOptimalRoute(Port, Port, RouteGraph, Set, SearchMode)}, pero devuelve el camino con
+     * la distancia e identidad de cada tramo.
+     */
+    public RoutePath findRoute(Port start, Port end, RouteGraph graph, Set<String> avoidPortIds, SearchMode searchMode) {
+        return findRoute(start, end, graph, avoidPortIds, searchMode, null);
+    }
+
+    /**
+     * Igual que {@link #findRoute(Port, Port, RouteGraph, Set, SearchMode)}, pero minimizando el coste estacional del
+     * mes de salida (monzón, hielo ártico y corrientes) en lugar de la distancia cruda. Los costes se leen de la capa
+     * precompilada para ese mes. El camino devuelto informa igualmente las distancias reales de cada tramo.
+     * @param departureMonth Mes de salida; {@code null} usa la distancia cruda.
+     */
+    public RoutePath findRoute(Port start, Port end, RouteGraph graph, Set<String> avoidPortIds, SearchMode searchMode,
+                               Month departureMonth) {
+        return findRoute(start, end, graph, avoidPortIds, searchMode, departureMonth, null);
+    }
+
+    /**
+     * Igual que {@link #findRoute(Port, Port, RouteGraph, Set, SearchMode, Month)}, evitando además los arcos que
+     * {@code hazards} bloquea y sumando su penalización al coste del resto de arcos afectados.
+     * @param hazards Efecto de las zonas de peligro activas sobre {@code graph}; puede ser {@code null}.
+     */
+    public RoutePath findRoute(Port start, Port end, RouteGraph graph, Set<String> avoidPortIds, SearchMode searchMode,
+                               Month departureMonth, HazardExposure hazards) {
 
         logger.info("Iniciando búsqueda de ruta desde el puerto: Nombre='{}', Continente='{}', HashCode={}",
                 start.getName(), start.getContinent(), start.hashCode());
 
-        validateInputs(start, end, graph);
+        CompactRouteGraph compact = graph.compact();
+        int startNode = compact.indexOf(start);
+        int endNode = compact.indexOf(end);
+        validateInputs(start, end, startNode, endNode);
         validateAvoidedEndpoints(start, end, avoidPortIds);
 
-        final Set<String> unsafePortNames = safetyValidator.getUnsafePortNames();
-        logger.info("Búsqueda A* iniciada con {} puertos marcados como inseguros.", unsafePortNames.size());
+        // Snapshot en memoria: la búsqueda no consulta la colección de eventos.
+        UnsafePortsSnapshot unsafePorts = safetyValidator.getUnsafePortsSnapshot();
+        logger.info("Búsqueda A* iniciada con {} puertos marcados como inseguros (versión {}).",
+                unsafePorts.portNames().size(), unsafePorts.version());
+
+        SearchMode mode = searchMode != null ? searchMode : routingProperties.getSearchMode();
+        BitSet avoided = compact.toNodeMask(avoidPortIds);
+        EdgeCostLayer layer = departureMonth != null ? seasonalLayerFor(compact, departureMonth) : null;
+        BitSet penalized = penalizedNodesFor(compact, unsafePorts);
+        int[] arcs = mode == SearchMode.BIDIRECTIONAL
+                ? findOptimalArcsBidirectional(compact, startNode, endNode, avoided, layer, penalized, hazards)
+                : findOptimalArcs(compact, startNode, endNode, avoided, null, layer, penalized, hazards);
+        if (arcs == null) {
+            logger.warn("No se pudo encontrar una ruta desde '{}' hasta '{}'", start.getName(), end.getName());
+            throw new RouteNotFoundException(start.getName(), end.getName());
+        }
+        return RoutePath.fromArcs(compact, startNode, arcs);
+    }
+
+    /**
+     * Capa de costes que minimiza la búsqueda para un mes de salida.
+     * @return La capa del mes, o {@code null} si no hay mes (distancia cruda).
+     */
+    public EdgeCostLayer costLayerFor(CompactRouteGraph graph, Month departureMonth) {
+        return departureMonth != null ? seasonalLayerFor(graph, departureMonth) : null;
+    }
 
-        PriorityQueue<Node> openSet = new PriorityQueue<>(Comparator.comparingDouble(Node::fScore));
-        Map<Port, Double> gScore = new HashMap<>();
-        Map<Port, Port> cameFrom = new HashMap<>();
+    /**
+     * @return Los nodos que la búsqueda penaliza por inseguros, o {@code null} si la penalización está desactivada
+     *         o no hay puertos inseguros.
+     */
+    public BitSet penalizedNodesFor(CompactRouteGraph graph) {
+        return penalizedNodesFor(graph, safetyValidator.getUnsafePortsSnapshot());
+    }
 
-        initializeSearch(start, end, openSet, gScore);
+    /**
+     * Coste de recorrer {@code arc} desde {@code source} con el mismo modelo que la búsqueda: capa de costes o
+     * distancia, penalización de seguridad y penalización por zonas de peligro.
+     * @return El coste, o infinito si una zona de peligro bloquea el arco.
+     */
+    public double edgeCost(CompactRouteGraph graph, EdgeCostLayer layer, BitSet penalized, HazardExposure hazards,
+                           int source, int arc) {
+        if (hazards != null && hazards.isBlocked(arc)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return calculateTotalEdgeCost(graph, layer, arc) + calculateSafetyFactor(penalized, source, graph.target(arc))
+                + calculateHazardPenalty(hazards, arc);
+    }
 
+    /**
+     * Arcos de un camino dado por nodos: entre rutas paralelas, el más barato con el mismo modelo de costes que la
+     * búsqueda, para que el camino informe los tramos que ella habría elegido.
+     * @throws IllegalStateException si dos nodos consecutivos no están conectados por un arco no bloqueado.
+     */
+    public int[] arcsAlong(CompactRouteGraph graph, int[] nodes, EdgeCostLayer layer, HazardExposure hazards) {
+        int[] arcs = new int[Math.max(0, nodes.length - 1)];
+        for (int i = 1; i < nodes.length; i++) {
+            arcs[i - 1] = cheapestArc(graph, layer, hazards, nodes[i - 1], nodes[i]);
+        }
+        return arcs;
+    }
+
+    /**
+     * Variante primitiva de A*: trabaja con identificadores enteros sobre el {@link SearchWorkspace}
+     * del hilo actual (arreglos de distancias y predecesores más un montículo indexado con decrease-key),
+     * de modo que una consulta con el workspace ya dimensionado solo reserva memoria para el resultado.
+     * @param avoided Nodos que no pueden atravesarse (puede ser {@code null}).
+     * @return Los nodos del camino desde {@code start} hasta {@code end}, o {@code null} si no existe ruta.
+     */
+    public int[] findOptimalPath(CompactRouteGraph graph, int start, int end, BitSet avoided) {
+        return findOptimalPath(graph, start, end, avoided, null, null);
+    }
+
+    /**
+     * Igual que {@link #findOptimalPath(CompactRouteGraph, int, int, BitSet)}, pero además sin usar los arcos de
+     * {@code blockedArcs} (índices de arco del grafo compacto). Lo usan las búsquedas de rutas alternativas.
+     */
+    public int[] findOptimalPath(CompactRouteGraph graph, int start, int end, BitSet avoided, BitSet blockedArcs) {
+        return findOptimalPath(graph, start, end, avoided, blockedArcs, null);
+    }
+
+    /**
+     * @param layer Capa de costes a minimizar; {@code null} usa la distancia cruda de cada arco.
+     */
+    public int[] findOptimalPath(CompactRouteGraph graph, int start, int end, BitSet avoided, BitSet blockedArcs,
+                                 EdgeCostLayer layer) {
+        return findOptimalPath(graph, start, end, avoided, blockedArcs, layer, null);
+    }
+
+    /**
+     * @param penalized Nodos inseguros: cada arco que entra o sale de uno suma {@code SAFETY_PENALTY} a su coste;
+     *                  puede ser {@code null}.
+     */
+    public int[] findOptimalPath(CompactRouteGraph graph, int start, int end, BitSet avoided, BitSet blockedArcs,
+                                 EdgeCostLayer layer, BitSet penalized) {
+        return findOptimalPath(graph, start, end, avoided, blockedArcs, layer, penalized, null);
+    }
+
+    /**
+     * @param hazards Arcos bloqueados o penalizados por zonas de peligro activas; puede ser {@code null}.
+     */
+    public int[] findOptimalPath(CompactRouteGraph graph, int start, int end, BitSet avoided, BitSet blockedArcs,
+                                 EdgeCostLayer layer, BitSet penalized, HazardExposure hazards) {
+        return nodesAlong(graph, start, findOptimalArcs(graph, start, end, avoided, blockedArcs, layer, penalized, hazards));
+    }
+
+    /**
+     * Búsqueda unidireccional que devuelve los arcos relajados, o {@code null} si no existe ruta.
+     */
+    private int[] findOptimalArcs(CompactRouteGraph graph, int start, int end, BitSet avoided, BitSet blockedArcs,
+                                  EdgeCostLayer layer, BitSet penalized, HazardExposure hazards) {
+        SearchWorkspace workspace = WORKSPACE.get();
+        workspace.reset(graph.nodeCount());
+        IndexedMinHeap openSet = workspace.heap();
+        LandmarkTable table = heuristicMode() == PathfindingHeuristic.ALT ? landmarksFor(graph) : null;
+
+        workspace.update(start, 0.0, -1);
+        openSet.insertOrDecrease(start, heuristic(graph, table, layer, start, end));
+
+        int expanded = 0;
         while (!openSet.isEmpty()) {
-            Node current = openSet.poll();
-            if (current.port().equals(end)) {
-                return reconstructPath(cameFrom, current.port());
+            int current = openSet.pollMin();
+            if (current == end) {
+                logger.debug("astar.search.completed mode={} heuristic={} expanded={}",
+                        SearchMode.UNIDIRECTIONAL, heuristicMode(), expanded);
+                return workspace.arcPathTo(end);
             }
-            // Pasamos el conjunto de puertos inseguros para una verificación rápida.
-            processNeighbors(current, end, graph, openSet, gScore, cameFrom, unsafePortNames, avoidPortIds);
+            expanded++;
+            processNeighbors(graph, table, layer, penalized, hazards, current, end, workspace, avoided, blockedArcs);
         }
+        return null;
+    }
+
+    /**
+     * A* bidireccional: una búsqueda avanza desde {@code start} y otra desde {@code end} sobre las mismas
+     * aristas (el grafo es simétrico), alternando el lado con la clave mínima más baja.
+     * Ambas usan el potencial promedio {@code p(v) = (h_end(v) - h_start(v)) / 2}, con signo opuesto en el
+     * sentido inverso, que mantiene los costes reducidos no negativos. Así cada nodo se asienta una sola vez y
+     * la búsqueda puede detenerse en cuanto {@code minAdelante + minAtrás >= mejorCamino}, criterio que garantiza
+     * la misma longitud óptima que la búsqueda unidireccional.
+     * Con la heurística geográfica (no admisible) el potencial es cero, es decir, Dijkstra bidireccional.
+     * @return Los nodos del camino desde {@code start} hasta {@code end}, o {@code null} si no existe ruta.
+     */
+    public int[] findOptimalPathBidirectional(CompactRouteGraph graph, int start, int end, BitSet avoided) {
+        return findOptimalPathBidirectional(graph, start, end, avoided, null);
+    }
 
-        logger.warn("No se pudo encontrar una ruta desde '{}' hasta '{}'", start.getName(), end.getName());
-        throw new RouteNotFoundException(start.getName(), end.getName());
+    /**
+     * @param layer Capa de costes a minimizar; {@code null} usa la distancia cruda. Con una capa asimétrica la
+     *              búsqueda hacia atrás usa el coste del sentido contrario de cada arco.
+     */
+    public int[] findOptimalPathBidirectional(CompactRouteGraph graph, int start, int end, BitSet avoided,
+                                              EdgeCostLayer layer) {
+        return findOptimalPathBidirectional(graph, start, end, avoided, layer, null);
     }
 
-    private void processNeighbors(Node current, Port end, RouteGraph graph,
-                                  PriorityQueue<Node> openSet, Map<Port, Double> gScore,
-                                  Map<Port, Port> cameFrom, Set<String> unsafePortNames, Set<String> avoidPortIds) { // <-- Acepta el Set
-        for (Route edge : graph.getAdjacentEdges(current.port())) {
-            Port neighbor = edge.getDestinationPort();
+    /**
+     * @param penalized Nodos inseguros penalizados como en la búsqueda unidireccional; puede ser {@code null}.
+     */
+    public int[] findOptimalPathBidirectional(CompactRouteGraph graph, int start, int end, BitSet avoided,
+                                              EdgeCostLayer layer, BitSet penalized) {
+        return findOptimalPathBidirectional(graph, start, end, avoided, layer, penalized, null);
+    }
 
-            if (isPortAvoided(neighbor, avoidPortIds)) {
-                continue;
+    /**
+     * @param hazards Arcos bloqueados o penalizados por zonas de peligro activas; puede ser {@code null}. El efecto
+     *                es el mismo en ambos sentidos de cada ruta, así que la búsqueda hacia atrás lo lee del arco que
+     *                recorre.
+     */
+    public int[] findOptimalPathBidirectional(CompactRouteGraph graph, int start, int end, BitSet avoided,
+                                              EdgeCostLayer layer, BitSet penalized, HazardExposure hazards) {
+        return nodesAlong(graph, start, findOptimalArcsBidirectional(graph, start, end, avoided, layer, penalized, hazards));
+    }
+
+    /**
+     * Búsqueda bidireccional que devuelve los arcos del camino en el sentido del viaje, o {@code null} si no existe
+     * ruta.
+     */
+    private int[] findOptimalArcsBidirectional(CompactRouteGraph graph, int start, int end, BitSet avoided,
+                                               EdgeCostLayer layer, BitSet penalized, HazardExposure hazards) {
+        if (start == end) {
+            return new int[0];
+        }
+        SearchWorkspace forward = WORKSPACE.get();
+        SearchWorkspace backward = REVERSE_WORKSPACE.get();
+        forward.reset(graph.nodeCount());
+        backward.reset(graph.nodeCount());
+        IndexedMinHeap forwardQueue = forward.heap();
+        IndexedMinHeap backwardQueue = backward.heap();
+        LandmarkTable table = heuristicMode() == PathfindingHeuristic.ALT ? landmarksFor(graph) : null;
+
+        forward.update(start, 0.0, -1);
+        forwardQueue.insertOrDecrease(start, potential(table, layer, start, start, end));
+        backward.update(end, 0.0, -1);
+        backwardQueue.insertOrDecrease(end, -potential(table, layer, end, start, end));
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        int settled = 0;
+        while (!forwardQueue.isEmpty() && !backwardQueue.isEmpty()) {
+            if (forwardQueue.minKey() + backwardQueue.minKey() >= best) {
+                break;
+            }
+            boolean expandForward = forwardQueue.minKey() <= backwardQueue.minKey();
+            SearchWorkspace side = expandForward ? forward : backward;
+            SearchWorkspace other = expandForward ? backward : forward;
+            double sign = expandForward ? 1.0 : -1.0;
+
+            int current = side.heap().pollMin();
+            side.markSettled(current);
+            settled++;
+            double currentScore = side.distance(current);
+            for (int arc = graph.firstArc(current), last = graph.endArc(current); arc < last; arc++) {
+                int neighbor = graph.target(arc);
+                if (side.isSettled(neighbor) || (avoided != null && avoided.get(neighbor))
+                        || (hazards != null && hazards.isBlocked(arc))) {
+                    continue;
+                }
+                double tentative = currentScore + (expandForward
+                        ? calculateTotalEdgeCost(graph, layer, arc)
+                        : calculateReverseEdgeCost(graph, layer, arc))
+                        + calculateSafetyFactor(penalized, current, neighbor)
+                        + calculateHazardPenalty(hazards, arc);
+                if (tentative < side.distance(neighbor)) {
+                    side.update(neighbor, tentative, current, arc);
+                    side.heap().insertOrDecrease(neighbor, tentative + sign * potential(table, layer, neighbor, start, end));
+                    if (other.isReached(neighbor) && tentative + other.distance(neighbor) < best) {
+                        best = tentative + other.distance(neighbor);
+                        meeting = neighbor;
+                    }
+                }
             }
+        }
 
-            // Pasamos el set al método de cálculo de coste.
-            double totalEdgeCost = calculateTotalEdgeCost(edge, unsafePortNames);
+        logger.debug("astar.search.completed mode={} heuristic={} expanded={}",
+                SearchMode.BIDIRECTIONAL, heuristicMode(), settled);
+        if (meeting < 0) {
+            return null;
+        }
+        return joinAtMeetingPoint(graph, layer, hazards, forward, backward, meeting);
+    }
 
-            updateNodeIfBetterPathFound(neighbor, current, totalEdgeCost, end, openSet, gScore, cameFrom);
+    private void processNeighbors(CompactRouteGraph graph, LandmarkTable table, EdgeCostLayer layer, BitSet penalized,
+                                  HazardExposure hazards, int current, int target, SearchWorkspace workspace,
+                                  BitSet avoided, BitSet blockedArcs) {
+        IndexedMinHeap openSet = workspace.heap();
+        double currentScore = workspace.distance(current);
+        for (int arc = graph.firstArc(current), last = graph.endArc(current); arc < last; arc++) {
+            int neighbor = graph.target(arc);
+
+            if ((avoided != null && avoided.get(neighbor)) || (blockedArcs != null && blockedArcs.get(arc))
+                    || (hazards != null && hazards.isBlocked(arc))) {
+                continue;
+            }
+
+            double tentativeGScore = currentScore + calculateTotalEdgeCost(graph, layer, arc)
+                    + calculateSafetyFactor(penalized, current, neighbor)
+                    + calculateHazardPenalty(hazards, arc);
+            if (tentativeGScore < workspace.distance(neighbor)) {
+                workspace.update(neighbor, tentativeGScore, current, arc);
+                double hScore = heuristic(graph, table, layer, neighbor, target);
+                // Con decrease-key el nodo nunca aparece dos veces en el conjunto abierto.
+                openSet.insertOrDecrease(neighbor, tentativeGScore + hScore);
+            }
         }
     }
 
     /**
-     * Calcula el coste total de viajar a través de una ruta (edge).
-     * La firma ahora es más simple gracias al nuevo modelo de Route.
+     * Calcula el coste total de viajar a través de una arista del grafo compacto: el de la capa estacional si la
+     * búsqueda usa una, o la distancia cruda en otro caso.
+     */
+    private double calculateTotalEdgeCost(CompactRouteGraph graph, EdgeCostLayer layer, int arc) {
+        return layer != null ? layer.forwardCost(arc) : graph.weight(arc);
+    }
+
+    /**
+     * Coste de recorrer la arista en sentido contrario, para la búsqueda hacia atrás.
      */
-    private double calculateTotalEdgeCost(Route route, Set<String> unsafePortNames) {
-        /*
-        Port from = route.getHomePort();
-        Port to = route.getDestinationPort();
+    private double calculateReverseEdgeCost(CompactRouteGraph graph, EdgeCostLayer layer, int arc) {
+        return layer != null ? layer.backwardCost(arc) : graph.weight(arc);
+    }
 
-        double adjustedBaseCost = navConditions.getAdjustedCost(route, from, to, clock);
-        // La comprobación de seguridad ahora es súper rápida.
-        double safetyPenalty = calculateSafetyFactor(from, to, unsafePortNames);
+    /**
+     * Coste estacional de un arco para un mes: distancia ajustada por monzón y hielo ártico más el ajuste por
+     * corrientes. Sólo se evalúa al compilar las capas, nunca durante una búsqueda.
+     */
+    private double calculateSeasonalEdgeCost(CompactRouteGraph graph, int source, int arc, Month month) {
+        Port from = graph.portAt(source);
+        Port to = graph.portAt(graph.target(arc));
+        Route route = new Route(graph.edgeId(arc), from, to, graph.weight(arc));
+
+        double adjustedBaseCost = navConditions.getAdjustedCost(route, from, to, month);
         double currentAdjustment = calculateCurrentAdjustment(from, to);
 
-        double totalCost = adjustedBaseCost + safetyPenalty + currentAdjustment;
+        return Math.max(0.0, adjustedBaseCost + currentAdjustment);
+    }
 
-        return Math.max(0.0, totalCost);
-        */
+    /**
+     * Potencial promedio para la búsqueda bidireccional, consistente en ambos sentidos.
+     */
+    private double potential(LandmarkTable table, EdgeCostLayer layer, int node, int start, int end) {
+        if (table == null) {
+            return 0.0;
+        }
+        double scale = layer != null ? layer.heuristicScale() : 1.0;
+        return scale * (table.lowerBound(node, end) - table.lowerBound(node, start)) / 2.0;
+    }
 
-        return route.getDistance();
+    /**
+     * Une los arcos de la búsqueda hacia delante hasta el punto de encuentro con los de la búsqueda hacia atrás. Esta
+     * última relajó cada arco en sentido contrario al viaje, así que se sustituye por el arco de vuelta más barato,
+     * que es el que usó {@link EdgeCostLayer#backwardCost(int)} para valorarlo.
+     */
+    private int[] joinAtMeetingPoint(CompactRouteGraph graph, EdgeCostLayer layer, HazardExposure hazards,
+                                     SearchWorkspace forward, SearchWorkspace backward, int meeting) {
+        int[] head = forward.arcPathTo(meeting);
+        int tailLength = 0;
+        for (int node = meeting; backward.parent(node) != -1; node = backward.parent(node)) {
+            tailLength++;
+        }
+        int[] arcs = Arrays.copyOf(head, head.length + tailLength);
+        int i = head.length;
+        for (int node = meeting; backward.parent(node) != -1; node = backward.parent(node)) {
+            arcs[i++] = cheapestArc(graph, layer, hazards, node, backward.parent(node));
+        }
+        return arcs;
+    }
 
+    private int cheapestArc(CompactRouteGraph graph, EdgeCostLayer layer, HazardExposure hazards, int from, int to) {
+        int best = -1;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int arc = graph.firstArc(from), last = graph.endArc(from); arc < last; arc++) {
+            if (graph.target(arc) != to || (hazards != null && hazards.isBlocked(arc))) {
+                continue;
+            }
+            double cost = calculateTotalEdgeCost(graph, layer, arc) + calculateHazardPenalty(hazards, arc);
+            if (cost < bestCost) {
+                best = arc;
+                bestCost = cost;
+            }
+        }
+        if (best < 0) {
+            throw new IllegalStateException("Los puertos '%s' y '%s' no están conectados en el grafo."
+                    .formatted(graph.portAt(from).getName(), graph.portAt(to).getName()));
+        }
+        return best;
+    }
+
+    /**
+     * Nodos que recorre el camino formado por {@code arcs} desde {@code start}; {@code null} si no hay camino.
+     */
+    private static int[] nodesAlong(CompactRouteGraph graph, int start, int[] arcs) {
+        if (arcs == null) {
+            return null;
+        }
+        int[] nodes = new int[arcs.length + 1];
+        nodes[0] = start;
+        for (int i = 0; i < arcs.length; i++) {
+            nodes[i + 1] = graph.target(arcs[i]);
+        }
+        return nodes;
     }
 
     /**
      * Devuelve una penalización si la ruta es considerada insegura.
-     * La llamada ahora usa un funcion más específico.
+     * La comprobación es una lectura de bits sobre la máscara de nodos inseguros; sólo aumenta costes, así que
+     * las cotas de la heurística siguen siendo admisibles.
      */
-    private double calculateSafetyFactor(Port a, Port b, Set<String> unsafePortNames) {
-        // Comprobación en memoria, casi instantánea.
-        if (unsafePortNames.contains(a.getName()) || unsafePortNames.contains(b.getName())) {
+    private double calculateSafetyFactor(BitSet penalized, int a, int b) {
+        if (penalized != null && (penalized.get(a) || penalized.get(b))) {
             return SAFETY_PENALTY;
         }
         return 0.0;
     }
 
-    private void validateInputs(Port start, Port end, RouteGraph graph) {
-        if (!graph.containsNode(start)) {
+    /**
+     * Penalización del arco por las zonas de peligro que cruza sin llegar a bloquearlo.
+     */
+    private double calculateHazardPenalty(HazardExposure hazards, int arc) {
+        return hazards != null ? hazards.penalty(arc) : 0.0;
+    }
+
+    private void validateInputs(Port start, Port end, int startNode, int endNode) {
+        if (startNode < 0) {
             throw new IllegalArgumentException("El puerto inicial '" + start.getName() + "' no existe en el grafo.");
         }
-        if (!graph.containsNode(end)) {
+        if (endNode < 0) {
             throw new IllegalArgumentException("El puerto final '" + end.getName() + "' no existe en el grafo.");
         }
     }
@@ -142,27 +538,113 @@ public class AStarPathfinder {
         }
     }
 
+    /**
+     * Estimación del coste restante: cota ALT cuando hay tabla de landmarks, la heurística geográfica si está
+     * configurada, o cero si se pidió ALT y la tabla de esta instantánea aún se está calculando.
+     */
+    private double heuristic(CompactRouteGraph graph, LandmarkTable table, EdgeCostLayer layer, int node, int target) {
+        double scale = layer != null ? layer.heuristicScale() : 1.0;
+        if (table != null) {
+            return scale * table.lowerBound(node, target);
+        }
+        if (heuristicMode() == PathfindingHeuristic.ALT) {
+            return 0.0;
+        }
+        return scale * calculateHeuristic(graph, node, target);
+    }
+
+    private PathfindingHeuristic heuristicMode() {
+        return routingProperties.getAstar().getHeuristic();
+    }
+
+    /**
+     * Calcula las estructuras de la instantánea en el hilo de preprocesamiento. Si mientras tanto se publicó otra,
+     * no hace nada: su propia tarea la procesará.
+     */
+    private void precompute(CompactRouteGraph graph) {
+        if (graph != latest) {
+            return;
+        }
+        try {
+            if (heuristicMode() == PathfindingHeuristic.ALT) {
+                long startedAt = System.nanoTime();
+                LandmarkTable table = LandmarkTable.compute(graph, routingProperties.getAlt().getLandmarks());
+                landmarks = table;
+                logger.info("astar.landmarks.computed version={} landmarks={} bytes={} elapsedMs={}",
+                        graph.getVersion(), table.landmarkCount(), table.estimatedBytes(),
+                        (System.nanoTime() - startedAt) / 1_000_000);
+            }
+            if (routingProperties.getSeasonal().isEnabled() && graph == latest) {
+                long startedAt = System.nanoTime();
+                SeasonalEdgeCosts costs = SeasonalEdgeCosts.compile(graph,
+                        (source, arc, month) -> calculateSeasonalEdgeCost(graph, source, arc, month));
+                seasonalCosts = costs;
+                logger.info("astar.seasonal_costs.compiled version={} arcs={} bytes={} elapsedMs={}",
+                        graph.getVersion(), graph.arcCount(), costs.estimatedBytes(),
+                        (System.nanoTime() - startedAt) / 1_000_000);
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("astar.precompute_failed version={} message={}", graph.getVersion(), ex.getMessage());
+        }
+    }
+
+    /**
+     * @return La tabla de landmarks del grafo indicado, o {@code null} si aún no está lista.
+     */
+    private LandmarkTable landmarksFor(CompactRouteGraph graph) {
+        LandmarkTable table = landmarks;
+        return table != null && table.isFor(graph) ? table : null;
+    }
+
+    /**
+     * Capa de costes del mes indicado. Si las capas de esta instantánea aún no están listas, compila sólo la del
+     * mes pedido, que cuesta una doceava parte y da los mismos costes.
+     */
+    private EdgeCostLayer seasonalLayerFor(CompactRouteGraph graph, Month month) {
+        SeasonalEdgeCosts costs = seasonalCosts;
+        if (costs != null && costs.isFor(graph)) {
+            return costs.layer(month);
+        }
+        logger.debug("astar.seasonal_costs.fallback reason=not_ready version={} month={}", graph.getVersion(), month);
+        return EdgeCostLayer.compile(graph, (source, arc) -> calculateSeasonalEdgeCost(graph, source, arc, month));
+    }
+
+    private BitSet penalizedNodesFor(CompactRouteGraph graph, UnsafePortsSnapshot unsafePorts) {
+        return routingProperties.getSafety().isPenalizeUnsafePorts() && !unsafePorts.isEmpty()
+                ? unsafeNodesFor(graph, unsafePorts)
+                : null;
+    }
 
-    private void initializeSearch(Port start, Port end, PriorityQueue<Node> openSet, Map<Port, Double> gScore) {
-        gScore.put(start, 0.0);
-        double hScore = calculateHeuristic(start, end);
-        openSet.add(new Node(start, 0.0, hScore));
+    /**
+     * Máscara de los puertos inseguros vigentes sobre el grafo, compartida por instantánea y versión de puertos
+     * inseguros; no debe modificarse.
+     * @return La máscara, vacía si no hay puertos inseguros.
+     */
+    public BitSet unsafeNodesFor(CompactRouteGraph graph) {
+        UnsafePortsSnapshot unsafePorts = safetyValidator.getUnsafePortsSnapshot();
+        return unsafePorts.isEmpty() ? new BitSet() : unsafeNodesFor(graph, unsafePorts);
     }
 
-    private void updateNodeIfBetterPathFound(Port neighbor, Node current, double edgeCost, Port end,
-                                             PriorityQueue<Node> openSet, Map<Port, Double> gScore,
-                                             Map<Port, Port> cameFrom) {
-        double tentativeGScore = gScore.get(current.port()) + edgeCost;
-        if (tentativeGScore < gScore.getOrDefault(neighbor, Double.MAX_VALUE)) {
-            cameFrom.put(neighbor, current.port());
-            gScore.put(neighbor, tentativeGScore);
-            double hScore = calculateHeuristic(neighbor, end);
-            openSet.add(new Node(neighbor, tentativeGScore, hScore));
+    /**
+     * Devuelve la máscara de nodos inseguros del grafo y snapshot indicados, recalculándola si la vigente pertenece
+     * a otra instantánea o a otra versión de puertos inseguros.
+     */
+    private BitSet unsafeNodesFor(CompactRouteGraph graph, UnsafePortsSnapshot unsafePorts) {
+        UnsafeNodes cached = unsafeNodes;
+        if (cached == null || cached.graph() != graph || cached.version() != unsafePorts.version()) {
+            cached = new UnsafeNodes(graph, unsafePorts.version(), unsafePorts.nodeMask(graph));
+            unsafeNodes = cached;
         }
+        return cached.nodes();
     }
 
-    private double calculateHeuristic(Port current, Port target) {
-        double baseDistance = geoUtils.calculateHaversineDistance(current, target);
+    private record UnsafeNodes(CompactRouteGraph graph, long version, BitSet nodes) {}
+
+    private double calculateHeuristic(CompactRouteGraph graph, int node, int targetNode) {
+        // Distancia con la trigonometría de cada puerto ya precalculada en la instantánea.
+        double baseDistance = graph.positions().distanceKm(node, targetNode);
+        Port current = graph.portAt(node);
+        Port target = graph.portAt(targetNode);
         double continentFactor = current.getContinent().equals(target.getContinent()) ? HEURISTIC_SAME_CONTINENT_MULTIPLIER : HEURISTIC_DIFFERENT_CONTINENT_PENALTY;
         boolean sameHemisphere = current.getCoordinates().latitude() * target.getCoordinates().latitude() >= 0;
         double hemisphereFactor = sameHemisphere ? 1.0 : HEURISTIC_HEMISPHERE_CROSSING_PENALTY;
@@ -175,17 +657,7 @@ public class AStarPathfinder {
         return 0.0;
     }
 
-    private List<Port> reconstructPath(Map<Port, Port> cameFrom, Port end) {
-        LinkedList<Port> path = new LinkedList<>();
-        Port current = end;
-        while (current != null) {
-            path.addFirst(current);
-            current = cameFrom.get(current);
-        }
-        return path;
-    }
-
     private boolean isPortAvoided(Port port, Set<String> avoidPortIds) {
-        return port.getId() != null && avoidPortIds.contains(port.getId());
+        return port.getId() != null && avoidPortIds != null && avoidPortIds.contains(port.getId());
     }
 }
@@ -0,0 +1,212 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.EdgeCostLayer;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardExposure;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Rutas alternativas con el algoritmo de Yen (k caminos más cortos sin ciclos) más un filtro de diversidad.
+ * Cada desviación se resuelve con {@link AStarPathfinder#findOptimalPath(CompactRouteGraph, int, int, BitSet, BitSet,
+ * EdgeCostLayer, BitSet, HazardExposure)} con el mismo modelo de costes que la ruta óptima (capa estacional,
+ * penalización de puertos inseguros y zonas de peligro), de modo que todas reutilizan el mismo workspace del hilo y
+ * la tabla de landmarks de la instantánea; excluir nodos o arcos sólo alarga distancias, así que la cota ALT sigue
+ * siendo admisible.
+ * Un candidato se acepta si no supera {@code routing.alternatives.max-stretch} veces el coste óptimo y comparte
+ * con cada ruta ya aceptada como mucho {@code routing.alternatives.max-overlap} de su distancia.
+ */
+@Component
+public class AlternativeRouteFinder {
+    private static final Logger logger = LoggerFactory.getLogger(AlternativeRouteFinder.class);
+
+    private final AStarPathfinder pathfinder;
+    private final RoutingProperties routingProperties;
+
+    public AlternativeRouteFinder(AStarPathfinder pathfinder, RoutingProperties routingProperties) {
+        this.pathfinder = pathfinder;
+        this.routingProperties = routingProperties;
+    }
+
+    /**
+     * @param shortest Camino óptimo ya calculado entre los extremos; es el primero de la lista devuelta.
+     * @param avoided  Nodos que ninguna alternativa puede atravesar; puede ser {@code null}.
+     * @param count    Número total de rutas deseadas, incluida la óptima.
+     * @return Hasta {@code count} caminos diversos ordenados por distancia; puede haber menos si no existen.
+     */
+    public List<int[]> findAlternatives(CompactRouteGraph graph, int[] shortest, BitSet avoided, int count) {
+        return findAlternatives(graph, shortest, avoided, null, null, null, count);
+    }
+
+    /**
+     * @param layer     Capa de costes a minimizar; {@code null} usa la distancia cruda de cada arco.
+     * @param penalized Nodos inseguros penalizados; puede ser {@code null}.
+     * @param hazards   Arcos bloqueados o penalizados por zonas de peligro; ninguna alternativa usa un arco
+     *                  bloqueado. Puede ser {@code null}.
+     * @return Hasta {@code count} caminos diversos ordenados por coste; puede haber menos si no existen.
+     */
+    public List<int[]> findAlternatives(CompactRouteGraph graph, int[] shortest, BitSet avoided, EdgeCostLayer layer,
+                                        BitSet penalized, HazardExposure hazards, int count) {
+        RoutingProperties.Alternatives settings = routingProperties.getAlternatives();
+        double maxCost = pathCost(graph, shortest, layer, penalized, hazards) * settings.getMaxStretch();
+        int maxCandidates = Math.max(count, count * settings.getCandidatesPerRoute());
+
+        List<int[]> found = new ArrayList<>();
+        List<Set<Long>> acceptedEdges = new ArrayList<>();
+        List<int[]> accepted = new ArrayList<>();
+        found.add(shortest);
+        accepted.add(shortest);
+        acceptedEdges.add(edgeKeys(shortest));
+
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingDouble(Candidate::cost));
+        Set<List<Integer>> seen = new HashSet<>();
+        seen.add(asList(shortest));
+        BitSet spurAvoided = new BitSet(graph.nodeCount());
+        BitSet blockedArcs = new BitSet(graph.arcCount());
+
+        while (accepted.size() < count && found.size() < maxCandidates) {
+            int[] last = found.get(found.size() - 1);
+            for (int i = 0; i < last.length - 1; i++) {
+                int spur = last[i];
+                prepareSpur(graph, found, last, i, avoided, spurAvoided, blockedArcs);
+                int[] spurPath = pathfinder.findOptimalPath(graph, spur, last[last.length - 1], spurAvoided, blockedArcs,
+                        layer, penalized, hazards);
+                if (spurPath == null) {
+                    continue;
+                }
+                int[] candidate = new int[i + spurPath.length];
+                System.arraycopy(last, 0, candidate, 0, i);
+                System.arraycopy(spurPath, 0, candidate, i, spurPath.length);
+                if (seen.add(asList(candidate))) {
+                    candidates.add(new Candidate(candidate, pathCost(graph, candidate, layer, penalized, hazards),
+                            pathDistance(graph, candidate)));
+                }
+            }
+
+            Candidate next = candidates.poll();
+            if (next == null || next.cost() > maxCost) {
+                break;
+            }
+            found.add(next.nodes());
+            if (isDiverse(graph, next, acceptedEdges, settings.getMaxOverlap())) {
+                accepted.add(next.nodes());
+                acceptedEdges.add(edgeKeys(next.nodes()));
+            }
+        }
+        logger.debug("route.alternatives.completed requested={} accepted={} examined={}",
+                count, accepted.size(), found.size());
+        return accepted;
+    }
+
+    /**
+     * Prepara la búsqueda desde {@code path[spurIndex]}: los nodos de la raíz quedan prohibidos para no formar
+     * ciclos y se bloquean los arcos que usaron los caminos ya encontrados con la misma raíz.
+     */
+    private static void prepareSpur(CompactRouteGraph graph, List<int[]> found, int[] path, int spurIndex,
+                                     BitSet avoided, BitSet spurAvoided, BitSet blockedArcs) {
+        spurAvoided.clear();
+        blockedArcs.clear();
+        if (avoided != null) {
+            spurAvoided.or(avoided);
+        }
+        for (int j = 0; j < spurIndex; j++) {
+            spurAvoided.set(path[j]);
+        }
+        int spur = path[spurIndex];
+        for (int[] previous : found) {
+            if (previous.length > spurIndex + 1 && sharesPrefix(previous, path, spurIndex)) {
+                int next = previous[spurIndex + 1];
+                for (int arc = graph.firstArc(spur), last = graph.endArc(spur); arc < last; arc++) {
+                    if (graph.target(arc) == next) {
+                        blockedArcs.set(arc);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean sharesPrefix(int[] a, int[] b, int lastIndex) {
+        for (int j = 0; j <= lastIndex; j++) {
+            if (a[j] != b[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDiverse(CompactRouteGraph graph, Candidate candidate, List<Set<Long>> acceptedEdges,
+                                     double maxOverlap) {
+        int[] nodes = candidate.nodes();
+        for (Set<Long> edges : acceptedEdges) {
+            double shared = 0.0;
+            for (int i = 1; i < nodes.length; i++) {
+                if (edges.contains(edgeKey(nodes[i - 1], nodes[i]))) {
+                    shared += graph.weight(graph.arcBetween(nodes[i - 1], nodes[i]));
+                }
+            }
+            if (candidate.distance() > 0 && shared / candidate.distance() > maxOverlap) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Coste del camino con el modelo de la búsqueda, tomando entre rutas paralelas la más barata.
+     */
+    private double pathCost(CompactRouteGraph graph, int[] nodes, EdgeCostLayer layer, BitSet penalized,
+                            HazardExposure hazards) {
+        double cost = 0.0;
+        for (int i = 1; i < nodes.length; i++) {
+            int from = nodes[i - 1];
+            double step = Double.POSITIVE_INFINITY;
+            for (int arc = graph.firstArc(from), last = graph.endArc(from); arc < last; arc++) {
+                if (graph.target(arc) == nodes[i]) {
+                    step = Math.min(step, pathfinder.edgeCost(graph, layer, penalized, hazards, from, arc));
+                }
+            }
+            cost += step;
+        }
+        return cost;
+    }
+
+    private static double pathDistance(CompactRouteGraph graph, int[] nodes) {
+        double distance = 0.0;
+        for (int i = 1; i < nodes.length; i++) {
+            distance += graph.weight(graph.arcBetween(nodes[i - 1], nodes[i]));
+        }
+        return distance;
+    }
+
+    private static Set<Long> edgeKeys(int[] nodes) {
+        Set<Long> keys = new HashSet<>();
+        for (int i = 1; i < nodes.length; i++) {
+            keys.add(edgeKey(nodes[i - 1], nodes[i]));
+        }
+        return keys;
+    }
+
+    /**
+     * Clave de arista sin sentido, porque el grafo registra cada ruta en ambas direcciones.
+     */
+    private static long edgeKey(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+
+    private static List<Integer> asList(int[] nodes) {
+        return Arrays.stream(nodes).boxed().toList();
+    }
+
+    private record Candidate(int[] nodes, double cost, double distance) {}
+}
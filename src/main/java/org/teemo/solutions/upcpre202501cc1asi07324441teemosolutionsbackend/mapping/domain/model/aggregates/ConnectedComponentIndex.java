@@ -0,0 +1,137 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.ConnectedComponents;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.RouteGraphSnapshotListener;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Etiquetas de componentes conexas por instantánea del grafo, para descartar en O(1) las parejas de puertos que
+ * no pueden estar conectadas antes de lanzar cualquier búsqueda.
+ * Con cada instantánea se calculan las componentes del grafo completo y las que resultan al excluir los puertos
+ * deshabilitados (el caso habitual); las de otros conjuntos de puertos evitados se calculan bajo demanda y se
+ * guardan en una caché LRU de {@code routing.components.max-overlays} entradas que se vacía con cada instantánea.
+ * Publica {@code route_graph_components}, {@code route_graph_isolated_ports},
+ * {@code route_graph_largest_component_ports} y {@code route_components_rejections_total}.
+ */
+@Component
+public class ConnectedComponentIndex implements RouteGraphSnapshotListener {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectedComponentIndex.class);
+
+    private final RoutingProperties routingProperties;
+    private final Counter rejections;
+
+    private volatile State state;
+
+    public ConnectedComponentIndex(RoutingProperties routingProperties, MeterRegistry meterRegistry) {
+        this.routingProperties = routingProperties;
+        this.rejections = meterRegistry.counter("route_components_rejections_total");
+        meterRegistry.gauge("route_graph_components", this, index -> {
+            ConnectedComponents base = index.baseComponents();
+            return base != null ? base.componentCount() : 0;
+        });
+        meterRegistry.gauge("route_graph_isolated_ports", this, index -> {
+            ConnectedComponents base = index.baseComponents();
+            return base != null ? base.isolatedCount() : 0;
+        });
+        meterRegistry.gauge("route_graph_largest_component_ports", this, index -> {
+            ConnectedComponents base = index.baseComponents();
+            return base != null ? base.largestComponentSize() : 0;
+        });
+    }
+
+    @Override
+    public void onSnapshotPublished(RouteGraph graph) {
+        State built = build(graph.compact());
+        state = built;
+        ConnectedComponents base = built.base();
+        if (base.isolatedCount() > 0 || base.componentCount() > 1) {
+            logger.warn("route.components.fragmented version={} ports={} components={} largest={} isolated={}",
+                    graph.getVersion(), graph.compact().nodeCount(), base.componentCount(),
+                    base.largestComponentSize(), base.isolatedCount());
+        }
+    }
+
+    /**
+     * Componentes del grafo completo de esta instantánea, sin excluir ningún puerto.
+     */
+    public ConnectedComponents componentsOf(RouteGraph graph) {
+        return stateFor(graph.compact()).base();
+    }
+
+    /**
+     * @param avoided Nodos que la búsqueda no puede atravesar; puede ser {@code null}.
+     * @return {@code false} sólo si es seguro que no existe ruta entre ambos nodos evitando {@code avoided}.
+     */
+    public boolean mayBeConnected(CompactRouteGraph compact, int start, int end, BitSet avoided) {
+        State current = stateFor(compact);
+        boolean connected = current.componentsAvoiding(avoided, routingProperties.getComponents().getMaxOverlays())
+                .connected(start, end);
+        if (!connected) {
+            rejections.increment();
+        }
+        return connected;
+    }
+
+    private ConnectedComponents baseComponents() {
+        State current = state;
+        return current != null ? current.base() : null;
+    }
+
+    private State stateFor(CompactRouteGraph compact) {
+        State current = state;
+        if (current != null && current.base().isFor(compact)) {
+            return current;
+        }
+        // Instantánea aún no notificada (o ya reemplazada): se calcula sin publicarla.
+        return build(compact);
+    }
+
+    private static State build(CompactRouteGraph compact) {
+        ConnectedComponents base = ConnectedComponents.compute(compact, null);
+        BitSet disabled = compact.disabledNodes();
+        ConnectedComponents withoutDisabled = disabled.isEmpty() ? base : ConnectedComponents.compute(compact, disabled);
+        return new State(compact, base, withoutDisabled, new LinkedHashMap<>(16, 0.75f, true));
+    }
+
+    private record State(CompactRouteGraph graph,
+                         ConnectedComponents base,
+                         ConnectedComponents withoutDisabled,
+                         Map<BitSet, ConnectedComponents> overlays) {
+
+        ConnectedComponents componentsAvoiding(BitSet avoided, int maxOverlays) {
+            if (avoided == null || avoided.isEmpty()) {
+                return base;
+            }
+            if (withoutDisabled.supports(avoided)) {
+                return withoutDisabled;
+            }
+            synchronized (overlays) {
+                ConnectedComponents cached = overlays.get(avoided);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            ConnectedComponents computed = ConnectedComponents.compute(graph, avoided);
+            if (maxOverlays > 0) {
+                synchronized (overlays) {
+                    overlays.put((BitSet) avoided.clone(), computed);
+                    while (overlays.size() > maxOverlays) {
+                        overlays.remove(overlays.keySet().iterator().next());
+                    }
+                }
+            }
+            return computed;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.ContractionHierarchy;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SearchWorkspace;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingExecutorConfig;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Motor de rutas basado en Contraction Hierarchies. Cada instantánea publicada del grafo se contrae en segundo
+ * plano excluyendo los puertos deshabilitados; mientras la jerarquía no esté lista, o si la petición evita un
+ * conjunto de puertos distinto, el llamador debe resolver la consulta con {@link AStarPathfinder}.
+ * Como deshabilitar o habilitar un puerto publica una instantánea nueva, la jerarquía se recontrae sola
+ * y vuelve a cubrir el caso habitual (evitar exactamente los puertos deshabilitados).
+ * Expone {@code route_ch_rebuild} con la duración de cada contracción.
+ */
+@Component
+public class ContractionHierarchyRouter extends PrecomputedSnapshotEngine<ContractionHierarchy> {
+    private static final Logger logger = LoggerFactory.getLogger(ContractionHierarchyRouter.class);
+
+    private static final ThreadLocal<SearchWorkspace> FORWARD_WORKSPACE = ThreadLocal.withInitial(SearchWorkspace::new);
+    private static final ThreadLocal<SearchWorkspace> BACKWARD_WORKSPACE = ThreadLocal.withInitial(SearchWorkspace::new);
+
+    private final RoutingProperties routingProperties;
+
+    public ContractionHierarchyRouter(@Qualifier(RoutingExecutorConfig.PREPROCESSING_EXECUTOR) ExecutorService executor,
+                                      RoutingProperties routingProperties,
+                                      MeterRegistry meterRegistry) {
+        super(executor, "route.ch", meterRegistry.timer("route_ch_rebuild"));
+        this.routingProperties = routingProperties;
+    }
+
+    @Override
+    protected ContractionHierarchy build(CompactRouteGraph compact, ContractionHierarchy previous) {
+        return ContractionHierarchy.contract(compact, compact.disabledNodes(), routingProperties.getCh().getWitnessSettleLimit());
+    }
+
+    @Override
+    protected void logRebuilt(CompactRouteGraph compact, ContractionHierarchy rebuilt, long elapsedMs) {
+        logger.info("route.ch.contracted version={} ports={} excluded={} shortcuts={} elapsedMs={}",
+                compact.getVersion(), compact.nodeCount(), rebuilt.excludedNodes().cardinality(),
+                rebuilt.getShortcutCount(), elapsedMs);
+    }
+
+    @Override
+    protected boolean isFor(ContractionHierarchy hierarchy, CompactRouteGraph compact) {
+        return hierarchy.isFor(compact);
+    }
+
+    @Override
+    protected boolean supports(ContractionHierarchy hierarchy, BitSet avoided) {
+        return hierarchy.supports(avoided);
+    }
+
+    @Override
+    protected int[] pathBetween(ContractionHierarchy hierarchy, int start, int end) {
+        return hierarchy.findPath(start, end, FORWARD_WORKSPACE.get(), BACKWARD_WORKSPACE.get());
+    }
+}
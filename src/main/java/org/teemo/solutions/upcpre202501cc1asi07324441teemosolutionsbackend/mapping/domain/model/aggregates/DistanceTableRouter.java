@@ -0,0 +1,90 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.AllPairsTable;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingExecutorConfig;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Motor de rutas basado en la tabla de todos los pares ({@link AllPairsTable}). La tabla se reconstruye en
+ * segundo plano con cada instantánea publicada, excluyendo los puertos deshabilitados, y responde en tiempo
+ * proporcional al número de tramos de la ruta. Si el grafo supera {@code routing.table.max-ports} la tabla no se
+ * construye y las consultas se resuelven con los demás motores.
+ * Expone {@code route_distance_table_bytes}, {@code route_distance_table_ports} y
+ * {@code route_distance_table_rebuild} para vigilar cuándo el grafo deja de caber en este modo.
+ */
+@Component
+public class DistanceTableRouter extends PrecomputedSnapshotEngine<AllPairsTable> {
+    private static final Logger logger = LoggerFactory.getLogger(DistanceTableRouter.class);
+
+    private final ForkJoinPool pool;
+    private final RoutingProperties routingProperties;
+
+    public DistanceTableRouter(@Qualifier(RoutingExecutorConfig.PREPROCESSING_EXECUTOR) ExecutorService executor,
+                               @Qualifier(RoutingExecutorConfig.PREPROCESSING_POOL) ForkJoinPool pool,
+                               RoutingProperties routingProperties,
+                               MeterRegistry meterRegistry) {
+        super(executor, "route.distance_table", meterRegistry.timer("route_distance_table_rebuild"));
+        this.pool = pool;
+        this.routingProperties = routingProperties;
+        meterRegistry.gauge("route_distance_table_bytes", this, router -> {
+            AllPairsTable current = router.current();
+            return current != null ? current.estimatedBytes() : 0;
+        });
+        meterRegistry.gauge("route_distance_table_ports", this, router -> {
+            CompactRouteGraph graph = router.latest();
+            return graph != null ? graph.nodeCount() : 0;
+        });
+    }
+
+    /**
+     * @return La tabla calculada para esta instantánea, o vacío si aún no está lista o el grafo no cabe en ella.
+     *         La tabla excluye exactamente los puertos deshabilitados de la instantánea.
+     */
+    public Optional<AllPairsTable> tableFor(RouteGraph graph) {
+        return readyFor(graph.compact());
+    }
+
+    @Override
+    protected AllPairsTable build(CompactRouteGraph compact, AllPairsTable previous) {
+        int maxPorts = routingProperties.getTable().getMaxPorts();
+        if (compact.nodeCount() > maxPorts) {
+            logger.warn("route.distance_table.skipped version={} ports={} maxPorts={} estimatedBytes={}",
+                    compact.getVersion(), compact.nodeCount(), maxPorts, AllPairsTable.estimateBytes(compact.nodeCount()));
+            return null;
+        }
+        return AllPairsTable.compute(compact, compact.disabledNodes(), pool);
+    }
+
+    @Override
+    protected void logRebuilt(CompactRouteGraph compact, AllPairsTable rebuilt, long elapsedMs) {
+        logger.info("route.distance_table.rebuilt version={} ports={} bytes={} elapsedMs={}",
+                compact.getVersion(), compact.nodeCount(), rebuilt.estimatedBytes(), elapsedMs);
+    }
+
+    @Override
+    protected boolean isFor(AllPairsTable table, CompactRouteGraph compact) {
+        return table.isFor(compact);
+    }
+
+    @Override
+    protected boolean supports(AllPairsTable table, BitSet avoided) {
+        return table.supports(avoided);
+    }
+
+    @Override
+    protected int[] pathBetween(AllPairsTable table, int start, int end) {
+        return table.pathBetween(start, end);
+    }
+}
@@ -0,0 +1,126 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.EdgeSegmentIndex;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardExposure;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardZone;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardZonesSnapshot;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.HazardZoneProvider;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.RouteGraphSnapshotListener;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.util.List;
+
+/**
+ * Cruza las zonas de peligro activas con las aristas del grafo. Mantiene el {@link EdgeSegmentIndex} de la última
+ * instantánea y el {@link HazardExposure} de la última pareja (instantánea, versión de zonas), de modo que cada
+ * cálculo de ruta sólo lee estructuras ya compiladas. Ambas se compilan una sola vez bajo el mismo candado, y una
+ * consulta que llega con una instantánea o versión de zonas ya superada no reemplaza la exposición vigente.
+ */
+@Component
+public class HazardZoneIndex implements RouteGraphSnapshotListener {
+    private static final Logger logger = LoggerFactory.getLogger(HazardZoneIndex.class);
+
+    private final HazardZoneProvider hazardZoneProvider;
+    private final RoutingProperties routingProperties;
+
+    // Índice de aristas de la última instantánea vista.
+    private volatile EdgeSegmentIndex segments;
+    // Efecto de las zonas vigentes sobre la última instantánea vista.
+    private volatile HazardExposure exposure;
+
+    public HazardZoneIndex(HazardZoneProvider hazardZoneProvider, RoutingProperties routingProperties) {
+        this.hazardZoneProvider = hazardZoneProvider;
+        this.routingProperties = routingProperties;
+    }
+
+    @Override
+    public void onSnapshotPublished(RouteGraph graph) {
+        if (routingProperties.getHazards().isEnabled()) {
+            segmentsFor(graph.compact());
+        }
+    }
+
+    /**
+     * Efecto de las zonas activas sobre el grafo indicado.
+     * @return {@code null} si la función está desactivada o ninguna zona afecta a ninguna arista.
+     */
+    public HazardExposure exposureFor(CompactRouteGraph graph) {
+        RoutingProperties.Hazards settings = routingProperties.getHazards();
+        if (!settings.isEnabled()) {
+            return null;
+        }
+        HazardZonesSnapshot hazards = hazardZoneProvider.getActiveHazardZones();
+        if (hazards.isEmpty()) {
+            return null;
+        }
+        HazardExposure current = exposure;
+        if (current == null || !current.isFor(graph, hazards.version())) {
+            current = compileExposure(graph, hazards, settings);
+        }
+        return current.affectedArcCount() > 0 ? current : null;
+    }
+
+    private synchronized HazardExposure compileExposure(CompactRouteGraph graph, HazardZonesSnapshot hazards,
+                                                        RoutingProperties.Hazards settings) {
+        HazardExposure published = exposure;
+        if (published != null && published.isFor(graph, hazards.version())) {
+            // Otro hilo la compiló mientras éste esperaba el candado.
+            return published;
+        }
+        long startedAt = System.nanoTime();
+        HazardExposure compiled = HazardExposure.compile(graph, segmentsFor(graph), hazards,
+                settings.getBlockProbability(), settings.getPenaltyKm());
+        if (published == null || compiled.isNotOlderThan(published)) {
+            exposure = compiled;
+        }
+        logger.info("hazards.exposure.compiled graphVersion={} hazardsVersion={} zones={} affectedArcs={} blockedArcs={} elapsedMs={}",
+                graph.getVersion(), hazards.version(), hazards.zones().size(), compiled.affectedArcCount(),
+                compiled.blockedArcCount(), (System.nanoTime() - startedAt) / 1_000_000);
+        return compiled;
+    }
+
+    /**
+     * Versión de las zonas que usan los cálculos; 0 si la función está desactivada.
+     */
+    public long hazardZonesVersion() {
+        return routingProperties.getHazards().isEnabled() ? hazardZoneProvider.getActiveHazardZones().version() : 0L;
+    }
+
+    /**
+     * Zonas activas que cruza el tramo entre dos puertos consecutivos de una ruta.
+     */
+    public List<HazardZone> zonesCrossedBy(CompactRouteGraph graph, Port from, Port to) {
+        HazardExposure current = exposureFor(graph);
+        if (current == null) {
+            return List.of();
+        }
+        int source = graph.indexOf(from);
+        int target = graph.indexOf(to);
+        return source < 0 || target < 0 ? List.of() : current.zonesCrossedBy(graph.arcBetween(source, target));
+    }
+
+    private EdgeSegmentIndex segmentsFor(CompactRouteGraph graph) {
+        EdgeSegmentIndex index = segments;
+        if (index != null && index.isFor(graph)) {
+            return index;
+        }
+        synchronized (this) {
+            index = segments;
+            if (index == null || !index.isFor(graph)) {
+                long startedAt = System.nanoTime();
+                index = EdgeSegmentIndex.build(graph, routingProperties.getHazards().getCellDegrees());
+                segments = index;
+                logger.info("hazards.segment_index.built version={} edges={} bytes={} elapsedMs={}",
+                        graph.getVersion(), index.edgeCount(), index.estimatedBytes(),
+                        (System.nanoTime() - startedAt) / 1_000_000);
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.RouteNotFoundException;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.EdgeHazards;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.IndexedMinHeap;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.ParetoRoute;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RoutePath;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.HazardProbabilityProvider;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.RouteGraphSnapshotListener;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingExecutorConfig;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Frente de Pareto de rutas entre dos puertos con tres criterios: distancia, puertos inseguros visitados (snapshot de
+ * la colección de eventos) y probabilidad de peligro meteorológico ({@link EdgeHazards} del mes de salida).
+ * <p>
+ * Es una búsqueda multi-etiqueta en una sola pasada: cada nodo guarda una bolsa de etiquetas no dominadas y la cola
+ * las extrae en orden lexicográfico de (distancia, inseguros, riesgo) más sus cotas inferiores. Las cotas son exactas
+ * por criterio (tres Dijkstra hacia atrás desde el destino), así que una etiqueta se descarta en cuanto su vector
+ * optimista queda dominado por una ruta ya encontrada. Además se ignoran caminos más largos que
+ * {@code routing.pareto.max-stretch} veces el más corto y la búsqueda se corta tras {@code routing.pareto.max-labels}
+ * etiquetas extraídas, devolviendo el frente hallado hasta ese momento.
+ */
+@Component
+public class ParetoRouteFinder implements RouteGraphSnapshotListener {
+    private static final Logger logger = LoggerFactory.getLogger(ParetoRouteFinder.class);
+
+    private static final double EPSILON = 1e-9;
+
+    private final AStarPathfinder pathfinder;
+    private final HazardProbabilityProvider hazardProvider;
+    private final RoutingProperties routingProperties;
+    private final ExecutorService executor;
+
+    // Riesgo por arco de la última instantánea procesada.
+    private volatile EdgeHazards hazards;
+    // Última instantánea publicada, aunque su riesgo aún no se haya compilado.
+    private volatile CompactRouteGraph latest;
+
+    public ParetoRouteFinder(AStarPathfinder pathfinder,
+                             HazardProbabilityProvider hazardProvider,
+                             RoutingProperties routingProperties,
+                             @Qualifier(RoutingExecutorConfig.PREPROCESSING_EXECUTOR) ExecutorService executor) {
+        this.pathfinder = pathfinder;
+        this.hazardProvider = hazardProvider;
+        this.routingProperties = routingProperties;
+        this.executor = executor;
+    }
+
+    /**
+     * Compila en segundo plano el riesgo de los doce meses de la instantánea recién publicada. Mientras no esté
+     * listo, cada consulta calcula sólo el mes que pide.
+     */
+    @Override
+    public void onSnapshotPublished(RouteGraph graph) {
+        CompactRouteGraph compact = graph.compact();
+        latest = compact;
+        try {
+            executor.execute(() -> compileHazards(compact));
+        } catch (RejectedExecutionException ex) {
+            logger.warn("pareto.hazards.compile_rejected version={} message={}", compact.getVersion(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Fachada basada en {@link Port}.
+     * @param month Mes de salida, que determina el riesgo de cada tramo.
+     * @return Las rutas del frente ordenadas por distancia; la primera es la más corta.
+     * @throws RouteNotFoundException si no existe ninguna ruta.
+     */
+    public List<ParetoRoute> findParetoRoutes(Port start, Port end, RouteGraph graph, Set<String> avoidPortIds,
+                                              Month month) {
+        CompactRouteGraph compact = graph.compact();
+        int startNode = compact.indexOf(start);
+        int endNode = compact.indexOf(end);
+        if (startNode < 0) {
+            throw new IllegalArgumentException("El puerto inicial '" + start.getName() + "' no existe en el grafo.");
+        }
+        if (endNode < 0) {
+            throw new IllegalArgumentException("El puerto final '" + end.getName() + "' no existe en el grafo.");
+        }
+        BitSet avoided = compact.toNodeMask(avoidPortIds);
+        if (avoided != null && (avoided.get(startNode) || avoided.get(endNode))) {
+            throw new RouteNotFoundException(start.getName(), end.getName());
+        }
+
+        List<ParetoPath> front = findParetoFront(compact, startNode, endNode, avoided, pathfinder.unsafeNodesFor(compact),
+                hazardLayerFor(compact, month));
+        if (front.isEmpty()) {
+            throw new RouteNotFoundException(start.getName(), end.getName());
+        }
+        List<ParetoRoute> routes = new ArrayList<>(front.size());
+        for (ParetoPath path : front) {
+            routes.add(new ParetoRoute(RoutePath.fromArcs(compact, startNode, path.arcs()), path.unsafeNodes(),
+                    EdgeHazards.toProbability(path.hazardCost())));
+        }
+        return routes;
+    }
+
+    /**
+     * Variante primitiva sobre identificadores densos.
+     * @param avoided     Nodos que no pueden atravesarse; puede ser {@code null}.
+     * @param unsafe      Nodos inseguros; cada uno visitado (extremos incluidos) suma 1 al segundo criterio.
+     * @param hazardCosts Coste de riesgo de cada arco ({@link EdgeHazards#layer(Month)}).
+     * @return Las rutas no dominadas ordenadas por distancia, como mucho {@code routing.pareto.max-routes}.
+     */
+    public List<ParetoPath> findParetoFront(CompactRouteGraph graph, int start, int end, BitSet avoided,
+                                            BitSet unsafe, double[] hazardCosts) {
+        RoutingProperties.Pareto settings = routingProperties.getPareto();
+        long startedAt = System.nanoTime();
+        double[] distanceBound = backwardBounds(graph, end, avoided, (arc, node) -> graph.weight(arc));
+        if (Double.isInfinite(distanceBound[start])) {
+            return List.of();
+        }
+        double[] unsafeBound = backwardBounds(graph, end, avoided, (arc, node) -> unsafe.get(node) ? 1.0 : 0.0);
+        double[] hazardBound = backwardBounds(graph, end, avoided, (arc, node) -> hazardCosts[arc]);
+        double maxDistance = distanceBound[start] * settings.getMaxStretch() + EPSILON;
+
+        Labels labels = new Labels(graph.nodeCount());
+        PriorityQueue<Integer> queue = new PriorityQueue<>((a, b) -> {
+            int byDistance = Double.compare(labels.distance[a] + distanceBound[labels.node[a]],
+                    labels.distance[b] + distanceBound[labels.node[b]]);
+            if (byDistance != 0) {
+                return byDistance;
+            }
+            int byUnsafe = Integer.compare(labels.unsafe[a] + (int) unsafeBound[labels.node[a]],
+                    labels.unsafe[b] + (int) unsafeBound[labels.node[b]]);
+            if (byUnsafe != 0) {
+                return byUnsafe;
+            }
+            return Double.compare(labels.hazard[a] + hazardBound[labels.node[a]],
+                    labels.hazard[b] + hazardBound[labels.node[b]]);
+        });
+        queue.add(labels.add(start, -1, -1, 0.0, unsafe.get(start) ? 1 : 0, 0.0));
+
+        List<Integer> front = new ArrayList<>();
+        int extracted = 0;
+        boolean truncated = false;
+        while (!queue.isEmpty()) {
+            int label = queue.poll();
+            if (labels.dead.get(label)) {
+                continue;
+            }
+            if (++extracted > settings.getMaxLabels()) {
+                truncated = true;
+                break;
+            }
+            int node = labels.node[label];
+            // El frente crece durante la búsqueda: la etiqueta pudo quedar dominada después de encolarse.
+            if (dominatedByFront(labels, front, labels.distance[label] + distanceBound[node],
+                    labels.unsafe[label] + (int) unsafeBound[node], labels.hazard[label] + hazardBound[node])) {
+                continue;
+            }
+            if (node == end) {
+                front.add(label);
+                continue;
+            }
+            for (int arc = graph.firstArc(node), last = graph.endArc(node); arc < last; arc++) {
+                int neighbor = graph.target(arc);
+                if ((avoided != null && avoided.get(neighbor)) || Double.isInfinite(distanceBound[neighbor])) {
+                    continue;
+                }
+                double distance = labels.distance[label] + graph.weight(arc);
+                int unsafeCount = labels.unsafe[label] + (unsafe.get(neighbor) ? 1 : 0);
+                double hazard = labels.hazard[label] + hazardCosts[arc];
+                if (distance + distanceBound[neighbor] > maxDistance
+                        || dominatedByFront(labels, front, distance + distanceBound[neighbor],
+                        unsafeCount + (int) unsafeBound[neighbor], hazard + hazardBound[neighbor])
+                        || !labels.insertIntoBag(neighbor, distance, unsafeCount, hazard)) {
+                    continue;
+                }
+                queue.add(labels.add(neighbor, label, arc, distance, unsafeCount, hazard));
+            }
+        }
+
+        List<ParetoPath> paths = new ArrayList<>(front.size());
+        for (int label : front) {
+            paths.add(new ParetoPath(labels.pathTo(label), labels.arcPathTo(label), labels.distance[label], labels.unsafe[label],
+                    labels.hazard[label]));
+        }
+        List<ParetoPath> selected = thin(paths, settings.getMaxRoutes());
+        logger.debug("route.pareto.completed version={} front={} returned={} labels={} extracted={} truncated={} elapsedMs={}",
+                graph.getVersion(), paths.size(), selected.size(), labels.size, extracted, truncated,
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return selected;
+    }
+
+    /**
+     * Coste mínimo de cada nodo hasta {@code end} según un criterio, con Dijkstra sobre los arcos invertidos. El
+     * grafo registra cada ruta en ambos sentidos y los costes son simétricos, así que basta con recorrer los arcos
+     * salientes. {@code cost} recibe el arco y el nodo en el que entra el camino hacia el destino.
+     */
+    private static double[] backwardBounds(CompactRouteGraph graph, int end, BitSet avoided, ReverseArcCost cost) {
+        double[] bound = new double[graph.nodeCount()];
+        Arrays.fill(bound, Double.POSITIVE_INFINITY);
+        bound[end] = 0.0;
+        IndexedMinHeap heap = new IndexedMinHeap(graph.nodeCount());
+        heap.insertOrDecrease(end, 0.0);
+        while (!heap.isEmpty()) {
+            int node = heap.pollMin();
+            for (int arc = graph.firstArc(node), last = graph.endArc(node); arc < last; arc++) {
+                int previous = graph.target(arc);
+                if (avoided != null && avoided.get(previous)) {
+                    continue;
+                }
+                double candidate = bound[node] + cost.cost(arc, node);
+                if (candidate < bound[previous]) {
+                    bound[previous] = candidate;
+                    heap.insertOrDecrease(previous, candidate);
+                }
+            }
+        }
+        return bound;
+    }
+
+    private static boolean dominatedByFront(Labels labels, List<Integer> front, double distance, int unsafe,
+                                            double hazard) {
+        for (int label : front) {
+            if (dominates(labels.distance[label], labels.unsafe[label], labels.hazard[label], distance, unsafe, hazard)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@code a} domina a {@code b} si no es peor en ningún criterio. Los empates cuentan como dominados para no
+     * duplicar rutas equivalentes.
+     */
+    private static boolean dominates(double distanceA, int unsafeA, double hazardA,
+                                     double distanceB, int unsafeB, double hazardB) {
+        return distanceA <= distanceB + EPSILON && unsafeA <= unsafeB && hazardA <= hazardB + EPSILON;
+    }
+
+    /**
+     * Reduce el frente a {@code maxRoutes} rutas conservando los extremos (la más corta, la de menos puertos
+     * inseguros y la de menor riesgo) y repartiendo el resto uniformemente por distancia.
+     */
+    private static List<ParetoPath> thin(List<ParetoPath> front, int maxRoutes) {
+        if (front.size() <= maxRoutes) {
+            return front;
+        }
+        int leastUnsafe = 0;
+        int leastHazard = 0;
+        for (int i = 1; i < front.size(); i++) {
+            if (front.get(i).unsafeNodes() < front.get(leastUnsafe).unsafeNodes()) {
+                leastUnsafe = i;
+            }
+            if (front.get(i).hazardCost() < front.get(leastHazard).hazardCost()) {
+                leastHazard = i;
+            }
+        }
+        Set<Integer> preferred = new LinkedHashSet<>(List.of(0, leastUnsafe, leastHazard));
+        for (int i = 0; i < maxRoutes; i++) {
+            preferred.add((int) Math.round(i * (front.size() - 1) / Math.max(1.0, maxRoutes - 1.0)));
+        }
+        for (int i = 0; preferred.size() < maxRoutes; i++) {
+            preferred.add(i);
+        }
+        return preferred.stream().limit(maxRoutes).sorted().map(front::get).toList();
+    }
+
+    private void compileHazards(CompactRouteGraph graph) {
+        if (graph != latest) {
+            return;
+        }
+        try {
+            long startedAt = System.nanoTime();
+            EdgeHazards compiled = EdgeHazards.compile(graph, (source, arc, month) -> hazardProbability(graph, source, arc, month));
+            hazards = compiled;
+            logger.info("pareto.hazards.compiled version={} arcs={} bytes={} elapsedMs={}",
+                    graph.getVersion(), graph.arcCount(), compiled.estimatedBytes(),
+                    (System.nanoTime() - startedAt) / 1_000_000);
+        } catch (RuntimeException ex) {
+            logger.warn("pareto.hazards.compile_failed version={} message={}", graph.getVersion(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Riesgo por arco del mes indicado; si el de esta instantánea aún no está compilado, calcula sólo ese mes.
+     */
+    private double[] hazardLayerFor(CompactRouteGraph graph, Month month) {
+        EdgeHazards current = hazards;
+        if (current != null && current.isFor(graph)) {
+            return current.layer(month);
+        }
+        logger.debug("pareto.hazards.fallback reason=not_ready version={} month={}", graph.getVersion(), month);
+        return EdgeHazards.compileLayer(graph, month, (source, arc, m) -> hazardProbability(graph, source, arc, m));
+    }
+
+    private double hazardProbability(CompactRouteGraph graph, int source, int arc, Month month) {
+        return hazardProvider.hazardProbability(graph.portAt(source), graph.portAt(graph.target(arc)), month);
+    }
+
+    /**
+     * @param nodes       Nodos del camino desde el origen hasta el destino.
+     * @param arcs        Arcos del camino en orden; distingue entre rutas paralelas con distinto riesgo.
+     * @param unsafeNodes Nodos inseguros visitados, extremos incluidos.
+     * @param hazardCost  Suma de los costes de riesgo de sus arcos.
+     */
+    public record ParetoPath(int[] nodes, int[] arcs, double distance, int unsafeNodes, double hazardCost) {}
+
+    @FunctionalInterface
+    private interface ReverseArcCost {
+        double cost(int arc, int node);
+    }
+
+    /**
+     * Etiquetas en arreglos paralelos (sin un objeto por etiqueta) y la bolsa de etiquetas vivas de cada nodo.
+     */
+    private static final class Labels {
+        int[] node = new int[64];
+        int[] parent = new int[64];
+        int[] arc = new int[64];
+        double[] distance = new double[64];
+        int[] unsafe = new int[64];
+        double[] hazard = new double[64];
+        final BitSet dead = new BitSet();
+        int size;
+        private final int[][] bags;
+        private final int[] bagSizes;
+
+        Labels(int nodeCount) {
+            this.bags = new int[nodeCount][];
+            this.bagSizes = new int[nodeCount];
+        }
+
+        int add(int at, int parentLabel, int parentArc, double labelDistance, int labelUnsafe, double labelHazard) {
+            if (size == node.length) {
+                int capacity = size * 2;
+                node = Arrays.copyOf(node, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+                arc = Arrays.copyOf(arc, capacity);
+                distance = Arrays.copyOf(distance, capacity);
+                unsafe = Arrays.copyOf(unsafe, capacity);
+                hazard = Arrays.copyOf(hazard, capacity);
+            }
+            node[size] = at;
+            parent[size] = parentLabel;
+            arc[size] = parentArc;
+            distance[size] = labelDistance;
+            unsafe[size] = labelUnsafe;
+            hazard[size] = labelHazard;
+            int[] bag = bags[at];
+            if (bag == null) {
+                bag = bags[at] = new int[4];
+            } else if (bagSizes[at] == bag.length) {
+                bag = bags[at] = Arrays.copyOf(bag, bag.length * 2);
+            }
+            bag[bagSizes[at]++] = size;
+            return size++;
+        }
+
+        /**
+         * Comprueba si la etiqueta candidata entra en la bolsa de {@code at}: si alguna viva la domina se rechaza;
+         * si no, se marcan como muertas (y se sacan de la bolsa) las que ella domina. No la añade: eso lo hace
+         * {@link #add(int, int, int, double, int, double)}.
+         */
+        boolean insertIntoBag(int at, double labelDistance, int labelUnsafe, double labelHazard) {
+            int[] bag = bags[at];
+            int count = bagSizes[at];
+            for (int i = 0; i < count; i++) {
+                int other = bag[i];
+                if (dominates(distance[other], unsafe[other], hazard[other], labelDistance, labelUnsafe, labelHazard)) {
+                    return false;
+                }
+            }
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                int other = bag[i];
+                if (dominates(labelDistance, labelUnsafe, labelHazard, distance[other], unsafe[other], hazard[other])) {
+                    dead.set(other);
+                } else {
+                    bag[kept++] = other;
+                }
+            }
+            bagSizes[at] = kept;
+            return true;
+        }
+
+        int[] pathTo(int label) {
+            int length = 0;
+            for (int current = label; current != -1; current = parent[current]) {
+                length++;
+            }
+            int[] path = new int[length];
+            for (int current = label; current != -1; current = parent[current]) {
+                path[--length] = node[current];
+            }
+            return path;
+        }
+
+        int[] arcPathTo(int label) {
+            int length = 0;
+            for (int current = label; parent[current] != -1; current = parent[current]) {
+                length++;
+            }
+            int[] arcs = new int[length];
+            for (int current = label; parent[current] != -1; current = parent[current]) {
+                arcs[--length] = arc[current];
+            }
+            return arcs;
+        }
+    }
+}
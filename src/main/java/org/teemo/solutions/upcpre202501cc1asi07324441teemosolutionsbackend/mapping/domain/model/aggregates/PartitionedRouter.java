@@ -0,0 +1,85 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.ContinentPartition;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SearchWorkspace;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingExecutorConfig;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Motor de rutas en dos niveles sobre la {@link ContinentPartition}. La partición se reconstruye en segundo plano
+ * con cada instantánea publicada, excluyendo los puertos deshabilitados y reutilizando las tablas de los
+ * continentes que no cambiaron. Si algún continente supera {@code routing.partition.max-cell-gateways} pasarelas
+ * la partición no se construye y las consultas se resuelven con los demás motores.
+ * Expone {@code route_partition_bytes}, {@code route_partition_gateways} y {@code route_partition_rebuild}.
+ */
+@Component
+public class PartitionedRouter extends PrecomputedSnapshotEngine<ContinentPartition> {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedRouter.class);
+    private static final ThreadLocal<SearchWorkspace> SOURCE_WORKSPACE = ThreadLocal.withInitial(SearchWorkspace::new);
+    private static final ThreadLocal<SearchWorkspace> TARGET_WORKSPACE = ThreadLocal.withInitial(SearchWorkspace::new);
+    private static final ThreadLocal<SearchWorkspace> OVERLAY_WORKSPACE = ThreadLocal.withInitial(SearchWorkspace::new);
+
+    private final ForkJoinPool pool;
+    private final RoutingProperties routingProperties;
+
+    public PartitionedRouter(@Qualifier(RoutingExecutorConfig.PREPROCESSING_EXECUTOR) ExecutorService executor,
+                             @Qualifier(RoutingExecutorConfig.PREPROCESSING_POOL) ForkJoinPool pool,
+                             RoutingProperties routingProperties,
+                             MeterRegistry meterRegistry) {
+        super(executor, "route.partition", meterRegistry.timer("route_partition_rebuild"));
+        this.pool = pool;
+        this.routingProperties = routingProperties;
+        meterRegistry.gauge("route_partition_bytes", this, router -> {
+            ContinentPartition current = router.current();
+            return current != null ? current.estimatedBytes() : 0;
+        });
+        meterRegistry.gauge("route_partition_gateways", this, router -> {
+            ContinentPartition current = router.current();
+            return current != null ? current.gatewayCount() : 0;
+        });
+    }
+
+    @Override
+    protected ContinentPartition build(CompactRouteGraph compact, ContinentPartition previous) {
+        int maxGateways = routingProperties.getPartition().getMaxCellGateways();
+        int largestCell = ContinentPartition.largestCellGateways(compact);
+        if (largestCell > maxGateways) {
+            logger.warn("route.partition.skipped version={} largestCellGateways={} maxCellGateways={}",
+                    compact.getVersion(), largestCell, maxGateways);
+            return null;
+        }
+        return ContinentPartition.build(compact, compact.disabledNodes(), previous, pool);
+    }
+
+    @Override
+    protected void logRebuilt(CompactRouteGraph compact, ContinentPartition rebuilt, long elapsedMs) {
+        logger.info("route.partition.rebuilt version={} cells={} recomputedCells={} gateways={} bytes={} elapsedMs={}",
+                compact.getVersion(), rebuilt.cellCount(), rebuilt.recomputedCells(), rebuilt.gatewayCount(),
+                rebuilt.estimatedBytes(), elapsedMs);
+    }
+
+    @Override
+    protected boolean isFor(ContinentPartition partition, CompactRouteGraph compact) {
+        return partition.isFor(compact);
+    }
+
+    @Override
+    protected boolean supports(ContinentPartition partition, BitSet avoided) {
+        return partition.supports(avoided);
+    }
+
+    @Override
+    protected int[] pathBetween(ContinentPartition partition, int start, int end) {
+        return partition.pathBetween(start, end, SOURCE_WORKSPACE.get(), TARGET_WORKSPACE.get(), OVERLAY_WORKSPACE.get());
+    }
+}
@@ -0,0 +1,46 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.PortSpatialIndex;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.RouteGraphSnapshotListener;
+
+/**
+ * Índice espacial de los puertos enrutables (los del grafo que no están deshabilitados) de la instantánea vigente.
+ * Se reconstruye con cada instantánea publicada; las consultas no tocan Mongo.
+ */
+@Component
+public class PortLocator implements RouteGraphSnapshotListener {
+    private static final Logger logger = LoggerFactory.getLogger(PortLocator.class);
+
+    private volatile PortSpatialIndex index;
+
+    @Override
+    public void onSnapshotPublished(RouteGraph graph) {
+        indexFor(graph.compact());
+    }
+
+    /**
+     * Devuelve el índice del grafo indicado, construyéndolo si el vigente pertenece a otra instantánea.
+     */
+    public PortSpatialIndex indexFor(CompactRouteGraph graph) {
+        PortSpatialIndex current = index;
+        if (current != null && current.isFor(graph)) {
+            return current;
+        }
+        synchronized (this) {
+            current = index;
+            if (current == null || !current.isFor(graph)) {
+                long startedAt = System.nanoTime();
+                current = PortSpatialIndex.build(graph, graph.disabledNodes());
+                index = current;
+                logger.info("route.port_index.built version={} ports={} elapsedMs={}",
+                        graph.getVersion(), current.size(), (System.nanoTime() - startedAt) / 1_000_000);
+            }
+            return current;
+        }
+    }
+}
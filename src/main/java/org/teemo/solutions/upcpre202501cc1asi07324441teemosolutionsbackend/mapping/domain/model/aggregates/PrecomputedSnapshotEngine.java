@@ -0,0 +1,152 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates;
+
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.RouteNotFoundException;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RoutePath;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.RouteGraphSnapshotListener;
+
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ciclo de vida común de los motores que precalculan una estructura por instantánea del grafo (tabla de todos los
+ * pares, partición por continentes, jerarquía de contracción). Cada instantánea publicada se procesa en el
+ * ejecutor de preprocesamiento; si mientras tanto se publica otra, la tarea antigua se descarta sin calcular nada.
+ * Las consultas sólo usan la estructura si pertenece a la instantánea pedida y excluye exactamente los puertos a
+ * evitar; en otro caso devuelven vacío para que el llamador use otro motor.
+ * Los eventos de log comparten el prefijo de cada motor: {@code <prefijo>.rebuild_rejected},
+ * {@code <prefijo>.rebuild_failed} y {@code <prefijo>.fallback}.
+ *
+ * @param <T> Estructura precalculada.
+ */
+public abstract class PrecomputedSnapshotEngine<T> implements RouteGraphSnapshotListener {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ExecutorService executor;
+    private final String eventPrefix;
+    private final Timer rebuildTimer;
+
+    private volatile T current;
+    private volatile CompactRouteGraph latest;
+
+    protected PrecomputedSnapshotEngine(ExecutorService executor, String eventPrefix, Timer rebuildTimer) {
+        this.executor = executor;
+        this.eventPrefix = eventPrefix;
+        this.rebuildTimer = rebuildTimer;
+    }
+
+    @Override
+    public void onSnapshotPublished(RouteGraph graph) {
+        CompactRouteGraph compact = graph.compact();
+        latest = compact;
+        try {
+            executor.execute(() -> rebuild(compact));
+        } catch (RejectedExecutionException ex) {
+            logger.warn("{}.rebuild_rejected version={} message={}", eventPrefix, compact.getVersion(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Resuelve la ruta con la estructura precalculada si puede hacerlo.
+     * @return El camino, o vacío si la estructura no está lista para esta instantánea, algún puerto no pertenece
+     *         al grafo o los puertos a evitar no coinciden con los que excluye.
+     * @throws RouteNotFoundException si la estructura indica que no existe ruta.
+     */
+    public Optional<RoutePath> findRoute(Port start, Port end, RouteGraph graph, Set<String> avoidPortIds) {
+        CompactRouteGraph compact = graph.compact();
+        T structure = current;
+        if (structure == null || !isFor(structure, compact)) {
+            logger.debug("{}.fallback reason=not_ready version={}", eventPrefix, compact.getVersion());
+            return Optional.empty();
+        }
+        int startNode = compact.indexOf(start);
+        int endNode = compact.indexOf(end);
+        BitSet avoided = compact.toNodeMask(avoidPortIds);
+        if (startNode < 0 || endNode < 0 || !supports(structure, avoided)) {
+            logger.debug("{}.fallback reason=unsupported_query version={}", eventPrefix, compact.getVersion());
+            return Optional.empty();
+        }
+
+        int[] path = pathBetween(structure, startNode, endNode);
+        if (path == null) {
+            throw new RouteNotFoundException(start.getName(), end.getName());
+        }
+        return Optional.of(RoutePath.fromNodes(compact, path));
+    }
+
+    /**
+     * @return {@code true} si ya existe una estructura para esta instantánea.
+     */
+    public boolean isReadyFor(RouteGraph graph) {
+        return readyFor(graph.compact()).isPresent();
+    }
+
+    protected final Optional<T> readyFor(CompactRouteGraph compact) {
+        T structure = current;
+        return structure != null && isFor(structure, compact) ? Optional.of(structure) : Optional.empty();
+    }
+
+    /**
+     * Última estructura calculada, aunque sea de una instantánea anterior; para métricas.
+     */
+    protected final T current() {
+        return current;
+    }
+
+    /**
+     * Última instantánea publicada, aunque aún no se haya procesado; para métricas.
+     */
+    protected final CompactRouteGraph latest() {
+        return latest;
+    }
+
+    /**
+     * Calcula la estructura de la instantánea, excluyendo sus puertos deshabilitados.
+     * @param previous Estructura anterior, reutilizable si el motor lo permite; puede ser {@code null}.
+     * @return La estructura, o {@code null} si el grafo no cabe en este motor (la anterior se descarta).
+     */
+    protected abstract T build(CompactRouteGraph compact, T previous);
+
+    /**
+     * Registra en el log el resultado de una reconstrucción completada.
+     */
+    protected abstract void logRebuilt(CompactRouteGraph compact, T rebuilt, long elapsedMs);
+
+    protected abstract boolean isFor(T structure, CompactRouteGraph compact);
+
+    protected abstract boolean supports(T structure, BitSet avoided);
+
+    /**
+     * @return Los nodos del camino, o {@code null} si no existe.
+     */
+    protected abstract int[] pathBetween(T structure, int start, int end);
+
+    private void rebuild(CompactRouteGraph compact) {
+        if (compact != latest) {
+            // Ya se publicó una instantánea más reciente; su propia tarea la procesará.
+            return;
+        }
+        try {
+            long startedAt = System.nanoTime();
+            T rebuilt = build(compact, current);
+            long elapsed = System.nanoTime() - startedAt;
+            current = rebuilt;
+            if (rebuilt != null) {
+                rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                logRebuilt(compact, rebuilt, elapsed / 1_000_000);
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("{}.rebuild_failed version={} message={}", eventPrefix, compact.getVersion(), ex.getMessage());
+        }
+    }
+}
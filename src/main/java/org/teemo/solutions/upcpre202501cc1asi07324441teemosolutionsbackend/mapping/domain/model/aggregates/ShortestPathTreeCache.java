@@ -0,0 +1,228 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.RouteNotFoundException;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RoutePath;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.ShortestPathTree;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.RouteGraphSnapshotListener;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingExecutorConfig;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Caché de árboles de caminos mínimos completos ({@link ShortestPathTree}) para los orígenes más consultados.
+ * Cada árbol sale de un único Dijkstra sobre la instantánea vigente, sin atravesar los puertos deshabilitados,
+ * y a partir de ahí cualquier ruta desde ese origen se reconstruye recorriendo predecesores.
+ * <p>
+ * Los orígenes calientes los decide la capa de aplicación a partir de la popularidad de las rutas
+ * ({@link #updateHotOrigins(Collection)}); sólo esos orígenes se guardan. Las entradas pertenecen a una instantánea:
+ * al publicarse otra se descartan todas y se recalculan en segundo plano los árboles de los orígenes calientes.
+ * Los árboles se desalojan por LRU cuando su memoria supera {@code routing.tree-cache.max-bytes}.
+ * Publica {@code route_tree_cache_requests_total{result}}, {@code route_tree_cache_size} y
+ * {@code route_tree_cache_bytes}.
+ */
+@Component
+public class ShortestPathTreeCache implements RouteGraphSnapshotListener {
+    private static final Logger logger = LoggerFactory.getLogger(ShortestPathTreeCache.class);
+
+    private final ExecutorService executor;
+    private final RoutingProperties routingProperties;
+    private final Map<Integer, ShortestPathTree> trees = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile Set<String> hotOriginPortIds = Set.of();
+    private volatile Generation current;
+    private long totalBytes;
+
+    public ShortestPathTreeCache(@Qualifier(RoutingExecutorConfig.PREPROCESSING_EXECUTOR) ExecutorService executor,
+                                 RoutingProperties routingProperties,
+                                 MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.routingProperties = routingProperties;
+        this.hits = meterRegistry.counter("route_tree_cache_requests_total", "result", "hit");
+        this.misses = meterRegistry.counter("route_tree_cache_requests_total", "result", "miss");
+        meterRegistry.gauge("route_tree_cache_size", this, ShortestPathTreeCache::size);
+        meterRegistry.gauge("route_tree_cache_bytes", this, ShortestPathTreeCache::estimatedBytes);
+    }
+
+    @Override
+    public void onSnapshotPublished(RouteGraph graph) {
+        CompactRouteGraph compact = graph.compact();
+        Generation generation = new Generation(compact, compact.disabledNodes());
+        synchronized (trees) {
+            current = generation;
+            trees.clear();
+            totalBytes = 0;
+        }
+        prewarm(generation);
+    }
+
+    /**
+     * Sustituye el conjunto de orígenes calientes. Los árboles de orígenes que dejaron de serlo se descartan y los
+     * nuevos se calculan en segundo plano.
+     */
+    public void updateHotOrigins(Collection<String> portIds) {
+        Set<String> updated = Set.copyOf(portIds);
+        if (updated.equals(hotOriginPortIds)) {
+            return;
+        }
+        hotOriginPortIds = updated;
+        Generation generation = current;
+        if (generation == null) {
+            return;
+        }
+        synchronized (trees) {
+            Iterator<Map.Entry<Integer, ShortestPathTree>> entries = trees.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<Integer, ShortestPathTree> entry = entries.next();
+                if (!updated.contains(generation.graph().portAt(entry.getKey()).getId())) {
+                    totalBytes -= entry.getValue().estimatedBytes();
+                    entries.remove();
+                }
+            }
+        }
+        logger.info("route.tree_cache.hot_origins_updated version={} hotOrigins={}",
+                generation.graph().getVersion(), updated.size());
+        prewarm(generation);
+    }
+
+    /**
+     * Resuelve la ruta con el árbol del origen si es un origen caliente, calculándolo si aún no está guardado.
+     * @return El camino, o vacío si el origen no es caliente, algún puerto no pertenece a la instantánea vigente o
+     *         los puertos a evitar no coinciden con los deshabilitados.
+     * @throws RouteNotFoundException si el árbol demuestra que no existe ruta.
+     */
+    public Optional<RoutePath> findRoute(Port start, Port end, RouteGraph graph, Set<String> avoidPortIds) {
+        CompactRouteGraph compact = graph.compact();
+        Generation generation = current;
+        if (start.getId() == null || !hotOriginPortIds.contains(start.getId())
+                || generation == null || generation.graph() != compact) {
+            return Optional.empty();
+        }
+        int startNode = compact.indexOf(start);
+        int endNode = compact.indexOf(end);
+        BitSet avoided = compact.toNodeMask(avoidPortIds);
+        if (startNode < 0 || endNode < 0 || !generation.supports(avoided) || generation.excluded().get(startNode)) {
+            logger.debug("route.tree_cache.fallback reason=unsupported_query version={}", compact.getVersion());
+            return Optional.empty();
+        }
+
+        int[] path = treeFor(generation, startNode).pathTo(endNode);
+        if (path == null) {
+            throw new RouteNotFoundException(start.getName(), end.getName());
+        }
+        return Optional.of(RoutePath.fromNodes(compact, path));
+    }
+
+    public int size() {
+        synchronized (trees) {
+            return trees.size();
+        }
+    }
+
+    public long estimatedBytes() {
+        synchronized (trees) {
+            return totalBytes;
+        }
+    }
+
+    private ShortestPathTree treeFor(Generation generation, int origin) {
+        synchronized (trees) {
+            ShortestPathTree cached = trees.get(origin);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        // Se calcula fuera del candado: dos hilos pueden calcular el mismo árbol, pero el resultado es idéntico.
+        return store(generation, origin, generation.compute(origin));
+    }
+
+    /**
+     * Guarda el árbol si sigue perteneciendo a la instantánea vigente y desaloja los menos usados hasta volver al
+     * presupuesto. Un árbol mayor que el presupuesto entero se devuelve sin guardarlo.
+     */
+    private ShortestPathTree store(Generation generation, int origin, ShortestPathTree tree) {
+        long maxBytes = routingProperties.getTreeCache().getMaxBytes();
+        synchronized (trees) {
+            if (generation != current || tree.estimatedBytes() > maxBytes) {
+                return tree;
+            }
+            ShortestPathTree replaced = trees.put(origin, tree);
+            totalBytes += tree.estimatedBytes() - (replaced != null ? replaced.estimatedBytes() : 0);
+            Iterator<ShortestPathTree> eldest = trees.values().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                totalBytes -= eldest.next().estimatedBytes();
+                eldest.remove();
+            }
+        }
+        return tree;
+    }
+
+    private void prewarm(Generation generation) {
+        Set<String> origins = hotOriginPortIds;
+        if (origins.isEmpty()) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                int computed = 0;
+                for (String portId : origins) {
+                    if (generation != current) {
+                        // Ya se publicó una instantánea más reciente; su propia tarea precalcula los árboles.
+                        return;
+                    }
+                    int origin = generation.graph().indexOfPortId(portId);
+                    boolean missing;
+                    synchronized (trees) {
+                        missing = origin >= 0 && !generation.excluded().get(origin) && !trees.containsKey(origin);
+                    }
+                    if (missing) {
+                        store(generation, origin, generation.compute(origin));
+                        computed++;
+                    }
+                }
+                logger.info("route.tree_cache.prewarmed version={} trees={} bytes={} elapsedMs={}",
+                        generation.graph().getVersion(), computed, estimatedBytes(),
+                        (System.nanoTime() - startedAt) / 1_000_000);
+            });
+        } catch (RejectedExecutionException ex) {
+            logger.warn("route.tree_cache.prewarm_rejected version={} message={}",
+                    generation.graph().getVersion(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Instantánea a la que pertenecen los árboles guardados y los puertos deshabilitados que excluyen.
+     */
+    private record Generation(CompactRouteGraph graph, BitSet excluded) {
+
+        boolean supports(BitSet avoided) {
+            return (avoided != null ? avoided : new BitSet()).equals(excluded);
+        }
+
+        ShortestPathTree compute(int origin) {
+            return ShortestPathTree.compute(graph, origin, excluded, Double.POSITIVE_INFINITY);
+        }
+    }
+}
@@ -3,12 +3,21 @@ package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapp
 import lombok.Getter;
 @Getter
 public class Route {
+    private final String id;
     private final Port homePort;
     private final Port destinationPort;
     private final Double distance;
 
 
     public Route(Port homePort, Port destinationPort, Double distance) {
+        this(null, homePort, destinationPort, distance);
+    }
+
+    /**
+     * @param id Identificador del documento de ruta del que procede la arista (puede ser {@code null}).
+     */
+    public Route(String id, Port homePort, Port destinationPort, Double distance) {
+        this.id = id;
         this.homePort = homePort;
         this.destinationPort = destinationPort;
         this.distance = distance;
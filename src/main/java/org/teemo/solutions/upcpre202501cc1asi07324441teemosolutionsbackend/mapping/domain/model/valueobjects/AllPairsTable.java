@@ -0,0 +1,102 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Distancias mínimas y siguiente salto entre todos los pares de puertos de un {@link CompactRouteGraph},
+ * guardados en matrices primitivas de {@code n × n} ordenadas por fila de origen.
+ * Con la tabla, una ruta se reconstruye en tiempo proporcional a su número de tramos.
+ * Los puertos excluidos (deshabilitados) no se atraviesan; la tabla solo responde consultas que evitan
+ * exactamente ese conjunto. Supone aristas simétricas, como las registra {@link RouteGraph}.
+ */
+public final class AllPairsTable {
+
+    private final CompactRouteGraph graph;
+    private final BitSet excluded;
+    private final int n;
+    private final double[] distances;
+    private final int[] nextHops;
+
+    private AllPairsTable(CompactRouteGraph graph, BitSet excluded, double[] distances, int[] nextHops) {
+        this.graph = graph;
+        this.excluded = excluded;
+        this.n = graph.nodeCount();
+        this.distances = distances;
+        this.nextHops = nextHops;
+    }
+
+    /**
+     * Ejecuta un Dijkstra por puerto en paralelo sobre los hilos de {@code pool}. Como el grafo es simétrico, el
+     * predecesor de {@code s} en el árbol con raíz {@code t} es justamente el siguiente salto de {@code s} hacia
+     * {@code t}, de modo que cada árbol rellena una columna completa de ambas matrices.
+     */
+    public static AllPairsTable compute(CompactRouteGraph graph, BitSet excluded, ForkJoinPool pool) {
+        int n = graph.nodeCount();
+        BitSet skipped = excluded != null ? (BitSet) excluded.clone() : new BitSet();
+        double[] distances = new double[n * n];
+        int[] nextHops = new int[n * n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(nextHops, -1);
+
+        pool.submit(() -> IntStream.range(0, n).parallel()
+                .filter(target -> !skipped.get(target))
+                .forEach(target -> {
+                    ShortestPathTree tree = ShortestPathTree.compute(graph, target, skipped, Double.POSITIVE_INFINITY);
+                    for (int source = 0; source < n; source++) {
+                        distances[source * n + target] = tree.distanceTo(source);
+                        nextHops[source * n + target] = tree.predecessorOf(source);
+                    }
+                })).join();
+        return new AllPairsTable(graph, skipped, distances, nextHops);
+    }
+
+    /**
+     * Memoria que ocuparía la tabla para {@code nodeCount} puertos, en bytes.
+     */
+    public static long estimateBytes(int nodeCount) {
+        return (long) nodeCount * nodeCount * (Double.BYTES + Integer.BYTES);
+    }
+
+    public boolean isFor(CompactRouteGraph candidate) {
+        return graph == candidate;
+    }
+
+    /**
+     * Indica si la tabla puede responder una consulta que evita exactamente {@code avoided}.
+     */
+    public boolean supports(BitSet avoided) {
+        BitSet requested = avoided != null ? avoided : new BitSet();
+        return requested.equals(excluded);
+    }
+
+    public double distance(int source, int target) {
+        return distances[source * n + target];
+    }
+
+    /**
+     * @return Los nodos del camino de {@code source} a {@code target}, o {@code null} si no existe.
+     */
+    public int[] pathBetween(int source, int target) {
+        if (distance(source, target) == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        int length = 1;
+        for (int node = source; node != target; node = nextHops[node * n + target]) {
+            length++;
+        }
+        int[] path = new int[length];
+        path[0] = source;
+        for (int node = source, i = 1; node != target; i++) {
+            node = nextHops[node * n + target];
+            path[i] = node;
+        }
+        return path;
+    }
+
+    public long estimatedBytes() {
+        return estimateBytes(n);
+    }
+}
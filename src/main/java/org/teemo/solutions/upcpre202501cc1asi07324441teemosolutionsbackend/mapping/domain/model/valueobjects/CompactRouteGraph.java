@@ -0,0 +1,261 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Route;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.domain.model.valueobjects.GeoPoints;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representación primitiva e inmutable del grafo de rutas en formato CSR (compressed sparse row).
+ * Cada puerto recibe un identificador entero denso en [0, nodeCount) y las aristas salientes del nodo
+ * {@code n} ocupan las posiciones {@code [offsets[n], offsets[n + 1])} de los arreglos {@code targets} y {@code weights}.
+ * Recorrer vecinos no calcula hashes ni crea objetos, lo que permite buscar sobre grafos con cientos de miles
+ * de nodos sin presión sobre el recolector de basura.
+ */
+public final class CompactRouteGraph {
+
+    private final long version;
+    private final Port[] ports;
+    private final Map<Port, Integer> indexByPort;
+    private final Map<String, Integer> indexByPortId;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final String[] edgeIds;
+    private final GeoPoints positions;
+
+    private CompactRouteGraph(long version, Port[] ports, int[] offsets, int[] targets, double[] weights, String[] edgeIds) {
+        this.version = version;
+        this.ports = ports;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.edgeIds = edgeIds;
+        this.indexByPort = new HashMap<>(ports.length * 2);
+        this.indexByPortId = new HashMap<>(ports.length * 2);
+        double[] latitudes = new double[ports.length];
+        double[] longitudes = new double[ports.length];
+        for (int i = 0; i < ports.length; i++) {
+            indexByPort.put(ports[i], i);
+            if (ports[i].getId() != null) {
+                indexByPortId.put(ports[i].getId(), i);
+            }
+            Coordinates coordinates = ports[i].getCoordinates();
+            latitudes[i] = coordinates != null ? coordinates.latitude() : Double.NaN;
+            longitudes[i] = coordinates != null ? coordinates.longitude() : Double.NaN;
+        }
+        this.positions = GeoPoints.of(latitudes, longitudes);
+    }
+
+    /**
+     * Convierte un {@link RouteGraph} en su forma compacta. Los nodos se numeran en orden
+     * determinista (nombre y continente) para que dos instantáneas con los mismos datos sean idénticas.
+     */
+    public static CompactRouteGraph from(RouteGraph graph) {
+        List<Port> nodes = new ArrayList<>(graph.getAllNodes());
+        nodes.sort(Comparator.comparing(Port::getName, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Port::getContinent, Comparator.nullsFirst(Comparator.naturalOrder())));
+        Builder builder = new Builder(graph.getVersion(), nodes.size());
+        Map<Port, Integer> ids = new HashMap<>(nodes.size() * 2);
+        for (Port port : nodes) {
+            ids.put(port, builder.addPort(port));
+        }
+        for (Port port : nodes) {
+            int from = ids.get(port);
+            for (Route edge : graph.getAdjacentEdges(port)) {
+                builder.addArc(from, ids.get(edge.getDestinationPort()), edge.getDistance(), edge.getId());
+            }
+        }
+        return builder.build();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int nodeCount() {
+        return ports.length;
+    }
+
+    /**
+     * Número de aristas dirigidas (cada conexión bidireccional cuenta dos veces).
+     */
+    public int arcCount() {
+        return targets.length;
+    }
+
+    public Port portAt(int node) {
+        return ports[node];
+    }
+
+    /**
+     * Posiciones de los puertos indexadas por nodo, con vectores unitarios y {@code cos(lat)} ya calculados.
+     */
+    public GeoPoints positions() {
+        return positions;
+    }
+
+    /**
+     * @return El identificador denso del puerto, o -1 si no pertenece al grafo.
+     */
+    public int indexOf(Port port) {
+        Integer index = indexByPort.get(port);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @return El identificador denso del puerto con ese id de persistencia, o -1 si no existe.
+     */
+    public int indexOfPortId(String portId) {
+        Integer index = portId != null ? indexByPortId.get(portId) : null;
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Máscara con los nodos de los puertos indicados; los ids desconocidos se ignoran.
+     * @return La máscara, o {@code null} si no hay ids.
+     */
+    public BitSet toNodeMask(Collection<String> portIds) {
+        if (portIds == null || portIds.isEmpty()) {
+            return null;
+        }
+        BitSet mask = new BitSet(ports.length);
+        for (String portId : portIds) {
+            int node = indexOfPortId(portId);
+            if (node >= 0) {
+                mask.set(node);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Máscara con los puertos que estaban deshabilitados cuando se construyó la instantánea.
+     */
+    public BitSet disabledNodes() {
+        BitSet mask = new BitSet(ports.length);
+        for (int node = 0; node < ports.length; node++) {
+            if (ports[node].isDisabled()) {
+                mask.set(node);
+            }
+        }
+        return mask;
+    }
+
+    public int firstArc(int node) {
+        return offsets[node];
+    }
+
+    public int endArc(int node) {
+        return offsets[node + 1];
+    }
+
+    public int target(int arc) {
+        return targets[arc];
+    }
+
+    public double weight(int arc) {
+        return weights[arc];
+    }
+
+    /**
+     * @return El id del documento de ruta del que procede el arco, o {@code null} si no lo tiene.
+     */
+    public String edgeId(int arc) {
+        return edgeIds[arc];
+    }
+
+    /**
+     * @return El arco más corto de {@code from} a {@code to}, o -1 si no son adyacentes.
+     */
+    public int arcBetween(int from, int to) {
+        int best = -1;
+        for (int arc = offsets[from], last = offsets[from + 1]; arc < last; arc++) {
+            if (targets[arc] == to && (best < 0 || weights[arc] < weights[best])) {
+                best = arc;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Acumula puertos y aristas en arreglos primitivos y los ordena en formato CSR con un conteo por nodo.
+     */
+    public static final class Builder {
+        private final long version;
+        private final List<Port> ports;
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private double[] cost = new double[16];
+        private String[] ids = new String[16];
+        private int arcs;
+
+        public Builder(long version, int expectedPorts) {
+            this.version = version;
+            this.ports = new ArrayList<>(expectedPorts);
+        }
+
+        public int addPort(Port port) {
+            ports.add(port);
+            return ports.size() - 1;
+        }
+
+        public void addArc(int source, int target, double weight) {
+            addArc(source, target, weight, null);
+        }
+
+        public void addArc(int source, int target, double weight, String edgeId) {
+            if (arcs == from.length) {
+                int capacity = arcs * 2;
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                cost = Arrays.copyOf(cost, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+            from[arcs] = source;
+            to[arcs] = target;
+            cost[arcs] = weight;
+            ids[arcs] = edgeId;
+            arcs++;
+        }
+
+        public void addEdge(int a, int b, double weight) {
+            addEdge(a, b, weight, null);
+        }
+
+        public void addEdge(int a, int b, double weight, String edgeId) {
+            addArc(a, b, weight, edgeId);
+            addArc(b, a, weight, edgeId);
+        }
+
+        public CompactRouteGraph build() {
+            int n = ports.size();
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < arcs; i++) {
+                offsets[from[i] + 1]++;
+            }
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] cursor = Arrays.copyOf(offsets, n);
+            int[] targets = new int[arcs];
+            double[] weights = new double[arcs];
+            String[] edgeIds = new String[arcs];
+            for (int i = 0; i < arcs; i++) {
+                int slot = cursor[from[i]]++;
+                targets[slot] = to[i];
+                weights[slot] = cost[i];
+                edgeIds[slot] = ids[i];
+            }
+            return new CompactRouteGraph(version, ports.toArray(new Port[0]), offsets, targets, weights, edgeIds);
+        }
+    }
+}
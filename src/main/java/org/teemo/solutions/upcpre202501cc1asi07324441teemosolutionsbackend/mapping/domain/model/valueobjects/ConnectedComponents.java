@@ -0,0 +1,151 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Componentes conexas de un {@link CompactRouteGraph}, calculadas con union-find (unión por tamaño y compresión
+ * de caminos por división a la mitad). Con las etiquetas ya calculadas, saber si dos puertos pueden estar
+ * conectados es una comparación de enteros, de modo que las parejas sin ruta se rechazan antes de buscar.
+ * Los nodos excluidos no pertenecen a ninguna componente y tienen etiqueta -1.
+ */
+public final class ConnectedComponents {
+
+    private final CompactRouteGraph graph;
+    private final BitSet excluded;
+    private final int[] labels;
+    private final int[] sizes;
+    private final int isolatedCount;
+
+    private ConnectedComponents(CompactRouteGraph graph, BitSet excluded, int[] labels, int[] sizes, int isolatedCount) {
+        this.graph = graph;
+        this.excluded = excluded;
+        this.labels = labels;
+        this.sizes = sizes;
+        this.isolatedCount = isolatedCount;
+    }
+
+    public static ConnectedComponents compute(CompactRouteGraph graph, BitSet excluded) {
+        int n = graph.nodeCount();
+        BitSet skipped = excluded != null ? (BitSet) excluded.clone() : new BitSet();
+        int[] parent = new int[n];
+        int[] unionSizes = new int[n];
+        for (int node = 0; node < n; node++) {
+            parent[node] = node;
+            unionSizes[node] = 1;
+        }
+        for (int node = 0; node < n; node++) {
+            if (skipped.get(node)) {
+                continue;
+            }
+            for (int arc = graph.firstArc(node), last = graph.endArc(node); arc < last; arc++) {
+                int neighbor = graph.target(arc);
+                if (!skipped.get(neighbor)) {
+                    union(parent, unionSizes, node, neighbor);
+                }
+            }
+        }
+
+        // Etiquetas compactas 0..k-1 en orden de aparición.
+        int[] labels = new int[n];
+        int[] labelOfRoot = new int[n];
+        Arrays.fill(labelOfRoot, -1);
+        int[] sizes = new int[n];
+        int count = 0;
+        for (int node = 0; node < n; node++) {
+            if (skipped.get(node)) {
+                labels[node] = -1;
+                continue;
+            }
+            int root = find(parent, node);
+            if (labelOfRoot[root] < 0) {
+                labelOfRoot[root] = count++;
+            }
+            labels[node] = labelOfRoot[root];
+            sizes[labels[node]]++;
+        }
+        int isolated = 0;
+        for (int label = 0; label < count; label++) {
+            if (sizes[label] == 1) {
+                isolated++;
+            }
+        }
+        return new ConnectedComponents(graph, skipped, labels, Arrays.copyOf(sizes, count), isolated);
+    }
+
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private static void union(int[] parent, int[] size, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA == rootB) {
+            return;
+        }
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+    }
+
+    public boolean isFor(CompactRouteGraph candidate) {
+        return graph == candidate;
+    }
+
+    /**
+     * Indica si las componentes se calcularon excluyendo exactamente {@code avoided}.
+     */
+    public boolean supports(BitSet avoided) {
+        BitSet requested = avoided != null ? avoided : new BitSet();
+        return requested.equals(excluded);
+    }
+
+    /**
+     * @return {@code true} si ambos nodos están en la misma componente; {@code false} si alguno está excluido.
+     */
+    public boolean connected(int a, int b) {
+        return labels[a] >= 0 && labels[a] == labels[b];
+    }
+
+    public int componentOf(int node) {
+        return labels[node];
+    }
+
+    public int componentCount() {
+        return sizes.length;
+    }
+
+    /**
+     * Tamaño de cada componente, indexado por etiqueta.
+     */
+    public int[] componentSizes() {
+        return sizes.clone();
+    }
+
+    public int largestComponentSize() {
+        int largest = 0;
+        for (int size : sizes) {
+            largest = Math.max(largest, size);
+        }
+        return largest;
+    }
+
+    /**
+     * Número de puertos sin ninguna ruta hacia otro puerto no excluido.
+     */
+    public int isolatedCount() {
+        return isolatedCount;
+    }
+
+    public boolean isIsolated(int node) {
+        return labels[node] >= 0 && sizes[labels[node]] == 1;
+    }
+}
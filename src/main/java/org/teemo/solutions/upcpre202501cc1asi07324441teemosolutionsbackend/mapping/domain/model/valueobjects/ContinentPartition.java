@@ -0,0 +1,471 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Partición del grafo en celdas por continente para enrutar en dos niveles.
+ * <p>
+ * Los puertos de pasarela son los extremos de las rutas que unen continentes distintos. Para cada celda se
+ * precalculan las distancias entre sus pasarelas sin salir del continente y el predecesor de cada puerto en el
+ * árbol de cada pasarela, y con ellas se arma un grafo de solapamiento cuyos nodos son todas las pasarelas: entre
+ * pasarelas de una misma celda hay un atajo con la distancia de la tabla, y entre continentes están las rutas
+ * originales. Una consulta busca localmente desde el origen hasta las pasarelas de su celda, atraviesa el
+ * solapamiento y termina con la búsqueda local desde las pasarelas de la celda destino; el resultado es el camino
+ * mínimo exacto. Las búsquedas de la consulta usan los {@link SearchWorkspace} del llamador y no salen de la celda,
+ * y los atajos se desempaquetan con los predecesores precalculados, de modo que responder no reserva arreglos del
+ * tamaño del grafo.
+ * <p>
+ * Cada celda guarda una firma de su contenido (puertos, rutas internas y pasarelas). Al construir la partición de
+ * una instantánea nueva se reutilizan las tablas de las celdas cuya firma no cambió, de modo que modificar un
+ * continente sólo recalcula ese continente y el solapamiento, que es pequeño.
+ * Los puertos excluidos (deshabilitados) no se atraviesan; igual que {@link AllPairsTable}, sólo responde
+ * consultas que evitan exactamente ese conjunto y supone aristas simétricas.
+ */
+public final class ContinentPartition {
+
+    private final CompactRouteGraph graph;
+    private final BitSet excluded;
+    private final List<Cell> cells;
+    private final int[] cellOf;
+    private final int[] localIndex;
+    private final int[] gateways;
+    private final int[] gatewayOrdinal;
+    private final int[] overlayStart;
+    private final int[] overlayTargets;
+    private final double[] overlayWeights;
+    private final int recomputedCells;
+
+    private ContinentPartition(CompactRouteGraph graph, BitSet excluded, List<Cell> cells, int[] cellOf, int[] localIndex,
+                               int[] gateways, int[] gatewayOrdinal, int[] overlayStart, int[] overlayTargets,
+                               double[] overlayWeights, int recomputedCells) {
+        this.graph = graph;
+        this.excluded = excluded;
+        this.cells = cells;
+        this.cellOf = cellOf;
+        this.localIndex = localIndex;
+        this.gateways = gateways;
+        this.gatewayOrdinal = gatewayOrdinal;
+        this.overlayStart = overlayStart;
+        this.overlayTargets = overlayTargets;
+        this.overlayWeights = overlayWeights;
+        this.recomputedCells = recomputedCells;
+    }
+
+    /**
+     * Construye la partición sin reutilizar tablas.
+     */
+    public static ContinentPartition build(CompactRouteGraph graph, BitSet excluded, ForkJoinPool pool) {
+        return build(graph, excluded, null, pool);
+    }
+
+    /**
+     * Construye la partición reutilizando de {@code previous} las tablas de las celdas que no cambiaron.
+     * @param previous Partición de una instantánea anterior, o {@code null}.
+     * @param pool     Pool en el que se reparten los Dijkstra de las tablas de pasarelas.
+     */
+    public static ContinentPartition build(CompactRouteGraph graph, BitSet excluded, ContinentPartition previous,
+                                           ForkJoinPool pool) {
+        int n = graph.nodeCount();
+        BitSet skipped = excluded != null ? (BitSet) excluded.clone() : new BitSet();
+
+        // Celdas en orden de aparición; el orden de los nodos dentro de cada celda es el del grafo compacto,
+        // que es determinista (nombre y continente) entre instantáneas.
+        Map<String, Integer> cellByContinent = new LinkedHashMap<>();
+        int[] cellOf = new int[n];
+        for (int node = 0; node < n; node++) {
+            cellOf[node] = cellByContinent.computeIfAbsent(continentOf(graph.portAt(node)), key -> cellByContinent.size());
+        }
+        BitSet isGateway = new BitSet(n);
+        for (int node = skipped.nextClearBit(0); node < n; node = skipped.nextClearBit(node + 1)) {
+            for (int arc = graph.firstArc(node), last = graph.endArc(node); arc < last; arc++) {
+                int target = graph.target(arc);
+                if (cellOf[target] != cellOf[node] && !skipped.get(target)) {
+                    isGateway.set(node);
+                    isGateway.set(target);
+                }
+            }
+        }
+
+        Map<String, Cell> reusable = new HashMap<>();
+        if (previous != null) {
+            for (Cell cell : previous.cells) {
+                reusable.put(cell.continent, cell);
+            }
+        }
+        List<String> continents = new ArrayList<>(cellByContinent.keySet());
+        List<Cell> cells = new ArrayList<>(continents.size());
+        int[] localIndex = new int[n];
+        int recomputed = 0;
+        for (int c = 0; c < continents.size(); c++) {
+            int cellIndex = c;
+            int[] nodes = IntStream.range(0, n).filter(node -> cellOf[node] == cellIndex).toArray();
+            for (int i = 0; i < nodes.length; i++) {
+                localIndex[nodes[i]] = i;
+            }
+            CellSignature signature = CellSignature.of(graph, nodes, cellOf, skipped, isGateway);
+            int[] cellGateways = Arrays.stream(nodes).filter(isGateway::get).toArray();
+            BitSet outside = new BitSet(n);
+            outside.set(0, n);
+            for (int node : nodes) {
+                outside.clear(node);
+            }
+            outside.or(skipped);
+
+            Cell old = reusable.get(continents.get(c));
+            double[] table;
+            int[] parents;
+            if (old != null && old.signature.equals(signature)) {
+                // Misma firma implica la misma numeración local, así que los predecesores siguen siendo válidos.
+                table = old.table;
+                parents = old.parents;
+            } else {
+                table = new double[cellGateways.length * cellGateways.length];
+                parents = new int[cellGateways.length * nodes.length];
+                computeTables(graph, nodes, cellGateways, outside, localIndex, table, parents, pool);
+                recomputed++;
+            }
+            cells.add(new Cell(continents.get(c), nodes, cellGateways, outside, table, parents, signature));
+        }
+
+        int[] gateways = isGateway.stream().toArray();
+        int[] gatewayOrdinal = new int[n];
+        Arrays.fill(gatewayOrdinal, -1);
+        for (int i = 0; i < gateways.length; i++) {
+            gatewayOrdinal[gateways[i]] = i;
+        }
+
+        // Solapamiento en CSR: atajos entre pasarelas de la misma celda y rutas originales entre celdas.
+        int[] overlayStart = new int[gateways.length + 1];
+        int[] targets = new int[16];
+        double[] weights = new double[16];
+        int arcs = 0;
+        for (int i = 0; i < gateways.length; i++) {
+            int node = gateways[i];
+            Cell cell = cells.get(cellOf[node]);
+            int local = Arrays.binarySearch(cell.gateways, node);
+            for (int other = 0; other < cell.gateways.length; other++) {
+                double distance = cell.table[local * cell.gateways.length + other];
+                if (other == local || distance == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                if (arcs == targets.length) {
+                    targets = Arrays.copyOf(targets, arcs * 2);
+                    weights = Arrays.copyOf(weights, arcs * 2);
+                }
+                targets[arcs] = gatewayOrdinal[cell.gateways[other]];
+                weights[arcs++] = distance;
+            }
+            for (int arc = graph.firstArc(node), last = graph.endArc(node); arc < last; arc++) {
+                int target = graph.target(arc);
+                if (cellOf[target] == cellOf[node] || skipped.get(target)) {
+                    continue;
+                }
+                if (arcs == targets.length) {
+                    targets = Arrays.copyOf(targets, arcs * 2);
+                    weights = Arrays.copyOf(weights, arcs * 2);
+                }
+                targets[arcs] = gatewayOrdinal[target];
+                weights[arcs++] = graph.weight(arc);
+            }
+            overlayStart[i + 1] = arcs;
+        }
+        return new ContinentPartition(graph, skipped, List.copyOf(cells), cellOf, localIndex, gateways, gatewayOrdinal,
+                overlayStart, Arrays.copyOf(targets, arcs), Arrays.copyOf(weights, arcs), recomputed);
+    }
+
+    /**
+     * Número máximo de pasarelas de una sola celda que tendría la partición de {@code graph}; permite descartar
+     * grafos cuyas tablas no caben en memoria antes de construirlas.
+     */
+    public static int largestCellGateways(CompactRouteGraph graph) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            String continent = continentOf(graph.portAt(node));
+            for (int arc = graph.firstArc(node), last = graph.endArc(node); arc < last; arc++) {
+                if (!continent.equals(continentOf(graph.portAt(graph.target(arc))))) {
+                    counts.merge(continent, 1, Integer::sum);
+                    break;
+                }
+            }
+        }
+        return counts.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    public boolean isFor(CompactRouteGraph candidate) {
+        return graph == candidate;
+    }
+
+    /**
+     * Indica si la partición puede responder una consulta que evita exactamente {@code avoided}.
+     */
+    public boolean supports(BitSet avoided) {
+        BitSet requested = avoided != null ? avoided : new BitSet();
+        return requested.equals(excluded);
+    }
+
+    public int cellCount() {
+        return cells.size();
+    }
+
+    public int gatewayCount() {
+        return gateways.length;
+    }
+
+    /**
+     * Celdas cuya tabla se calculó al construir esta partición (las demás se reutilizaron).
+     */
+    public int recomputedCells() {
+        return recomputedCells;
+    }
+
+    /**
+     * @param sourceSide Workspace de la búsqueda local desde el origen.
+     * @param targetSide Workspace de la búsqueda local desde el destino.
+     * @param overlay    Workspace de la búsqueda sobre el solapamiento.
+     * @return Los nodos del camino mínimo de {@code source} a {@code target}, o {@code null} si no existe.
+     */
+    public int[] pathBetween(int source, int target, SearchWorkspace sourceSide, SearchWorkspace targetSide,
+                             SearchWorkspace overlay) {
+        if (excluded.get(source) || excluded.get(target)) {
+            return null;
+        }
+        if (source == target) {
+            return new int[]{source};
+        }
+        Cell sourceCell = cells.get(cellOf[source]);
+        Cell targetCell = cells.get(cellOf[target]);
+        boolean sameCell = sourceCell == targetCell;
+        searchCell(sourceCell, source, sameCell ? target : -1, sourceSide);
+        searchCell(targetCell, target, -1, targetSide);
+
+        double best = sameCell ? sourceSide.distance(target) : Double.POSITIVE_INFINITY;
+        int bestExit = -1;
+        overlay.reset(gateways.length);
+        IndexedMinHeap heap = overlay.heap();
+        for (int gateway : sourceCell.gateways) {
+            double distance = sourceSide.distance(gateway);
+            if (distance != Double.POSITIVE_INFINITY) {
+                int ordinal = gatewayOrdinal[gateway];
+                overlay.update(ordinal, distance, -1);
+                heap.insertOrDecrease(ordinal, distance);
+            }
+        }
+        while (!heap.isEmpty() && heap.minKey() < best) {
+            int ordinal = heap.pollMin();
+            int node = gateways[ordinal];
+            double reached = overlay.distance(ordinal);
+            if (cellOf[node] == cellOf[target]) {
+                double total = reached + targetSide.distance(node);
+                if (total < best) {
+                    best = total;
+                    bestExit = ordinal;
+                }
+            }
+            for (int arc = overlayStart[ordinal], last = overlayStart[ordinal + 1]; arc < last; arc++) {
+                int neighbor = overlayTargets[arc];
+                double candidate = reached + overlayWeights[arc];
+                if (candidate < overlay.distance(neighbor)) {
+                    overlay.update(neighbor, candidate, ordinal);
+                    heap.insertOrDecrease(neighbor, candidate);
+                }
+            }
+        }
+        if (best == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        if (bestExit < 0) {
+            return sourceSide.pathTo(target);
+        }
+        return unpack(sourceSide, targetSide, overlay.pathTo(bestExit));
+    }
+
+    /**
+     * Memoria aproximada de las tablas de celda y del solapamiento, en bytes.
+     */
+    public long estimatedBytes() {
+        long bytes = (long) Integer.BYTES * (cellOf.length * 3L + gateways.length + overlayStart.length + overlayTargets.length)
+                + (long) Double.BYTES * overlayWeights.length;
+        for (Cell cell : cells) {
+            bytes += (long) Double.BYTES * cell.table.length
+                    + (long) Integer.BYTES * (cell.nodes.length + cell.parents.length)
+                    + cell.outside.size() / 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * Dijkstra desde {@code origin} sin salir de la celda; se detiene en cuanto asienta todas sus pasarelas y, si se
+     * indica, {@code extraTarget}.
+     */
+    private void searchCell(Cell cell, int origin, int extraTarget, SearchWorkspace workspace) {
+        workspace.reset(graph.nodeCount());
+        IndexedMinHeap heap = workspace.heap();
+        workspace.update(origin, 0.0, -1);
+        heap.insertOrDecrease(origin, 0.0);
+        int pending = cell.gateways.length
+                + (extraTarget >= 0 && Arrays.binarySearch(cell.gateways, extraTarget) < 0 ? 1 : 0);
+        while (!heap.isEmpty() && pending > 0) {
+            int node = heap.pollMin();
+            workspace.markSettled(node);
+            if (node == extraTarget || gatewayOrdinal[node] >= 0) {
+                pending--;
+            }
+            double reached = workspace.distance(node);
+            for (int arc = graph.firstArc(node), last = graph.endArc(node); arc < last; arc++) {
+                int neighbor = graph.target(arc);
+                if (cell.outside.get(neighbor) || workspace.isSettled(neighbor)) {
+                    continue;
+                }
+                double candidate = reached + graph.weight(arc);
+                if (candidate < workspace.distance(neighbor)) {
+                    workspace.update(neighbor, candidate, node);
+                    heap.insertOrDecrease(neighbor, candidate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Expande el camino del solapamiento: tramo local hasta la primera pasarela, atajos de celda resueltos con los
+     * predecesores precalculados, rutas entre continentes tal cual y tramo local desde la última pasarela al destino.
+     * @param overlayPath Ordinales de las pasarelas recorridas en el solapamiento.
+     */
+    private int[] unpack(SearchWorkspace sourceSide, SearchWorkspace targetSide, int[] overlayPath) {
+        List<Integer> nodes = new ArrayList<>();
+        for (int node : sourceSide.pathTo(gateways[overlayPath[0]])) {
+            nodes.add(node);
+        }
+        for (int i = 1; i < overlayPath.length; i++) {
+            int from = gateways[overlayPath[i - 1]];
+            int to = gateways[overlayPath[i]];
+            if (cellOf[from] != cellOf[to]) {
+                nodes.add(to);
+                continue;
+            }
+            // Los predecesores van de la pasarela destino hacia la de origen; se agregan y luego se invierten.
+            Cell cell = cells.get(cellOf[from]);
+            int row = Arrays.binarySearch(cell.gateways, from) * cell.nodes.length;
+            int first = nodes.size();
+            for (int local = localIndex[to]; local != localIndex[from]; local = cell.parents[row + local]) {
+                nodes.add(cell.nodes[local]);
+            }
+            Collections.reverse(nodes.subList(first, nodes.size()));
+        }
+        // La búsqueda del destino va del destino a la pasarela; por simetría se recorre al revés.
+        int[] tail = targetSide.pathTo(gateways[overlayPath[overlayPath.length - 1]]);
+        for (int j = tail.length - 2; j >= 0; j--) {
+            nodes.add(tail[j]);
+        }
+        return nodes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Llena la tabla de distancias entre pasarelas de la celda y, para cada pasarela, el predecesor local de cada
+     * puerto de la celda en su árbol de caminos mínimos (-1 en la raíz y en los inalcanzables).
+     */
+    private static void computeTables(CompactRouteGraph graph, int[] nodes, int[] cellGateways, BitSet outside,
+                                      int[] localIndex, double[] table, int[] parents, ForkJoinPool pool) {
+        int g = cellGateways.length;
+        int size = nodes.length;
+        pool.submit(() -> IntStream.range(0, g).parallel().forEach(row -> {
+            ShortestPathTree tree = ShortestPathTree.compute(graph, cellGateways[row], outside, Double.POSITIVE_INFINITY);
+            for (int column = 0; column < g; column++) {
+                table[row * g + column] = tree.distanceTo(cellGateways[column]);
+            }
+            for (int i = 0; i < size; i++) {
+                int predecessor = tree.predecessorOf(nodes[i]);
+                parents[row * size + i] = predecessor >= 0 ? localIndex[predecessor] : -1;
+            }
+        })).join();
+    }
+
+    private static String continentOf(Port port) {
+        return port.getContinent() != null ? port.getContinent() : "";
+    }
+
+    /**
+     * Continente de la partición. {@code outside} marca los nodos de otras celdas y los excluidos, para que las
+     * búsquedas locales no salgan del continente. {@code parents} guarda, por cada pasarela, el predecesor (en
+     * numeración local) de cada puerto de la celda en su árbol de caminos mínimos.
+     */
+    private record Cell(String continent, int[] nodes, int[] gateways, BitSet outside, double[] table, int[] parents,
+                        CellSignature signature) {}
+
+    /**
+     * Contenido de una celda independiente de la numeración global: claves de sus puertos en orden, cuáles están
+     * excluidos o son pasarela y sus rutas internas como (origen local, destino local, distancia) ordenadas.
+     */
+    private static final class CellSignature {
+        private final String[] portKeys;
+        private final BitSet excluded;
+        private final BitSet gateways;
+        private final long[] arcEnds;
+        private final double[] arcWeights;
+
+        private CellSignature(String[] portKeys, BitSet excluded, BitSet gateways, long[] arcEnds, double[] arcWeights) {
+            this.portKeys = portKeys;
+            this.excluded = excluded;
+            this.gateways = gateways;
+            this.arcEnds = arcEnds;
+            this.arcWeights = arcWeights;
+        }
+
+        static CellSignature of(CompactRouteGraph graph, int[] nodes, int[] cellOf, BitSet skipped, BitSet isGateway) {
+            Map<Integer, Integer> localIndex = new HashMap<>(nodes.length * 2);
+            String[] keys = new String[nodes.length];
+            BitSet excluded = new BitSet(nodes.length);
+            BitSet gateways = new BitSet(nodes.length);
+            for (int i = 0; i < nodes.length; i++) {
+                Port port = graph.portAt(nodes[i]);
+                localIndex.put(nodes[i], i);
+                keys[i] = port.getId() != null ? port.getId() : port.getName();
+                excluded.set(i, skipped.get(nodes[i]));
+                gateways.set(i, isGateway.get(nodes[i]));
+            }
+            List<double[]> arcs = new ArrayList<>();
+            for (int i = 0; i < nodes.length; i++) {
+                for (int arc = graph.firstArc(nodes[i]), last = graph.endArc(nodes[i]); arc < last; arc++) {
+                    int target = graph.target(arc);
+                    if (cellOf[target] == cellOf[nodes[i]]) {
+                        arcs.add(new double[]{i, localIndex.get(target), graph.weight(arc)});
+                    }
+                }
+            }
+            arcs.sort((a, b) -> Arrays.compare(a, b));
+            long[] ends = new long[arcs.size()];
+            double[] weights = new double[arcs.size()];
+            for (int i = 0; i < arcs.size(); i++) {
+                ends[i] = ((long) arcs.get(i)[0] << 32) | (long) arcs.get(i)[1];
+                weights[i] = arcs.get(i)[2];
+            }
+            return new CellSignature(keys, excluded, gateways, ends, weights);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof CellSignature that
+                    && Arrays.equals(portKeys, that.portKeys)
+                    && excluded.equals(that.excluded)
+                    && gateways.equals(that.gateways)
+                    && Arrays.equals(arcEnds, that.arcEnds)
+                    && Arrays.equals(arcWeights, that.arcWeights);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(Arrays.hashCode(portKeys), excluded, gateways, Arrays.hashCode(arcEnds));
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jerarquía de contracción (Contraction Hierarchies) sobre un {@link CompactRouteGraph}.
+ * Los puertos se contraen uno a uno en orden de importancia creciente; al contraer un puerto se añaden
+ * atajos entre sus vecinos cuando no existe un camino testigo igual de corto. Una consulta solo recorre
+ * aristas hacia puertos de mayor rango desde ambos extremos, por lo que explora una fracción mínima del grafo.
+ * Cada atajo recuerda el puerto contraído que reemplaza para poder desempaquetarlo en el camino original.
+ * Los puertos excluidos (deshabilitados) no participan: la jerarquía solo responde consultas que evitan
+ * exactamente ese conjunto. Supone aristas simétricas, como las registra {@link RouteGraph}.
+ */
+public final class ContractionHierarchy {
+
+    private final CompactRouteGraph graph;
+    private final BitSet excluded;
+    private final int[] rank;
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final double[] upWeights;
+    private final int[] upMiddles;
+    private final int shortcutCount;
+
+    private ContractionHierarchy(CompactRouteGraph graph, BitSet excluded, int[] rank, int[] upOffsets,
+                                 int[] upTargets, double[] upWeights, int[] upMiddles, int shortcutCount) {
+        this.graph = graph;
+        this.excluded = excluded;
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddles = upMiddles;
+        this.shortcutCount = shortcutCount;
+    }
+
+    /**
+     * Contrae el grafo completo ignorando los nodos de {@code excluded}.
+     * @param witnessSettleLimit Máximo de nodos que asienta cada búsqueda de testigos; un límite bajo
+     *                           contrae más rápido a cambio de algunos atajos innecesarios (nunca incorrectos).
+     */
+    public static ContractionHierarchy contract(CompactRouteGraph graph, BitSet excluded, int witnessSettleLimit) {
+        return new Contractor(graph, excluded, witnessSettleLimit).run();
+    }
+
+    public boolean isFor(CompactRouteGraph candidate) {
+        return graph == candidate;
+    }
+
+    public CompactRouteGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return Copia del conjunto de nodos que la jerarquía no contiene.
+     */
+    public BitSet excludedNodes() {
+        return (BitSet) excluded.clone();
+    }
+
+    /**
+     * Indica si la jerarquía puede responder una consulta que evita exactamente {@code avoided}.
+     */
+    public boolean supports(BitSet avoided) {
+        BitSet requested = avoided != null ? avoided : new BitSet();
+        return requested.equals(excluded);
+    }
+
+    public int getShortcutCount() {
+        return shortcutCount;
+    }
+
+    /**
+     * Búsqueda bidireccional ascendente: desde cada extremo solo se relajan aristas hacia nodos de mayor rango
+     * y cada lado se detiene cuando su clave mínima supera la mejor distancia de encuentro.
+     * @return Los nodos del camino original (atajos desempaquetados), o {@code null} si no existe ruta.
+     */
+    public int[] findPath(int start, int end, SearchWorkspace forward, SearchWorkspace backward) {
+        if (excluded.get(start) || excluded.get(end)) {
+            return null;
+        }
+        if (start == end) {
+            return new int[]{start};
+        }
+        forward.reset(graph.nodeCount());
+        backward.reset(graph.nodeCount());
+        forward.update(start, 0.0, -1);
+        forward.heap().insertOrDecrease(start, 0.0);
+        backward.update(end, 0.0, -1);
+        backward.heap().insertOrDecrease(end, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        while (true) {
+            boolean forwardOpen = !forward.heap().isEmpty() && forward.heap().minKey() < best;
+            boolean backwardOpen = !backward.heap().isEmpty() && backward.heap().minKey() < best;
+            if (!forwardOpen && !backwardOpen) {
+                break;
+            }
+            boolean expandForward = forwardOpen
+                    && (!backwardOpen || forward.heap().minKey() <= backward.heap().minKey());
+            SearchWorkspace side = expandForward ? forward : backward;
+            SearchWorkspace other = expandForward ? backward : forward;
+
+            int current = side.heap().pollMin();
+            double currentScore = side.distance(current);
+            if (other.isReached(current) && currentScore + other.distance(current) < best) {
+                best = currentScore + other.distance(current);
+                meeting = current;
+            }
+            for (int arc = upOffsets[current], last = upOffsets[current + 1]; arc < last; arc++) {
+                int neighbor = upTargets[arc];
+                double tentative = currentScore + upWeights[arc];
+                if (tentative < side.distance(neighbor)) {
+                    side.update(neighbor, tentative, current);
+                    side.heap().insertOrDecrease(neighbor, tentative);
+                }
+            }
+        }
+        if (meeting < 0) {
+            return null;
+        }
+        return unpack(forward, backward, start, meeting);
+    }
+
+    private int[] unpack(SearchWorkspace forward, SearchWorkspace backward, int start, int meeting) {
+        int[] up = forward.pathTo(meeting);
+        List<Integer> nodes = new ArrayList<>();
+        nodes.add(start);
+        for (int i = 1; i < up.length; i++) {
+            appendUnpacked(up[i - 1], up[i], nodes);
+        }
+        for (int node = meeting, next = backward.parent(meeting); next != -1; node = next, next = backward.parent(next)) {
+            appendUnpacked(node, next, nodes);
+        }
+        int[] path = new int[nodes.size()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = nodes.get(i);
+        }
+        return path;
+    }
+
+    /**
+     * Añade a {@code out} los nodos originales que recorre la arista (posiblemente atajo) {@code from → to},
+     * sin incluir {@code from}.
+     */
+    private void appendUnpacked(int from, int to, List<Integer> out) {
+        Deque<int[]> pending = new ArrayDeque<>();
+        pending.push(new int[]{from, to});
+        while (!pending.isEmpty()) {
+            int[] segment = pending.pop();
+            int middle = middleOf(segment[0], segment[1]);
+            if (middle < 0) {
+                out.add(segment[1]);
+            } else {
+                pending.push(new int[]{middle, segment[1]});
+                pending.push(new int[]{segment[0], middle});
+            }
+        }
+    }
+
+    private int middleOf(int a, int b) {
+        int low = rank[a] < rank[b] ? a : b;
+        int high = low == a ? b : a;
+        for (int arc = upOffsets[low], last = upOffsets[low + 1]; arc < last; arc++) {
+            if (upTargets[arc] == high) {
+                return upMiddles[arc];
+            }
+        }
+        throw new IllegalStateException("Arista ascendente inexistente entre " + a + " y " + b);
+    }
+
+    /**
+     * Estado temporal de la contracción: adyacencia dinámica, prioridades perezosas y búsqueda de testigos.
+     */
+    private static final class Contractor {
+        private final CompactRouteGraph graph;
+        private final BitSet excluded;
+        private final int witnessSettleLimit;
+        private final int n;
+        private final List<Map<Integer, Shortcut>> adjacency;
+        private final boolean[] contracted;
+        private final int[] contractedNeighbors;
+        private final double[] witnessDistance;
+        private final int[] witnessStamp;
+        private final IndexedMinHeap witnessHeap;
+        private int stamp;
+
+        private Contractor(CompactRouteGraph graph, BitSet excluded, int witnessSettleLimit) {
+            this.graph = graph;
+            this.excluded = excluded != null ? (BitSet) excluded.clone() : new BitSet();
+            this.witnessSettleLimit = Math.max(1, witnessSettleLimit);
+            this.n = graph.nodeCount();
+            this.adjacency = new ArrayList<>(n);
+            this.contracted = new boolean[n];
+            this.contractedNeighbors = new int[n];
+            this.witnessDistance = new double[n];
+            this.witnessStamp = new int[n];
+            this.witnessHeap = new IndexedMinHeap(n);
+            for (int node = 0; node < n; node++) {
+                adjacency.add(new HashMap<>());
+            }
+            for (int node = 0; node < n; node++) {
+                if (this.excluded.get(node)) {
+                    continue;
+                }
+                for (int arc = graph.firstArc(node), last = graph.endArc(node); arc < last; arc++) {
+                    int target = graph.target(arc);
+                    if (target != node && !this.excluded.get(target)) {
+                        connect(node, target, graph.weight(arc), -1);
+                    }
+                }
+            }
+        }
+
+        private ContractionHierarchy run() {
+            int[] rank = new int[n];
+            Arrays.fill(rank, Integer.MAX_VALUE);
+            List<List<int[]>> upArcs = new ArrayList<>(n);
+            List<List<Double>> upCosts = new ArrayList<>(n);
+            IndexedMinHeap order = new IndexedMinHeap(n);
+            for (int node = 0; node < n; node++) {
+                upArcs.add(List.of());
+                upCosts.add(List.of());
+                if (!excluded.get(node)) {
+                    order.insertOrDecrease(node, priority(node));
+                }
+            }
+
+            int nextRank = 0;
+            int shortcuts = 0;
+            while (!order.isEmpty()) {
+                int node = order.pollMin();
+                double updated = priority(node);
+                if (!order.isEmpty() && updated > order.minKey()) {
+                    order.insertOrDecrease(node, updated);
+                    continue;
+                }
+                List<int[]> arcs = new ArrayList<>();
+                List<Double> costs = new ArrayList<>();
+                for (Map.Entry<Integer, Shortcut> entry : adjacency.get(node).entrySet()) {
+                    arcs.add(new int[]{entry.getKey(), entry.getValue().middle()});
+                    costs.add(entry.getValue().weight());
+                }
+                upArcs.set(node, arcs);
+                upCosts.set(node, costs);
+                shortcuts += contractNode(node, false);
+                rank[node] = nextRank++;
+            }
+
+            int[] offsets = new int[n + 1];
+            for (int node = 0; node < n; node++) {
+                offsets[node + 1] = offsets[node] + upArcs.get(node).size();
+            }
+            int[] targets = new int[offsets[n]];
+            double[] weights = new double[offsets[n]];
+            int[] middles = new int[offsets[n]];
+            for (int node = 0; node < n; node++) {
+                List<int[]> arcs = upArcs.get(node);
+                for (int i = 0; i < arcs.size(); i++) {
+                    int slot = offsets[node] + i;
+                    targets[slot] = arcs.get(i)[0];
+                    middles[slot] = arcs.get(i)[1];
+                    weights[slot] = upCosts.get(node).get(i);
+                }
+            }
+            return new ContractionHierarchy(graph, excluded, rank, offsets, targets, weights, middles, shortcuts);
+        }
+
+        /**
+         * Diferencia de aristas más vecinos ya contraídos: favorece contraer primero los nodos poco importantes
+         * y repartir la contracción de forma uniforme.
+         */
+        private double priority(int node) {
+            int required = contractNode(node, true);
+            return required - adjacency.get(node).size() + contractedNeighbors[node];
+        }
+
+        /**
+         * Contrae {@code node} (o simula la contracción si {@code dryRun}) y devuelve cuántos atajos requiere.
+         */
+        private int contractNode(int node, boolean dryRun) {
+            Map<Integer, Shortcut> edges = adjacency.get(node);
+            int[] neighbors = edges.keySet().stream().mapToInt(Integer::intValue).toArray();
+            int required = 0;
+            for (int i = 0; i < neighbors.length - 1; i++) {
+                int source = neighbors[i];
+                double toSource = edges.get(source).weight();
+                double limit = 0.0;
+                for (int j = i + 1; j < neighbors.length; j++) {
+                    limit = Math.max(limit, toSource + edges.get(neighbors[j]).weight());
+                }
+                witnessSearch(source, node, limit);
+                for (int j = i + 1; j < neighbors.length; j++) {
+                    int target = neighbors[j];
+                    double via = toSource + edges.get(target).weight();
+                    if (witness(target) <= via) {
+                        continue;
+                    }
+                    required++;
+                    if (!dryRun) {
+                        connect(source, target, via, node);
+                        connect(target, source, via, node);
+                    }
+                }
+            }
+            if (!dryRun) {
+                for (int neighbor : neighbors) {
+                    adjacency.get(neighbor).remove(node);
+                    contractedNeighbors[neighbor]++;
+                }
+                contracted[node] = true;
+            }
+            return required;
+        }
+
+        private void witnessSearch(int source, int skipped, double limit) {
+            stamp++;
+            witnessHeap.clear();
+            witnessDistance[source] = 0.0;
+            witnessStamp[source] = stamp;
+            witnessHeap.insertOrDecrease(source, 0.0);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && witnessHeap.minKey() <= limit && settled < witnessSettleLimit) {
+                int current = witnessHeap.pollMin();
+                settled++;
+                double currentDistance = witnessDistance[current];
+                for (Map.Entry<Integer, Shortcut> entry : adjacency.get(current).entrySet()) {
+                    int neighbor = entry.getKey();
+                    if (neighbor == skipped || contracted[neighbor]) {
+                        continue;
+                    }
+                    double candidate = currentDistance + entry.getValue().weight();
+                    if (candidate < witness(neighbor)) {
+                        witnessDistance[neighbor] = candidate;
+                        witnessStamp[neighbor] = stamp;
+                        witnessHeap.insertOrDecrease(neighbor, candidate);
+                    }
+                }
+            }
+        }
+
+        private double witness(int node) {
+            return witnessStamp[node] == stamp ? witnessDistance[node] : Double.POSITIVE_INFINITY;
+        }
+
+        private void connect(int from, int to, double weight, int middle) {
+            adjacency.get(from).merge(to, new Shortcut(weight, middle),
+                    (current, candidate) -> candidate.weight() < current.weight() ? candidate : current);
+        }
+    }
+
+    private record Shortcut(double weight, int middle) {}
+}
@@ -0,0 +1,127 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Matriz densa de distancias mínimas entre un conjunto de orígenes y uno de destinos, guardada por filas
+ * en un único {@code float[]}. Las parejas sin ruta valen {@link Float#POSITIVE_INFINITY}.
+ * Se calcula con un Dijkstra por origen que se detiene en cuanto ha asentado todos los destinos, en paralelo
+ * entre orígenes sobre los hilos del pool que indique el llamador, nunca sobre el pool común.
+ */
+public final class DistanceMatrix {
+
+    private static final ThreadLocal<SearchWorkspace> WORKSPACE = ThreadLocal.withInitial(SearchWorkspace::new);
+
+    private final int rows;
+    private final int columns;
+    private final float[] values;
+
+    private DistanceMatrix(int rows, int columns, float[] values) {
+        this.rows = rows;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * @param origins      Nodos de origen, uno por fila.
+     * @param destinations Nodos de destino, uno por columna; pueden repetirse.
+     * @param avoided      Nodos que no se pueden atravesar ni usar como extremo; puede ser {@code null}.
+     * @param pool         Pool en el que se reparten las filas.
+     */
+    public static DistanceMatrix compute(CompactRouteGraph graph, int[] origins, int[] destinations, BitSet avoided,
+                                         ForkJoinPool pool) {
+        int columns = destinations.length;
+        float[] values = new float[origins.length * columns];
+        Arrays.fill(values, Float.POSITIVE_INFINITY);
+
+        BitSet targets = new BitSet(graph.nodeCount());
+        for (int destination : destinations) {
+            if (avoided == null || !avoided.get(destination)) {
+                targets.set(destination);
+            }
+        }
+        int targetCount = targets.cardinality();
+
+        pool.submit(() -> IntStream.range(0, origins.length).parallel().forEach(row -> {
+            int origin = origins[row];
+            if (avoided != null && avoided.get(origin)) {
+                return;
+            }
+            SearchWorkspace workspace = WORKSPACE.get();
+            settleTargets(graph, origin, targets, targetCount, avoided, workspace);
+            int offset = row * columns;
+            for (int column = 0; column < columns; column++) {
+                int destination = destinations[column];
+                if (workspace.isSettled(destination)) {
+                    values[offset + column] = (float) workspace.distance(destination);
+                }
+            }
+        })).join();
+        return new DistanceMatrix(origins.length, columns, values);
+    }
+
+    /**
+     * Construye la matriz leyendo una {@link AllPairsTable} ya calculada, sin ejecutar búsquedas.
+     */
+    public static DistanceMatrix fromTable(AllPairsTable table, int[] origins, int[] destinations) {
+        int columns = destinations.length;
+        float[] values = new float[origins.length * columns];
+        for (int row = 0; row < origins.length; row++) {
+            for (int column = 0; column < columns; column++) {
+                values[row * columns + column] = (float) table.distance(origins[row], destinations[column]);
+            }
+        }
+        return new DistanceMatrix(origins.length, columns, values);
+    }
+
+    private static void settleTargets(CompactRouteGraph graph, int origin, BitSet targets, int targetCount,
+                                      BitSet avoided, SearchWorkspace workspace) {
+        workspace.reset(graph.nodeCount());
+        IndexedMinHeap heap = workspace.heap();
+        workspace.update(origin, 0.0, -1);
+        heap.insertOrDecrease(origin, 0.0);
+        int pending = targetCount;
+
+        while (!heap.isEmpty() && pending > 0) {
+            int node = heap.pollMin();
+            workspace.markSettled(node);
+            if (targets.get(node)) {
+                pending--;
+            }
+            double base = workspace.distance(node);
+            for (int arc = graph.firstArc(node), last = graph.endArc(node); arc < last; arc++) {
+                int neighbor = graph.target(arc);
+                if (workspace.isSettled(neighbor) || (avoided != null && avoided.get(neighbor))) {
+                    continue;
+                }
+                double candidate = base + graph.weight(arc);
+                if (candidate < workspace.distance(neighbor)) {
+                    workspace.update(neighbor, candidate, node);
+                    heap.insertOrDecrease(neighbor, candidate);
+                }
+            }
+        }
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    public float get(int row, int column) {
+        return values[row * columns + column];
+    }
+
+    /**
+     * Copia de los valores por filas ({@code rows * columns}).
+     */
+    public float[] values() {
+        return values.clone();
+    }
+}
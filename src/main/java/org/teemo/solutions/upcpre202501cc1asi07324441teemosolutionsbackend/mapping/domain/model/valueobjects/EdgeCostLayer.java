@@ -0,0 +1,104 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.util.Arrays;
+
+/**
+ * Capa de costes precompilada sobre los arcos de un {@link CompactRouteGraph}: un {@code double[]} indexado por
+ * arco que sustituye a la distancia cruda durante la búsqueda, de modo que evaluar el coste de una arista es una
+ * lectura de arreglo.
+ * Como los costes pueden ser asimétricos (corrientes), también guarda para cada arco {@code u -> v} el coste de
+ * recorrer {@code v -> u}, que es lo que necesita la búsqueda hacia atrás del A* bidireccional.
+ * {@link #heuristicScale()} es el menor cociente coste/distancia de la capa: multiplicar por él una cota inferior
+ * de distancia da una cota inferior de coste, así que las heurísticas siguen siendo admisibles. Ningún arco cuesta
+ * menos que {@link #MIN_COST_RATIO} veces su distancia: sin ese suelo, una bonificación por corriente mayor que un
+ * tramo corto dejaría su coste en cero y, con él, la escala y toda la heurística.
+ */
+public final class EdgeCostLayer {
+
+    /**
+     * Fracción mínima de la distancia que cuesta cualquier arco; también es la menor escala posible de la heurística.
+     */
+    public static final double MIN_COST_RATIO = 0.1;
+
+    private final CompactRouteGraph graph;
+    private final double[] forward;
+    private final double[] backward;
+    private final double heuristicScale;
+
+    private EdgeCostLayer(CompactRouteGraph graph, double[] forward, double[] backward, double heuristicScale) {
+        this.graph = graph;
+        this.forward = forward;
+        this.backward = backward;
+        this.heuristicScale = heuristicScale;
+    }
+
+    /**
+     * Calcula el coste de cada arco con {@code costFunction}. Los costes no finitos se reemplazan por la distancia
+     * cruda y los menores que {@code MIN_COST_RATIO} veces la distancia se elevan hasta ese suelo.
+     */
+    public static EdgeCostLayer compile(CompactRouteGraph graph, ArcCostFunction costFunction) {
+        int arcs = graph.arcCount();
+        double[] forward = new double[arcs];
+        double scale = 1.0;
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            for (int arc = graph.firstArc(node), last = graph.endArc(node); arc < last; arc++) {
+                double cost = costFunction.cost(node, arc);
+                if (!Double.isFinite(cost)) {
+                    cost = graph.weight(arc);
+                }
+                forward[arc] = Math.max(MIN_COST_RATIO * graph.weight(arc), cost);
+                if (graph.weight(arc) > 0.0) {
+                    scale = Math.min(scale, forward[arc] / graph.weight(arc));
+                }
+            }
+        }
+
+        double[] backward = new double[arcs];
+        Arrays.fill(backward, Double.POSITIVE_INFINITY);
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            for (int arc = graph.firstArc(node), last = graph.endArc(node); arc < last; arc++) {
+                int target = graph.target(arc);
+                for (int reverse = graph.firstArc(target), end = graph.endArc(target); reverse < end; reverse++) {
+                    if (graph.target(reverse) == node) {
+                        backward[arc] = Math.min(backward[arc], forward[reverse]);
+                    }
+                }
+                if (backward[arc] == Double.POSITIVE_INFINITY) {
+                    backward[arc] = forward[arc];
+                }
+            }
+        }
+        return new EdgeCostLayer(graph, forward, backward, scale);
+    }
+
+    public boolean isFor(CompactRouteGraph candidate) {
+        return graph == candidate;
+    }
+
+    /**
+     * Coste de recorrer el arco en su sentido.
+     */
+    public double forwardCost(int arc) {
+        return forward[arc];
+    }
+
+    /**
+     * Coste de recorrer el arco en sentido contrario (de su destino a su origen).
+     */
+    public double backwardCost(int arc) {
+        return backward[arc];
+    }
+
+    public double heuristicScale() {
+        return heuristicScale;
+    }
+
+    public long estimatedBytes() {
+        return (long) (forward.length + backward.length) * Double.BYTES;
+    }
+
+    @FunctionalInterface
+    public interface ArcCostFunction {
+        double cost(int source, int arc);
+    }
+}
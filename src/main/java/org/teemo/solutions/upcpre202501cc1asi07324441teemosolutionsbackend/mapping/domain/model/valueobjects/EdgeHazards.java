@@ -0,0 +1,73 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.time.Month;
+
+/**
+ * Riesgo meteorológico de cada arco de una instantánea del grafo, para los doce meses. Se guarda como coste aditivo
+ * {@code -ln(1 - p)}: sumar los costes de los tramos equivale a multiplicar sus probabilidades de navegarlos sin
+ * incidentes, de modo que la probabilidad de peligro de una ruta es {@code 1 - exp(-suma)} y los caminos se pueden
+ * comparar con las mismas técnicas que la distancia.
+ */
+public final class EdgeHazards {
+
+    /** Tope de probabilidad por tramo para que el coste sea finito. */
+    private static final double MAX_PROBABILITY = 0.999;
+
+    private final CompactRouteGraph graph;
+    private final double[][] costs;
+
+    private EdgeHazards(CompactRouteGraph graph, double[][] costs) {
+        this.graph = graph;
+        this.costs = costs;
+    }
+
+    public static EdgeHazards compile(CompactRouteGraph graph, MonthlyArcHazardFunction probabilityFunction) {
+        double[][] costs = new double[Month.values().length][];
+        for (Month month : Month.values()) {
+            costs[month.ordinal()] = compileLayer(graph, month, probabilityFunction);
+        }
+        return new EdgeHazards(graph, costs);
+    }
+
+    /**
+     * Costes por arco de un único mes, para cuando aún no se han compilado los doce.
+     */
+    public static double[] compileLayer(CompactRouteGraph graph, Month month, MonthlyArcHazardFunction probabilityFunction) {
+        double[] layer = new double[graph.arcCount()];
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            for (int arc = graph.firstArc(node), last = graph.endArc(node); arc < last; arc++) {
+                layer[arc] = toCost(probabilityFunction.probability(node, arc, month));
+            }
+        }
+        return layer;
+    }
+
+    public static double toCost(double probability) {
+        double p = Math.max(0.0, Math.min(MAX_PROBABILITY, probability));
+        return -Math.log1p(-p);
+    }
+
+    public static double toProbability(double cost) {
+        return -Math.expm1(-cost);
+    }
+
+    public boolean isFor(CompactRouteGraph candidate) {
+        return graph == candidate;
+    }
+
+    /**
+     * Costes por arco del mes indicado; el arreglo es compartido y no debe modificarse.
+     */
+    public double[] layer(Month month) {
+        return costs[month.ordinal()];
+    }
+
+    public long estimatedBytes() {
+        return (long) costs.length * (8L * graph.arcCount() + 16L);
+    }
+
+    @FunctionalInterface
+    public interface MonthlyArcHazardFunction {
+        double probability(int source, int arc, Month month);
+    }
+}
@@ -0,0 +1,226 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.domain.model.valueobjects.Geodesy;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Índice espacial de las aristas de una instantánea del grafo: una rejilla de latitud/longitud en la que cada arista
+ * se registra en todas las celdas por las que pasa su arco de círculo máximo. Para encontrar las aristas que cruzan
+ * un círculo basta con recorrer las celdas que cubren su caja envolvente y comprobar la distancia exacta de los
+ * candidatos, en lugar de recorrer todas las aristas.
+ * <p>
+ * Cada ruta se registra una sola vez aunque el grafo la tenga en ambos sentidos; las consultas devuelven el arco
+ * {@code source → target} registrado y el llamador puede obtener el inverso con
+ * {@link CompactRouteGraph#arcBetween(int, int)}.
+ */
+public final class EdgeSegmentIndex {
+
+    private static final double KM_PER_DEGREE = Geodesy.EARTH_RADIUS_KM * Math.PI / 180.0;
+    private static final int MAX_SAMPLES_PER_EDGE = 4096;
+
+    private final CompactRouteGraph graph;
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    private final int[] cellStart;
+    private final int[] cellEdges;
+    private final int[] edgeSource;
+    private final int[] edgeArc;
+
+    private EdgeSegmentIndex(CompactRouteGraph graph, double cellDegrees, int rows, int columns, int[] cellStart,
+                             int[] cellEdges, int[] edgeSource, int[] edgeArc) {
+        this.graph = graph;
+        this.cellDegrees = cellDegrees;
+        this.rows = rows;
+        this.columns = columns;
+        this.cellStart = cellStart;
+        this.cellEdges = cellEdges;
+        this.edgeSource = edgeSource;
+        this.edgeArc = edgeArc;
+    }
+
+    /**
+     * @param cellDegrees Lado de cada celda en grados. Las aristas se muestrean cada media celda, así que cada tramo
+     *                    entre muestras toca como mucho cuatro celdas.
+     */
+    public static EdgeSegmentIndex build(CompactRouteGraph graph, double cellDegrees) {
+        if (!(cellDegrees > 0.0) || cellDegrees > 90.0) {
+            throw new IllegalArgumentException("El tamaño de celda debe estar entre 0 y 90 grados.");
+        }
+        int rows = (int) Math.ceil(180.0 / cellDegrees);
+        int columns = (int) Math.ceil(360.0 / cellDegrees);
+        int[] lastEdgeInCell = new int[rows * columns];
+        Arrays.fill(lastEdgeInCell, -1);
+
+        int[] sources = new int[Math.max(1, graph.arcCount() / 2)];
+        int[] arcs = new int[sources.length];
+        int[] pairCells = new int[64];
+        int[] pairEdges = new int[64];
+        int edgeCount = 0;
+        int pairCount = 0;
+        double sampleKm = cellDegrees * KM_PER_DEGREE / 2.0;
+        for (int source = 0; source < graph.nodeCount(); source++) {
+            Coordinates from = coordinatesOf(graph.portAt(source));
+            for (int arc = graph.firstArc(source), last = graph.endArc(source); arc < last; arc++) {
+                int target = graph.target(arc);
+                // Una sola entrada por ruta: el sentido con origen menor, o el único que exista.
+                if (target < source && graph.arcBetween(target, source) >= 0) {
+                    continue;
+                }
+                Coordinates to = coordinatesOf(graph.portAt(target));
+                if (from == null || to == null) {
+                    continue;
+                }
+                if (edgeCount == sources.length) {
+                    sources = Arrays.copyOf(sources, edgeCount * 2);
+                    arcs = Arrays.copyOf(arcs, edgeCount * 2);
+                }
+                int edge = edgeCount++;
+                sources[edge] = source;
+                arcs[edge] = arc;
+
+                double distanceKm = Geodesy.haversineKm(from.latitude(), from.longitude(), to.latitude(), to.longitude());
+                int segments = (int) Math.min(MAX_SAMPLES_PER_EDGE, Math.max(1, Math.ceil(distanceKm / sampleKm)));
+                double[] lats = new double[segments];
+                double[] lons = new double[segments];
+                Geodesy.greatCircleWaypoints(from.latitude(), from.longitude(), to.latitude(), to.longitude(),
+                        segments, lats, lons);
+                double previousLat = from.latitude();
+                double previousLon = from.longitude();
+                for (int i = 0; i < segments; i++) {
+                    int[] cells = cellsBetween(previousLat, previousLon, lats[i], lons[i], cellDegrees, rows, columns);
+                    for (int cell : cells) {
+                        if (lastEdgeInCell[cell] == edge) {
+                            continue;
+                        }
+                        lastEdgeInCell[cell] = edge;
+                        if (pairCount == pairCells.length) {
+                            pairCells = Arrays.copyOf(pairCells, pairCount * 2);
+                            pairEdges = Arrays.copyOf(pairEdges, pairCount * 2);
+                        }
+                        pairCells[pairCount] = cell;
+                        pairEdges[pairCount++] = edge;
+                    }
+                    previousLat = lats[i];
+                    previousLon = lons[i];
+                }
+            }
+        }
+
+        // Ordenación por conteo de los pares (celda, arista) en formato CSR.
+        int[] cellStart = new int[rows * columns + 1];
+        for (int i = 0; i < pairCount; i++) {
+            cellStart[pairCells[i] + 1]++;
+        }
+        for (int cell = 0; cell < rows * columns; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        int[] cursor = Arrays.copyOf(cellStart, rows * columns);
+        int[] cellEdges = new int[pairCount];
+        for (int i = 0; i < pairCount; i++) {
+            cellEdges[cursor[pairCells[i]]++] = pairEdges[i];
+        }
+        return new EdgeSegmentIndex(graph, cellDegrees, rows, columns, cellStart, cellEdges,
+                Arrays.copyOf(sources, edgeCount), Arrays.copyOf(arcs, edgeCount));
+    }
+
+    public boolean isFor(CompactRouteGraph candidate) {
+        return graph == candidate;
+    }
+
+    public int edgeCount() {
+        return edgeArc.length;
+    }
+
+    /**
+     * Visita cada arista cuyo arco de círculo máximo pasa a {@code radiusKm} o menos del punto indicado.
+     */
+    public void forEachEdgeWithin(double latitude, double longitude, double radiusKm, EdgeVisitor visitor) {
+        double latRadius = radiusKm / KM_PER_DEGREE;
+        int firstRow = row(latitude - latRadius);
+        int lastRow = row(latitude + latRadius);
+        double widestLatitude = Math.min(90.0, Math.abs(latitude) + latRadius);
+        double lonRadius = widestLatitude >= 89.999 ? 180.0 : latRadius / Math.cos(Math.toRadians(widestLatitude));
+        int firstColumn;
+        int columnSpan;
+        if (lonRadius >= 180.0) {
+            firstColumn = 0;
+            columnSpan = columns;
+        } else {
+            firstColumn = column(longitude - lonRadius);
+            columnSpan = Math.min(columns, (int) Math.floor((longitude + lonRadius + 180.0) / cellDegrees)
+                    - (int) Math.floor((longitude - lonRadius + 180.0) / cellDegrees) + 1);
+        }
+
+        BitSet seen = new BitSet(edgeArc.length);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = 0; c < columnSpan; c++) {
+                int cell = r * columns + (firstColumn + c) % columns;
+                for (int i = cellStart[cell], end = cellStart[cell + 1]; i < end; i++) {
+                    int edge = cellEdges[i];
+                    if (seen.get(edge)) {
+                        continue;
+                    }
+                    seen.set(edge);
+                    Coordinates from = graph.portAt(edgeSource[edge]).getCoordinates();
+                    Coordinates to = graph.portAt(graph.target(edgeArc[edge])).getCoordinates();
+                    double distance = Geodesy.distanceToSegmentKm(latitude, longitude,
+                            from.latitude(), from.longitude(), to.latitude(), to.longitude());
+                    if (distance <= radiusKm) {
+                        visitor.visit(edgeSource[edge], edgeArc[edge]);
+                    }
+                }
+            }
+        }
+    }
+
+    public long estimatedBytes() {
+        return 4L * (cellStart.length + cellEdges.length + edgeSource.length + edgeArc.length) + 64L;
+    }
+
+    /**
+     * Celdas de la caja envolvente entre dos muestras consecutivas, cruzando el antimeridiano por el lado corto.
+     */
+    private static int[] cellsBetween(double lat1, double lon1, double lat2, double lon2, double cellDegrees,
+                                      int rows, int columns) {
+        int firstRow = clamp((int) Math.floor((Math.min(lat1, lat2) + 90.0) / cellDegrees), rows);
+        int lastRow = clamp((int) Math.floor((Math.max(lat1, lat2) + 90.0) / cellDegrees), rows);
+        double delta = Geodesy.normalizeLongitude(lon2 - lon1);
+        double west = Geodesy.normalizeLongitude(lon1 + Math.min(0.0, delta));
+        int firstColumn = clamp((int) Math.floor((west + 180.0) / cellDegrees), columns);
+        int columnSpan = Math.min(columns,
+                (int) Math.floor((west + Math.abs(delta) + 180.0) / cellDegrees) - firstColumn + 1);
+        int[] cells = new int[(lastRow - firstRow + 1) * columnSpan];
+        int i = 0;
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = 0; c < columnSpan; c++) {
+                cells[i++] = r * columns + (firstColumn + c) % columns;
+            }
+        }
+        return cells;
+    }
+
+    private int row(double latitude) {
+        return clamp((int) Math.floor((Math.max(-90.0, Math.min(90.0, latitude)) + 90.0) / cellDegrees), rows);
+    }
+
+    private int column(double longitude) {
+        return clamp((int) Math.floor((Geodesy.normalizeLongitude(longitude) + 180.0) / cellDegrees), columns);
+    }
+
+    private static int clamp(int index, int size) {
+        return Math.max(0, Math.min(size - 1, index));
+    }
+
+    private static Coordinates coordinatesOf(Port port) {
+        return port != null ? port.getCoordinates() : null;
+    }
+
+    @FunctionalInterface
+    public interface EdgeVisitor {
+        void visit(int source, int arc);
+    }
+}
@@ -0,0 +1,81 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+/**
+ * Codificación de polilíneas de Google ("encoded polyline algorithm format") con precisión de 5 decimales
+ * (~1 m): cada coordenada se guarda como diferencia con la anterior en bloques de 5 bits, de modo que un punto
+ * ocupa 2-8 caracteres ASCII frente a los ~40 bytes de un par {@code [lon, lat]} en GeoJSON.
+ * La leen directamente Leaflet (plugins), Mapbox y Google Maps.
+ */
+public final class EncodedPolyline {
+
+    public static final int PRECISION = 5;
+    private static final double FACTOR = 1e5;
+
+    private EncodedPolyline() {
+    }
+
+    /**
+     * Codifica los primeros {@code length} puntos.
+     */
+    public static String encode(double[] latitudes, double[] longitudes, int length) {
+        StringBuilder out = new StringBuilder(length * 6);
+        long previousLat = 0;
+        long previousLon = 0;
+        for (int i = 0; i < length; i++) {
+            long lat = Math.round(latitudes[i] * FACTOR);
+            long lon = Math.round(longitudes[i] * FACTOR);
+            appendValue(out, lat - previousLat);
+            appendValue(out, lon - previousLon);
+            previousLat = lat;
+            previousLon = lon;
+        }
+        return out.toString();
+    }
+
+    /**
+     * @return Pares {@code [lat, lon]} en grados.
+     */
+    public static double[][] decode(String encoded) {
+        double[][] buffer = new double[encoded.length() / 2 + 1][];
+        int count = 0;
+        int index = 0;
+        long lat = 0;
+        long lon = 0;
+        while (index < encoded.length()) {
+            long[] latDelta = readValue(encoded, index);
+            long[] lonDelta = readValue(encoded, (int) latDelta[1]);
+            index = (int) lonDelta[1];
+            lat += latDelta[0];
+            lon += lonDelta[0];
+            buffer[count++] = new double[]{lat / FACTOR, lon / FACTOR};
+        }
+        double[][] points = new double[count][];
+        System.arraycopy(buffer, 0, points, 0, count);
+        return points;
+    }
+
+    private static void appendValue(StringBuilder out, long value) {
+        long shifted = value < 0 ? ~(value << 1) : value << 1;
+        while (shifted >= 0x20) {
+            out.append((char) ((0x20 | (shifted & 0x1f)) + 63));
+            shifted >>= 5;
+        }
+        out.append((char) (shifted + 63));
+    }
+
+    /**
+     * @return {@code [valor, índice siguiente]}.
+     */
+    private static long[] readValue(String encoded, int index) {
+        long result = 0;
+        int shift = 0;
+        int chunk;
+        do {
+            chunk = encoded.charAt(index++) - 63;
+            result |= (long) (chunk & 0x1f) << shift;
+            shift += 5;
+        } while (chunk >= 0x20);
+        long value = (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+        return new long[]{value, index};
+    }
+}
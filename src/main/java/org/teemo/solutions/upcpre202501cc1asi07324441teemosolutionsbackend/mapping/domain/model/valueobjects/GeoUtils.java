@@ -3,28 +3,21 @@ package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapp
 
 import org.springframework.stereotype.Component;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
-@Component // <-- Añadir esta anotación
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.domain.model.valueobjects.Geodesy;
 
+/**
+ * Fachada inyectable de {@link Geodesy} para distancias entre puertos y coordenadas sueltas. Los algoritmos que
+ * trabajan sobre un {@link CompactRouteGraph} deben usar {@link CompactRouteGraph#positions()}, que ya tiene la
+ * trigonometría de cada puerto precalculada.
+ */
+@Component
 public class GeoUtils {
-    private static final double EARTH_RADIUS_KM = 6371;
 
     public double calculateHaversineDistance(Port a, Port b) {
         return calculateHaversineDistance(a.getCoordinates(), b.getCoordinates());
     }
 
     public double calculateHaversineDistance(Coordinates coord1, Coordinates coord2) {
-        double lat1 = Math.toRadians(coord1.latitude());
-        double lon1 = Math.toRadians(coord1.longitude());
-        double lat2 = Math.toRadians(coord2.latitude());
-        double lon2 = Math.toRadians(coord2.longitude   ());
-
-        double dLat = lat2 - lat1;
-        double dLon = lon2 - lon1;
-
-        double a = Math.pow(Math.sin(dLat / 2), 2) +
-                Math.cos(lat1) * Math.cos(lat2) *
-                        Math.pow(Math.sin(dLon / 2), 2);
-
-        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return Geodesy.haversineKm(coord1.latitude(), coord1.longitude(), coord2.latitude(), coord2.longitude());
     }
-}
\ No newline at end of file
+}
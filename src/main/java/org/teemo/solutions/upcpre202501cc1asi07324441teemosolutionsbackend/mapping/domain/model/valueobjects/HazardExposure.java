@@ -0,0 +1,132 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Efecto de un {@link HazardZonesSnapshot} sobre los arcos de una instantánea del grafo: qué arcos quedan bloqueados
+ * (zonas con probabilidad igual o mayor que el umbral de bloqueo), cuánto se penaliza el resto de los afectados
+ * ({@code penaltyKm} por la probabilidad de cada zona que cruzan) y qué zonas cruza cada arco, para informar los
+ * tramos de una ruta. Se compila con el {@link EdgeSegmentIndex}, así que sólo se visitan las aristas cercanas a
+ * cada zona. Las penalizaciones sólo aumentan costes, de modo que las cotas de A* siguen siendo admisibles.
+ */
+public final class HazardExposure {
+
+    private final CompactRouteGraph graph;
+    private final long version;
+    private final BitSet blocked;
+    private final double[] penalties;
+    private final Map<Integer, List<HazardZone>> zonesByArc;
+
+    private HazardExposure(CompactRouteGraph graph, long version, BitSet blocked, double[] penalties,
+                           Map<Integer, List<HazardZone>> zonesByArc) {
+        this.graph = graph;
+        this.version = version;
+        this.blocked = blocked;
+        this.penalties = penalties;
+        this.zonesByArc = zonesByArc;
+    }
+
+    public static HazardExposure compile(CompactRouteGraph graph, EdgeSegmentIndex index, HazardZonesSnapshot hazards,
+                                         double blockProbability, double penaltyKm) {
+        BitSet blocked = new BitSet(graph.arcCount());
+        double[] penalties = new double[graph.arcCount()];
+        Map<Integer, List<HazardZone>> zonesByArc = new HashMap<>();
+        // Última zona que marcó cada arco: con rutas paralelas el índice informa cada arco de ida, y todos comparten
+        // los arcos de vuelta, que no deben contarse dos veces para la misma zona.
+        int[] markedByZone = new int[graph.arcCount()];
+        Arrays.fill(markedByZone, -1);
+        List<HazardZone> zones = hazards.zones();
+        for (int z = 0; z < zones.size(); z++) {
+            HazardZone zone = zones.get(z);
+            int stamp = z;
+            index.forEachEdgeWithin(zone.latitude(), zone.longitude(), zone.radiusKm(), (source, arc) -> {
+                int target = graph.target(arc);
+                mark(arc, zone, stamp, markedByZone, zonesByArc, blocked, penalties, blockProbability, penaltyKm);
+                for (int reverse = graph.firstArc(target), last = graph.endArc(target); reverse < last; reverse++) {
+                    if (graph.target(reverse) == source) {
+                        mark(reverse, zone, stamp, markedByZone, zonesByArc, blocked, penalties, blockProbability,
+                                penaltyKm);
+                    }
+                }
+            });
+        }
+        return new HazardExposure(graph, hazards.version(), blocked, penalties, zonesByArc);
+    }
+
+    private static void mark(int arc, HazardZone zone, int stamp, int[] markedByZone,
+                             Map<Integer, List<HazardZone>> zonesByArc, BitSet blocked, double[] penalties,
+                             double blockProbability, double penaltyKm) {
+        if (markedByZone[arc] == stamp) {
+            return;
+        }
+        markedByZone[arc] = stamp;
+        zonesByArc.computeIfAbsent(arc, key -> new ArrayList<>(1)).add(zone);
+        if (zone.probability() >= blockProbability) {
+            blocked.set(arc);
+        } else {
+            penalties[arc] += penaltyKm * zone.probability();
+        }
+    }
+
+    public boolean isFor(CompactRouteGraph candidate, long hazardsVersion) {
+        return graph == candidate && version == hazardsVersion;
+    }
+
+    /**
+     * @return {@code true} si esta exposición corresponde a una instantánea y versión de zonas posteriores (o
+     *         iguales) a las de {@code other}.
+     */
+    public boolean isNotOlderThan(HazardExposure other) {
+        return graph.getVersion() >= other.graph.getVersion() && version >= other.version;
+    }
+
+    public boolean isBlocked(int arc) {
+        return blocked.get(arc);
+    }
+
+    public double penalty(int arc) {
+        return penalties[arc];
+    }
+
+    /**
+     * Zonas que cruza el arco; vacía si no le afecta ninguna.
+     */
+    public List<HazardZone> zonesCrossedBy(int arc) {
+        return arc < 0 ? List.of() : zonesByArc.getOrDefault(arc, List.of());
+    }
+
+    /**
+     * @return {@code true} si algún tramo del camino recorre un arco bloqueado o penalizado. Entre rutas paralelas
+     *         se comprueba la del tramo; si el tramo no tiene id de arista o no pertenece al grafo, se considera
+     *         afectado.
+     */
+    public boolean affects(RoutePath path) {
+        for (RouteLeg leg : path.legs()) {
+            int source = graph.indexOf(leg.from());
+            int target = graph.indexOf(leg.to());
+            if (source < 0 || target < 0) {
+                return true;
+            }
+            for (int arc = graph.firstArc(source), last = graph.endArc(source); arc < last; arc++) {
+                if (graph.target(arc) == target && zonesByArc.containsKey(arc)
+                        && (leg.routeId() == null || leg.routeId().equals(graph.edgeId(arc)))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int affectedArcCount() {
+        return zonesByArc.size();
+    }
+
+    public int blockedArcCount() {
+        return blocked.cardinality();
+    }
+}
@@ -0,0 +1,11 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+/**
+ * Zona de peligro meteorológico activa, aproximada por un círculo sobre la esfera.
+ * @param type        Tipo de peligro (p. ej. {@code HURRICANE}).
+ * @param name        Descripción legible de la alerta y la zona.
+ * @param probability Probabilidad de encontrar el peligro al atravesar la zona (0..1).
+ */
+public record HazardZone(String type, String name, double latitude, double longitude, double radiusKm,
+                         double probability) {
+}
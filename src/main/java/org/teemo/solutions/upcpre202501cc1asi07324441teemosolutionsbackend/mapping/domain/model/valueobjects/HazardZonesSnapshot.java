@@ -0,0 +1,21 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Zonas de peligro activas con la versión que las identifica. Como en {@link UnsafePortsSnapshot}, la versión sólo
+ * aumenta cuando el conjunto cambia, así que sirve como clave de caché.
+ */
+public record HazardZonesSnapshot(List<HazardZone> zones, long version, Instant loadedAt) {
+
+    public static final HazardZonesSnapshot EMPTY = new HazardZonesSnapshot(List.of(), 0L, Instant.EPOCH);
+
+    public HazardZonesSnapshot {
+        zones = List.copyOf(zones);
+    }
+
+    public boolean isEmpty() {
+        return zones.isEmpty();
+    }
+}
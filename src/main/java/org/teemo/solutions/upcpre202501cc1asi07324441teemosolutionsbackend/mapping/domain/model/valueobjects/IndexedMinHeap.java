@@ -0,0 +1,145 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.util.Arrays;
+
+/**
+ * Montículo binario mínimo indexado por identificador entero de nodo.
+ * A diferencia de {@link java.util.PriorityQueue}, cada nodo aparece como máximo una vez y su prioridad
+ * puede reducirse en O(log n) ({@link #insertOrDecrease(int, double)}), por lo que el conjunto abierto
+ * no acumula duplicados ni crea objetos por cada relajación.
+ */
+public final class IndexedMinHeap {
+
+    private int[] heap;
+    private int[] position;
+    private double[] keys;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        int initial = Math.max(capacity, 1);
+        this.heap = new int[initial];
+        this.position = new int[initial];
+        this.keys = new double[initial];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Garantiza espacio para nodos en [0, nodeCount). Solo reserva memoria cuando el grafo crece.
+     */
+    public void ensureCapacity(int nodeCount) {
+        if (nodeCount <= position.length) {
+            return;
+        }
+        int oldLength = position.length;
+        heap = Arrays.copyOf(heap, nodeCount);
+        keys = Arrays.copyOf(keys, nodeCount);
+        position = Arrays.copyOf(position, nodeCount);
+        Arrays.fill(position, oldLength, nodeCount, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int node) {
+        return position[node] >= 0;
+    }
+
+    public double keyOf(int node) {
+        return keys[node];
+    }
+
+    /**
+     * Inserta el nodo con la prioridad indicada o, si ya está en el montículo con una prioridad mayor, la reduce.
+     * @return true si el montículo cambió.
+     */
+    public boolean insertOrDecrease(int node, double key) {
+        int slot = position[node];
+        if (slot < 0) {
+            keys[node] = key;
+            heap[size] = node;
+            position[node] = size;
+            siftUp(size++);
+            return true;
+        }
+        if (key < keys[node]) {
+            keys[node] = key;
+            siftUp(slot);
+            return true;
+        }
+        return false;
+    }
+
+    public int peekMin() {
+        return heap[0];
+    }
+
+    public double minKey() {
+        return keys[heap[0]];
+    }
+
+    public int pollMin() {
+        int min = heap[0];
+        position[min] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Vacía el montículo en O(size) sin recorrer toda la capacidad reservada.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int slot) {
+        int node = heap[slot];
+        double key = keys[node];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) >>> 1;
+            int parent = heap[parentSlot];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[slot] = parent;
+            position[parent] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = node;
+        position[node] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int node = heap[slot];
+        double key = keys[node];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            heap[slot] = heap[child];
+            position[heap[child]] = slot;
+            slot = child;
+        }
+        heap[slot] = node;
+        position[node] = slot;
+    }
+}
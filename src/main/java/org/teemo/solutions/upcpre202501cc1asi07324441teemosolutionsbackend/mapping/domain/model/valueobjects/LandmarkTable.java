@@ -0,0 +1,132 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de distancias desde un conjunto de puertos de referencia (landmarks) hacia todos los nodos de un
+ * {@link CompactRouteGraph}, usada como heurística ALT (A*, Landmarks, Triangle inequality).
+ * Por la desigualdad triangular, {@code |d(L,t) - d(L,v)|} nunca supera la distancia real entre {@code v} y {@code t},
+ * de modo que la cota es admisible y A* sigue devolviendo el camino óptimo.
+ * Supone aristas simétricas, que es como {@link RouteGraph} registra cada ruta.
+ */
+public final class LandmarkTable {
+
+    private final CompactRouteGraph graph;
+    private final int[] landmarks;
+    private final double[][] distances;
+
+    private LandmarkTable(CompactRouteGraph graph, int[] landmarks, double[][] distances) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.distances = distances;
+    }
+
+    /**
+     * Selecciona hasta {@code count} landmarks por el método del punto más lejano: el primero es el nodo más
+     * alejado del nodo 0 y cada siguiente maximiza la distancia mínima a los ya elegidos. Los nodos que ningún
+     * landmark alcanza (otras componentes) tienen prioridad para que todas las componentes queden cubiertas.
+     */
+    public static LandmarkTable compute(CompactRouteGraph graph, int count) {
+        int n = graph.nodeCount();
+        int target = Math.min(Math.max(count, 0), n);
+        int[] chosen = new int[target];
+        double[][] rows = new double[target][];
+        if (target == 0) {
+            return new LandmarkTable(graph, chosen, rows);
+        }
+
+        double[] minDistance = new double[n];
+        Arrays.fill(minDistance, Double.POSITIVE_INFINITY);
+        int next = farthestFrom(ShortestPathTree.compute(graph, 0).distances());
+        int selected = 0;
+        while (selected < target && next >= 0) {
+            chosen[selected] = next;
+            rows[selected] = ShortestPathTree.compute(graph, next).distances();
+            for (int node = 0; node < n; node++) {
+                minDistance[node] = Math.min(minDistance[node], rows[selected][node]);
+            }
+            selected++;
+            next = nextLandmark(minDistance, chosen, selected);
+        }
+        return new LandmarkTable(graph, Arrays.copyOf(chosen, selected), Arrays.copyOf(rows, selected));
+    }
+
+    private static int farthestFrom(double[] distances) {
+        int best = 0;
+        for (int node = 1; node < distances.length; node++) {
+            if (Double.isFinite(distances[node]) && distances[node] > distances[best]) {
+                best = node;
+            }
+        }
+        return best;
+    }
+
+    private static int nextLandmark(double[] minDistance, int[] chosen, int selected) {
+        int best = -1;
+        double bestDistance = -1.0;
+        for (int node = 0; node < minDistance.length; node++) {
+            if (isChosen(chosen, selected, node)) {
+                continue;
+            }
+            if (minDistance[node] == Double.POSITIVE_INFINITY) {
+                return node;
+            }
+            if (minDistance[node] > bestDistance) {
+                best = node;
+                bestDistance = minDistance[node];
+            }
+        }
+        return best;
+    }
+
+    private static boolean isChosen(int[] chosen, int selected, int node) {
+        for (int i = 0; i < selected; i++) {
+            if (chosen[i] == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code true} si la tabla se calculó sobre exactamente esta instancia del grafo.
+     */
+    public boolean isFor(CompactRouteGraph candidate) {
+        return graph == candidate;
+    }
+
+    public int landmarkCount() {
+        return landmarks.length;
+    }
+
+    public int landmarkAt(int index) {
+        return landmarks[index];
+    }
+
+    /**
+     * Cota inferior admisible de la distancia entre {@code node} y {@code target}.
+     * Los landmarks que no alcanzan a alguno de los dos nodos no aportan información y se ignoran.
+     */
+    public double lowerBound(int node, int target) {
+        double bound = 0.0;
+        for (double[] row : distances) {
+            double toTarget = row[target];
+            double toNode = row[node];
+            if (toTarget == Double.POSITIVE_INFINITY || toNode == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            double candidate = Math.abs(toTarget - toNode);
+            if (candidate > bound) {
+                bound = candidate;
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Memoria aproximada ocupada por la tabla, en bytes.
+     */
+    public long estimatedBytes() {
+        return (long) distances.length * graph.nodeCount() * Double.BYTES;
+    }
+}
@@ -0,0 +1,172 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.domain.model.valueobjects.Geodesy;
+
+/**
+ * Geometría de un tramo entre dos puertos: el círculo máximo muestreado cada {@code stepKm} y simplificado con
+ * Douglas–Peucker para cada nivel de zoom del mapa.
+ * <p>
+ * La simplificación trabaja en Web Mercator, que es donde se dibuja: un círculo máximo es una curva en el mapa y la
+ * tolerancia de cada nivel equivale a unos pocos píxeles a ese zoom, así que los niveles alejados conservan pocos
+ * puntos y los cercanos casi todos. Las longitudes se "desenrollan" para que no salten 360° al cruzar el antimeridiano
+ * y el mapa dibuje el tramo continuo (pueden quedar fuera de {@code [-180, 180]}).
+ * Los extremos (los puertos) se conservan siempre, de modo que las geometrías de tramos consecutivos se pueden
+ * concatenar sin volver a simplificar.
+ */
+public final class LegGeometry {
+
+    private static final int MAX_SEGMENTS = 1024;
+    private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
+    private static final int TILE_SIZE_PIXELS = 256;
+
+    private final double[][] latitudes;
+    private final double[][] longitudes;
+
+    private LegGeometry(double[][] latitudes, double[][] longitudes) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+    }
+
+    /**
+     * @param stepKm     Separación máxima entre puntos interpolados.
+     * @param tolerances Tolerancia de simplificación de cada nivel, en unidades de Mercator
+     *                   (ver {@link #toleranceForZoom(int, double)}).
+     */
+    public static LegGeometry build(double lat1, double lon1, double lat2, double lon2, double stepKm, double[] tolerances) {
+        double distanceKm = Geodesy.haversineKm(lat1, lon1, lat2, lon2);
+        int segments = (int) Math.min(MAX_SEGMENTS, Math.max(1, Math.ceil(distanceKm / stepKm)));
+        double[] lats = new double[segments + 1];
+        double[] lons = new double[segments + 1];
+        lats[0] = lat1;
+        lons[0] = lon1;
+        double[] waypointLats = new double[segments];
+        double[] waypointLons = new double[segments];
+        Geodesy.greatCircleWaypoints(lat1, lon1, lat2, lon2, segments, waypointLats, waypointLons);
+        System.arraycopy(waypointLats, 0, lats, 1, segments);
+        System.arraycopy(waypointLons, 0, lons, 1, segments);
+        unwrapLongitudes(lons);
+
+        double[] xs = new double[lats.length];
+        double[] ys = new double[lats.length];
+        for (int i = 0; i < lats.length; i++) {
+            xs[i] = Math.toRadians(lons[i]);
+            ys[i] = mercatorY(lats[i]);
+        }
+        double[][] levelLats = new double[tolerances.length][];
+        double[][] levelLons = new double[tolerances.length][];
+        for (int level = 0; level < tolerances.length; level++) {
+            boolean[] keep = simplify(xs, ys, tolerances[level]);
+            int kept = 0;
+            for (boolean k : keep) {
+                kept += k ? 1 : 0;
+            }
+            levelLats[level] = new double[kept];
+            levelLons[level] = new double[kept];
+            for (int i = 0, j = 0; i < keep.length; i++) {
+                if (keep[i]) {
+                    levelLats[level][j] = lats[i];
+                    levelLons[level][j++] = lons[i];
+                }
+            }
+        }
+        return new LegGeometry(levelLats, levelLons);
+    }
+
+    /**
+     * Tolerancia en unidades de Mercator (el mundo mide 2π de ancho) equivalente a {@code pixels} píxeles en el
+     * zoom indicado, con teselas de 256 px.
+     */
+    public static double toleranceForZoom(int zoom, double pixels) {
+        return pixels * 2.0 * Math.PI / (TILE_SIZE_PIXELS * Math.pow(2.0, zoom));
+    }
+
+    public int levelCount() {
+        return latitudes.length;
+    }
+
+    public int pointCount(int level) {
+        return latitudes[level].length;
+    }
+
+    public double latitude(int level, int index) {
+        return latitudes[level][index];
+    }
+
+    public double longitude(int level, int index) {
+        return longitudes[level][index];
+    }
+
+    /**
+     * Estimación de la memoria retenida por los arreglos de coordenadas.
+     */
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (double[] level : latitudes) {
+            bytes += 16L * level.length + 32L;
+        }
+        return bytes;
+    }
+
+    private static void unwrapLongitudes(double[] lons) {
+        for (int i = 1; i < lons.length; i++) {
+            double delta = lons[i] - lons[i - 1];
+            lons[i] -= 360.0 * Math.round(delta / 360.0);
+        }
+    }
+
+    private static double mercatorY(double latitude) {
+        double lat = Math.toRadians(Math.max(-MAX_MERCATOR_LATITUDE, Math.min(MAX_MERCATOR_LATITUDE, latitude)));
+        return Math.log(Math.tan(Math.PI / 4.0 + lat / 2.0));
+    }
+
+    /**
+     * Douglas–Peucker iterativo (sin recursión, con una pila de intervalos) sobre puntos proyectados.
+     * @return Qué puntos se conservan; el primero y el último siempre.
+     */
+    private static boolean[] simplify(double[] xs, double[] ys, double tolerance) {
+        int n = xs.length;
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+        if (n < 3) {
+            return keep;
+        }
+        double squaredTolerance = tolerance * tolerance;
+        int[] stack = new int[2 * n];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            double worst = -1.0;
+            int worstIndex = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = squaredSegmentDistance(xs[i], ys[i], xs[first], ys[first], xs[last], ys[last]);
+                if (distance > worst) {
+                    worst = distance;
+                    worstIndex = i;
+                }
+            }
+            if (worstIndex >= 0 && worst > squaredTolerance) {
+                keep[worstIndex] = true;
+                stack[top++] = first;
+                stack[top++] = worstIndex;
+                stack[top++] = worstIndex;
+                stack[top++] = last;
+            }
+        }
+        return keep;
+    }
+
+    private static double squaredSegmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared > 0 ? ((px - ax) * dx + (py - ay) * dy) / lengthSquared : 0.0;
+        t = Math.max(0.0, Math.min(1.0, t));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+}
@@ -0,0 +1,14 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+/**
+ * Una ruta del frente de Pareto: ninguna otra ruta del frente es a la vez más corta, pasa por menos puertos
+ * inseguros y tiene menor probabilidad de peligro.
+ * @param unsafePortCount   Puertos inseguros visitados, incluidos los extremos.
+ * @param hazardProbability Probabilidad de encontrar algún peligro meteorológico en el conjunto de tramos.
+ */
+public record ParetoRoute(RoutePath path, int unsafePortCount, double hazardProbability) {
+
+    public double totalDistance() {
+        return path.totalDistance();
+    }
+}
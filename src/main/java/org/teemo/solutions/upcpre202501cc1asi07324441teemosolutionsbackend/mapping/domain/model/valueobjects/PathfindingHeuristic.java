@@ -0,0 +1,11 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+/**
+ * Estimación del coste restante que usa A* para priorizar nodos.
+ */
+public enum PathfindingHeuristic {
+    /** Distancia Haversine con factores por continente y hemisferio. No es admisible. */
+    GEOGRAPHIC,
+    /** Cota por desigualdad triangular sobre distancias exactas a puertos landmark. Admisible. */
+    ALT
+}
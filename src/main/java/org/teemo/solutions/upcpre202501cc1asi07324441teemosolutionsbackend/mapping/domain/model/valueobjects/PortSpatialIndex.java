@@ -0,0 +1,306 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.domain.model.valueobjects.GeoPoints;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.domain.model.valueobjects.Geodesy;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Índice espacial de los puertos de un {@link CompactRouteGraph}: un k-d tree implícito sobre los vectores unitarios
+ * (x, y, z) de cada puerto. La distancia de cuerda entre vectores unitarios crece con la distancia de círculo máximo,
+ * así que el vecino más cercano en 3D es también el más cercano sobre la esfera, sin discontinuidades en el
+ * antimeridiano ni en los polos. Cada nivel del árbol parte por el eje de mayor extensión del subárbol.
+ * Las consultas k-nearest y por radio recorren O(log n) nodos en el caso típico.
+ */
+public final class PortSpatialIndex {
+
+    private final CompactRouteGraph graph;
+    private final int[] nodes;
+    private final double[] points;
+    private final byte[] axes;
+
+    private PortSpatialIndex(CompactRouteGraph graph, int[] nodes, double[] points, byte[] axes) {
+        this.graph = graph;
+        this.nodes = nodes;
+        this.points = points;
+        this.axes = axes;
+    }
+
+    /**
+     * @param excluded Nodos que no entran en el índice (p. ej. puertos deshabilitados); puede ser {@code null}.
+     */
+    public static PortSpatialIndex build(CompactRouteGraph graph, BitSet excluded) {
+        int n = graph.nodeCount();
+        int size = excluded != null ? n - excluded.cardinality() : n;
+        int[] nodes = new int[size];
+        double[] points = new double[size * 3];
+        GeoPoints positions = graph.positions();
+        int i = 0;
+        for (int node = 0; node < n; node++) {
+            if (excluded != null && excluded.get(node)) {
+                continue;
+            }
+            nodes[i] = node;
+            for (int axis = 0; axis < 3; axis++) {
+                points[3 * i + axis] = positions.coordinate(node, axis);
+            }
+            i++;
+        }
+        byte[] axes = new byte[size];
+        buildSubtree(nodes, points, axes, 0, size);
+        return new PortSpatialIndex(graph, nodes, points, axes);
+    }
+
+    private static void buildSubtree(int[] nodes, double[] points, byte[] axes, int lo, int hi) {
+        while (hi - lo > 1) {
+            int axis = widestAxis(points, lo, hi);
+            int mid = (lo + hi) >>> 1;
+            select(nodes, points, lo, hi - 1, mid, axis);
+            axes[mid] = (byte) axis;
+            buildSubtree(nodes, points, axes, lo, mid);
+            lo = mid + 1;
+        }
+    }
+
+    private static int widestAxis(double[] points, int lo, int hi) {
+        int best = 0;
+        double bestSpread = -1.0;
+        for (int axis = 0; axis < 3; axis++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = lo; i < hi; i++) {
+                double value = points[3 * i + axis];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (max - min > bestSpread) {
+                bestSpread = max - min;
+                best = axis;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Quickselect: deja en {@code k} el elemento que ocuparía esa posición ordenando {@code [lo, hi]} por el eje.
+     */
+    private static void select(int[] nodes, double[] points, int lo, int hi, int k, int axis) {
+        while (hi > lo) {
+            double pivot = points[3 * ((lo + hi) >>> 1) + axis];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (points[3 * i + axis] < pivot) {
+                    i++;
+                }
+                while (points[3 * j + axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(nodes, points, i++, j--);
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void swap(int[] nodes, double[] points, int a, int b) {
+        int node = nodes[a];
+        nodes[a] = nodes[b];
+        nodes[b] = node;
+        for (int axis = 0; axis < 3; axis++) {
+            double value = points[3 * a + axis];
+            points[3 * a + axis] = points[3 * b + axis];
+            points[3 * b + axis] = value;
+        }
+    }
+
+    public boolean isFor(CompactRouteGraph candidate) {
+        return graph == candidate;
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Los {@code k} puertos más cercanos a la posición, ordenados por distancia creciente.
+     * @param maxDistanceKm Radio máximo de búsqueda; {@link Double#POSITIVE_INFINITY} para no limitarlo.
+     */
+    public List<Match> nearest(double latitude, double longitude, int k, double maxDistanceKm) {
+        if (k <= 0 || nodes.length == 0) {
+            return List.of();
+        }
+        double[] query = Geodesy.unitVector(latitude, longitude);
+        NearestSearch search = new NearestSearch(query, Math.min(k, nodes.length), chordSquared(maxDistanceKm));
+        search.visit(0, nodes.length);
+        return search.results();
+    }
+
+    /**
+     * Todos los puertos a no más de {@code radiusKm} de la posición, ordenados por distancia creciente.
+     */
+    public List<Match> withinRadius(double latitude, double longitude, double radiusKm) {
+        double[] query = Geodesy.unitVector(latitude, longitude);
+        double limit = chordSquared(radiusKm);
+        List<Match> matches = new ArrayList<>();
+        collectWithin(query, limit, 0, nodes.length, matches);
+        matches.sort(Comparator.comparingDouble(Match::distanceKm));
+        return matches;
+    }
+
+    private void collectWithin(double[] query, double limit, int lo, int hi, List<Match> matches) {
+        while (hi > lo) {
+            int mid = (lo + hi) >>> 1;
+            double distance = squaredChord(query, mid);
+            if (distance <= limit) {
+                matches.add(new Match(nodes[mid], toKilometres(distance)));
+            }
+            if (hi - lo == 1) {
+                return;
+            }
+            int axis = axes[mid];
+            double delta = query[axis] - points[3 * mid + axis];
+            if (delta * delta <= limit) {
+                collectWithin(query, limit, lo, mid, matches);
+                lo = mid + 1;
+            } else if (delta < 0) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+    }
+
+    private double squaredChord(double[] query, int position) {
+        return Geodesy.squaredChord(points, position, query, 0);
+    }
+
+    private static double chordSquared(double distanceKm) {
+        // Margen para que un puerto justo en el borde no se pierda por redondeo.
+        return Geodesy.kmToSquaredChord(distanceKm) * (1.0 + 1e-12);
+    }
+
+    private static double toKilometres(double squaredChord) {
+        return Geodesy.squaredChordToKm(squaredChord);
+    }
+
+    /**
+     * Puerto encontrado, como nodo del grafo compacto, y su distancia de círculo máximo a la posición consultada.
+     */
+    public record Match(int node, double distanceKm) {}
+
+    /**
+     * Búsqueda de los k más cercanos con un max-heap acotado: la raíz es el peor candidato aceptado hasta ahora.
+     */
+    private final class NearestSearch {
+        private final double[] query;
+        private final int k;
+        private final double limit;
+        private final double[] heapDistances;
+        private final int[] heapPositions;
+        private int size;
+
+        NearestSearch(double[] query, int k, double limit) {
+            this.query = query;
+            this.k = k;
+            this.limit = limit;
+            this.heapDistances = new double[k];
+            this.heapPositions = new int[k];
+        }
+
+        private double worst() {
+            return size < k ? limit : heapDistances[0];
+        }
+
+        void visit(int lo, int hi) {
+            if (hi <= lo) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            double distance = squaredChord(query, mid);
+            if (distance <= worst()) {
+                offer(distance, mid);
+            }
+            if (hi - lo == 1) {
+                return;
+            }
+            int axis = axes[mid];
+            double delta = query[axis] - points[3 * mid + axis];
+            boolean lowerFirst = delta < 0;
+            visit(lowerFirst ? lo : mid + 1, lowerFirst ? mid : hi);
+            if (delta * delta <= worst()) {
+                visit(lowerFirst ? mid + 1 : lo, lowerFirst ? hi : mid);
+            }
+        }
+
+        private void offer(double distance, int position) {
+            if (size < k) {
+                heapDistances[size] = distance;
+                heapPositions[size] = position;
+                siftUp(size++);
+            } else if (distance < heapDistances[0]) {
+                heapDistances[0] = distance;
+                heapPositions[0] = position;
+                siftDown(0);
+            }
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heapDistances[parent] >= heapDistances[i]) {
+                    return;
+                }
+                swapHeap(parent, i);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int largest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && heapDistances[left] > heapDistances[largest]) {
+                    largest = left;
+                }
+                if (right < size && heapDistances[right] > heapDistances[largest]) {
+                    largest = right;
+                }
+                if (largest == i) {
+                    return;
+                }
+                swapHeap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swapHeap(int a, int b) {
+            double distance = heapDistances[a];
+            heapDistances[a] = heapDistances[b];
+            heapDistances[b] = distance;
+            int position = heapPositions[a];
+            heapPositions[a] = heapPositions[b];
+            heapPositions[b] = position;
+        }
+
+        List<Match> results() {
+            List<Match> matches = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                matches.add(new Match(nodes[heapPositions[i]], toKilometres(heapDistances[i])));
+            }
+            matches.sort(Comparator.comparingDouble(Match::distanceKm));
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Geometría completa de una ruta para cada nivel de zoom, obtenida concatenando las {@link LegGeometry} de sus
+ * tramos, y su codificación como {@link EncodedPolyline}. Entre tramos se omite el punto repetido del puerto
+ * intermedio y se desplaza cada tramo un múltiplo de 360° para que las longitudes sigan siendo continuas.
+ */
+public final class RouteGeometry {
+
+    private final int[] zoomLevels;
+    private final double[][] latitudes;
+    private final double[][] longitudes;
+    private final String[] polylines;
+
+    private RouteGeometry(int[] zoomLevels, double[][] latitudes, double[][] longitudes) {
+        this.zoomLevels = zoomLevels;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.polylines = new String[zoomLevels.length];
+        for (int level = 0; level < zoomLevels.length; level++) {
+            polylines[level] = EncodedPolyline.encode(latitudes[level], longitudes[level], latitudes[level].length);
+        }
+    }
+
+    public int levelCount() {
+        return zoomLevels.length;
+    }
+
+    /**
+     * Zoom mínimo del mapa a partir del cual conviene dibujar el nivel.
+     */
+    public int zoomLevel(int level) {
+        return zoomLevels[level];
+    }
+
+    public int pointCount(int level) {
+        return latitudes[level].length;
+    }
+
+    public String polyline(int level) {
+        return polylines[level];
+    }
+
+    /**
+     * Nivel con más detalle (el de mayor zoom).
+     */
+    public int finestLevel() {
+        return zoomLevels.length - 1;
+    }
+
+    /**
+     * Geometría del nivel en GeoJSON ({@code [lon, lat]}) para almacenarla en el historial, con las longitudes
+     * devueltas a [-180, 180] como exige RFC 7946. Si la ruta cruza el antimeridiano se corta en él y se devuelve un
+     * {@code MultiLineString}; si no, un {@code LineString}.
+     */
+    public Map<String, Object> toGeoJson(int level) {
+        double[] lats = latitudes[level];
+        double[] lons = longitudes[level];
+        List<List<List<Double>>> lines = new ArrayList<>();
+        List<List<Double>> line = new ArrayList<>();
+        for (int i = 0; i < lats.length; i++) {
+            if (i > 0) {
+                long previousWrap = wrapOf(lons[i - 1]);
+                long wrap = wrapOf(lons[i]);
+                if (wrap != previousWrap) {
+                    // Punto de corte sobre el antimeridiano, interpolado linealmente en longitud continua.
+                    double boundary = 180.0 + 360.0 * Math.min(previousWrap, wrap);
+                    double fraction = (boundary - lons[i - 1]) / (lons[i] - lons[i - 1]);
+                    double latitude = lats[i - 1] + fraction * (lats[i] - lats[i - 1]);
+                    boolean eastward = wrap > previousWrap;
+                    line.add(List.of(eastward ? 180.0 : -180.0, latitude));
+                    lines.add(line);
+                    line = new ArrayList<>();
+                    line.add(List.of(eastward ? -180.0 : 180.0, latitude));
+                }
+            }
+            line.add(List.of(lons[i] - 360.0 * wrapOf(lons[i]), lats[i]));
+        }
+        lines.add(line);
+
+        Map<String, Object> geoJson = new LinkedHashMap<>();
+        if (lines.size() == 1) {
+            geoJson.put("type", "LineString");
+            geoJson.put("coordinates", lines.get(0));
+        } else {
+            geoJson.put("type", "MultiLineString");
+            geoJson.put("coordinates", lines);
+        }
+        return geoJson;
+    }
+
+    /**
+     * Número de vueltas de 360° que separan la longitud continua de [-180, 180).
+     */
+    private static long wrapOf(double longitude) {
+        return (long) Math.floor((longitude + 180.0) / 360.0);
+    }
+
+    /**
+     * Concatena tramos en orden; cada uno puede recorrerse en el sentido en que se guardó o al revés.
+     */
+    public static final class Builder {
+        private final int[] zoomLevels;
+        private final double[][] latitudes;
+        private final double[][] longitudes;
+        private final int[] sizes;
+
+        /**
+         * @param zoomLevels Zoom de cada nivel, en el mismo orden que los niveles de las {@link LegGeometry}.
+         */
+        public Builder(int[] zoomLevels) {
+            this.zoomLevels = zoomLevels.clone();
+            this.latitudes = new double[zoomLevels.length][16];
+            this.longitudes = new double[zoomLevels.length][16];
+            this.sizes = new int[zoomLevels.length];
+        }
+
+        public Builder append(LegGeometry leg, boolean reversed) {
+            if (leg.levelCount() != zoomLevels.length) {
+                throw new IllegalArgumentException("El tramo tiene %d niveles y la ruta %d."
+                        .formatted(leg.levelCount(), zoomLevels.length));
+            }
+            for (int level = 0; level < zoomLevels.length; level++) {
+                int count = leg.pointCount(level);
+                int firstIndex = reversed ? count - 1 : 0;
+                double offset = 0.0;
+                int start = 0;
+                if (sizes[level] > 0) {
+                    // El primer punto del tramo es el último de la ruta: se omite y se alinea la longitud.
+                    double previous = longitudes[level][sizes[level] - 1];
+                    offset = 360.0 * Math.round((previous - leg.longitude(level, firstIndex)) / 360.0);
+                    start = 1;
+                }
+                ensureCapacity(level, sizes[level] + count - start);
+                for (int i = start; i < count; i++) {
+                    int index = reversed ? count - 1 - i : i;
+                    latitudes[level][sizes[level]] = leg.latitude(level, index);
+                    longitudes[level][sizes[level]++] = leg.longitude(level, index) + offset;
+                }
+            }
+            return this;
+        }
+
+        public RouteGeometry build() {
+            double[][] lats = new double[zoomLevels.length][];
+            double[][] lons = new double[zoomLevels.length][];
+            for (int level = 0; level < zoomLevels.length; level++) {
+                lats[level] = Arrays.copyOf(latitudes[level], sizes[level]);
+                lons[level] = Arrays.copyOf(longitudes[level], sizes[level]);
+            }
+            return new RouteGeometry(zoomLevels, lats, lons);
+        }
+
+        private void ensureCapacity(int level, int required) {
+            if (required > latitudes[level].length) {
+                int capacity = Math.max(required, latitudes[level].length * 2);
+                latitudes[level] = Arrays.copyOf(latitudes[level], capacity);
+                longitudes[level] = Arrays.copyOf(longitudes[level], capacity);
+            }
+        }
+    }
+}
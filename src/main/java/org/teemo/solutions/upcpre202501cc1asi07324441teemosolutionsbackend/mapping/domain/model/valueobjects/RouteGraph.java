@@ -11,16 +11,34 @@ import java.util.*;
  * Representa el mapa de rutas como un grafo no dirigido.
  * Los nodos son los nombres de los puertos (String) y las aristas son los objetos Route.
  * La estructura interna es una lista de adyacencia.
+ * <p>
+ * Un grafo se construye una vez y luego se congela con {@link #freeze()}; a partir de ese momento
+ * es inmutable y puede compartirse entre peticiones concurrentes como una instantánea versionada.
  */
 public class RouteGraph {
     private static final Logger logger = LoggerFactory.getLogger(RouteGraph.class);
     private final Map<Port, List<Route>> adjacencyList = new HashMap<>();
+    private final long version;
+    private volatile boolean frozen;
+    private volatile CompactRouteGraph compact;
+
+    public RouteGraph() {
+        this(0L);
+    }
+
+    /**
+     * @param version Versión de la instantánea; crece cada vez que cambian puertos o rutas.
+     */
+    public RouteGraph(long version) {
+        this.version = version;
+    }
 
     /**
      * Añade un nuevo puerto (nodo) al grafo si aún no existe.
      * @param portName El nombre del puerto a añadir.
      */
     public void addNode(Port portName) {
+        ensureMutable();
         adjacencyList.putIfAbsent(portName, new ArrayList<>());
     }
 
@@ -31,6 +49,7 @@ public class RouteGraph {
      * @param route La ruta a añadir.
      */
     public void addEdge(Route route) {
+        ensureMutable();
         // Asegurarse de que ambos puertos (nodos) existen en el grafo
         addNode(route.getHomePort());
         addNode(route.getDestinationPort());
@@ -40,6 +59,7 @@ public class RouteGraph {
 
         // 2. Crear la arista inversa (B -> A)
         Route reverseRoute = new Route(
+                route.getId(),
                 route.getDestinationPort(),
                 route.getHomePort(),
                 route.getDistance()
@@ -108,6 +128,146 @@ public class RouteGraph {
      * @return Un Set<String> con todos los nombres de los nodos.
      */
     public Set<Port> getAllNodes() {
-        return adjacencyList.keySet();
+        return Collections.unmodifiableSet(adjacencyList.keySet());
+    }
+
+    /**
+     * Busca un puerto del grafo por el identificador de su documento.
+     */
+    public Optional<Port> findPortById(String portId) {
+        if (portId == null) {
+            return Optional.empty();
+        }
+        return adjacencyList.keySet().stream()
+                .filter(port -> portId.equals(port.getId()))
+                .findFirst();
+    }
+
+    /**
+     * Busca una de las dos direcciones de la ruta con el identificador de documento indicado.
+     */
+    public Optional<Route> findRoute(String routeId) {
+        if (routeId == null) {
+            return Optional.empty();
+        }
+        return adjacencyList.values().stream()
+                .flatMap(List::stream)
+                .filter(edge -> routeId.equals(edge.getId()))
+                .findFirst();
+    }
+
+    /**
+     * Crea una copia mutable del grafo con otra versión (copy-on-write). Los puertos y las rutas, que no cambian,
+     * se comparten con el original; sólo se copian las listas de adyacencia.
+     */
+    public RouteGraph mutableCopy(long newVersion) {
+        RouteGraph copy = new RouteGraph(newVersion);
+        adjacencyList.forEach((port, edges) -> copy.adjacencyList.put(port, new ArrayList<>(edges)));
+        return copy;
+    }
+
+    /**
+     * Quita las dos direcciones de la ruta indicada. Los puertos que se quedan sin conexiones salen del grafo,
+     * igual que en una construcción completa, donde sólo entran puertos con alguna ruta.
+     */
+    public void removeRoute(String routeId) {
+        ensureMutable();
+        if (routeId == null) {
+            return;
+        }
+        Set<Port> touched = new HashSet<>();
+        adjacencyList.forEach((port, edges) -> {
+            if (edges.removeIf(edge -> routeId.equals(edge.getId()))) {
+                touched.add(port);
+            }
+        });
+        touched.stream()
+                .filter(port -> adjacencyList.get(port).isEmpty())
+                .forEach(adjacencyList::remove);
+    }
+
+    /**
+     * Quita el puerto y todas sus rutas; los vecinos que se quedan sin conexiones también salen del grafo.
+     */
+    public void removePort(Port port) {
+        ensureMutable();
+        List<Route> edges = adjacencyList.remove(port);
+        if (edges == null) {
+            return;
+        }
+        for (Route edge : edges) {
+            Port neighbor = edge.getDestinationPort();
+            List<Route> neighborEdges = adjacencyList.get(neighbor);
+            if (neighborEdges != null) {
+                neighborEdges.removeIf(reverse -> reverse.getDestinationPort().equals(port));
+                if (neighborEdges.isEmpty()) {
+                    adjacencyList.remove(neighbor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sustituye un puerto por su versión actualizada (mismo nombre y continente) en el nodo y en todas las
+     * aristas que lo referencian, p. ej. al cambiar sus coordenadas o su estado de habilitación.
+     */
+    public void replacePort(Port updated) {
+        ensureMutable();
+        // Port compara por nombre y continente: hay que sacar la clave antigua para que el mapa guarde la nueva.
+        List<Route> edges = adjacencyList.remove(updated);
+        if (edges == null) {
+            return;
+        }
+        List<Route> repointed = new ArrayList<>(edges.size());
+        for (Route edge : edges) {
+            Port neighbor = edge.getDestinationPort();
+            repointed.add(new Route(edge.getId(), updated, neighbor, edge.getDistance()));
+            List<Route> neighborEdges = adjacencyList.get(neighbor);
+            if (neighborEdges != null) {
+                neighborEdges.replaceAll(reverse -> reverse.getDestinationPort().equals(updated)
+                        ? new Route(reverse.getId(), neighbor, updated, reverse.getDistance())
+                        : reverse);
+            }
+        }
+        adjacencyList.put(updated, repointed);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Congela el grafo: las listas de adyacencia pasan a ser de solo lectura y cualquier
+     * intento posterior de añadir nodos o aristas lanza {@link IllegalStateException}.
+     * Al congelarse se construye también su forma compacta (CSR) para los algoritmos de búsqueda.
+     * @return La misma instancia, ya inmutable.
+     */
+    public RouteGraph freeze() {
+        if (frozen) {
+            return this;
+        }
+        adjacencyList.replaceAll((port, edges) -> List.copyOf(edges));
+        frozen = true;
+        compact = CompactRouteGraph.from(this);
+        return this;
+    }
+
+    /**
+     * Devuelve la representación primitiva del grafo. En un grafo congelado se construye una única vez;
+     * en un grafo todavía mutable se genera una copia nueva en cada llamada.
+     */
+    public CompactRouteGraph compact() {
+        CompactRouteGraph current = compact;
+        return current != null ? current : CompactRouteGraph.from(this);
+    }
+
+    private void ensureMutable() {
+        if (frozen) {
+            throw new IllegalStateException("RouteGraph v" + version + " está congelado y no admite cambios.");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Identificadores de los documentos de puertos y rutas que cambiaron desde la última instantánea.
+ * Sólo se guardan los identificadores: al aplicarlos se relee el estado actual de cada documento, de modo que
+ * aplicar dos veces el mismo cambio, o cambios fuera de orden, produce el mismo grafo.
+ */
+public record RouteGraphChanges(Set<String> portIds, Set<String> routeIds) {
+
+    public RouteGraphChanges {
+        portIds = Set.copyOf(portIds);
+        routeIds = Set.copyOf(routeIds);
+    }
+
+    public static RouteGraphChanges ofPort(String portId) {
+        return new RouteGraphChanges(Set.of(portId), Set.of());
+    }
+
+    public static RouteGraphChanges ofRoute(String routeId) {
+        return new RouteGraphChanges(Set.of(), Set.of(routeId));
+    }
+
+    public static RouteGraphChanges of(Collection<String> portIds, Collection<String> routeIds) {
+        return new RouteGraphChanges(new LinkedHashSet<>(portIds), new LinkedHashSet<>(routeIds));
+    }
+
+    public boolean isEmpty() {
+        return portIds.isEmpty() && routeIds.isEmpty();
+    }
+
+    public int size() {
+        return portIds.size() + routeIds.size();
+    }
+}
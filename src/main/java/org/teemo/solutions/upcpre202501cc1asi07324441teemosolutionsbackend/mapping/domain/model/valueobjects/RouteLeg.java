@@ -0,0 +1,11 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+
+/**
+ * Tramo de una ruta calculada entre dos puertos consecutivos.
+ * @param distance Distancia del tramo según la arista del grafo.
+ * @param cumulativeDistance Distancia acumulada desde el origen hasta el final del tramo.
+ * @param routeId Id del documento de ruta que origina la arista, o {@code null} si no se conoce.
+ */
+public record RouteLeg(Port from, Port to, double distance, double cumulativeDistance, String routeId) {}
@@ -0,0 +1,126 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Resultado de una búsqueda: los puertos recorridos y cada tramo con su distancia, distancia acumulada
+ * e identidad de arista. Se arma en una sola pasada sobre el grafo compacto, sin consultar la base de datos.
+ */
+public final class RoutePath {
+
+    private final List<Port> ports;
+    private final List<RouteLeg> legs;
+    private final double totalDistance;
+
+    private RoutePath(List<Port> ports, List<RouteLeg> legs, double totalDistance) {
+        this.ports = ports;
+        this.legs = legs;
+        this.totalDistance = totalDistance;
+    }
+
+    /**
+     * Construye el camino a partir de los nodos devueltos por un motor de búsqueda. Cada tramo usa el arco
+     * más corto entre los dos nodos, así que sólo es exacto para motores que minimizan distancia (tablas,
+     * jerarquías, árboles de caminos mínimos); los que minimizan otro coste deben usar
+     * {@link #fromArcs(CompactRouteGraph, int, int[])}.
+     * @throws IllegalStateException si dos nodos consecutivos no son adyacentes.
+     */
+    public static RoutePath fromNodes(CompactRouteGraph graph, int[] nodes) {
+        List<Port> ports = new ArrayList<>(nodes.length);
+        List<RouteLeg> legs = new ArrayList<>(Math.max(0, nodes.length - 1));
+        double cumulative = 0.0;
+        ports.add(graph.portAt(nodes[0]));
+        for (int i = 1; i < nodes.length; i++) {
+            int arc = graph.arcBetween(nodes[i - 1], nodes[i]);
+            if (arc < 0) {
+                throw new IllegalStateException("Los puertos '%s' y '%s' no están conectados en el grafo."
+                        .formatted(graph.portAt(nodes[i - 1]).getName(), graph.portAt(nodes[i]).getName()));
+            }
+            double distance = graph.weight(arc);
+            cumulative += distance;
+            ports.add(graph.portAt(nodes[i]));
+            legs.add(new RouteLeg(graph.portAt(nodes[i - 1]), graph.portAt(nodes[i]), distance, cumulative, graph.edgeId(arc)));
+        }
+        return new RoutePath(List.copyOf(ports), List.copyOf(legs), cumulative);
+    }
+
+    /**
+     * Construye el camino a partir de los arcos que relajó la búsqueda, de modo que entre rutas paralelas cada
+     * tramo informa la que realmente se eligió (por coste estacional, peligro o riesgo) y no la más corta.
+     * @param start Nodo de origen; {@code arcs} puede estar vacío si coincide con el destino.
+     */
+    public static RoutePath fromArcs(CompactRouteGraph graph, int start, int[] arcs) {
+        List<Port> ports = new ArrayList<>(arcs.length + 1);
+        List<RouteLeg> legs = new ArrayList<>(arcs.length);
+        double cumulative = 0.0;
+        int from = start;
+        ports.add(graph.portAt(start));
+        for (int arc : arcs) {
+            int to = graph.target(arc);
+            double distance = graph.weight(arc);
+            cumulative += distance;
+            ports.add(graph.portAt(to));
+            legs.add(new RouteLeg(graph.portAt(from), graph.portAt(to), distance, cumulative, graph.edgeId(arc)));
+            from = to;
+        }
+        return new RoutePath(List.copyOf(ports), List.copyOf(legs), cumulative);
+    }
+
+    public List<Port> ports() {
+        return ports;
+    }
+
+    public List<RouteLeg> legs() {
+        return legs;
+    }
+
+    public double totalDistance() {
+        return totalDistance;
+    }
+
+    /**
+     * Ids de los puertos intermedios (sin origen ni destino).
+     */
+    public List<String> waypointPortIds() {
+        if (ports.size() <= 2) {
+            return List.of();
+        }
+        return ports.subList(1, ports.size() - 1).stream()
+                .map(Port::getId)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Fracción de la distancia de este camino que recorre tramos también presentes en {@code other},
+     * sin importar el sentido.
+     */
+    public double overlapWith(RoutePath other) {
+        if (totalDistance <= 0.0) {
+            return 0.0;
+        }
+        Set<String> otherLegs = new HashSet<>();
+        for (RouteLeg leg : other.legs) {
+            otherLegs.add(legKey(leg));
+        }
+        double shared = 0.0;
+        for (RouteLeg leg : legs) {
+            if (otherLegs.contains(legKey(leg))) {
+                shared += leg.distance();
+            }
+        }
+        return shared / totalDistance;
+    }
+
+    private static String legKey(RouteLeg leg) {
+        String from = leg.from().getId() != null ? leg.from().getId() : leg.from().getName();
+        String to = leg.to().getId() != null ? leg.to().getId() : leg.to().getName();
+        return from.compareTo(to) <= 0 ? from + '|' + to : to + '|' + from;
+    }
+}
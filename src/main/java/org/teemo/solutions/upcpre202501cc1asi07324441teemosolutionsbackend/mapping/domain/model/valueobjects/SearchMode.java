@@ -0,0 +1,27 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+/**
+ * Estrategia de exploración del grafo al calcular una ruta punto a punto.
+ */
+public enum SearchMode {
+    /** A* clásico desde el origen hacia el destino. */
+    UNIDIRECTIONAL,
+    /** Búsquedas simultáneas desde el origen y desde el destino que se detienen al encontrarse. */
+    BIDIRECTIONAL,
+    /**
+     * Consulta sobre la jerarquía de contracción precalculada. Si aún no está lista o la petición evita puertos
+     * distintos de los deshabilitados, se resuelve con la búsqueda bidireccional.
+     */
+    CONTRACTION_HIERARCHIES,
+    /**
+     * Reconstrucción de la ruta desde la tabla precalculada de distancias y siguientes saltos entre todos los pares.
+     * Si la tabla no está disponible se intenta {@link #PARTITIONED}; mismo criterio de respaldo que
+     * {@link #CONTRACTION_HIERARCHIES}.
+     */
+    DISTANCE_TABLE,
+    /**
+     * Búsqueda en dos niveles: local en el continente de origen, sobre el grafo de pasarelas entre continentes y
+     * local en el continente de destino. Si no está lista se resuelve con {@link #CONTRACTION_HIERARCHIES}.
+     */
+    PARTITIONED
+}
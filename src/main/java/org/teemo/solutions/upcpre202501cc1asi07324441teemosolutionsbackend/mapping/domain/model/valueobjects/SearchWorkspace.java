@@ -0,0 +1,124 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.util.Arrays;
+
+/**
+ * Estado reutilizable de una búsqueda de caminos: distancias, predecesores (nodo y arco), marcas de nodos
+ * asentados y el montículo indexado. Está pensado para mantenerse uno por hilo; en lugar de limpiar
+ * los arreglos en cada consulta se incrementa un contador de generación, de modo que una consulta
+ * sobre un workspace ya dimensionado no reserva memoria.
+ */
+public final class SearchWorkspace {
+
+    private double[] distance = new double[0];
+    private int[] parent = new int[0];
+    private int[] parentArc = new int[0];
+    private int[] seenGeneration = new int[0];
+    private int[] settledGeneration = new int[0];
+    private int generation;
+    private final IndexedMinHeap heap = new IndexedMinHeap(16);
+
+    /**
+     * Prepara el workspace para una búsqueda nueva sobre un grafo de {@code nodeCount} nodos.
+     */
+    public void reset(int nodeCount) {
+        if (distance.length < nodeCount) {
+            distance = new double[nodeCount];
+            parent = new int[nodeCount];
+            parentArc = new int[nodeCount];
+            seenGeneration = new int[nodeCount];
+            settledGeneration = new int[nodeCount];
+            generation = 0;
+        }
+        heap.ensureCapacity(nodeCount);
+        heap.clear();
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(seenGeneration, 0);
+            Arrays.fill(settledGeneration, 0);
+            generation = 1;
+        }
+    }
+
+    public IndexedMinHeap heap() {
+        return heap;
+    }
+
+    public boolean isReached(int node) {
+        return seenGeneration[node] == generation;
+    }
+
+    /**
+     * @return La mejor distancia conocida al nodo en esta búsqueda, o infinito si aún no se ha alcanzado.
+     */
+    public double distance(int node) {
+        return seenGeneration[node] == generation ? distance[node] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return El predecesor del nodo en esta búsqueda, o -1 si no tiene.
+     */
+    public int parent(int node) {
+        return seenGeneration[node] == generation ? parent[node] : -1;
+    }
+
+    /**
+     * @return El arco por el que se llegó al nodo en esta búsqueda, o -1 si no tiene o no se registró.
+     */
+    public int parentArc(int node) {
+        return seenGeneration[node] == generation ? parentArc[node] : -1;
+    }
+
+    public void update(int node, double newDistance, int newParent) {
+        update(node, newDistance, newParent, -1);
+    }
+
+    /**
+     * Igual que {@link #update(int, double, int)}, guardando además el arco relajado, para distinguir entre rutas
+     * paralelas al reconstruir el camino.
+     */
+    public void update(int node, double newDistance, int newParent, int newParentArc) {
+        distance[node] = newDistance;
+        parent[node] = newParent;
+        parentArc[node] = newParentArc;
+        seenGeneration[node] = generation;
+    }
+
+    public boolean isSettled(int node) {
+        return settledGeneration[node] == generation;
+    }
+
+    public void markSettled(int node) {
+        settledGeneration[node] = generation;
+    }
+
+    /**
+     * Reconstruye el camino desde el origen de la búsqueda hasta {@code end} siguiendo los predecesores.
+     */
+    public int[] pathTo(int end) {
+        int length = 0;
+        for (int node = end; node != -1; node = parent(node)) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int node = end, i = length - 1; node != -1; node = parent(node), i--) {
+            path[i] = node;
+        }
+        return path;
+    }
+
+    /**
+     * Arcos del camino desde el origen de la búsqueda hasta {@code end}, en orden; vacío si {@code end} es el origen.
+     * Requiere que la búsqueda haya registrado el arco de cada predecesor.
+     */
+    public int[] arcPathTo(int end) {
+        int length = 0;
+        for (int node = end; parent(node) != -1; node = parent(node)) {
+            length++;
+        }
+        int[] arcs = new int[length];
+        for (int node = end, i = length - 1; parent(node) != -1; node = parent(node), i--) {
+            arcs[i] = parentArc(node);
+        }
+        return arcs;
+    }
+}
@@ -0,0 +1,47 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.time.Month;
+
+/**
+ * Las doce capas de costes mensuales ({@link EdgeCostLayer}) de una instantánea del grafo. Se compilan una sola
+ * vez por instantánea; elegir la capa de una consulta es indexar por el mes de salida.
+ */
+public final class SeasonalEdgeCosts {
+
+    private final CompactRouteGraph graph;
+    private final EdgeCostLayer[] layers;
+
+    private SeasonalEdgeCosts(CompactRouteGraph graph, EdgeCostLayer[] layers) {
+        this.graph = graph;
+        this.layers = layers;
+    }
+
+    public static SeasonalEdgeCosts compile(CompactRouteGraph graph, MonthlyArcCostFunction costFunction) {
+        EdgeCostLayer[] layers = new EdgeCostLayer[Month.values().length];
+        for (Month month : Month.values()) {
+            layers[month.ordinal()] = EdgeCostLayer.compile(graph, (source, arc) -> costFunction.cost(source, arc, month));
+        }
+        return new SeasonalEdgeCosts(graph, layers);
+    }
+
+    public boolean isFor(CompactRouteGraph candidate) {
+        return graph == candidate;
+    }
+
+    public EdgeCostLayer layer(Month month) {
+        return layers[month.ordinal()];
+    }
+
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (EdgeCostLayer layer : layers) {
+            bytes += layer.estimatedBytes();
+        }
+        return bytes;
+    }
+
+    @FunctionalInterface
+    public interface MonthlyArcCostFunction {
+        double cost(int source, int arc, Month month);
+    }
+}
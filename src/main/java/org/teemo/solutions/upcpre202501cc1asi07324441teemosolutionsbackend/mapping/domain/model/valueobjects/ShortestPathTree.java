@@ -0,0 +1,138 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Árbol de caminos mínimos desde un único origen sobre un {@link CompactRouteGraph}:
+ * distancia y predecesor de cada nodo en arreglos primitivos, calculados con una sola ejecución de Dijkstra.
+ * Una vez calculado, el camino a cualquier destino se obtiene recorriendo predecesores.
+ */
+public final class ShortestPathTree {
+
+    private final CompactRouteGraph graph;
+    private final int source;
+    private final double[] distances;
+    private final int[] predecessors;
+    private final int settledCount;
+
+    private ShortestPathTree(CompactRouteGraph graph, int source, double[] distances, int[] predecessors, int settledCount) {
+        this.graph = graph;
+        this.source = source;
+        this.distances = distances;
+        this.predecessors = predecessors;
+        this.settledCount = settledCount;
+    }
+
+    /**
+     * Ejecuta Dijkstra completo desde {@code source}.
+     */
+    public static ShortestPathTree compute(CompactRouteGraph graph, int source) {
+        return compute(graph, source, null, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Ejecuta Dijkstra desde {@code source} sin atravesar los nodos de {@code avoided} y deteniéndose
+     * en cuanto la distancia asentada supera {@code maxDistance}. Los nodos fuera del presupuesto quedan
+     * con distancia infinita.
+     */
+    public static ShortestPathTree compute(CompactRouteGraph graph, int source, BitSet avoided, double maxDistance) {
+        int n = graph.nodeCount();
+        double[] distances = new double[n];
+        int[] predecessors = new int[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(predecessors, -1);
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        BitSet settled = new BitSet(n);
+
+        distances[source] = 0.0;
+        heap.insertOrDecrease(source, 0.0);
+        int settledCount = 0;
+
+        while (!heap.isEmpty()) {
+            if (heap.minKey() > maxDistance) {
+                break;
+            }
+            int node = heap.pollMin();
+            settled.set(node);
+            settledCount++;
+            for (int arc = graph.firstArc(node), last = graph.endArc(node); arc < last; arc++) {
+                int neighbor = graph.target(arc);
+                if (settled.get(neighbor) || (avoided != null && avoided.get(neighbor))) {
+                    continue;
+                }
+                double candidate = distances[node] + graph.weight(arc);
+                if (candidate < distances[neighbor]) {
+                    distances[neighbor] = candidate;
+                    predecessors[neighbor] = node;
+                    heap.insertOrDecrease(neighbor, candidate);
+                }
+            }
+        }
+        // Los nodos que quedaron en la frontera sin asentarse están fuera del presupuesto.
+        for (int node = settled.nextClearBit(0); node < n; node = settled.nextClearBit(node + 1)) {
+            distances[node] = Double.POSITIVE_INFINITY;
+            predecessors[node] = -1;
+        }
+        return new ShortestPathTree(graph, source, distances, predecessors, settledCount);
+    }
+
+    public CompactRouteGraph getGraph() {
+        return graph;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public double distanceTo(int node) {
+        return distances[node];
+    }
+
+    public int predecessorOf(int node) {
+        return predecessors[node];
+    }
+
+    public boolean isReachable(int node) {
+        return distances[node] != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Número de nodos asentados (alcanzados dentro del presupuesto).
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    /**
+     * @return Los nodos del camino desde el origen hasta {@code target}, o {@code null} si no es alcanzable.
+     */
+    public int[] pathTo(int target) {
+        if (!isReachable(target)) {
+            return null;
+        }
+        int length = 0;
+        for (int node = target; node != -1; node = predecessors[node]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int node = target, i = length - 1; node != -1; node = predecessors[node], i--) {
+            path[i] = node;
+        }
+        return path;
+    }
+
+    /**
+     * Copia de las distancias, útil para construir tablas derivadas.
+     */
+    public double[] distances() {
+        return distances.clone();
+    }
+
+    /**
+     * Memoria aproximada ocupada por los arreglos del árbol, en bytes.
+     */
+    public long estimatedBytes() {
+        return (long) distances.length * Double.BYTES + (long) predecessors.length * Integer.BYTES;
+    }
+}
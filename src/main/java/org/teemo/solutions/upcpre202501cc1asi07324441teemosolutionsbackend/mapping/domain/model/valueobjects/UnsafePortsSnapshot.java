@@ -0,0 +1,42 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.Set;
+
+/**
+ * Conjunto inmutable de nombres de puertos afectados por eventos geopolíticos vigentes, con la versión que lo
+ * identifica. La versión sólo aumenta cuando el conjunto cambia, de modo que sirve como clave de caché.
+ */
+public record UnsafePortsSnapshot(Set<String> portNames, long version, Instant loadedAt) {
+
+    public static final UnsafePortsSnapshot EMPTY = new UnsafePortsSnapshot(Set.of(), 0L, Instant.EPOCH);
+
+    public UnsafePortsSnapshot {
+        portNames = Set.copyOf(portNames);
+    }
+
+    public boolean contains(String portName) {
+        return portName != null && portNames.contains(portName);
+    }
+
+    public boolean isEmpty() {
+        return portNames.isEmpty();
+    }
+
+    /**
+     * Máscara con los nodos del grafo cuyos puertos son inseguros en este snapshot.
+     */
+    public BitSet nodeMask(CompactRouteGraph graph) {
+        BitSet mask = new BitSet(graph.nodeCount());
+        if (portNames.isEmpty()) {
+            return mask;
+        }
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            if (portNames.contains(graph.portAt(node).getName())) {
+                mask.set(node);
+            }
+        }
+        return mask;
+    }
+}
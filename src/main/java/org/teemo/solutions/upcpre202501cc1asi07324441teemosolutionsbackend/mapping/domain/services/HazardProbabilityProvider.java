@@ -0,0 +1,18 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services;
+
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+
+import java.time.Month;
+
+public interface HazardProbabilityProvider {
+    /**
+     * Probabilidad de encontrar un peligro meteorológico (hielo, ciclón, mareaje) al navegar el tramo.
+     * Debe ser simétrica en {@code from} y {@code to} y no depender de servicios remotos: se evalúa una vez por arista
+     * y mes al publicar cada instantánea del grafo.
+     * @param from El puerto de origen.
+     * @param to El puerto de destino.
+     * @param month El mes de navegación.
+     * @return Probabilidad entre 0 y 1.
+     */
+    double hazardProbability(Port from, Port to, Month month);
+}
@@ -0,0 +1,12 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services;
+
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardZonesSnapshot;
+
+public interface HazardZoneProvider {
+    /**
+     * Zonas de peligro meteorológico activas. Debe devolver un snapshot ya cargado sin bloquear: se consulta en cada
+     * cálculo de ruta.
+     * @return El snapshot vigente; {@link HazardZonesSnapshot#EMPTY} si aún no hay datos.
+     */
+    HazardZonesSnapshot getActiveHazardZones();
+}
@@ -3,6 +3,7 @@ package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapp
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Route;
 import java.time.Clock;
+import java.time.Month;
 
 public interface NavigationConditionsProvider {
     /**
@@ -15,6 +16,14 @@ public interface NavigationConditionsProvider {
      */
     double getAdjustedCost(Route route, Port homePort, Port destinationPort, Clock clock);
 
+    /**
+     * Igual que {@link #getAdjustedCost(Route, Port, Port, Clock)}, pero para un mes concreto en lugar del actual.
+     * Permite precompilar los costes de todo el año sin depender del reloj.
+     * @param month El mes de navegación.
+     * @return El coste total ajustado.
+     */
+    double getAdjustedCost(Route route, Port homePort, Port destinationPort, Month month);
+
     /**
      * Verifica si la dirección de viaje es a favor de una corriente favorable.
      * @param from El puerto de origen.
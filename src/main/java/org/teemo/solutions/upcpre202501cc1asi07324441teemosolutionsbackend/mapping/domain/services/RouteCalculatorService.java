@@ -1,10 +1,61 @@
 package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services;
 
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardZone;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.ParetoRoute;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RoutePath;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SearchMode;
 
+import java.time.Month;
 import java.util.List;
 import java.util.Set;
 
 public interface RouteCalculatorService {
     List<Port> calculateOptimalRoute(Port start, Port end, Set<String> avoidPortIds);
+
+    /**
+     * Calcula la ruta óptima con la distancia, la distancia acumulada y la arista de cada tramo.
+     * @param searchMode Estrategia de búsqueda; {@code null} usa la configurada por defecto.
+     */
+    RoutePath calculateOptimalPath(Port start, Port end, Set<String> avoidPortIds, SearchMode searchMode);
+
+    /**
+     * Igual que {@link #calculateOptimalPath(Port, Port, Set, SearchMode)} pero sobre una instantánea concreta,
+     * para que varios cálculos relacionados vean exactamente el mismo grafo.
+     */
+    RoutePath calculateOptimalPath(RouteGraph graph, Port start, Port end, Set<String> avoidPortIds, SearchMode searchMode);
+
+    /**
+     * Igual que {@link #calculateOptimalPath(RouteGraph, Port, Port, Set, SearchMode)}, pero minimizando el coste
+     * estacional del mes de salida. Con mes, las consultas se resuelven siempre con A* sobre la capa mensual,
+     * porque las jerarquías y la tabla de distancias se construyen sobre la distancia cruda.
+     * @param departureMonth Mes de salida; {@code null} equivale a la sobrecarga sin mes.
+     */
+    RoutePath calculateOptimalPath(RouteGraph graph, Port start, Port end, Set<String> avoidPortIds, SearchMode searchMode,
+                                   Month departureMonth);
+
+    /**
+     * Rutas alternativas a {@code optimal} sobre la misma instantánea, ordenadas por coste y sin incluir la
+     * óptima. Se descartan las que son demasiado costosas o casi idénticas a una ruta ya elegida. El coste es el
+     * mismo que minimizó la ruta óptima: capa estacional del mes, penalización de puertos inseguros y zonas de
+     * peligro activas, cuyos tramos bloqueados ninguna alternativa atraviesa.
+     * @param count          Número máximo de alternativas.
+     * @param departureMonth Mes de salida de la ruta óptima; {@code null} si no se indicó.
+     */
+    List<RoutePath> calculateAlternativePaths(RouteGraph graph, RoutePath optimal, Set<String> avoidPortIds, int count,
+                                              Month departureMonth);
+
+    /**
+     * Frente de Pareto entre distancia, puertos inseguros visitados y probabilidad de peligro meteorológico del mes de
+     * salida, calculado en una sola búsqueda sobre la instantánea indicada. El planificador elige una de las rutas.
+     * @return Las rutas no dominadas ordenadas por distancia; la primera es la más corta.
+     */
+    List<ParetoRoute> calculateParetoRoutes(RouteGraph graph, Port start, Port end, Set<String> avoidPortIds,
+                                            Month departureMonth);
+
+    /**
+     * Zonas de peligro activas que cruza cada tramo del camino, en el mismo orden que {@link RoutePath#legs()}.
+     */
+    List<List<HazardZone>> findLegHazards(RouteGraph graph, RoutePath path);
 }
@@ -0,0 +1,16 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services;
+
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+
+/**
+ * Componente que mantiene estructuras derivadas del grafo de rutas (índices, tablas precalculadas)
+ * y necesita reconstruirlas cuando se publica una instantánea nueva.
+ */
+public interface RouteGraphSnapshotListener {
+
+    /**
+     * Se invoca cada vez que se publica una instantánea nueva del grafo.
+     * @param graph La instantánea recién publicada, ya congelada.
+     */
+    void onSnapshotPublished(RouteGraph graph);
+}
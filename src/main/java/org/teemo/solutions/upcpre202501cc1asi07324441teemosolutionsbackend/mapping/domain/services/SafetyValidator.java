@@ -2,6 +2,8 @@
 package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services;
 
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.UnsafePortsSnapshot;
+
 import java.util.List;
 import java.util.Set;
 
@@ -13,11 +15,26 @@ public interface SafetyValidator {
      */
     List<String> validateFullRoute(List<Port> route);
 
+    /**
+     * Snapshot vigente de puertos inseguros. Se lee de memoria; nunca consulta la colección de eventos.
+     */
+    UnsafePortsSnapshot getUnsafePortsSnapshot();
+
     /**
      * Obtiene un conjunto de nombres de puertos que actualmente se consideran inseguros
      * debido a eventos geopolíticos válidos.
      * Este es el método clave para un rendimiento óptimo.
      * @return Un Set de nombres de puertos (String).
      */
-    Set<String> getUnsafePortNames();
-}
\ No newline at end of file
+    default Set<String> getUnsafePortNames() {
+        return getUnsafePortsSnapshot().portNames();
+    }
+
+    /**
+     * Versión del conjunto de puertos inseguros: aumenta cada vez que el conjunto cambia.
+     * Permite invalidar resultados que incluyen advertencias de seguridad.
+     */
+    default long getUnsafePortsVersion() {
+        return getUnsafePortsSnapshot().version();
+    }
+}
@@ -0,0 +1,105 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class RoutingExecutorConfig {
+
+    public static final String PREPROCESSING_EXECUTOR = "routePreprocessingExecutor";
+    public static final String BATCH_EXECUTOR = "routeBatchExecutor";
+    public static final String MATRIX_POOL = "routeMatrixPool";
+    public static final String PREPROCESSING_POOL = "routePreprocessingPool";
+    public static final String POPULARITY_EXECUTOR = "routePopularityExecutor";
+
+    private static final int POPULARITY_QUEUE_CAPACITY = 10_000;
+
+    /**
+     * Hilo único para preprocesar instantáneas del grafo (jerarquías, tablas) fuera del camino de las peticiones.
+     * Al ser secuencial, una instantánea nueva nunca se procesa en paralelo con la anterior.
+     */
+    @Bean(name = PREPROCESSING_EXECUTOR, destroyMethod = "shutdownNow")
+    public ExecutorService routePreprocessingExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "route-preprocessing");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Hilo único para registrar la popularidad de las búsquedas fuera del hilo de la petición. La cola es acotada y,
+     * si se llena, las búsquedas nuevas se rechazan en lugar de frenar las respuestas.
+     */
+    @Bean(name = POPULARITY_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService routePopularityExecutor() {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(POPULARITY_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "route-popularity");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Pool acotado para los cálculos por lotes: hilos fijos y cola limitada. Si la cola se llena, el hilo que
+     * envía el lote ejecuta la tarea él mismo, lo que frena al productor en lugar de rechazar elementos.
+     */
+    @Bean(name = BATCH_EXECUTOR, destroyMethod = "shutdownNow")
+    public ExecutorService routeBatchExecutor(RoutingProperties routingProperties) {
+        RoutingProperties.Batch batch = routingProperties.getBatch();
+        int threads = batch.getParallelism() > 0 ? batch.getParallelism() : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(batch.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "route-batch-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Pool fork-join propio para las matrices de distancias, separado del pool común para que una matriz grande
+     * no compita con los streams paralelos del resto de la aplicación.
+     */
+    @Bean(name = MATRIX_POOL, destroyMethod = "shutdownNow")
+    public ForkJoinPool routeMatrixPool(RoutingProperties routingProperties) {
+        int configured = routingProperties.getMatrix().getParallelism();
+        int parallelism = configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("route-matrix-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Pool fork-join en el que el hilo de preprocesamiento reparte los Dijkstra de las tablas por instantánea.
+     * Por defecto usa la mitad de los procesadores, para que una reconstrucción no deje sin CPU a las peticiones.
+     */
+    @Bean(name = PREPROCESSING_POOL, destroyMethod = "shutdownNow")
+    public ForkJoinPool routePreprocessingPool(RoutingProperties routingProperties) {
+        int configured = routingProperties.getPreprocessing().getParallelism();
+        int parallelism = configured > 0 ? configured : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("route-preprocessing-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+}
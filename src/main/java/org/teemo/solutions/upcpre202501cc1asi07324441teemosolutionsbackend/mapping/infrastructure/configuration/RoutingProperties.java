@@ -0,0 +1,229 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.PathfindingHeuristic;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SearchMode;
+
+import java.time.Duration;
+
+/**
+ * Parámetros del motor de cálculo de rutas.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "routing")
+public class RoutingProperties {
+
+    /** Estrategia de búsqueda por defecto cuando la petición no indica una. */
+    private SearchMode searchMode = SearchMode.UNIDIRECTIONAL;
+    private AStar astar = new AStar();
+    private Alt alt = new Alt();
+    private Ch ch = new Ch();
+    private Table table = new Table();
+    private Cache cache = new Cache();
+    private Batch batch = new Batch();
+    private Matrix matrix = new Matrix();
+    private Components components = new Components();
+    private Alternatives alternatives = new Alternatives();
+    private Seasonal seasonal = new Seasonal();
+    private Safety safety = new Safety();
+    private GraphUpdates graphUpdates = new GraphUpdates();
+    private Spatial spatial = new Spatial();
+    private Geometry geometry = new Geometry();
+    private Pareto pareto = new Pareto();
+    private Hazards hazards = new Hazards();
+    private Partition partition = new Partition();
+    private TreeCache treeCache = new TreeCache();
+    private Preprocessing preprocessing = new Preprocessing();
+
+    @Getter
+    @Setter
+    public static class AStar {
+        /** Heurística usada por A*: ALT (admisible, resultados óptimos) o GEOGRAPHIC (Haversine ponderado). */
+        private PathfindingHeuristic heuristic = PathfindingHeuristic.ALT;
+    }
+
+    @Getter
+    @Setter
+    public static class Alt {
+        /** Número de puertos landmark cuyas distancias exactas se precalculan por instantánea del grafo. */
+        private int landmarks = 8;
+    }
+
+    @Getter
+    @Setter
+    public static class Ch {
+        /** Nodos máximos que asienta cada búsqueda de testigos durante la contracción. */
+        private int witnessSettleLimit = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class Table {
+        /**
+         * Tamaño máximo del grafo para el que se construye la tabla de todos los pares. La memoria es cuadrática
+         * (12 bytes por par): 2000 puertos ocupan unos 48 MB, mientras que 5000 pasarían de 300 MB.
+         */
+        private int maxPorts = 2000;
+    }
+
+    @Getter
+    @Setter
+    public static class Preprocessing {
+        /** Hilos del pool fork-join que reparte el preprocesamiento de cada instantánea; 0 usa la mitad de los procesadores. */
+        private int parallelism = 0;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        /** Máximo de resultados de ruta guardados; 0 desactiva la caché. */
+        private int maxEntries = 10_000;
+        /** Tiempo de vida de cada resultado. */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+        /** Hilos del pool de cálculo por lotes; 0 usa el número de procesadores. */
+        private int parallelism = 0;
+        /** Tareas que pueden esperar en la cola del pool. */
+        private int queueCapacity = 256;
+        /** Máximo de elementos aceptados en una sola petición. */
+        private int maxItems = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Matrix {
+        /** Hilos del pool fork-join de matrices; 0 usa el número de procesadores. */
+        private int parallelism = 0;
+        /** Máximo de celdas (orígenes x destinos) aceptadas en una sola petición. */
+        private int maxCells = 1_000_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Components {
+        /** Conjuntos de puertos evitados cuyas componentes conexas se guardan por instantánea. */
+        private int maxOverlays = 64;
+    }
+
+    @Getter
+    @Setter
+    public static class Alternatives {
+        /** Máximo de rutas (incluida la óptima) que se pueden pedir con {@code k}. */
+        private int maxRoutes = 5;
+        /** Una alternativa no puede superar esta proporción de la distancia óptima. */
+        private double maxStretch = 1.5;
+        /** Fracción máxima de la distancia de una alternativa compartida con cada ruta ya aceptada. */
+        private double maxOverlap = 0.8;
+        /** Caminos de Yen examinados como mucho por cada ruta pedida antes de rendirse. */
+        private int candidatesPerRoute = 10;
+    }
+
+    @Getter
+    @Setter
+    public static class Seasonal {
+        /** Compila las capas de costes mensuales y las usa cuando la petición indica fecha de salida. */
+        private boolean enabled = true;
+    }
+
+    @Getter
+    @Setter
+    public static class Safety {
+        /** Intervalo entre recargas del snapshot de puertos inseguros desde la colección de eventos. */
+        private Duration refreshInterval = Duration.ofSeconds(30);
+        /** Suma una penalización a los tramos que tocan puertos inseguros, calculando esas rutas con A*. */
+        private boolean penalizeUnsafePorts = false;
+    }
+
+    @Getter
+    @Setter
+    public static class GraphUpdates {
+        /** Escucha los change streams de {@code ports} y {@code routes} (requiere un replica set). */
+        private boolean changeStreamsEnabled = false;
+        /** Tiempo máximo que se agrupan eventos antes de publicar una instantánea parcheada. */
+        private Duration batchWindow = Duration.ofMillis(500);
+        /** Con más documentos cambiados que este límite en una ventana se recarga el grafo completo. */
+        private int maxBatch = 1000;
+        /** Si el evento más reciente llega con más retraso que este, se recarga el grafo completo. */
+        private Duration maxLag = Duration.ofSeconds(30);
+        /** Espera antes de reabrir el change stream tras un error. */
+        private Duration retryDelay = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Spatial {
+        /** Máximo de puertos que devuelve una consulta de puertos cercanos. */
+        private int maxResults = 50;
+    }
+
+    @Getter
+    @Setter
+    public static class Geometry {
+        /** Añade a las respuestas de ruta la geometría codificada por niveles de zoom. */
+        private boolean enabled = true;
+        /** Separación máxima entre puntos interpolados sobre el círculo máximo de cada tramo. */
+        private double stepKm = 25.0;
+        /** Zoom mínimo de cada nivel de simplificación, de menor a mayor detalle. */
+        private int[] zoomLevels = {2, 5, 8, 11};
+        /** Error máximo de la simplificación Douglas–Peucker, en píxeles del zoom de cada nivel. */
+        private double tolerancePixels = 1.0;
+        /** Tramos cuya geometría se mantiene en memoria (LRU). */
+        private int maxCachedLegs = 20_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Pareto {
+        /** Máximo de rutas del frente devueltas; si hay más se conservan los extremos y un reparto por distancia. */
+        private int maxRoutes = 8;
+        /** Se ignoran las rutas que superen esta proporción de la distancia más corta. */
+        private double maxStretch = 2.0;
+        /** Etiquetas extraídas como mucho por búsqueda antes de devolver el frente hallado hasta entonces. */
+        private int maxLabels = 200_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Hazards {
+        /** Penaliza o bloquea durante A* las aristas que cruzan zonas de peligro activas y las informa por tramo. */
+        private boolean enabled = true;
+        /** Frecuencia con la que se recargan las alertas activas. */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+        /** Lado de cada celda del índice espacial de aristas, en grados. */
+        private double cellDegrees = 2.0;
+        /** Las aristas que cruzan una zona con esta probabilidad o más quedan bloqueadas. */
+        private double blockProbability = 0.7;
+        /** Coste añadido a una arista por cada zona que cruza, multiplicado por su probabilidad. */
+        private double penaltyKm = 1500.0;
+        /** Región (en grados) en la que se consultan las alertas activas. */
+        private double regionMinLatitude = -90.0;
+        private double regionMaxLatitude = 90.0;
+        private double regionMinLongitude = -180.0;
+        private double regionMaxLongitude = 180.0;
+    }
+
+    @Getter
+    @Setter
+    public static class Partition {
+        /** Máximo de pasarelas de un continente para construir la partición (sus tablas crecen de forma cuadrática). */
+        private int maxCellGateways = 2000;
+    }
+
+    @Getter
+    @Setter
+    public static class TreeCache {
+        /** Orígenes más buscados (según {@code routes_popularity}) cuyos árboles de caminos mínimos se guardan. */
+        private int hotOrigins = 8;
+        /** Memoria máxima de los árboles guardados; se desalojan por LRU. */
+        private long maxBytes = 64L * 1024 * 1024;
+        /** Frecuencia con la que se recalculan los orígenes calientes. */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+    }
+}
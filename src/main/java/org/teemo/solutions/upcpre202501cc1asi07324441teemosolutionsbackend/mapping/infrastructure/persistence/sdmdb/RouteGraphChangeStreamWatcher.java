@@ -0,0 +1,260 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices.RouteGraphSnapshotProvider;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraphChanges;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.documents.PortDocument;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.documents.RouteDocument;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mantiene el grafo de rutas al día con los change streams de {@code ports} y {@code routes}, de modo que las
+ * ediciones hechas directamente en Mongo (cargas masivas, scripts) llegan al grafo en segundos.
+ * Los eventos se agrupan durante {@code routing.graph-updates.batch-window} y se aplican como un único parche
+ * copy-on-write ({@link RouteGraphSnapshotProvider#applyChanges(RouteGraphChanges)}); el token de reanudación sólo
+ * avanza tras aplicar cada grupo.
+ * Si el watcher se queda atrás (más de {@code max-batch} documentos en una ventana o un retraso mayor que
+ * {@code max-lag}), si el stream se invalida o si se pierde su historial, se reabre desde el presente y se
+ * recarga el grafo completo. Está desactivado por defecto ({@code routing.graph-updates.change-streams-enabled});
+ * si se activa contra un servidor sin replica set, lo detecta al arrancar, avisa una vez y el grafo sigue
+ * actualizándose sólo con las escrituras de la propia aplicación.
+ */
+@Component
+public class RouteGraphChangeStreamWatcher {
+    private static final Logger logger = LoggerFactory.getLogger(RouteGraphChangeStreamWatcher.class);
+
+    private static final int CHANGE_STREAM_UNSUPPORTED = 40573;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+
+    private final MongoTemplate mongoTemplate;
+    private final RouteGraphSnapshotProvider graphSnapshotProvider;
+    private final RoutingProperties routingProperties;
+    private final MeterRegistry meterRegistry;
+    private final Counter changeEvents;
+    private final String portsCollection;
+    private final String routesCollection;
+
+    private volatile boolean running;
+    private volatile Thread worker;
+    private BsonDocument resumeToken;
+
+    public RouteGraphChangeStreamWatcher(MongoTemplate mongoTemplate,
+                                         RouteGraphSnapshotProvider graphSnapshotProvider,
+                                         RoutingProperties routingProperties,
+                                         MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.graphSnapshotProvider = graphSnapshotProvider;
+        this.routingProperties = routingProperties;
+        this.meterRegistry = meterRegistry;
+        this.changeEvents = meterRegistry.counter("route_graph_change_events_total");
+        this.portsCollection = mongoTemplate.getCollectionName(PortDocument.class);
+        this.routesCollection = mongoTemplate.getCollectionName(RouteDocument.class);
+    }
+
+    @EventListener
+    public void on(ApplicationReadyEvent event) {
+        if (!routingProperties.getGraphUpdates().isChangeStreamsEnabled() || running) {
+            return;
+        }
+        if (isStandaloneServer()) {
+            logger.warn("route.graph.change_stream.disabled reason=standalone_server");
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::watch, "route-graph-change-stream");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void watch() {
+        // Si ya se publicó una instantánea, pudo perderse algún cambio entre su construcción y la apertura del stream.
+        boolean reloadOnOpen = graphSnapshotProvider.currentVersion() > 0;
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open()) {
+                logger.info("route.graph.change_stream.opened resumed={}", resumeToken != null);
+                if (reloadOnOpen) {
+                    // El cursor ya está abierto: lo que cambie durante la recarga llegará también como evento.
+                    fullReload("recovered");
+                    reloadOnOpen = false;
+                }
+                String fallBehindReason = consume(cursor);
+                if (fallBehindReason != null) {
+                    resumeToken = null;
+                    reloadOnOpen = true;
+                    logger.warn("route.graph.change_stream.fell_behind reason={}", fallBehindReason);
+                    meterRegistry.counter("route_graph_change_stream_reloads_total", "reason", fallBehindReason).increment();
+                }
+            } catch (MongoCommandException ex) {
+                if (ex.getErrorCode() == CHANGE_STREAM_UNSUPPORTED) {
+                    logger.warn("route.graph.change_stream.unsupported message={}", ex.getErrorMessage());
+                    running = false;
+                    return;
+                }
+                if (ex.getErrorCode() == CHANGE_STREAM_HISTORY_LOST || ex.getErrorCode() == CHANGE_STREAM_FATAL_ERROR) {
+                    resumeToken = null;
+                    reloadOnOpen = true;
+                }
+                backOff(ex);
+            } catch (RuntimeException ex) {
+                backOff(ex);
+            }
+        }
+    }
+
+    /**
+     * Los change streams sólo existen en replica sets y clústeres fragmentados. Si la comprobación falla se intenta
+     * abrir el stream igualmente y el bucle de reintentos se ocupa del error.
+     */
+    private boolean isStandaloneServer() {
+        try {
+            Document hello = mongoTemplate.getDb().runCommand(new Document("hello", 1));
+            return hello.get("setName") == null && !"isdbgrid".equals(hello.getString("msg"));
+        } catch (RuntimeException ex) {
+            logger.warn("route.graph.change_stream.topology_check_failed message={}", ex.getMessage());
+            return false;
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getDb()
+                .watch(List.of(Aggregates.match(Filters.in("ns.coll", portsCollection, routesCollection))))
+                .maxAwaitTime(routingProperties.getGraphUpdates().getBatchWindow().toMillis(), TimeUnit.MILLISECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        return stream.cursor();
+    }
+
+    /**
+     * Lee eventos hasta que el watcher se detiene o se queda atrás.
+     * @return El motivo por el que hay que recargar el grafo completo, o {@code null} si el watcher se detuvo.
+     */
+    private String consume(MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor) {
+        RoutingProperties.GraphUpdates settings = routingProperties.getGraphUpdates();
+        Set<String> portIds = new LinkedHashSet<>();
+        Set<String> routeIds = new LinkedHashSet<>();
+        long windowStartedAt = 0L;
+        while (running) {
+            ChangeStreamDocument<Document> event = cursor.tryNext();
+            if (event != null) {
+                changeEvents.increment();
+                if (invalidatesStream(event.getOperationType())) {
+                    return "invalidated";
+                }
+                if (lagOf(event).compareTo(settings.getMaxLag()) > 0) {
+                    return "lag";
+                }
+                if (portIds.isEmpty() && routeIds.isEmpty()) {
+                    windowStartedAt = System.nanoTime();
+                }
+                String documentId = documentId(event.getDocumentKey());
+                String collection = event.getNamespace() != null ? event.getNamespace().getCollectionName() : null;
+                if (documentId != null && portsCollection.equals(collection)) {
+                    portIds.add(documentId);
+                } else if (documentId != null && routesCollection.equals(collection)) {
+                    routeIds.add(documentId);
+                }
+                if (portIds.size() + routeIds.size() > settings.getMaxBatch()) {
+                    return "batch_overflow";
+                }
+            }
+            boolean pending = !portIds.isEmpty() || !routeIds.isEmpty();
+            boolean windowElapsed = System.nanoTime() - windowStartedAt >= settings.getBatchWindow().toNanos();
+            if (pending && (event == null || windowElapsed)) {
+                graphSnapshotProvider.applyChanges(RouteGraphChanges.of(portIds, routeIds));
+                portIds.clear();
+                routeIds.clear();
+            }
+            if (!pending || event == null || windowElapsed) {
+                resumeToken = cursor.getResumeToken();
+            }
+        }
+        return null;
+    }
+
+    private void fullReload(String reason) {
+        long startedAt = System.nanoTime();
+        graphSnapshotProvider.refresh();
+        logger.info("route.graph.change_stream.reloaded reason={} version={} elapsedMs={}",
+                reason, graphSnapshotProvider.currentVersion(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private void backOff(RuntimeException ex) {
+        if (!running) {
+            return;
+        }
+        Duration delay = routingProperties.getGraphUpdates().getRetryDelay();
+        logger.warn("route.graph.change_stream.failed retryInMs={} message={}", delay.toMillis(), ex.getMessage());
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static boolean invalidatesStream(OperationType operationType) {
+        return operationType == OperationType.INVALIDATE
+                || operationType == OperationType.DROP
+                || operationType == OperationType.DROP_DATABASE
+                || operationType == OperationType.RENAME;
+    }
+
+    private static Duration lagOf(ChangeStreamDocument<Document> event) {
+        if (event.getClusterTime() == null) {
+            return Duration.ZERO;
+        }
+        long lagSeconds = Instant.now().getEpochSecond() - event.getClusterTime().getTime();
+        return Duration.ofSeconds(Math.max(0L, lagSeconds));
+    }
+
+    private static String documentId(BsonDocument documentKey) {
+        if (documentKey == null) {
+            return null;
+        }
+        BsonValue id = documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
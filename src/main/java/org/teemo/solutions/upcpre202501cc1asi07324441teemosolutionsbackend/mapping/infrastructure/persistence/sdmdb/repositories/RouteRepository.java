@@ -4,6 +4,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.documents.RouteDocument;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +13,10 @@ public interface RouteRepository extends MongoRepository<RouteDocument, String>
     boolean existsByHomePortAndDestinationPort(String homePort, String destinationPort);
     Optional<RouteDocument> findByHomePortAndDestinationPort(String homePort, String destinationPort);
     void deleteAll();
+
+    /**
+     * Rutas que empiezan o terminan en el puerto identificado por nombre y continente.
+     */
+    List<RouteDocument> findByHomePortAndHomePortContinentOrDestinationPortAndDestinationPortContinent(
+            String homePort, String homePortContinent, String destinationPort, String destinationPortContinent);
 }
\ No newline at end of file
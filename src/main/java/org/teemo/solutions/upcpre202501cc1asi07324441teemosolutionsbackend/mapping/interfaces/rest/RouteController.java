@@ -1,10 +1,12 @@
 package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -12,9 +14,18 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services.PortSnapService;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services.RouteBatchService;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services.RouteCalculationOptions;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services.RouteDistanceMatrixService;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services.RouteGraphDiagnosticsService;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services.RouteReachabilityService;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.DistanceMatrix;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services.RouteHistoryContext;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services.RouteService;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services.RoutePopularityService;
@@ -22,8 +33,16 @@ import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mappi
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.PortNotFoundException;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.RouteNotFoundException;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteHistorySource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SearchMode;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.documents.RouteDocument;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.documents.RoutePopularityDocument;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.BatchRouteRequestResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.DistanceMatrixRequestResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.DistanceMatrixResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.GraphComponentsResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.NearestPortsResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.ParetoRoutesResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.ReachabilityResource;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.RouteCalculationResource;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.RouteDistanceResource;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.RouteRecalculationResource;
@@ -31,8 +50,15 @@ import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mappi
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.application.security.RoutingActorContext;
 import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.application.security.RoutingActorContextProvider;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping(value = "/api/routes", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -40,16 +66,35 @@ import java.util.Map;
 public class RouteController {
 
     private static final Logger logger = LoggerFactory.getLogger(RouteController.class);
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
     private final RouteService routeService;
+    private final RouteBatchService routeBatchService;
+    private final RouteDistanceMatrixService distanceMatrixService;
+    private final RouteReachabilityService reachabilityService;
+    private final RouteGraphDiagnosticsService graphDiagnosticsService;
+    private final PortSnapService portSnapService;
     private final RoutePopularityService routePopularityService;
     private final RoutingActorContextProvider actorContextProvider;
+    private final ObjectMapper objectMapper;
 
     public RouteController(RouteService routeService,
+                           RouteBatchService routeBatchService,
+                           RouteDistanceMatrixService distanceMatrixService,
+                           RouteReachabilityService reachabilityService,
+                           RouteGraphDiagnosticsService graphDiagnosticsService,
+                           PortSnapService portSnapService,
                            RoutePopularityService routePopularityService,
-                           RoutingActorContextProvider actorContextProvider) {
+                           RoutingActorContextProvider actorContextProvider,
+                           ObjectMapper objectMapper) {
         this.routeService = routeService;
+        this.routeBatchService = routeBatchService;
+        this.distanceMatrixService = distanceMatrixService;
+        this.reachabilityService = reachabilityService;
+        this.graphDiagnosticsService = graphDiagnosticsService;
+        this.portSnapService = portSnapService;
         this.routePopularityService = routePopularityService;
         this.actorContextProvider = actorContextProvider;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Calcula la ruta optima entre dos puertos")
@@ -58,7 +103,14 @@ public class RouteController {
             @Parameter(description = "ID del puerto de origen", required = true)
             @RequestParam("startPortId") String startPortId,
             @Parameter(description = "ID del puerto de destino", required = true)
-            @RequestParam("endPortId") String endPortId) {
+            @RequestParam("endPortId") String endPortId,
+            @Parameter(description = "Estrategia de búsqueda (UNIDIRECTIONAL, BIDIRECTIONAL, CONTRACTION_HIERARCHIES, DISTANCE_TABLE o PARTITIONED); por defecto la configurada")
+            @RequestParam(name = "searchMode", required = false) SearchMode searchMode,
+            @Parameter(description = "Número de rutas a devolver: la óptima más k-1 alternativas diversas")
+            @RequestParam(name = "k", defaultValue = "1") int k,
+            @Parameter(description = "Fecha de salida (ISO, yyyy-MM-dd); si se indica, la ruta considera las condiciones de ese mes")
+            @RequestParam(name = "departureDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate departureDate) {
         try {
             RoutingActorContext actor = actorContextProvider.currentActor();
             RouteHistoryContext historyContext = RouteHistoryContext.builder()
@@ -67,7 +119,12 @@ public class RouteController {
                     .source(RouteHistorySource.MANUAL)
                     .metadata(Map.of("endpoint", "/api/routes/calculate-optimal-route"))
                     .build();
-            RouteCalculationResource optimalRoute = routeService.calculateOptimalRoute(startPortId, endPortId, historyContext);
+            RouteCalculationResource optimalRoute = routeService.calculateOptimalRoute(
+                    startPortId, endPortId, Set.of(), historyContext, RouteCalculationOptions.builder()
+                            .searchMode(searchMode)
+                            .routeCount(k)
+                            .departureDate(departureDate)
+                            .build());
             return ResponseEntity.ok(optimalRoute);
         } catch (PortNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -85,6 +142,14 @@ public class RouteController {
                             List.of("Ruta no disponible: " + e.getMessage()),
                             Map.of()
                     ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new RouteCalculationResource(
+                            List.of(),
+                            0.0,
+                            List.of(e.getMessage()),
+                            Map.of()
+                    ));
         } catch (Exception e) {
             logger.error("Error interno: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -97,6 +162,140 @@ public class RouteController {
         }
     }
 
+    @Operation(summary = "Calcula un lote de rutas y las devuelve en streaming como NDJSON, una línea por elemento")
+    @PostMapping(value = "/batch", produces = "application/x-ndjson")
+    public ResponseEntity<?> calculateRoutesInBatch(@RequestBody BatchRouteRequestResource request) {
+        if (request == null || request.items() == null || request.items().isEmpty()) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("message", "El lote debe incluir al menos un elemento"));
+        }
+        int maxItems = routeBatchService.getMaxItems();
+        if (request.items().size() > maxItems) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("message", "El lote supera el máximo de %d elementos".formatted(maxItems)));
+        }
+        StreamingResponseBody body = outputStream -> routeBatchService.calculateRoutes(
+                request.items(), request.searchMode(), result -> writeLine(outputStream, result));
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    private void writeLine(OutputStream outputStream, Object value) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(value));
+            outputStream.write('\n');
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Operation(summary = "Calcula la matriz de distancias entre varios orígenes y destinos (JSON denso)")
+    @PostMapping("/distance-matrix")
+    public ResponseEntity<?> calculateDistanceMatrix(@RequestBody DistanceMatrixRequestResource request) {
+        try {
+            RouteDistanceMatrixService.Result result = distanceMatrixService.calculate(
+                    request.originPortIds(), request.destinationPortIds());
+            DistanceMatrix matrix = result.matrix();
+            Float[][] distances = new Float[matrix.rows()][matrix.columns()];
+            for (int row = 0; row < matrix.rows(); row++) {
+                for (int column = 0; column < matrix.columns(); column++) {
+                    float distance = matrix.get(row, column);
+                    distances[row][column] = Float.isFinite(distance) ? distance : null;
+                }
+            }
+            return ResponseEntity.ok(new DistanceMatrixResource(
+                    request.originPortIds(), request.destinationPortIds(), distances, result.graphVersion()));
+        } catch (PortNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Calcula la matriz de distancias en binario: float32 little-endian por filas, infinito si no hay ruta")
+    @PostMapping(value = "/distance-matrix", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> calculateDistanceMatrixBinary(@RequestBody DistanceMatrixRequestResource request) {
+        try {
+            RouteDistanceMatrixService.Result result = distanceMatrixService.calculate(
+                    request.originPortIds(), request.destinationPortIds());
+            DistanceMatrix matrix = result.matrix();
+            ByteBuffer buffer = ByteBuffer.allocate(matrix.rows() * matrix.columns() * Float.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.asFloatBuffer().put(matrix.values());
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .header("X-Matrix-Rows", String.valueOf(matrix.rows()))
+                    .header("X-Matrix-Columns", String.valueOf(matrix.columns()))
+                    .header("X-Graph-Version", String.valueOf(result.graphVersion()))
+                    .body(buffer.array());
+        } catch (PortNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Lista los puertos alcanzables desde un origen sin superar una distancia, con su árbol de predecesores")
+    @GetMapping("/reachable-ports")
+    public ResponseEntity<?> getReachablePorts(
+            @Parameter(description = "ID del puerto de origen", required = true)
+            @RequestParam("startPortId") String startPortId,
+            @Parameter(description = "Distancia máxima a recorrer", required = true)
+            @RequestParam("maxDistance") double maxDistance,
+            @Parameter(description = "IDs de puertos adicionales a evitar; los deshabilitados se evitan siempre")
+            @RequestParam(name = "avoidPortIds", required = false) Set<String> avoidPortIds) {
+        try {
+            ReachabilityResource resource = reachabilityService.findReachablePorts(startPortId, maxDistance, avoidPortIds);
+            return ResponseEntity.ok(resource);
+        } catch (PortNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        } catch (RouteNotFoundException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Calcula el frente de Pareto de rutas entre distancia, puertos inseguros y riesgo meteorológico")
+    @GetMapping("/pareto")
+    public ResponseEntity<?> getParetoRoutes(
+            @Parameter(description = "ID del puerto de origen", required = true)
+            @RequestParam("startPortId") String startPortId,
+            @Parameter(description = "ID del puerto de destino", required = true)
+            @RequestParam("endPortId") String endPortId,
+            @Parameter(description = "Fecha de salida (ISO yyyy-MM-dd); su mes determina el riesgo de cada tramo")
+            @RequestParam(name = "departureDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate departureDate,
+            @Parameter(description = "IDs de puertos adicionales a evitar; los deshabilitados se evitan siempre")
+            @RequestParam(name = "avoidPortIds", required = false) Set<String> avoidPortIds) {
+        try {
+            ParetoRoutesResource resource = routeService.calculateParetoRoutes(
+                    startPortId, endPortId, avoidPortIds, departureDate);
+            return ResponseEntity.ok(resource);
+        } catch (PortNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+        } catch (RouteNotFoundException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Ajusta una posición a los puertos enrutables más cercanos, para planificar una ruta desde ella")
+    @GetMapping("/nearest-ports")
+    public ResponseEntity<?> getNearestPorts(
+            @Parameter(description = "Latitud de la posición, en grados", required = true)
+            @RequestParam("latitude") double latitude,
+            @Parameter(description = "Longitud de la posición, en grados", required = true)
+            @RequestParam("longitude") double longitude,
+            @Parameter(description = "Número de puertos a devolver")
+            @RequestParam(name = "k", defaultValue = "1") int k,
+            @Parameter(description = "Radio máximo de búsqueda en kilómetros; sin límite si se omite")
+            @RequestParam(name = "maxDistanceKm", required = false) Double maxDistanceKm) {
+        try {
+            NearestPortsResource resource = portSnapService.findNearestPorts(latitude, longitude, k, maxDistanceKm);
+            return ResponseEntity.ok(resource);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
     @Operation(summary = "Obtiene distancia entre dos puertos")
     @GetMapping("/distance-between-ports")
     public ResponseEntity<RouteDistanceResource> getDistanceBetweenPorts(
@@ -167,6 +366,12 @@ public class RouteController {
         }
     }
 
+    @Operation(summary = "Resume las componentes conexas del grafo de rutas y los puertos aislados")
+    @GetMapping("/graph/components")
+    public ResponseEntity<GraphComponentsResource> getGraphComponents() {
+        return ResponseEntity.ok(graphDiagnosticsService.summarizeComponents());
+    }
+
     @GetMapping("/all-routes")
     public ResponseEntity<List<RouteDocument>> getAllRoutes() {
         List<RouteDocument> routesPage = routeService.findAllRoutes();
@@ -0,0 +1,9 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+import java.util.List;
+
+public record BatchRouteItemResource(
+        String startPortId,
+        String endPortId,
+        List<String> avoidPortIds
+) {}
@@ -0,0 +1,10 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SearchMode;
+
+import java.util.List;
+
+public record BatchRouteRequestResource(
+        List<BatchRouteItemResource> items,
+        SearchMode searchMode // Opcional; por defecto la estrategia configurada
+) {}
@@ -0,0 +1,14 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+/**
+ * Una línea del flujo NDJSON del cálculo por lotes. {@code index} es la posición del elemento en la petición,
+ * ya que los resultados se emiten en el orden en que terminan.
+ */
+public record BatchRouteResultResource(
+        int index,
+        String startPortId,
+        String endPortId,
+        String status, // OK, PORT_NOT_FOUND, NO_ROUTE, INVALID_REQUEST, ERROR
+        RouteCalculationResource route,
+        String error
+) {}
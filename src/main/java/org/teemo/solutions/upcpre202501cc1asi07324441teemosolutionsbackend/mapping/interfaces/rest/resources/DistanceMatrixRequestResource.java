@@ -0,0 +1,8 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+import java.util.List;
+
+public record DistanceMatrixRequestResource(
+        List<String> originPortIds,
+        List<String> destinationPortIds
+) {}
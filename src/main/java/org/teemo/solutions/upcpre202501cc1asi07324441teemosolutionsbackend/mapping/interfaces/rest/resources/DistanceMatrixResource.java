@@ -0,0 +1,10 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+import java.util.List;
+
+public record DistanceMatrixResource(
+        List<String> originPortIds,
+        List<String> destinationPortIds,
+        Float[][] distances, // distances[i][j] de originPortIds[i] a destinationPortIds[j]; null si no hay ruta
+        long graphVersion
+) {}
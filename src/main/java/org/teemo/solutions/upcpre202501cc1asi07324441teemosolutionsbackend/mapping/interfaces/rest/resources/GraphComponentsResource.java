@@ -0,0 +1,12 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+import java.util.List;
+
+public record GraphComponentsResource(
+        long graphVersion,
+        int portCount,
+        int componentCount,
+        List<Integer> componentSizes, // Ordenados de mayor a menor
+        int isolatedPortCount,
+        List<String> isolatedPortNames
+) {}
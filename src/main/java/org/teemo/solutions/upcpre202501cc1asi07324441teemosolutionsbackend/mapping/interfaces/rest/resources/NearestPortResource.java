@@ -0,0 +1,10 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+public record NearestPortResource(
+        String portId,
+        String portName,
+        String continent,
+        double latitude,
+        double longitude,
+        double distanceKm // Distancia de círculo máximo desde la posición consultada
+) {}
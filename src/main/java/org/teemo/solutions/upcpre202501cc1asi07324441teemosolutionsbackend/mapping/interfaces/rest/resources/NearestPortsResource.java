@@ -0,0 +1,10 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+import java.util.List;
+
+public record NearestPortsResource(
+        double latitude,
+        double longitude,
+        long graphVersion,
+        List<NearestPortResource> ports // Puertos enrutables ordenados por distancia creciente
+) {}
@@ -0,0 +1,14 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+import java.util.List;
+
+public record ParetoRouteResource(
+        int rank, // 1 es la más corta del frente
+        List<String> route,
+        double totalDistance,
+        int unsafePortCount, // Puertos inseguros visitados, extremos incluidos
+        double hazardProbability, // Probabilidad de peligro meteorológico en algún tramo (0..1)
+        List<String> warnings,
+        List<RouteLegResource> legs,
+        RouteGeometryResource geometry
+) {}
@@ -0,0 +1,11 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+import java.util.List;
+
+public record ParetoRoutesResource(
+        String origin,
+        String destination,
+        int departureMonth,
+        long graphVersion,
+        List<ParetoRouteResource> routes // Ninguna es mejor que otra en los tres criterios a la vez
+) {}
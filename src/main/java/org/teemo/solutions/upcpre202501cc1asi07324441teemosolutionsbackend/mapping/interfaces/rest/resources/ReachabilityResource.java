@@ -0,0 +1,10 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+import java.util.List;
+
+public record ReachabilityResource(
+        String originPortId,
+        double maxDistance,
+        long graphVersion,
+        List<ReachablePortResource> reachablePorts // Ordenados por distancia creciente, incluido el origen
+) {}
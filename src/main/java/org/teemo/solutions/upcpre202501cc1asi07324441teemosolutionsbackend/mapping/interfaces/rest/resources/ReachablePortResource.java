@@ -0,0 +1,10 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+public record ReachablePortResource(
+        String portId,
+        String portName,
+        double latitude,
+        double longitude,
+        double distance,
+        String predecessorPortId // Puerto anterior en el árbol de caminos mínimos; null para el origen
+) {}
@@ -0,0 +1,12 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+import java.util.List;
+
+public record RouteAlternativeResource(
+        int rank, // 1 es la primera alternativa tras la ruta óptima
+        List<String> route,
+        double totalDistance,
+        double overlapWithOptimal, // Fracción de la distancia compartida con la ruta óptima
+        List<String> warnings,
+        List<RouteLegResource> legs
+) {}
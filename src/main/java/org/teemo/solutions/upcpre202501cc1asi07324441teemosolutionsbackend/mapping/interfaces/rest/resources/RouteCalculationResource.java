@@ -7,5 +7,40 @@ public record RouteCalculationResource(
         List<String> optimalRoute,
         double totalDistance,
         List<String> warnings,
-        Map<String, CoordinatesResource> coordinatesMapping
-) {}
\ No newline at end of file
+        Map<String, CoordinatesResource> coordinatesMapping,
+        List<RouteLegResource> legs,
+        List<RouteAlternativeResource> alternatives,
+        RouteGeometryResource geometry
+) {
+    public RouteCalculationResource(List<String> optimalRoute,
+                                    double totalDistance,
+                                    List<String> warnings,
+                                    Map<String, CoordinatesResource> coordinatesMapping,
+                                    List<RouteLegResource> legs,
+                                    List<RouteAlternativeResource> alternatives) {
+        this(optimalRoute, totalDistance, warnings, coordinatesMapping, legs, alternatives, null);
+    }
+
+    public RouteCalculationResource(List<String> optimalRoute,
+                                    double totalDistance,
+                                    List<String> warnings,
+                                    Map<String, CoordinatesResource> coordinatesMapping,
+                                    List<RouteLegResource> legs) {
+        this(optimalRoute, totalDistance, warnings, coordinatesMapping, legs, List.of());
+    }
+
+    public RouteCalculationResource(List<String> optimalRoute,
+                                    double totalDistance,
+                                    List<String> warnings,
+                                    Map<String, CoordinatesResource> coordinatesMapping) {
+        this(optimalRoute, totalDistance, warnings, coordinatesMapping, List.of());
+    }
+
+    public RouteCalculationResource withAlternatives(List<RouteAlternativeResource> alternatives) {
+        return new RouteCalculationResource(optimalRoute, totalDistance, warnings, coordinatesMapping, legs, alternatives, geometry);
+    }
+
+    public RouteCalculationResource withGeometry(RouteGeometryResource geometry) {
+        return new RouteCalculationResource(optimalRoute, totalDistance, warnings, coordinatesMapping, legs, alternatives, geometry);
+    }
+}
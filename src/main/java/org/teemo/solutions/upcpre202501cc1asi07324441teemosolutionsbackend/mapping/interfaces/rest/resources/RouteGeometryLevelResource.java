@@ -0,0 +1,7 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+public record RouteGeometryLevelResource(
+        int minZoom, // Zoom del mapa a partir del cual se usa este nivel
+        int pointCount,
+        String polyline
+) {}
@@ -0,0 +1,8 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+import java.util.List;
+
+public record RouteGeometryResource(
+        String encoding, // "polyline5": Encoded Polyline Algorithm de Google con 5 decimales
+        List<RouteGeometryLevelResource> levels // Ordenados por zoom creciente
+) {}
@@ -0,0 +1,14 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources;
+
+import java.util.List;
+
+public record RouteLegResource(
+        String fromPortId,
+        String fromPortName,
+        String toPortId,
+        String toPortName,
+        double distance,
+        double cumulativeDistance,
+        String routeId,
+        List<String> hazardZones // Zonas de peligro activas que cruza el tramo
+) {}
@@ -0,0 +1,116 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.domain.model.valueobjects;
+
+/**
+ * Tabla inmutable de posiciones indexadas por un entero denso (p. ej. los nodos de un grafo compacto) con sus
+ * magnitudes trigonométricas precalculadas: latitud y longitud en radianes, {@code cos(lat)} y el vector unitario.
+ * Así cada distancia entre dos posiciones cuesta dos senos y un arcoseno, y la cota inferior sólo una raíz cuadrada,
+ * en lugar de convertir grados y evaluar Haversine completo en cada llamada.
+ */
+public final class GeoPoints {
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] cosLatitudes;
+    private final double[] vectors;
+
+    private GeoPoints(double[] latitudes, double[] longitudes, double[] cosLatitudes, double[] vectors) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.cosLatitudes = cosLatitudes;
+        this.vectors = vectors;
+    }
+
+    /**
+     * @param latitudesDeg  Latitudes en grados; se copian.
+     * @param longitudesDeg Longitudes en grados, en el mismo orden.
+     */
+    public static GeoPoints of(double[] latitudesDeg, double[] longitudesDeg) {
+        if (latitudesDeg.length != longitudesDeg.length) {
+            throw new IllegalArgumentException("Latitudes y longitudes deben tener la misma longitud.");
+        }
+        int n = latitudesDeg.length;
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        double[] cosLatitudes = new double[n];
+        double[] vectors = new double[3 * n];
+        for (int i = 0; i < n; i++) {
+            latitudes[i] = Math.toRadians(latitudesDeg[i]);
+            longitudes[i] = Math.toRadians(longitudesDeg[i]);
+            cosLatitudes[i] = Math.cos(latitudes[i]);
+            Geodesy.unitVector(latitudesDeg[i], longitudesDeg[i], vectors, 3 * i);
+        }
+        return new GeoPoints(latitudes, longitudes, cosLatitudes, vectors);
+    }
+
+    public int size() {
+        return latitudes.length;
+    }
+
+    public double latitude(int index) {
+        return Math.toDegrees(latitudes[index]);
+    }
+
+    public double longitude(int index) {
+        return Math.toDegrees(longitudes[index]);
+    }
+
+    public double cosLatitude(int index) {
+        return cosLatitudes[index];
+    }
+
+    /**
+     * Componente {@code axis} (0 = x, 1 = y, 2 = z) del vector unitario de la posición.
+     */
+    public double coordinate(int index, int axis) {
+        return vectors[3 * index + axis];
+    }
+
+    /**
+     * Distancia de círculo máximo exacta (Haversine con {@code cos(lat)} precalculado).
+     */
+    public double distanceKm(int a, int b) {
+        double sinHalfDLat = Math.sin((latitudes[b] - latitudes[a]) * 0.5);
+        double sinHalfDLon = Math.sin((longitudes[b] - longitudes[a]) * 0.5);
+        double h = sinHalfDLat * sinHalfDLat + cosLatitudes[a] * cosLatitudes[b] * sinHalfDLon * sinHalfDLon;
+        return 2.0 * Geodesy.EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1.0, h)));
+    }
+
+    /**
+     * Cota inferior admisible de {@link #distanceKm(int, int)} por la cuerda entre vectores unitarios: nunca la
+     * supera y se queda por debajo en menos de un {@code θ²/24} relativo (0.4 % a 2000 km).
+     */
+    public double lowerBoundKm(int a, int b) {
+        return Geodesy.squaredChordLowerBoundKm(Geodesy.squaredChord(vectors, a, vectors, b));
+    }
+
+    /**
+     * Cuadrado de la cuerda entre la posición y el vector unitario {@code query}; crece con la distancia.
+     */
+    public double squaredChordTo(int index, double[] query) {
+        return Geodesy.squaredChord(vectors, index, query, 0);
+    }
+
+    /**
+     * Distancias exactas de {@code from} a cada posición de {@code to}, en lote.
+     * @param out Arreglo de salida con al menos {@code to.length} posiciones.
+     */
+    public void distancesKm(int from, int[] to, double[] out) {
+        for (int i = 0; i < to.length; i++) {
+            out[i] = distanceKm(from, to[i]);
+        }
+    }
+
+    /**
+     * Matriz de distancias exactas entre {@code origins} y {@code destinations}, por filas.
+     */
+    public double[] distanceMatrixKm(int[] origins, int[] destinations) {
+        double[] matrix = new double[origins.length * destinations.length];
+        for (int row = 0; row < origins.length; row++) {
+            int base = row * destinations.length;
+            for (int column = 0; column < destinations.length; column++) {
+                matrix[base + column] = distanceKm(origins[row], destinations[column]);
+            }
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,174 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.domain.model.valueobjects;
+
+/**
+ * Cálculos geodésicos sobre la esfera de radio medio terrestre (IUGG, 6371.0088 km), compartidos por el
+ * enrutamiento y los servicios de IA.
+ * <p>
+ * Además de Haversine en grados, trabaja con vectores unitarios (x, y, z): la cuerda {@code c} entre dos vectores
+ * y el ángulo central {@code θ} cumplen {@code c = 2·sin(θ/2)}, de modo que la distancia exacta es
+ * {@code 2R·asin(c/2)} y, como {@code sin(x) ≤ x}, {@code R·c} es siempre una cota inferior de la distancia
+ * sobre la esfera que sólo necesita una raíz cuadrada (error relativo menor que {@code θ²/24}).
+ */
+public final class Geodesy {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private Geodesy() {
+    }
+
+    /**
+     * Distancia de círculo máximo entre dos posiciones en grados.
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double sinHalfDLat = Math.sin((phi2 - phi1) * 0.5);
+        double sinHalfDLon = Math.sin(Math.toRadians(lon2 - lon1) * 0.5);
+        double a = sinHalfDLat * sinHalfDLat + Math.cos(phi1) * Math.cos(phi2) * sinHalfDLon * sinHalfDLon;
+        return 2.0 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1.0, a)));
+    }
+
+    /**
+     * Escribe en {@code out[offset..offset+2]} el vector unitario de la posición en grados.
+     */
+    public static void unitVector(double latitude, double longitude, double[] out, int offset) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        out[offset] = cosLat * Math.cos(lon);
+        out[offset + 1] = cosLat * Math.sin(lon);
+        out[offset + 2] = Math.sin(lat);
+    }
+
+    public static double[] unitVector(double latitude, double longitude) {
+        double[] out = new double[3];
+        unitVector(latitude, longitude, out, 0);
+        return out;
+    }
+
+    /**
+     * Cuadrado de la cuerda entre el vector {@code a} de {@code left} y el vector {@code b} de {@code right}.
+     */
+    public static double squaredChord(double[] left, int a, double[] right, int b) {
+        double dx = left[3 * a] - right[3 * b];
+        double dy = left[3 * a + 1] - right[3 * b + 1];
+        double dz = left[3 * a + 2] - right[3 * b + 2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Distancia exacta sobre la esfera que corresponde al cuadrado de una cuerda.
+     */
+    public static double squaredChordToKm(double squaredChord) {
+        return 2.0 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(squaredChord) * 0.5));
+    }
+
+    /**
+     * Cota inferior de la distancia sobre la esfera ({@code R·c ≤ R·θ}); no usa funciones trigonométricas.
+     */
+    public static double squaredChordLowerBoundKm(double squaredChord) {
+        return EARTH_RADIUS_KM * Math.sqrt(squaredChord);
+    }
+
+    /**
+     * Cuadrado de la cuerda equivalente a una distancia sobre la esfera; 4 (el diámetro al cuadrado) cubre
+     * cualquier distancia, incluidas las infinitas o no numéricas.
+     */
+    public static double kmToSquaredChord(double distanceKm) {
+        double angle = distanceKm / EARTH_RADIUS_KM;
+        if (Double.isNaN(angle) || angle >= Math.PI) {
+            return 4.0;
+        }
+        double chord = 2.0 * Math.sin(angle * 0.5);
+        return chord * chord;
+    }
+
+    /**
+     * Distancias de {@code (lat, lon)} a cada posición de los arreglos, en lote y sin crear objetos.
+     * @param out Arreglo de salida con al menos {@code latitudes.length} posiciones.
+     */
+    public static void haversineKm(double lat, double lon, double[] latitudes, double[] longitudes, double[] out) {
+        double phi = Math.toRadians(lat);
+        double cosPhi = Math.cos(phi);
+        for (int i = 0; i < latitudes.length; i++) {
+            double phi2 = Math.toRadians(latitudes[i]);
+            double sinHalfDLat = Math.sin((phi2 - phi) * 0.5);
+            double sinHalfDLon = Math.sin(Math.toRadians(longitudes[i] - lon) * 0.5);
+            double a = sinHalfDLat * sinHalfDLat + cosPhi * Math.cos(phi2) * sinHalfDLon * sinHalfDLon;
+            out[i] = 2.0 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1.0, a)));
+        }
+    }
+
+    /**
+     * Longitud de la polilínea que une las posiciones en orden, tramo a tramo por círculo máximo.
+     */
+    public static double pathLengthKm(double[] latitudes, double[] longitudes) {
+        double total = 0.0;
+        for (int i = 1; i < latitudes.length; i++) {
+            total += haversineKm(latitudes[i - 1], longitudes[i - 1], latitudes[i], longitudes[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Reparte {@code points} posiciones equidistantes sobre el círculo máximo de origen a destino (excluye el
+     * origen e incluye el destino) y las escribe en grados en los arreglos de salida.
+     * Si origen y destino coinciden, todas las posiciones son el destino.
+     */
+    public static void greatCircleWaypoints(double lat1, double lon1, double lat2, double lon2, int points,
+                                            double[] latitudesOut, double[] longitudesOut) {
+        double[] ends = new double[6];
+        unitVector(lat1, lon1, ends, 0);
+        unitVector(lat2, lon2, ends, 3);
+        // asin de la cuerda conserva la precisión en tramos cortos, donde acos del producto escalar la pierde.
+        double omega = 2.0 * Math.asin(Math.min(1.0, Math.sqrt(squaredChord(ends, 0, ends, 1)) * 0.5));
+        double sinOmega = Math.sin(omega);
+        for (int i = 1; i <= points; i++) {
+            if (sinOmega < 1e-12) {
+                latitudesOut[i - 1] = lat2;
+                longitudesOut[i - 1] = normalizeLongitude(lon2);
+                continue;
+            }
+            double f = (double) i / points;
+            double a = Math.sin((1.0 - f) * omega) / sinOmega;
+            double b = Math.sin(f * omega) / sinOmega;
+            double x = a * ends[0] + b * ends[3];
+            double y = a * ends[1] + b * ends[4];
+            double z = a * ends[2] + b * ends[5];
+            double norm = Math.sqrt(x * x + y * y + z * z);
+            latitudesOut[i - 1] = Math.toDegrees(Math.asin(Math.max(-1.0, Math.min(1.0, z / norm))));
+            longitudesOut[i - 1] = normalizeLongitude(Math.toDegrees(Math.atan2(y, x)));
+        }
+    }
+
+    /**
+     * Distancia mínima de un punto al arco de círculo máximo entre dos puntos: la distancia transversal si la
+     * proyección del punto cae dentro del arco, o la distancia al extremo más cercano si cae fuera.
+     */
+    public static double distanceToSegmentKm(double lat, double lon, double lat1, double lon1, double lat2, double lon2) {
+        double[] a = unitVector(lat1, lon1);
+        double[] b = unitVector(lat2, lon2);
+        double[] p = unitVector(lat, lon);
+        double nx = a[1] * b[2] - a[2] * b[1];
+        double ny = a[2] * b[0] - a[0] * b[2];
+        double nz = a[0] * b[1] - a[1] * b[0];
+        double norm = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (norm > 1e-12) {
+            // P está entre A y B si (A × P)·n y (P × B)·n son no negativos.
+            double aFirst = (a[1] * p[2] - a[2] * p[1]) * nx + (a[2] * p[0] - a[0] * p[2]) * ny + (a[0] * p[1] - a[1] * p[0]) * nz;
+            double bSecond = (p[1] * b[2] - p[2] * b[1]) * nx + (p[2] * b[0] - p[0] * b[2]) * ny + (p[0] * b[1] - p[1] * b[0]) * nz;
+            if (aFirst >= 0.0 && bSecond >= 0.0) {
+                double sinCrossTrack = Math.min(1.0, Math.abs(p[0] * nx + p[1] * ny + p[2] * nz) / norm);
+                return EARTH_RADIUS_KM * Math.asin(sinCrossTrack);
+            }
+        }
+        return Math.min(haversineKm(lat, lon, lat1, lon1), haversineKm(lat, lon, lat2, lon2));
+    }
+
+    /**
+     * Normaliza una longitud a {@code [-180, 180)}.
+     */
+    public static double normalizeLongitude(double longitude) {
+        return ((longitude + 180.0) % 360.0 + 360.0) % 360.0 - 180.0;
+    }
+}
@@ -0,0 +1,133 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.AStarPathfinder;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.AlternativeRouteFinder;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.ConnectedComponentIndex;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.ContractionHierarchyRouter;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.DistanceTableRouter;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.HazardZoneIndex;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.ParetoRouteFinder;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.PartitionedRouter;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates.ShortestPathTreeCache;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Route;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.Coordinates;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.EdgeSegmentIndex;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardExposure;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardZone;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardZonesSnapshot;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RoutePath;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SearchMode;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.SafetyValidator;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RouteCalculatorServiceImplTest {
+
+    @Mock
+    private AStarPathfinder pathfinder;
+    @Mock
+    private RouteGraphSnapshotProvider graphSnapshotProvider;
+    @Mock
+    private ContractionHierarchyRouter contractionHierarchyRouter;
+    @Mock
+    private DistanceTableRouter distanceTableRouter;
+    @Mock
+    private PartitionedRouter partitionedRouter;
+    @Mock
+    private ShortestPathTreeCache shortestPathTreeCache;
+    @Mock
+    private ConnectedComponentIndex connectedComponentIndex;
+    @Mock
+    private AlternativeRouteFinder alternativeRouteFinder;
+    @Mock
+    private ParetoRouteFinder paretoRouteFinder;
+    @Mock
+    private HazardZoneIndex hazardZoneIndex;
+    @Mock
+    private SafetyValidator safetyValidator;
+
+    private final Port callao = new Port("p-callao", "Callao", new Coordinates(-12.05, -77.13), "América");
+    private final Port guayaquil = new Port("p-guayaquil", "Guayaquil", new Coordinates(-2.19, -79.88), "América");
+    private final Port balboa = new Port("p-balboa", "Balboa", new Coordinates(8.93, -79.55), "América");
+    private final Port valparaiso = new Port("p-valparaiso", "Valparaíso", new Coordinates(-33.04, -71.61), "América");
+
+    private RouteGraph graph;
+    private CompactRouteGraph compact;
+    private RoutePath viaGuayaquil;
+    private RouteCalculatorServiceImpl calculator;
+
+    @BeforeEach
+    void setUp() {
+        RouteGraph mutable = new RouteGraph(1L);
+        mutable.addEdge(new Route(callao, guayaquil, 1200.0));
+        mutable.addEdge(new Route(guayaquil, balboa, 1300.0));
+        mutable.addEdge(new Route(callao, valparaiso, 2400.0));
+        mutable.addEdge(new Route(valparaiso, balboa, 5200.0));
+        graph = mutable.freeze();
+        compact = graph.compact();
+        viaGuayaquil = RoutePath.fromNodes(compact, new int[]{
+                compact.indexOf(callao), compact.indexOf(guayaquil), compact.indexOf(balboa)});
+
+        RoutingProperties properties = new RoutingProperties();
+        properties.setSearchMode(SearchMode.DISTANCE_TABLE);
+        calculator = new RouteCalculatorServiceImpl(pathfinder, graphSnapshotProvider, contractionHierarchyRouter,
+                distanceTableRouter, partitionedRouter, shortestPathTreeCache, connectedComponentIndex,
+                alternativeRouteFinder, paretoRouteFinder, hazardZoneIndex, safetyValidator, properties);
+        when(connectedComponentIndex.mayBeConnected(eq(compact), anyInt(), anyInt(), any())).thenReturn(true);
+        when(distanceTableRouter.findRoute(callao, balboa, graph, Set.of())).thenReturn(Optional.of(viaGuayaquil));
+    }
+
+    @Test
+    void keepsTheConfiguredEngineWhenTheActiveZonesAreFarFromTheRoute() {
+        // Bloquea los tramos que salen de Valparaíso, lejos de la ruta Callao-Guayaquil-Balboa.
+        HazardZone valparaisoStorm = new HazardZone("STORM", "Temporal frente a Valparaíso", -33.0, -71.9, 100.0, 0.9);
+        HazardExposure hazards = exposure(valparaisoStorm);
+        when(hazardZoneIndex.exposureFor(compact)).thenReturn(hazards);
+
+        RoutePath route = calculator.calculateOptimalPath(graph, callao, balboa, Set.of(), null);
+
+        assertThat(hazards.blockedArcCount()).isPositive();
+        assertThat(route).isSameAs(viaGuayaquil);
+        verifyNoInteractions(pathfinder);
+    }
+
+    @Test
+    void fallsBackToHazardAwareSearchWhenTheRouteCrossesAZone() {
+        HazardZone chimbote = new HazardZone("HURRICANE", "Huracán frente a Chimbote", -7.1, -78.4, 100.0, 0.8);
+        HazardExposure hazards = exposure(chimbote);
+        when(hazardZoneIndex.exposureFor(compact)).thenReturn(hazards);
+        RoutePath viaValparaiso = RoutePath.fromNodes(compact, new int[]{
+                compact.indexOf(callao), compact.indexOf(valparaiso), compact.indexOf(balboa)});
+        when(pathfinder.findRoute(callao, balboa, graph, Set.of(), SearchMode.BIDIRECTIONAL, null, hazards))
+                .thenReturn(viaValparaiso);
+
+        RoutePath route = calculator.calculateOptimalPath(graph, callao, balboa, Set.of(), null);
+
+        assertThat(route).isSameAs(viaValparaiso);
+    }
+
+    private HazardExposure exposure(HazardZone zone) {
+        return HazardExposure.compile(compact, EdgeSegmentIndex.build(compact, 2.0),
+                new HazardZonesSnapshot(List.of(zone), 1L, Instant.EPOCH), 0.7, 1500.0);
+    }
+}
@@ -0,0 +1,113 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Route;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.Coordinates;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraphChanges;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.mappers.PortMapper;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.documents.PortDocument;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.documents.RouteDocument;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.repositories.PortRepository;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.repositories.RouteRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RouteGraphBuilderTest {
+
+    @Mock
+    private RouteRepository routeRepository;
+    @Mock
+    private PortRepository portRepository;
+
+    private RouteGraphBuilder builder;
+
+    @BeforeEach
+    void setUp() {
+        builder = new RouteGraphBuilder(routeRepository, portRepository, new PortMapper());
+    }
+
+    @Test
+    void buildRouteGraphResolvesPortsInMemoryAndFreezesSnapshot() {
+        when(portRepository.findAll()).thenReturn(List.of(
+                portDocument("p-1", "Callao", "América"),
+                portDocument("p-2", "Valparaíso", "América"),
+                portDocument("p-3", "Shanghai", "Asia")
+        ));
+        when(routeRepository.findAll()).thenReturn(List.of(
+                new RouteDocument("Callao", "América", "Valparaíso", "América", 2400.0),
+                new RouteDocument("Valparaíso", "América", "Shanghai", "Asia", 18000.0),
+                new RouteDocument("Callao", "América", "Desconocido", "Asia", 100.0)
+        ));
+
+        RouteGraph graph = builder.buildRouteGraph(7L);
+
+        assertThat(graph.getVersion()).isEqualTo(7L);
+        assertThat(graph.isFrozen()).isTrue();
+        assertThat(graph.getNodeCount()).isEqualTo(3);
+        assertThat(graph.getEdgeCount()).isEqualTo(2);
+        Port callao = graph.getAllNodes().stream().filter(p -> p.getName().equals("Callao")).findFirst().orElseThrow();
+        assertThat(callao.getId()).isEqualTo("p-1");
+        assertThatThrownBy(() -> graph.addEdge(new Route(callao, callao, 1.0)))
+                .isInstanceOf(IllegalStateException.class);
+        verify(portRepository, never()).findByNameAndContinent(anyString(), anyString());
+    }
+
+    @Test
+    void applyChangesPatchesACopyAndSkipsChangesAlreadyReflected() {
+        PortDocument callao = portDocument("p-1", "Callao", "América");
+        PortDocument valparaiso = portDocument("p-2", "Valparaíso", "América");
+        PortDocument shanghai = portDocument("p-3", "Shanghai", "Asia");
+        RouteDocument pacific = routeDocument("r-1", "Callao", "América", "Valparaíso", "América", 2400.0);
+        RouteDocument transpacific = routeDocument("r-2", "Valparaíso", "América", "Shanghai", "Asia", 18000.0);
+        when(portRepository.findAll()).thenReturn(List.of(callao, valparaiso, shanghai));
+        when(routeRepository.findAll()).thenReturn(List.of(pacific, transpacific));
+        RouteGraph base = builder.buildRouteGraph(1L);
+
+        valparaiso.setDisabled(true);
+        when(portRepository.findById("p-2")).thenReturn(Optional.of(valparaiso));
+        when(routeRepository.findById("r-2")).thenReturn(Optional.empty());
+        RouteGraph patched = builder.applyChanges(base, 2L, RouteGraphChanges.of(List.of("p-2"), List.of("r-2")));
+
+        assertThat(patched).isNotSameAs(base);
+        assertThat(patched.getVersion()).isEqualTo(2L);
+        assertThat(patched.isFrozen()).isTrue();
+        assertThat(patched.getEdgeCount()).isEqualTo(1);
+        assertThat(patched.getAllNodes()).extracting(Port::getName).containsExactlyInAnyOrder("Callao", "Valparaíso");
+        assertThat(patched.findPortById("p-2")).get().extracting(Port::isDisabled).isEqualTo(true);
+        Port disabledNeighbor = patched.getAdjacentEdges(patched.findPortById("p-1").orElseThrow()).get(0).getDestinationPort();
+        assertThat(disabledNeighbor.isDisabled()).isTrue();
+        assertThat(base.getEdgeCount()).isEqualTo(2);
+
+        assertThat(builder.applyChanges(patched, 3L, RouteGraphChanges.ofPort("p-2"))).isSameAs(patched);
+        verify(routeRepository, times(1)).findAll();
+    }
+
+    private RouteDocument routeDocument(String id, String home, String homeContinent, String destination,
+                                        String destinationContinent, double distance) {
+        RouteDocument document = new RouteDocument(home, homeContinent, destination, destinationContinent, distance);
+        document.setId(id);
+        return document;
+    }
+
+    private PortDocument portDocument(String id, String name, String continent) {
+        PortDocument document = new PortDocument(name, new PortDocument.CoordinatesDocument(0.0, 0.0), continent);
+        document.setId(id);
+        return document;
+    }
+}
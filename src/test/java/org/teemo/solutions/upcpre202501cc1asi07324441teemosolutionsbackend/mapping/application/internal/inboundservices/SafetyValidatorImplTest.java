@@ -0,0 +1,74 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.Coordinates;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.domain.EventDocument;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.persistence.sdmdb.EventRepository;
+
+import java.time.Clock;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SafetyValidatorImplTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    private SafetyValidatorImpl validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new SafetyValidatorImpl(eventRepository, Clock.systemUTC(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void servesRoutingFromSnapshotAndBumpsVersionOnlyWhenSetChanges() {
+        when(eventRepository.findValidEvents())
+                .thenReturn(List.of(event("Callao")))
+                .thenReturn(List.of(event("Callao")))
+                .thenReturn(List.of(event("Callao"), event("Balboa")));
+        Port callao = new Port("p-callao", "Callao", new Coordinates(-12.05, -77.13), "América");
+
+        long version = validator.getUnsafePortsVersion();
+        assertThat(validator.getUnsafePortNames()).containsExactly("Callao");
+        assertThat(validator.validateFullRoute(List.of(callao))).hasSize(1);
+        verify(eventRepository, times(1)).findValidEvents();
+
+        validator.refresh();
+        assertThat(validator.getUnsafePortsVersion()).isEqualTo(version);
+
+        validator.refresh();
+        assertThat(validator.getUnsafePortsVersion()).isEqualTo(version + 1);
+        assertThat(validator.getUnsafePortNames()).containsExactlyInAnyOrder("Callao", "Balboa");
+    }
+
+    @Test
+    void keepsPreviousSnapshotWhenRefreshFails() {
+        when(eventRepository.findValidEvents())
+                .thenReturn(List.of(event("Callao")))
+                .thenThrow(new IllegalStateException("mongo no disponible"));
+
+        long version = validator.getUnsafePortsVersion();
+        validator.refresh();
+
+        assertThat(validator.getUnsafePortsVersion()).isEqualTo(version);
+        assertThat(validator.getUnsafePortNames()).containsExactly("Callao");
+    }
+
+    private static EventDocument event(String originPort) {
+        EventDocument event = new EventDocument();
+        event.setPuertoOrigen(originPort);
+        return event;
+    }
+}
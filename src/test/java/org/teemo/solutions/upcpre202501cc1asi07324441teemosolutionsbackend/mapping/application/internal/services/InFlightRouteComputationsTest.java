@@ -0,0 +1,116 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.RouteNotFoundException;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.RouteCalculationResource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InFlightRouteComputationsTest {
+
+    private static final RouteResultCache.Key KEY = RouteResultCache.Key.of("a", "b", Set.of("x"), 1L, 1L, 0, 0L);
+
+    private SimpleMeterRegistry meterRegistry;
+    private InFlightRouteComputations computations;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        computations = new InFlightRouteComputations(meterRegistry);
+    }
+
+    @Test
+    void concurrentCallersWithTheSameKeyShareOneComputation() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        RouteComputationResult expected = result();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CompletableFuture<RouteComputationResult> owner = CompletableFuture.supplyAsync(
+                    () -> computations.computeOnce(KEY, () -> {
+                        runs.incrementAndGet();
+                        started.countDown();
+                        await(release);
+                        return expected;
+                    }), executor);
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            List<CompletableFuture<RouteComputationResult>> waiters = List.of(
+                    CompletableFuture.supplyAsync(() -> computations.computeOnce(KEY, this::unexpected), executor),
+                    CompletableFuture.supplyAsync(() -> computations.computeOnce(KEY, this::unexpected), executor));
+            while (meterRegistry.counter("route_coalesced_requests_total").count() < 2) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThat(owner.get(5, TimeUnit.SECONDS)).isSameAs(expected);
+            for (CompletableFuture<RouteComputationResult> waiter : waiters) {
+                assertThat(waiter.get(5, TimeUnit.SECONDS)).isSameAs(expected);
+            }
+            assertThat(runs).hasValue(1);
+            assertThat(computations.size()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failuresReachEveryCallerAndAreNotRemembered() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RouteNotFoundException failure = new RouteNotFoundException("Origen", "Destino");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<RouteComputationResult> owner = CompletableFuture.supplyAsync(
+                    () -> computations.computeOnce(KEY, () -> {
+                        started.countDown();
+                        await(release);
+                        throw failure;
+                    }), executor);
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<RouteComputationResult> waiter = CompletableFuture.supplyAsync(
+                    () -> computations.computeOnce(KEY, this::unexpected), executor);
+            while (meterRegistry.counter("route_coalesced_requests_total").count() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThatThrownBy(() -> owner.get(5, TimeUnit.SECONDS)).hasCause(failure);
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(computations.size()).isZero();
+        assertThat(computations.computeOnce(KEY, this::result)).isNotNull();
+    }
+
+    private RouteComputationResult unexpected() {
+        throw new AssertionError("El cálculo debía compartirse");
+    }
+
+    private RouteComputationResult result() {
+        return new RouteComputationResult(null, new RouteCalculationResource(List.of(), 0.0, List.of(), Map.of()), Set.of(), null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
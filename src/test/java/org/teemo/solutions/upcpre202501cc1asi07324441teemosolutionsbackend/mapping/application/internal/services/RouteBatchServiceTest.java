@@ -0,0 +1,90 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices.RouteGraphSnapshotProvider;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.PortNotFoundException;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.RouteNotFoundException;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.BatchRouteItemResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.BatchRouteResultResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.RouteCalculationResource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RouteBatchServiceTest {
+
+    @Mock
+    private RouteService routeService;
+
+    @Mock
+    private RouteGraphSnapshotProvider graphSnapshotProvider;
+
+    private ExecutorService executor;
+    private RouteBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        RoutingProperties properties = new RoutingProperties();
+        properties.getBatch().setParallelism(2);
+        executor = Executors.newFixedThreadPool(2);
+        batchService = new RouteBatchService(routeService, graphSnapshotProvider, executor, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void reportsEveryItemWithItsOwnStatusUsingOneSnapshot() {
+        RouteGraph snapshot = new RouteGraph(7L).freeze();
+        Set<String> disabled = Set.of("d");
+        when(graphSnapshotProvider.current()).thenReturn(snapshot);
+        when(routeService.loadDisabledPortIds()).thenReturn(disabled);
+        when(routeService.calculateOptimalRouteInBatch(same(snapshot), same(disabled), eq("a"), eq("b"), any(), any()))
+                .thenReturn(new RouteCalculationResource(List.of(), 10.0, List.of(), Map.of()));
+        when(routeService.calculateOptimalRouteInBatch(same(snapshot), same(disabled), eq("a"), eq("x"), any(), any()))
+                .thenThrow(new PortNotFoundException("x"));
+        when(routeService.calculateOptimalRouteInBatch(same(snapshot), same(disabled), eq("a"), eq("c"), any(), any()))
+                .thenThrow(new RouteNotFoundException("a", "c"));
+
+        List<BatchRouteResultResource> results = new ArrayList<>();
+        batchService.calculateRoutes(List.of(
+                new BatchRouteItemResource("a", "b", null),
+                new BatchRouteItemResource("a", "x", List.of()),
+                new BatchRouteItemResource("a", "c", List.of("d")),
+                new BatchRouteItemResource(null, "b", null)
+        ), null, results::add);
+
+        results.sort(Comparator.comparingInt(BatchRouteResultResource::index));
+        assertThat(results).extracting(BatchRouteResultResource::status).containsExactly(
+                RouteBatchService.STATUS_OK,
+                RouteBatchService.STATUS_PORT_NOT_FOUND,
+                RouteBatchService.STATUS_NO_ROUTE,
+                RouteBatchService.STATUS_INVALID_REQUEST);
+        assertThat(results.get(0).route().totalDistance()).isEqualTo(10.0);
+        verify(graphSnapshotProvider, times(1)).current();
+        verify(routeService, times(1)).loadDisabledPortIds();
+    }
+}
@@ -112,6 +112,19 @@ class RoutePopularityServiceTest {
         assertThat(pageable.getSort()).isEqualTo(Sort.by(Sort.Direction.DESC, "searchesCount"));
     }
 
+    @Test
+    void findTopOriginPortIdsSumsSearchesAcrossDestinations() {
+        when(routePopularityRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(
+                popularity("rotterdam", "shanghai", 12L),
+                popularity("callao", "shanghai", 10L),
+                popularity("callao", "rotterdam", 8L),
+                popularity("singapore", "callao", 3L))));
+
+        List<String> result = routePopularityService.findTopOriginPortIds(2);
+
+        assertThat(result).containsExactly("callao", "rotterdam");
+    }
+
     @Test
     void findTopRoutesReturnsEmptyListWhenLimitInvalid() {
         List<RoutePopularityDocument> result = routePopularityService.findTopRoutes(0);
@@ -119,4 +132,12 @@ class RoutePopularityServiceTest {
         assertThat(result).isEmpty();
         verify(routePopularityRepository, never()).findAll(any(PageRequest.class));
     }
+
+    private static RoutePopularityDocument popularity(String originPortId, String destinationPortId, long searches) {
+        return RoutePopularityDocument.builder()
+                .originPortId(originPortId)
+                .destinationPortId(destinationPortId)
+                .searchesCount(searches)
+                .build();
+    }
 }
@@ -0,0 +1,86 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.inboundservices.RouteGraphSnapshotProvider;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Route;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.PortNotFoundException;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.Coordinates;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.ReachabilityResource;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.ReachablePortResource;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RouteReachabilityServiceTest {
+
+    @Mock
+    private RouteGraphSnapshotProvider graphSnapshotProvider;
+
+    @Mock
+    private RouteService routeService;
+
+    private RouteReachabilityService reachabilityService;
+
+    @BeforeEach
+    void setUp() {
+        Port callao = new Port("p-callao", "Callao", new Coordinates(-12.05, -77.13), "América");
+        Port guayaquil = new Port("p-guayaquil", "Guayaquil", new Coordinates(-2.19, -79.88), "América");
+        Port balboa = new Port("p-balboa", "Balboa", new Coordinates(8.93, -79.55), "América");
+        Port valparaiso = new Port("p-valparaiso", "Valparaíso", new Coordinates(-33.04, -71.61), "América");
+        RouteGraph graph = new RouteGraph(3L);
+        graph.addEdge(new Route(callao, guayaquil, 1200.0));
+        graph.addEdge(new Route(guayaquil, balboa, 1300.0));
+        graph.addEdge(new Route(callao, valparaiso, 2400.0));
+        graph.addEdge(new Route(valparaiso, balboa, 5200.0));
+        when(graphSnapshotProvider.current()).thenReturn(graph.freeze());
+        reachabilityService = new RouteReachabilityService(graphSnapshotProvider, routeService);
+    }
+
+    @Test
+    void includesPortsExactlyOnTheBudgetAndExcludesThoseJustOutside() {
+        when(routeService.loadDisabledPortIds()).thenReturn(Set.of());
+
+        ReachabilityResource inside = reachabilityService.findReachablePorts("p-callao", 2500.0, null);
+        ReachabilityResource outside = reachabilityService.findReachablePorts("p-callao", 2499.0, null);
+
+        assertThat(inside.graphVersion()).isEqualTo(3L);
+        assertThat(inside.reachablePorts()).extracting(ReachablePortResource::portId)
+                .containsExactly("p-callao", "p-guayaquil", "p-valparaiso", "p-balboa");
+        assertThat(inside.reachablePorts().get(3).distance()).isEqualTo(2500.0);
+        assertThat(inside.reachablePorts().get(3).predecessorPortId()).isEqualTo("p-guayaquil");
+        assertThat(inside.reachablePorts().get(0).predecessorPortId()).isNull();
+        assertThat(outside.reachablePorts()).extracting(ReachablePortResource::portId)
+                .containsExactly("p-callao", "p-guayaquil", "p-valparaiso");
+    }
+
+    @Test
+    void neverReachesOrCrossesDisabledPorts() {
+        when(routeService.loadDisabledPortIds()).thenReturn(Set.of("p-guayaquil"));
+
+        ReachabilityResource shortBudget = reachabilityService.findReachablePorts("p-callao", 5000.0, null);
+        ReachabilityResource longBudget = reachabilityService.findReachablePorts("p-callao", 7600.0, Set.of());
+
+        assertThat(shortBudget.reachablePorts()).extracting(ReachablePortResource::portId)
+                .containsExactly("p-callao", "p-valparaiso");
+        assertThat(longBudget.reachablePorts()).extracting(ReachablePortResource::portId)
+                .containsExactly("p-callao", "p-valparaiso", "p-balboa");
+        assertThat(longBudget.reachablePorts().get(2).distance()).isEqualTo(7600.0);
+        assertThat(longBudget.reachablePorts().get(2).predecessorPortId()).isEqualTo("p-valparaiso");
+    }
+
+    @Test
+    void rejectsAnOriginOutsideTheGraph() {
+        assertThatThrownBy(() -> reachabilityService.findReachablePorts("p-desconocido", 1000.0, null))
+                .isInstanceOf(PortNotFoundException.class);
+    }
+}
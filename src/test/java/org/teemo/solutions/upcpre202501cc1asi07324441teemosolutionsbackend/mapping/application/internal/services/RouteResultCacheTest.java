@@ -0,0 +1,107 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.application.internal.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.interfaces.rest.resources.RouteCalculationResource;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteResultCacheTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    private SimpleMeterRegistry meterRegistry;
+    private RouteResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        RoutingProperties properties = new RoutingProperties();
+        properties.getCache().setMaxEntries(2);
+        properties.getCache().setTtl(Duration.ofMinutes(5));
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new RouteResultCache(properties, meterRegistry, clock);
+    }
+
+    @Test
+    void keyIgnoresAvoidSetOrderAndSeparatesVersions() {
+        cache.put(RouteResultCache.Key.of("a", "b", Set.of("x", "y"), 1L, 1L, 0, 0L), result());
+
+        assertThat(cache.get(RouteResultCache.Key.of("a", "b", Set.of("y", "x"), 1L, 1L, 0, 0L))).isNotNull();
+        assertThat(cache.get(RouteResultCache.Key.of("a", "b", Set.of("x", "y"), 2L, 1L, 0, 0L))).isNull();
+        assertThat(cache.get(RouteResultCache.Key.of("a", "b", Set.of("x", "y"), 1L, 2L, 0, 0L))).isNull();
+        assertThat(cache.get(RouteResultCache.Key.of("a", "b", Set.of("x", "y"), 1L, 1L, 3, 0L))).isNull();
+        assertThat(cache.get(RouteResultCache.Key.of("a", "b", Set.of("x", "y"), 1L, 1L, 0, 4L))).isNull();
+        assertThat(meterRegistry.counter("route_cache_requests_total", "result", "hit").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("route_cache_requests_total", "result", "miss").count()).isEqualTo(4.0);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndExpiredEntries() {
+        RouteResultCache.Key first = RouteResultCache.Key.of("a", "b", Set.of(), 1L, 1L, 0, 0L);
+        RouteResultCache.Key second = RouteResultCache.Key.of("a", "c", Set.of(), 1L, 1L, 0, 0L);
+        RouteResultCache.Key third = RouteResultCache.Key.of("a", "d", Set.of(), 1L, 1L, 0, 0L);
+        cache.put(first, result());
+        cache.put(second, result());
+        cache.get(first);
+        cache.put(third, result());
+
+        assertThat(cache.get(second)).isNull();
+        assertThat(cache.get(first)).isNotNull();
+
+        clock.advance(Duration.ofMinutes(6));
+        assertThat(cache.get(third)).isNull();
+        assertThat(meterRegistry.counter("route_cache_evictions_total", "cause", "size").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("route_cache_evictions_total", "cause", "expired").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void newGraphSnapshotInvalidatesAllEntries() {
+        cache.put(RouteResultCache.Key.of("a", "b", Set.of(), 1L, 1L, 0, 0L), result());
+
+        cache.onSnapshotPublished(new RouteGraph(2L).freeze());
+
+        assertThat(cache.size()).isZero();
+    }
+
+    private RouteComputationResult result() {
+        return new RouteComputationResult(null, new RouteCalculationResource(List.of(), 0.0, List.of(), Map.of()), Set.of(), null);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
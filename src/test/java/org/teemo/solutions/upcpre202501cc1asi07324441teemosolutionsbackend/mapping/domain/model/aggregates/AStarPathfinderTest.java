@@ -0,0 +1,254 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Route;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.exceptions.RouteNotFoundException;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.Coordinates;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.EdgeSegmentIndex;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardExposure;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardZone;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardZonesSnapshot;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.LandmarkTable;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteLeg;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RoutePath;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.SearchMode;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.ShortestPathTree;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.UnsafePortsSnapshot;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.NavigationConditionsProvider;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.services.SafetyValidator;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class AStarPathfinderTest {
+
+    @Mock
+    private SafetyValidator safetyValidator;
+    @Mock
+    private NavigationConditionsProvider navigationConditionsProvider;
+    @Mock
+    private ExecutorService preprocessingExecutor;
+
+    private final List<Runnable> pendingPreprocessing = new ArrayList<>();
+
+    private AStarPathfinder pathfinder;
+    private RouteGraph graph;
+    private Port callao;
+    private Port guayaquil;
+    private Port balboa;
+    private Port valparaiso;
+    private Port ushuaia;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(safetyValidator.getUnsafePortsSnapshot()).thenReturn(UnsafePortsSnapshot.EMPTY);
+        lenient().doAnswer(invocation -> pendingPreprocessing.add(invocation.getArgument(0)))
+                .when(preprocessingExecutor).execute(any(Runnable.class));
+        pathfinder = new AStarPathfinder(safetyValidator, navigationConditionsProvider, Clock.systemUTC(),
+                new RoutingProperties(), preprocessingExecutor);
+
+        callao = new Port("p-callao", "Callao", new Coordinates(-12.05, -77.13), "América");
+        guayaquil = new Port("p-guayaquil", "Guayaquil", new Coordinates(-2.19, -79.88), "América");
+        balboa = new Port("p-balboa", "Balboa", new Coordinates(8.93, -79.55), "América");
+        valparaiso = new Port("p-valparaiso", "Valparaíso", new Coordinates(-33.04, -71.61), "América");
+        ushuaia = new Port("p-ushuaia", "Ushuaia", new Coordinates(-54.81, -68.29), "América");
+
+        graph = new RouteGraph(1L);
+        graph.addEdge(new Route("r-callao-guayaquil", callao, guayaquil, 1200.0));
+        graph.addEdge(new Route("r-guayaquil-balboa", guayaquil, balboa, 1300.0));
+        graph.addEdge(new Route(callao, valparaiso, 2400.0));
+        graph.addEdge(new Route(valparaiso, balboa, 5200.0));
+        graph.addNode(ushuaia);
+        graph.freeze();
+        pathfinder.onSnapshotPublished(graph);
+        runPendingPreprocessing();
+    }
+
+    private void runPendingPreprocessing() {
+        List<Runnable> tasks = List.copyOf(pendingPreprocessing);
+        pendingPreprocessing.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    @Test
+    void findOptimalRouteReturnsShortestPathThroughCompactGraph() {
+        List<Port> route = pathfinder.findOptimalRoute(callao, balboa, graph, Set.of());
+
+        assertThat(route).extracting(Port::getName).containsExactly("Callao", "Guayaquil", "Balboa");
+    }
+
+    @Test
+    void findRouteAvoidsArcsBlockedByActiveHazardZonesAndReportsTheCrossedLeg() {
+        CompactRouteGraph compact = graph.compact();
+        HazardZone hurricane = new HazardZone("HURRICANE", "Hurricane Warning - Costa norte del Perú", -7.1, -78.4, 100.0, 0.8);
+        HazardExposure hazards = HazardExposure.compile(compact, EdgeSegmentIndex.build(compact, 2.0),
+                new HazardZonesSnapshot(List.of(hurricane), 1L, Instant.EPOCH), 0.7, 1500.0);
+
+        RoutePath route = pathfinder.findRoute(callao, balboa, graph, Set.of(), SearchMode.BIDIRECTIONAL, null, hazards);
+
+        assertThat(route.ports()).extracting(Port::getName).containsExactly("Callao", "Valparaíso", "Balboa");
+        int guayaquilNode = compact.indexOf(guayaquil);
+        assertThat(hazards.zonesCrossedBy(compact.arcBetween(compact.indexOf(callao), guayaquilNode)))
+                .containsExactly(hurricane);
+        assertThat(hazards.zonesCrossedBy(compact.arcBetween(guayaquilNode, compact.indexOf(balboa)))).isEmpty();
+    }
+
+    @Test
+    void findOptimalRouteSkipsAvoidedPorts() {
+        List<Port> route = pathfinder.findOptimalRoute(callao, balboa, graph, Set.of("p-guayaquil"));
+
+        assertThat(route).extracting(Port::getName).containsExactly("Callao", "Valparaíso", "Balboa");
+    }
+
+    @Test
+    void findOptimalRouteThrowsWhenDestinationIsUnreachable() {
+        assertThatThrownBy(() -> pathfinder.findOptimalRoute(callao, ushuaia, graph, Set.of()))
+                .isInstanceOf(RouteNotFoundException.class);
+    }
+
+    @Test
+    void findOptimalPathWorksOnDenseIdentifiers() {
+        CompactRouteGraph compact = graph.compact();
+
+        int[] path = pathfinder.findOptimalPath(compact, compact.indexOf(callao), compact.indexOf(balboa), null);
+
+        assertThat(path).containsExactly(compact.indexOf(callao), compact.indexOf(guayaquil), compact.indexOf(balboa));
+        assertThat(compact.arcCount()).isEqualTo(8);
+    }
+
+    @Test
+    void landmarkLowerBoundNeverExceedsExactDistance() {
+        CompactRouteGraph compact = graph.compact();
+        LandmarkTable table = LandmarkTable.compute(compact, 2);
+
+        for (int source = 0; source < compact.nodeCount(); source++) {
+            ShortestPathTree tree = ShortestPathTree.compute(compact, source);
+            for (int target = 0; target < compact.nodeCount(); target++) {
+                assertThat(table.lowerBound(source, target)).isLessThanOrEqualTo(tree.distanceTo(target));
+            }
+        }
+    }
+
+    @Test
+    void bidirectionalSearchReturnsSamePathsAsUnidirectional() {
+        CompactRouteGraph compact = graph.compact();
+
+        for (int source = 0; source < compact.nodeCount(); source++) {
+            for (int target = 0; target < compact.nodeCount(); target++) {
+                int[] expected = pathfinder.findOptimalPath(compact, source, target, null);
+                int[] actual = pathfinder.findOptimalPathBidirectional(compact, source, target, null);
+                assertThat(actual).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void bidirectionalSearchSkipsAvoidedPorts() {
+        List<Port> route = pathfinder.findOptimalRoute(callao, balboa, graph, Set.of("p-guayaquil"), SearchMode.BIDIRECTIONAL);
+
+        assertThat(route).extracting(Port::getName).containsExactly("Callao", "Valparaíso", "Balboa");
+    }
+
+    @Test
+    void findRouteCarriesLegDistancesAndEdgeIdentity() {
+        RoutePath path = pathfinder.findRoute(balboa, callao, graph, Set.of(), null);
+
+        assertThat(path.totalDistance()).isEqualTo(2500.0);
+        assertThat(path.waypointPortIds()).containsExactly("p-guayaquil");
+        assertThat(path.legs()).extracting(RouteLeg::distance).containsExactly(1300.0, 1200.0);
+        assertThat(path.legs()).extracting(RouteLeg::cumulativeDistance).containsExactly(1300.0, 2500.0);
+        assertThat(path.legs()).extracting(RouteLeg::routeId).containsExactly("r-guayaquil-balboa", "r-callao-guayaquil");
+    }
+
+    @Test
+    void departureMonthSelectsSeasonalCostLayerInBothSearchModes() {
+        // En enero los tramos que tocan Guayaquil se penalizan; en julio se navega por distancia.
+        lenient().when(navigationConditionsProvider.getAdjustedCost(any(Route.class), any(Port.class), any(Port.class), any(Month.class)))
+                .thenAnswer(invocation -> {
+                    Route route = invocation.getArgument(0);
+                    Month month = invocation.getArgument(3);
+                    boolean touchesGuayaquil = route.getHomePort().equals(guayaquil) || route.getDestinationPort().equals(guayaquil);
+                    return route.getDistance() + (month == Month.JANUARY && touchesGuayaquil ? 10_000.0 : 0.0);
+                });
+        pathfinder.onSnapshotPublished(graph);
+        runPendingPreprocessing();
+
+        for (SearchMode mode : List.of(SearchMode.UNIDIRECTIONAL, SearchMode.BIDIRECTIONAL)) {
+            RoutePath winter = pathfinder.findRoute(callao, balboa, graph, Set.of(), mode, Month.JANUARY);
+            RoutePath summer = pathfinder.findRoute(callao, balboa, graph, Set.of(), mode, Month.JULY);
+
+            assertThat(winter.ports()).extracting(Port::getName).containsExactly("Callao", "Valparaíso", "Balboa");
+            assertThat(winter.totalDistance()).isEqualTo(7600.0);
+            assertThat(summer.ports()).extracting(Port::getName).containsExactly("Callao", "Guayaquil", "Balboa");
+        }
+    }
+
+    @Test
+    void searchesStayOptimalWhileTheNewSnapshotIsStillBeingPreprocessed() {
+        lenient().when(navigationConditionsProvider.getAdjustedCost(any(Route.class), any(Port.class), any(Port.class), any(Month.class)))
+                .thenAnswer(invocation -> {
+                    Route route = invocation.getArgument(0);
+                    boolean touchesGuayaquil = route.getHomePort().equals(guayaquil) || route.getDestinationPort().equals(guayaquil);
+                    return route.getDistance() + (touchesGuayaquil ? 10_000.0 : 0.0);
+                });
+        RouteGraph next = graph.mutableCopy(2L).freeze();
+        pathfinder.onSnapshotPublished(next);
+
+        // Sin landmarks ni capas de la nueva instantánea: Dijkstra y la capa del mes compilada al vuelo.
+        for (SearchMode mode : List.of(SearchMode.UNIDIRECTIONAL, SearchMode.BIDIRECTIONAL)) {
+            assertThat(pathfinder.findRoute(callao, balboa, next, Set.of(), mode).ports())
+                    .extracting(Port::getName).containsExactly("Callao", "Guayaquil", "Balboa");
+            assertThat(pathfinder.findRoute(callao, balboa, next, Set.of(), mode, Month.MARCH).ports())
+                    .extracting(Port::getName).containsExactly("Callao", "Valparaíso", "Balboa");
+        }
+        assertThat(pendingPreprocessing).hasSize(1);
+    }
+
+    @Test
+    void reportsTheParallelRouteTheSearchChoseRatherThanTheShortestOne() {
+        // En enero la ruta directa más corta es la más cara; la de altura, algo más larga, es la elegida.
+        lenient().when(navigationConditionsProvider.getAdjustedCost(any(Route.class), any(Port.class), any(Port.class), any(Month.class)))
+                .thenAnswer(invocation -> {
+                    Route route = invocation.getArgument(0);
+                    boolean coastal = "r-callao-guayaquil-costera".equals(route.getId());
+                    return route.getDistance() + (coastal && invocation.getArgument(3) == Month.JANUARY ? 10_000.0 : 0.0);
+                });
+        RouteGraph parallel = new RouteGraph(3L);
+        parallel.addEdge(new Route("r-callao-guayaquil-costera", callao, guayaquil, 1200.0));
+        parallel.addEdge(new Route("r-callao-guayaquil-altura", callao, guayaquil, 1250.0));
+        parallel.freeze();
+        pathfinder.onSnapshotPublished(parallel);
+        runPendingPreprocessing();
+
+        for (SearchMode mode : List.of(SearchMode.UNIDIRECTIONAL, SearchMode.BIDIRECTIONAL)) {
+            RoutePath winter = pathfinder.findRoute(callao, guayaquil, parallel, Set.of(), mode, Month.JANUARY);
+            RoutePath backwards = pathfinder.findRoute(guayaquil, callao, parallel, Set.of(), mode, Month.JANUARY);
+            RoutePath summer = pathfinder.findRoute(callao, guayaquil, parallel, Set.of(), mode, Month.JULY);
+
+            assertThat(winter.legs()).extracting(RouteLeg::routeId).containsExactly("r-callao-guayaquil-altura");
+            assertThat(winter.totalDistance()).isEqualTo(1250.0);
+            assertThat(backwards.legs()).extracting(RouteLeg::routeId).containsExactly("r-callao-guayaquil-altura");
+            assertThat(summer.legs()).extracting(RouteLeg::routeId).containsExactly("r-callao-guayaquil-costera");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates;
+
+import org.junit.jupiter.api.Test;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.Coordinates;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.EdgeSegmentIndex;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardExposure;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardZone;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.HazardZonesSnapshot;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.TestGraphs;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class AlternativeRouteFinderTest {
+
+    @Test
+    void returnsLooplessAlternativesInOrderAndDropsNearDuplicates() {
+        CompactRouteGraph.Builder builder = TestGraphs.line(6, 0.001);
+        builder.addEdge(0, 1, 180);
+        builder.addEdge(1, 5, 20);
+        builder.addEdge(1, 4, 12);   // 0-1-4-5 comparte casi toda su distancia con 0-1-5
+        builder.addEdge(4, 5, 12);
+        builder.addEdge(0, 2, 110);
+        builder.addEdge(2, 5, 110);
+        builder.addEdge(0, 3, 130);
+        builder.addEdge(3, 5, 130);
+        CompactRouteGraph graph = builder.build();
+
+        RoutingProperties properties = new RoutingProperties();
+        AStarPathfinder pathfinder = new AStarPathfinder(mock(), mock(), Clock.systemUTC(), properties, mock());
+        AlternativeRouteFinder finder = new AlternativeRouteFinder(pathfinder, properties);
+
+        List<int[]> routes = finder.findAlternatives(graph, new int[]{0, 1, 5}, null, 3);
+
+        assertThat(routes).hasSize(3);
+        assertThat(routes.get(0)).containsExactly(0, 1, 5);
+        assertThat(routes.get(1)).containsExactly(0, 2, 5);
+        assertThat(routes.get(2)).containsExactly(0, 3, 5);
+    }
+
+    @Test
+    void neverOffersADetourThroughABlockingHazardZone() {
+        CompactRouteGraph.Builder builder = new CompactRouteGraph.Builder(1L, 4);
+        builder.addPort(new Port("p-callao", "Callao", new Coordinates(-12.05, -77.13), "América"));
+        builder.addPort(new Port("p-guayaquil", "Guayaquil", new Coordinates(-2.19, -79.88), "América"));
+        builder.addPort(new Port("p-balboa", "Balboa", new Coordinates(8.93, -79.55), "América"));
+        builder.addPort(new Port("p-valparaiso", "Valparaíso", new Coordinates(-33.04, -71.61), "América"));
+        builder.addEdge(0, 1, 1200.0);
+        builder.addEdge(1, 2, 1300.0);
+        builder.addEdge(0, 3, 2400.0);
+        builder.addEdge(3, 2, 5200.0);
+        CompactRouteGraph graph = builder.build();
+        // Huracán frente a Chimbote: bloquea Callao-Guayaquil, el único desvío de la ruta por Valparaíso.
+        HazardZone hurricane = new HazardZone("HURRICANE", "Huracán frente a Chimbote", -7.1, -78.4, 100.0, 0.8);
+        HazardExposure hazards = HazardExposure.compile(graph, EdgeSegmentIndex.build(graph, 2.0),
+                new HazardZonesSnapshot(List.of(hurricane), 1L, Instant.EPOCH), 0.7, 1500.0);
+
+        RoutingProperties properties = new RoutingProperties();
+        AStarPathfinder pathfinder = new AStarPathfinder(mock(), mock(), Clock.systemUTC(), properties, mock());
+        AlternativeRouteFinder finder = new AlternativeRouteFinder(pathfinder, properties);
+        int[] optimal = {0, 3, 2};
+
+        List<int[]> withoutHazards = finder.findAlternatives(graph, optimal, null, 2);
+        List<int[]> withHazards = finder.findAlternatives(graph, optimal, null, null, null, hazards, 2);
+
+        assertThat(hazards.isBlocked(graph.arcBetween(0, 1))).isTrue();
+        assertThat(withoutHazards).hasSize(2);
+        assertThat(withoutHazards.get(1)).containsExactly(0, 1, 2);
+        assertThat(withHazards).hasSize(1);
+        assertThat(withHazards.get(0)).containsExactly(0, 3, 2);
+    }
+}
@@ -0,0 +1,60 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates;
+
+import org.junit.jupiter.api.Test;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.CompactRouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.EdgeHazards;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.TestGraphs;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+class ParetoRouteFinderTest {
+
+    @Test
+    void returnsOnlyNonDominatedRoutesOrderedByDistance() {
+        CompactRouteGraph.Builder builder = TestGraphs.line(6, 0.001);
+        builder.addEdge(0, 1, 50);   // 0-1-5: la más corta, pero 1 es inseguro
+        builder.addEdge(1, 5, 50);
+        builder.addEdge(0, 2, 70);   // 0-2-5: segura, con riesgo en 2-5
+        builder.addEdge(2, 5, 70);
+        builder.addEdge(0, 3, 90);   // 0-3-5: segura y sin riesgo, la más larga
+        builder.addEdge(3, 5, 90);
+        builder.addEdge(0, 4, 95);   // 0-4-5: dominada por 0-1-5 y por 0-3-5
+        builder.addEdge(4, 5, 95);
+        CompactRouteGraph graph = builder.build();
+
+        BitSet unsafe = new BitSet();
+        unsafe.set(1);
+        unsafe.set(4);
+        double[] hazardCosts = new double[graph.arcCount()];
+        setHazard(graph, hazardCosts, 2, 5, 0.4);
+        setHazard(graph, hazardCosts, 4, 5, 0.5);
+
+        RoutingProperties properties = new RoutingProperties();
+        ParetoRouteFinder finder = new ParetoRouteFinder(mock(), mock(), properties, mock());
+
+        List<ParetoRouteFinder.ParetoPath> front = finder.findParetoFront(graph, 0, 5, null, unsafe, hazardCosts);
+
+        assertThat(front).extracting(ParetoRouteFinder.ParetoPath::nodes)
+                .containsExactly(new int[]{0, 1, 5}, new int[]{0, 2, 5}, new int[]{0, 3, 5});
+        assertThat(front).extracting(ParetoRouteFinder.ParetoPath::unsafeNodes).containsExactly(1, 0, 0);
+        assertThat(EdgeHazards.toProbability(front.get(1).hazardCost())).isCloseTo(0.4, within(1e-9));
+        assertThat(front.get(2).hazardCost()).isZero();
+
+        // Con un estiramiento máximo de 1.5 la ruta de 180 queda fuera del frente.
+        properties.getPareto().setMaxStretch(1.5);
+        assertThat(finder.findParetoFront(graph, 0, 5, null, unsafe, hazardCosts))
+                .extracting(ParetoRouteFinder.ParetoPath::nodes)
+                .containsExactly(new int[]{0, 1, 5}, new int[]{0, 2, 5});
+    }
+
+    private static void setHazard(CompactRouteGraph graph, double[] hazardCosts, int a, int b, double probability) {
+        hazardCosts[graph.arcBetween(a, b)] = EdgeHazards.toCost(probability);
+        hazardCosts[graph.arcBetween(b, a)] = EdgeHazards.toCost(probability);
+    }
+}
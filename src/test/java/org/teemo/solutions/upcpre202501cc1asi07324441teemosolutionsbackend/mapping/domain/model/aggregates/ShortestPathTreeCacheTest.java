@@ -0,0 +1,95 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.aggregates;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Route;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.Coordinates;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RouteGraph;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects.RoutePath;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.infrastructure.configuration.RoutingProperties;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ShortestPathTreeCacheTest {
+
+    private RoutingProperties routingProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private ShortestPathTreeCache cache;
+    private RouteGraph graph;
+    private Port callao;
+    private Port guayaquil;
+    private Port balboa;
+    private Port valparaiso;
+
+    @BeforeEach
+    void setUp() {
+        routingProperties = new RoutingProperties();
+        // Sin precálculo en segundo plano: los árboles se calculan en la primera consulta.
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ShortestPathTreeCache(mock(ExecutorService.class), routingProperties, meterRegistry);
+
+        callao = new Port("p-callao", "Callao", new Coordinates(-12.05, -77.13), "América");
+        guayaquil = new Port("p-guayaquil", "Guayaquil", new Coordinates(-2.19, -79.88), "América");
+        balboa = new Port("p-balboa", "Balboa", new Coordinates(8.93, -79.55), "América");
+        valparaiso = new Port("p-valparaiso", "Valparaíso", new Coordinates(-33.04, -71.61), "América");
+        graph = new RouteGraph(1L);
+        graph.addEdge(new Route("r-callao-guayaquil", callao, guayaquil, 1200.0));
+        graph.addEdge(new Route("r-guayaquil-balboa", guayaquil, balboa, 1300.0));
+        graph.addEdge(new Route(callao, valparaiso, 2400.0));
+        graph.addEdge(new Route(valparaiso, balboa, 5200.0));
+        graph.freeze();
+        cache.onSnapshotPublished(graph);
+    }
+
+    @Test
+    void servesHotOriginsFromOneTreeAndIgnoresColdOnes() {
+        cache.updateHotOrigins(List.of("p-callao"));
+
+        Optional<RoutePath> toBalboa = cache.findRoute(callao, balboa, graph, Set.of());
+        Optional<RoutePath> toValparaiso = cache.findRoute(callao, valparaiso, graph, Set.of());
+
+        assertThat(toBalboa).hasValueSatisfying(path -> assertThat(path.ports())
+                .extracting(Port::getName).containsExactly("Callao", "Guayaquil", "Balboa"));
+        assertThat(toValparaiso).hasValueSatisfying(path -> assertThat(path.totalDistance()).isEqualTo(2400.0));
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.findRoute(balboa, callao, graph, Set.of())).isEmpty();
+        assertThat(cache.findRoute(callao, balboa, graph, Set.of("p-guayaquil"))).isEmpty();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedTreesOverTheMemoryBudget() {
+        cache.updateHotOrigins(List.of("p-callao", "p-balboa", "p-valparaiso"));
+        cache.findRoute(callao, balboa, graph, Set.of());
+        long treeBytes = cache.estimatedBytes();
+        routingProperties.getTreeCache().setMaxBytes(2 * treeBytes);
+
+        cache.findRoute(balboa, callao, graph, Set.of());
+        cache.findRoute(callao, valparaiso, graph, Set.of());
+        cache.findRoute(valparaiso, callao, graph, Set.of());
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.estimatedBytes()).isLessThanOrEqualTo(2 * treeBytes);
+        // Balboa era el menos usado recientemente: se desalojó y vuelve a calcularse.
+        double misses = misses();
+        cache.findRoute(valparaiso, balboa, graph, Set.of());
+        assertThat(misses()).isEqualTo(misses);
+        cache.findRoute(balboa, valparaiso, graph, Set.of());
+        assertThat(misses()).isEqualTo(misses + 1);
+
+        graph = graph.mutableCopy(2L).freeze();
+        cache.onSnapshotPublished(graph);
+        assertThat(cache.size()).isZero();
+    }
+
+    private double misses() {
+        return meterRegistry.counter("route_tree_cache_requests_total", "result", "miss").count();
+    }
+}
@@ -0,0 +1,33 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AllPairsTableTest {
+
+    @Test
+    void nextHopsRebuildShortestPathsAndSkipExcludedPorts() {
+        CompactRouteGraph.Builder builder = TestGraphs.line(5, 1.0);
+        builder.addEdge(0, 1, 100);
+        builder.addEdge(1, 2, 100);
+        builder.addEdge(0, 3, 150);
+        builder.addEdge(3, 2, 150);
+        CompactRouteGraph graph = builder.build();
+
+        AllPairsTable table = AllPairsTable.compute(graph, new BitSet(), ForkJoinPool.commonPool());
+        assertThat(table.pathBetween(0, 2)).containsExactly(0, 1, 2);
+        assertThat(table.distance(2, 0)).isEqualTo(200.0);
+        assertThat(table.pathBetween(0, 4)).isNull();
+
+        BitSet excluded = new BitSet();
+        excluded.set(1);
+        AllPairsTable avoiding = AllPairsTable.compute(graph, excluded, ForkJoinPool.commonPool());
+        assertThat(avoiding.supports(excluded)).isTrue();
+        assertThat(avoiding.pathBetween(0, 2)).containsExactly(0, 3, 2);
+        assertThat(avoiding.distance(0, 2)).isEqualTo(300.0);
+    }
+}
@@ -0,0 +1,35 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectedComponentsTest {
+
+    @Test
+    void labelsComponentsCountsIsolatedPortsAndHonoursExclusions() {
+        CompactRouteGraph.Builder builder = TestGraphs.line(6, 1.0);
+        builder.addEdge(0, 1, 100);
+        builder.addEdge(1, 2, 100);
+        builder.addEdge(3, 4, 100);
+        CompactRouteGraph graph = builder.build();
+
+        ConnectedComponents components = ConnectedComponents.compute(graph, null);
+        assertThat(components.componentCount()).isEqualTo(3);
+        assertThat(components.componentSizes()).containsExactlyInAnyOrder(3, 2, 1);
+        assertThat(components.isolatedCount()).isEqualTo(1);
+        assertThat(components.isIsolated(5)).isTrue();
+        assertThat(components.connected(0, 2)).isTrue();
+        assertThat(components.connected(0, 3)).isFalse();
+
+        BitSet excluded = new BitSet();
+        excluded.set(1);
+        ConnectedComponents avoiding = ConnectedComponents.compute(graph, excluded);
+        assertThat(avoiding.supports(excluded)).isTrue();
+        assertThat(avoiding.connected(0, 2)).isFalse();
+        assertThat(avoiding.componentOf(1)).isEqualTo(-1);
+        assertThat(avoiding.isolatedCount()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,101 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ContinentPartitionTest {
+
+    private static final String[] CONTINENTS = {"America", "Europa", "Asia"};
+    private static final int PORTS_PER_CONTINENT = 12;
+
+    @Test
+    void matchesAllPairsDistancesThroughGatewaysAndSkipsExcludedPorts() {
+        CompactRouteGraph graph = network(1L, 0.0);
+        BitSet excluded = new BitSet();
+        excluded.set(5);
+        ContinentPartition partition = ContinentPartition.build(graph, excluded, ForkJoinPool.commonPool());
+        AllPairsTable table = AllPairsTable.compute(graph, excluded, ForkJoinPool.commonPool());
+
+        SearchWorkspace sourceSide = new SearchWorkspace();
+        SearchWorkspace targetSide = new SearchWorkspace();
+        SearchWorkspace overlay = new SearchWorkspace();
+        assertThat(partition.cellCount()).isEqualTo(3);
+        assertThat(partition.gatewayCount()).isPositive();
+        for (int source = 0; source < graph.nodeCount(); source++) {
+            for (int target = 0; target < graph.nodeCount(); target++) {
+                int[] path = partition.pathBetween(source, target, sourceSide, targetSide, overlay);
+                if (table.distance(source, target) == Double.POSITIVE_INFINITY) {
+                    assertThat(path).isNull();
+                    continue;
+                }
+                assertThat(path[0]).isEqualTo(source);
+                assertThat(path[path.length - 1]).isEqualTo(target);
+                assertThat(lengthOf(graph, path)).isCloseTo(table.distance(source, target), within(1e-6));
+                for (int node : path) {
+                    assertThat(excluded.get(node)).isFalse();
+                }
+            }
+        }
+    }
+
+    @Test
+    void recomputesOnlyTheContinentThatChanged() {
+        CompactRouteGraph before = network(1L, 0.0);
+        ContinentPartition previous = ContinentPartition.build(before, new BitSet(), ForkJoinPool.commonPool());
+        assertThat(previous.recomputedCells()).isEqualTo(3);
+
+        // Sólo cambian las distancias internas de Europa.
+        CompactRouteGraph after = network(2L, 40.0);
+        ContinentPartition partition = ContinentPartition.build(after, new BitSet(), previous, ForkJoinPool.commonPool());
+        AllPairsTable table = AllPairsTable.compute(after, new BitSet(), ForkJoinPool.commonPool());
+
+        SearchWorkspace sourceSide = new SearchWorkspace();
+        SearchWorkspace targetSide = new SearchWorkspace();
+        SearchWorkspace overlay = new SearchWorkspace();
+        assertThat(partition.recomputedCells()).isEqualTo(1);
+        for (int source = 0; source < after.nodeCount(); source++) {
+            for (int target = 0; target < after.nodeCount(); target++) {
+                assertThat(lengthOf(after, partition.pathBetween(source, target, sourceSide, targetSide, overlay)))
+                        .isCloseTo(table.distance(source, target), within(1e-6));
+            }
+        }
+    }
+
+    /**
+     * Tres continentes con rutas internas aleatorias (pero reproducibles) en anillo más cuerdas, unidos por
+     * unos pocos puentes entre continentes. {@code europeDelta} se suma a las rutas internas de Europa.
+     */
+    private static CompactRouteGraph network(long version, double europeDelta) {
+        int n = CONTINENTS.length * PORTS_PER_CONTINENT;
+        CompactRouteGraph.Builder builder = TestGraphs.withPorts(version, n, i -> new Coordinates(0.0, i),
+                i -> CONTINENTS[i / PORTS_PER_CONTINENT]);
+        Random random = new Random(7);
+        for (int c = 0; c < CONTINENTS.length; c++) {
+            int base = c * PORTS_PER_CONTINENT;
+            double delta = c == 1 ? europeDelta : 0.0;
+            for (int i = 0; i < PORTS_PER_CONTINENT; i++) {
+                builder.addEdge(base + i, base + (i + 1) % PORTS_PER_CONTINENT, 100 + random.nextInt(200) + delta);
+                builder.addEdge(base + i, base + random.nextInt(PORTS_PER_CONTINENT), 150 + random.nextInt(400) + delta);
+            }
+        }
+        builder.addEdge(0, PORTS_PER_CONTINENT + 3, 3000);
+        builder.addEdge(6, PORTS_PER_CONTINENT + 9, 2800);
+        builder.addEdge(PORTS_PER_CONTINENT, 2 * PORTS_PER_CONTINENT + 1, 2500);
+        builder.addEdge(4, 2 * PORTS_PER_CONTINENT + 7, 6000);
+        return builder.build();
+    }
+
+    private static double lengthOf(CompactRouteGraph graph, int[] path) {
+        double length = 0.0;
+        for (int i = 1; i < path.length; i++) {
+            length += graph.weight(graph.arcBetween(path[i - 1], path[i]));
+        }
+        return length;
+    }
+}
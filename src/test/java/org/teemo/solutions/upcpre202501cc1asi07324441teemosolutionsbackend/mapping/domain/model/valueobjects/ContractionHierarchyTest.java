@@ -0,0 +1,84 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ContractionHierarchyTest {
+
+    private static final int PORTS = 60;
+
+    @Test
+    void queriesMatchDijkstraDistancesAfterUnpacking() {
+        CompactRouteGraph graph = randomGraph(7L);
+        ContractionHierarchy hierarchy = ContractionHierarchy.contract(graph, new BitSet(), 50);
+        SearchWorkspace forward = new SearchWorkspace();
+        SearchWorkspace backward = new SearchWorkspace();
+
+        for (int source = 0; source < PORTS; source++) {
+            ShortestPathTree tree = ShortestPathTree.compute(graph, source);
+            for (int target = 0; target < PORTS; target++) {
+                int[] path = hierarchy.findPath(source, target, forward, backward);
+                if (!tree.isReachable(target)) {
+                    assertThat(path).isNull();
+                    continue;
+                }
+                assertThat(path[0]).isEqualTo(source);
+                assertThat(path[path.length - 1]).isEqualTo(target);
+                assertThat(lengthOf(graph, path)).isCloseTo(tree.distanceTo(target), within(1e-6));
+            }
+        }
+    }
+
+    @Test
+    void excludedPortsAreNeverTraversed() {
+        CompactRouteGraph graph = randomGraph(11L);
+        BitSet excluded = new BitSet();
+        excluded.set(3);
+        excluded.set(17);
+        ContractionHierarchy hierarchy = ContractionHierarchy.contract(graph, excluded, 50);
+
+        ShortestPathTree tree = ShortestPathTree.compute(graph, 0, excluded, Double.POSITIVE_INFINITY);
+        int[] path = hierarchy.findPath(0, PORTS - 1, new SearchWorkspace(), new SearchWorkspace());
+
+        assertThat(hierarchy.supports(excluded)).isTrue();
+        assertThat(hierarchy.supports(null)).isFalse();
+        assertThat(path).doesNotContain(3, 17);
+        assertThat(lengthOf(graph, path)).isCloseTo(tree.distanceTo(PORTS - 1), within(1e-6));
+    }
+
+    private static CompactRouteGraph randomGraph(long seed) {
+        Random random = new Random(seed);
+        CompactRouteGraph.Builder builder = TestGraphs.line(PORTS, 1.0);
+        for (int i = 1; i < PORTS; i++) {
+            builder.addEdge(i, random.nextInt(i), 100 + random.nextInt(900));
+        }
+        for (int extra = 0; extra < PORTS * 2; extra++) {
+            int a = random.nextInt(PORTS);
+            int b = random.nextInt(PORTS);
+            if (a != b) {
+                builder.addEdge(a, b, 100 + random.nextInt(2000));
+            }
+        }
+        return builder.build();
+    }
+
+    private static double lengthOf(CompactRouteGraph graph, int[] path) {
+        double total = 0.0;
+        for (int i = 1; i < path.length; i++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int arc = graph.firstArc(path[i - 1]); arc < graph.endArc(path[i - 1]); arc++) {
+                if (graph.target(arc) == path[i]) {
+                    best = Math.min(best, graph.weight(arc));
+                }
+            }
+            assertThat(best).isFinite();
+            total += best;
+        }
+        return total;
+    }
+}
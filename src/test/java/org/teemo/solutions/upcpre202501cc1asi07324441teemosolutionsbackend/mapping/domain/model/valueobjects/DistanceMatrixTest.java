@@ -0,0 +1,44 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DistanceMatrixTest {
+
+    @Test
+    void matchesFullDijkstraAndTableForEveryCell() {
+        int n = 60;
+        Random random = new Random(11);
+        CompactRouteGraph.Builder builder = TestGraphs.withPorts(1L, n,
+                i -> new Coordinates(random.nextDouble() * 60, random.nextDouble() * 120));
+        for (int i = 0; i < n - 1; i++) {
+            builder.addEdge(i, i + 1, 50 + random.nextInt(200));
+        }
+        for (int i = 0; i < n; i++) {
+            builder.addEdge(i, random.nextInt(n), 50 + random.nextInt(400));
+        }
+        CompactRouteGraph graph = builder.build();
+        BitSet avoided = new BitSet();
+        avoided.set(7);
+
+        int[] origins = {0, 7, 13, 42};
+        int[] destinations = {5, 7, 59, 5, 0};
+        DistanceMatrix matrix = DistanceMatrix.compute(graph, origins, destinations, avoided, ForkJoinPool.commonPool());
+        DistanceMatrix fromTable = DistanceMatrix.fromTable(AllPairsTable.compute(graph, avoided, ForkJoinPool.commonPool()), origins, destinations);
+
+        for (int row = 0; row < origins.length; row++) {
+            ShortestPathTree tree = ShortestPathTree.compute(graph, origins[row], avoided, Double.POSITIVE_INFINITY);
+            for (int column = 0; column < destinations.length; column++) {
+                boolean touchesAvoided = avoided.get(origins[row]) || avoided.get(destinations[column]);
+                float expected = touchesAvoided ? Float.POSITIVE_INFINITY : (float) tree.distanceTo(destinations[column]);
+                assertThat(matrix.get(row, column)).isEqualTo(expected);
+                assertThat(fromTable.get(row, column)).isEqualTo(expected);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.junit.jupiter.api.Test;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EdgeCostLayerTest {
+
+    @Test
+    void keepsAPositiveHeuristicScaleWhenAFavorableCurrentExceedsAShortLeg() {
+        CompactRouteGraph.Builder builder = new CompactRouteGraph.Builder(1L, 3);
+        builder.addPort(new Port("p-callao", "Callao", new Coordinates(-12.05, -77.13), "América"));
+        builder.addPort(new Port("p-huacho", "Huacho", new Coordinates(-11.11, -77.61), "América"));
+        builder.addPort(new Port("p-guayaquil", "Guayaquil", new Coordinates(-2.19, -79.88), "América"));
+        builder.addEdge(0, 1, 115.0);
+        builder.addEdge(1, 2, 1100.0);
+        CompactRouteGraph graph = builder.build();
+
+        // Corriente de Humboldt hacia el norte: bonificación de 300 a favor y penalización de 200 en contra.
+        EdgeCostLayer layer = EdgeCostLayer.compile(graph, (source, arc) ->
+                graph.weight(arc) + (graph.target(arc) > source ? -300.0 : 200.0));
+
+        int shortLeg = graph.arcBetween(0, 1);
+        assertThat(layer.heuristicScale()).isPositive().isEqualTo(EdgeCostLayer.MIN_COST_RATIO);
+        assertThat(layer.forwardCost(shortLeg)).isEqualTo(115.0 * EdgeCostLayer.MIN_COST_RATIO);
+        assertThat(layer.backwardCost(shortLeg)).isEqualTo(315.0);
+        assertThat(layer.forwardCost(graph.arcBetween(1, 2))).isEqualTo(800.0);
+    }
+}
@@ -0,0 +1,53 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.junit.jupiter.api.Test;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.domain.model.valueobjects.Geodesy;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EdgeSegmentIndexTest {
+
+    @Test
+    void findsTheSameEdgesAsAFullScanIncludingAcrossTheAntimeridian() {
+        Random random = new Random(42);
+        int ports = 60;
+        CompactRouteGraph.Builder builder = TestGraphs.withPorts(1L, ports, i -> {
+            // Puertos a ambos lados del antimeridiano para que muchas aristas lo crucen.
+            double longitude = Geodesy.normalizeLongitude(150.0 + random.nextDouble() * 80.0);
+            return new Coordinates(-50.0 + random.nextDouble() * 100.0, longitude);
+        });
+        for (int i = 0; i < 150; i++) {
+            int a = random.nextInt(ports);
+            int b = random.nextInt(ports);
+            if (a != b) {
+                builder.addEdge(a, b, 1.0);
+            }
+        }
+        CompactRouteGraph graph = builder.build();
+        EdgeSegmentIndex index = EdgeSegmentIndex.build(graph, 2.0);
+
+        double[][] zones = {{0.0, 180.0, 500.0}, {20.0, -170.0, 900.0}, {-30.0, 160.0, 250.0}, {45.0, 179.5, 1500.0}};
+        for (double[] zone : zones) {
+            Set<Integer> indexed = new HashSet<>();
+            index.forEachEdgeWithin(zone[0], zone[1], zone[2], (source, arc) -> indexed.add(arc));
+
+            Set<Integer> scanned = new HashSet<>();
+            for (int source = 0; source < graph.nodeCount(); source++) {
+                for (int arc = graph.firstArc(source); arc < graph.endArc(source); arc++) {
+                    int target = graph.target(arc);
+                    Coordinates from = graph.portAt(source).getCoordinates();
+                    Coordinates to = graph.portAt(target).getCoordinates();
+                    if (source < target && Geodesy.distanceToSegmentKm(zone[0], zone[1],
+                            from.latitude(), from.longitude(), to.latitude(), to.longitude()) <= zone[2]) {
+                        scanned.add(arc);
+                    }
+                }
+            }
+            assertThat(indexed).isEqualTo(scanned);
+        }
+    }
+}
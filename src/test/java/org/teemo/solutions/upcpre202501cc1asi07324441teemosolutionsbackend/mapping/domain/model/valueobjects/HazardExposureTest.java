@@ -0,0 +1,33 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.junit.jupiter.api.Test;
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HazardExposureTest {
+
+    @Test
+    void affectsEveryParallelArcInBothDirectionsExactlyOnce() {
+        CompactRouteGraph.Builder builder = new CompactRouteGraph.Builder(1L, 2);
+        builder.addPort(new Port("p-callao", "Callao", new Coordinates(-12.05, -77.13), "América"));
+        builder.addPort(new Port("p-guayaquil", "Guayaquil", new Coordinates(-2.19, -79.88), "América"));
+        builder.addEdge(0, 1, 1200.0);
+        builder.addEdge(0, 1, 1350.0);
+        CompactRouteGraph graph = builder.build();
+        HazardZone storm = new HazardZone("STORM", "Tormenta frente a Chimbote", -7.1, -78.4, 100.0, 0.5);
+
+        HazardExposure exposure = HazardExposure.compile(graph, EdgeSegmentIndex.build(graph, 2.0),
+                new HazardZonesSnapshot(List.of(storm), 1L, Instant.EPOCH), 0.7, 1000.0);
+
+        assertThat(exposure.affectedArcCount()).isEqualTo(4);
+        assertThat(exposure.blockedArcCount()).isZero();
+        for (int arc = 0; arc < graph.arcCount(); arc++) {
+            assertThat(exposure.penalty(arc)).isEqualTo(500.0);
+            assertThat(exposure.zonesCrossedBy(arc)).containsExactly(storm);
+        }
+    }
+}
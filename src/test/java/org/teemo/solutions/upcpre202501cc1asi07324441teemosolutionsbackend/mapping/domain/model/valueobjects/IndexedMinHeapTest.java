@@ -0,0 +1,41 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexedMinHeapTest {
+
+    @Test
+    void decreaseKeyReordersWithoutDuplicatingNodes() {
+        IndexedMinHeap heap = new IndexedMinHeap(4);
+        heap.insertOrDecrease(0, 10.0);
+        heap.insertOrDecrease(1, 5.0);
+        heap.insertOrDecrease(2, 7.0);
+
+        assertThat(heap.insertOrDecrease(0, 1.0)).isTrue();
+        assertThat(heap.insertOrDecrease(2, 9.0)).isFalse();
+
+        assertThat(heap.size()).isEqualTo(3);
+        assertThat(heap.pollMin()).isEqualTo(0);
+        assertThat(heap.pollMin()).isEqualTo(1);
+        assertThat(heap.pollMin()).isEqualTo(2);
+        assertThat(heap.isEmpty()).isTrue();
+    }
+
+    @Test
+    void workspaceGenerationResetsPreviousSearchState() {
+        SearchWorkspace workspace = new SearchWorkspace();
+        workspace.reset(3);
+        workspace.update(1, 42.0, 0);
+        workspace.heap().insertOrDecrease(1, 42.0);
+
+        workspace.reset(3);
+
+        assertThat(workspace.isReached(1)).isFalse();
+        assertThat(workspace.distance(1)).isEqualTo(Double.POSITIVE_INFINITY);
+        assertThat(workspace.parent(1)).isEqualTo(-1);
+        assertThat(workspace.heap().isEmpty()).isTrue();
+        assertThat(workspace.heap().contains(1)).isFalse();
+    }
+}
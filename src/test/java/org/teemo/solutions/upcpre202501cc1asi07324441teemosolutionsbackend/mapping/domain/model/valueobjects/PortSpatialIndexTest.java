@@ -0,0 +1,55 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PortSpatialIndexTest {
+
+    private final GeoUtils geoUtils = new GeoUtils();
+
+    @Test
+    void nearestAndRadiusQueriesMatchBruteForceIncludingAcrossTheAntimeridian() {
+        int n = 2000;
+        Random random = new Random(5);
+        CompactRouteGraph graph = TestGraphs.withPorts(1L, n, i -> {
+            double latitude = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+            double longitude = random.nextDouble() * 360 - 180;
+            return new Coordinates(latitude, longitude);
+        }).build();
+        BitSet excluded = new BitSet();
+        excluded.set(0, 50);
+        PortSpatialIndex index = PortSpatialIndex.build(graph, excluded);
+        assertThat(index.size()).isEqualTo(n - 50);
+
+        double[][] queries = {{0.0, 179.9}, {0.0, -179.9}, {89.5, 10.0}, {-33.0, -71.6}, {12.0, 45.0}};
+        for (double[] query : queries) {
+            Coordinates position = new Coordinates(query[0], query[1]);
+            List<Integer> expected = IntStream.range(50, n).boxed()
+                    .sorted(Comparator.comparingDouble(node -> distance(graph, node, position)))
+                    .toList();
+
+            List<PortSpatialIndex.Match> nearest = index.nearest(query[0], query[1], 10, Double.POSITIVE_INFINITY);
+            assertThat(nearest).extracting(PortSpatialIndex.Match::node).containsExactlyElementsOf(expected.subList(0, 10));
+            assertThat(nearest.get(0).distanceKm()).isCloseTo(distance(graph, expected.get(0), position), within(1e-6));
+
+            double radiusKm = 800.0;
+            List<Integer> inside = expected.stream().filter(node -> distance(graph, node, position) <= radiusKm).toList();
+            assertThat(index.withinRadius(query[0], query[1], radiusKm))
+                    .extracting(PortSpatialIndex.Match::node).containsExactlyElementsOf(inside);
+            assertThat(index.nearest(query[0], query[1], 10, radiusKm))
+                    .extracting(PortSpatialIndex.Match::node).containsExactlyElementsOf(inside.subList(0, Math.min(10, inside.size())));
+        }
+    }
+
+    private double distance(CompactRouteGraph graph, int node, Coordinates position) {
+        return geoUtils.calculateHaversineDistance(graph.portAt(node).getCoordinates(), position);
+    }
+}
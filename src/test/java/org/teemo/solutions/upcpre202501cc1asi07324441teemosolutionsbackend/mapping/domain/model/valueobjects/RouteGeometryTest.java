@@ -0,0 +1,74 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RouteGeometryTest {
+
+    private static final int[] ZOOM_LEVELS = {2, 8};
+    private static final double[] TOLERANCES = {
+            LegGeometry.toleranceForZoom(2, 1.0), LegGeometry.toleranceForZoom(8, 1.0)};
+
+    @Test
+    void simplifiesPerZoomKeepingEndpointsAndEncodesCompactly() {
+        LegGeometry leg = LegGeometry.build(-12.05, -77.13, 35.44, 139.64, 25.0, TOLERANCES);
+
+        assertThat(leg.pointCount(0)).isGreaterThanOrEqualTo(2).isLessThan(leg.pointCount(1));
+        for (int level = 0; level < ZOOM_LEVELS.length; level++) {
+            int last = leg.pointCount(level) - 1;
+            assertThat(leg.latitude(level, 0)).isEqualTo(-12.05);
+            assertThat(leg.latitude(level, last)).isCloseTo(35.44, within(1e-9));
+        }
+
+        RouteGeometry geometry = new RouteGeometry.Builder(ZOOM_LEVELS).append(leg, false).build();
+        double[][] decoded = EncodedPolyline.decode(geometry.polyline(1));
+        assertThat(decoded.length).isEqualTo(geometry.pointCount(1));
+        assertThat(decoded[decoded.length - 1][0]).isCloseTo(35.44, within(1e-5));
+        assertThat(geometry.polyline(1).length())
+                .isLessThan(geometry.toGeoJson(1).toString().length() / 3);
+    }
+
+    @Test
+    void concatenatesLegsContinuouslyAcrossTheAntimeridian() {
+        LegGeometry yokohamaToLosAngeles = LegGeometry.build(35.44, 139.64, 33.73, -118.26, 25.0, TOLERANCES);
+        LegGeometry callaoToLosAngeles = LegGeometry.build(-12.05, -77.13, 33.73, -118.26, 25.0, TOLERANCES);
+
+        RouteGeometry geometry = new RouteGeometry.Builder(ZOOM_LEVELS)
+                .append(yokohamaToLosAngeles, false)
+                .append(callaoToLosAngeles, true)
+                .build();
+
+        double[][] points = EncodedPolyline.decode(geometry.polyline(1));
+        assertThat(geometry.pointCount(1))
+                .isEqualTo(yokohamaToLosAngeles.pointCount(1) + callaoToLosAngeles.pointCount(1) - 1);
+        for (int i = 1; i < points.length; i++) {
+            assertThat(Math.abs(points[i][1] - points[i - 1][1])).isLessThan(180.0);
+        }
+        // Tras cruzar el antimeridiano las longitudes siguen creciendo en lugar de saltar a -180.
+        assertThat(points[points.length - 1][1]).isCloseTo(-77.13 + 360.0, within(1e-5));
+        assertThat(points[points.length - 1][0]).isCloseTo(-12.05, within(1e-5));
+
+        // En GeoJSON las longitudes vuelven a [-180, 180] y la línea se corta en el antimeridiano.
+        Map<String, Object> geoJson = geometry.toGeoJson(1);
+        assertThat(geoJson.get("type")).isEqualTo("MultiLineString");
+        @SuppressWarnings("unchecked")
+        List<List<List<Double>>> lines = (List<List<List<Double>>>) geoJson.get("coordinates");
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0).get(lines.get(0).size() - 1).get(0)).isEqualTo(180.0);
+        assertThat(lines.get(1).get(0).get(0)).isEqualTo(-180.0);
+        assertThat(lines.get(1).get(0).get(1)).isEqualTo(lines.get(0).get(lines.get(0).size() - 1).get(1));
+        assertThat(lines.get(1).get(lines.get(1).size() - 1).get(0)).isCloseTo(-77.13, within(1e-9));
+        for (List<List<Double>> line : lines) {
+            for (List<Double> point : line) {
+                assertThat(point.get(0)).isBetween(-180.0, 180.0);
+            }
+        }
+        assertThat(new RouteGeometry.Builder(ZOOM_LEVELS).append(callaoToLosAngeles, false).build()
+                .toGeoJson(1).get("type")).isEqualTo("LineString");
+    }
+}
@@ -0,0 +1,41 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.valueobjects;
+
+import org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.mapping.domain.model.entities.Port;
+
+import java.util.function.IntFunction;
+
+/**
+ * Grafos compactos de prueba: puertos {@code p-<i>} / {@code Port-<i>} ya agregados y sin rutas, para que cada
+ * prueba sólo declare las aristas que le interesan.
+ */
+public final class TestGraphs {
+
+    private TestGraphs() {
+    }
+
+    /**
+     * Puertos del continente {@code Test} alineados sobre el ecuador, separados {@code spacingDegrees} de longitud.
+     */
+    public static CompactRouteGraph.Builder line(int ports, double spacingDegrees) {
+        return withPorts(1L, ports, i -> new Coordinates(0.0, i * spacingDegrees));
+    }
+
+    /**
+     * Puertos del continente {@code Test}; {@code position} se invoca en orden de índice.
+     */
+    public static CompactRouteGraph.Builder withPorts(long version, int ports, IntFunction<Coordinates> position) {
+        return withPorts(version, ports, position, i -> "Test");
+    }
+
+    /**
+     * Puertos con posición y continente por índice; ambas funciones se invocan en orden de índice.
+     */
+    public static CompactRouteGraph.Builder withPorts(long version, int ports, IntFunction<Coordinates> position,
+                                                      IntFunction<String> continent) {
+        CompactRouteGraph.Builder builder = new CompactRouteGraph.Builder(version, ports);
+        for (int i = 0; i < ports; i++) {
+            builder.addPort(new Port("p-" + i, "Port-" + i, position.apply(i), continent.apply(i)));
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,68 @@
+package org.teemo.solutions.upcpre202501cc1asi07324441teemosolutionsbackend.shared.domain.model.valueobjects;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeodesyTest {
+
+    @Test
+    void precomputedDistancesMatchHaversineAndChordBoundNeverExceedsThem() {
+        Random random = new Random(7);
+        int n = 300;
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            latitudes[i] = random.nextDouble() * 180.0 - 90.0;
+            longitudes[i] = random.nextDouble() * 360.0 - 180.0;
+        }
+        GeoPoints points = GeoPoints.of(latitudes, longitudes);
+
+        for (int a = 0; a < n; a++) {
+            int b = random.nextInt(n);
+            double expected = referenceHaversineKm(latitudes[a], longitudes[a], latitudes[b], longitudes[b]);
+            double exact = points.distanceKm(a, b);
+            double bound = points.lowerBoundKm(a, b);
+            double theta = exact / Geodesy.EARTH_RADIUS_KM;
+
+            assertThat(Geodesy.haversineKm(latitudes[a], longitudes[a], latitudes[b], longitudes[b]))
+                    .isCloseTo(expected, within(1e-6));
+            assertThat(exact).isCloseTo(expected, within(1e-6));
+            assertThat(bound).isLessThanOrEqualTo(exact + 1e-9);
+            assertThat(bound).isGreaterThanOrEqualTo(exact * (1.0 - theta * theta / 24.0) - 1e-9);
+        }
+    }
+
+    @Test
+    void greatCircleWaypointsEndAtDestinationAndHandleCoincidentEndpoints() {
+        double[] lats = new double[4];
+        double[] lons = new double[4];
+
+        Geodesy.greatCircleWaypoints(-12.05, -77.13, 35.44, 139.64, 4, lats, lons);
+        assertThat(lats[3]).isCloseTo(35.44, within(1e-9));
+        assertThat(lons[3]).isCloseTo(139.64, within(1e-9));
+        assertThat(Geodesy.pathLengthKm(new double[]{-12.05, lats[0], lats[1], lats[2], lats[3]},
+                new double[]{-77.13, lons[0], lons[1], lons[2], lons[3]}))
+                .isCloseTo(Geodesy.haversineKm(-12.05, -77.13, 35.44, 139.64), within(1e-6));
+
+        Geodesy.greatCircleWaypoints(8.93, -79.55, 8.93, -79.55, 4, lats, lons);
+        for (int i = 0; i < 4; i++) {
+            assertThat(lats[i]).isCloseTo(8.93, within(1e-9));
+            assertThat(lons[i]).isCloseTo(-79.55, within(1e-9));
+        }
+    }
+
+    /**
+     * Implementación anterior (atan2 sobre grados convertidos en cada llamada), como referencia.
+     */
+    private static double referenceHaversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.pow(Math.sin(dLon / 2), 2);
+        return Geodesy.EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}